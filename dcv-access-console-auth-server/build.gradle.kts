@@ -123,7 +123,9 @@ tasks {
     }
 
     test {
-        useJUnitPlatform()
+        useJUnitPlatform {
+            excludeTags("benchmark")
+        }
 
         testLogging {
             events("passed", "skipped", "failed")
@@ -132,6 +134,21 @@ tasks {
         finalizedBy(jacocoTestReport)
     }
 
+    // Benchmarks measure wall-clock time, so they are only run on request rather than with every build
+    register<Test>("benchmark") {
+        group = "verification"
+        testClassesDirs = sourceSets.test.get().output.classesDirs
+        classpath = sourceSets.test.get().runtimeClasspath
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
+
+        testLogging {
+            events("passed", "skipped", "failed")
+            showStandardStreams = true
+        }
+    }
+
     /*
     Paths to ignore in code coverage evaluations and reports.
     */
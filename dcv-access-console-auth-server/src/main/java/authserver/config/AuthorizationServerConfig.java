@@ -1,6 +1,10 @@
 package authserver.config;
 
+import authserver.service.AuthorizationTokenIndex;
 import authserver.service.CaffeineOAuth2AuthorizationService;
+import authserver.service.PersistentJwkSource;
+import authserver.service.PersistentOAuth2AuthorizationService;
+import authserver.store.FileKeyValueStore;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.JWKSource;
@@ -9,8 +13,11 @@ import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
 import java.util.UUID;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -26,7 +33,19 @@ import org.springframework.util.StringUtils;
 public class AuthorizationServerConfig {
 
     @Bean
-    public JWKSource<SecurityContext> jwkSource() {
+    public JWKSource<SecurityContext> jwkSource(
+            ObjectProvider<FileKeyValueStore> persistentStore,
+            @Value("${signing-key-rotation-period:720h}") String rotationPeriod,
+            @Value("${refresh-token-time-to-live:2h}") String retentionPeriod) {
+        FileKeyValueStore store = persistentStore.getIfAvailable();
+        if (store != null) {
+            // Retired keys are kept for as long as the tokens they signed can still be refreshed
+            return new PersistentJwkSource(
+                    store,
+                    AuthorizationServerConfig::generateRsa,
+                    Duration.parse("PT" + rotationPeriod),
+                    Duration.parse("PT" + retentionPeriod));
+        }
         RSAKey rsaKey = generateRsa();
         JWKSet jwkSet = new JWKSet(rsaKey);
         return (jwkSelector, context) -> jwkSelector.select(jwkSet);
@@ -71,7 +90,15 @@ public class AuthorizationServerConfig {
 
     @Bean
     public OAuth2AuthorizationService authorizationService(
-            @Qualifier("TokenCacheManager") CaffeineCacheManager tokenCacheManager) {
-        return new CaffeineOAuth2AuthorizationService(tokenCacheManager);
+            @Qualifier("TokenCacheManager") CaffeineCacheManager tokenCacheManager,
+            AuthorizationTokenIndex authorizationTokenIndex,
+            ObjectProvider<FileKeyValueStore> persistentStore,
+            @Value("${refresh-token-time-to-live:2h}") String maxTime) {
+        FileKeyValueStore store = persistentStore.getIfAvailable();
+        if (store != null) {
+            return new PersistentOAuth2AuthorizationService(
+                    tokenCacheManager, authorizationTokenIndex, store, Duration.parse("PT" + maxTime));
+        }
+        return new CaffeineOAuth2AuthorizationService(tokenCacheManager, authorizationTokenIndex);
     }
 }
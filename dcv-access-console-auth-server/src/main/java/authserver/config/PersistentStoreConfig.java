@@ -0,0 +1,25 @@
+package authserver.config;
+
+import authserver.store.FileKeyValueStore;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "persistent-store-path")
+public class PersistentStoreConfig {
+
+    @Bean(destroyMethod = "close")
+    public FileKeyValueStore persistentStore(
+            @Value("${persistent-store-path}") String path,
+            @Value("${persistent-store-compaction-interval:10m}") String compactionInterval)
+            throws IOException {
+        FileKeyValueStore store = new FileKeyValueStore(Path.of(path));
+        store.scheduleCompaction(Duration.parse("PT" + compactionInterval));
+        return store;
+    }
+}
@@ -1,5 +1,6 @@
 package authserver.config;
 
+import authserver.service.AuthorizationTokenIndex;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import java.time.Duration;
 import java.util.List;
@@ -20,12 +21,32 @@ public class TokenInvalidationConfig implements WebMvcConfigurer {
     public static final String INITIALIZED_AUTHORIZATIONS = "INITIALIZED_AUTHORIZATIONS";
     public static final String AUTHORIZATIONS = "AUTHORIZATIONS";
 
+    @Bean
+    public AuthorizationTokenIndex authorizationTokenIndex() {
+        return new AuthorizationTokenIndex();
+    }
+
     @Bean("TokenCacheManager")
-    public CaffeineCacheManager caffeineCacheManager(@Value("${refresh-token-time-to-live:2h}") String maxTime) {
+    public CaffeineCacheManager caffeineCacheManager(
+            @Value("${refresh-token-time-to-live:2h}") String maxTime, AuthorizationTokenIndex authorizationTokenIndex) {
+        return tokenCacheManager(Duration.parse("PT" + maxTime), authorizationTokenIndex, Caffeine.newBuilder());
+    }
+
+    /**
+     * Registers the authorization caches, built from the given builder with the time to live and the removal listener
+     * of the token index added.
+     */
+    public static CaffeineCacheManager tokenCacheManager(
+            Duration timeToLive, AuthorizationTokenIndex authorizationTokenIndex, Caffeine<Object, Object> caffeine) {
         CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
-        caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(Duration.parse("PT" + maxTime).getSeconds(), TimeUnit.SECONDS));
-        caffeineCacheManager.setCacheNames(List.of(INITIALIZED_AUTHORIZATIONS, AUTHORIZATIONS));
+        // No caches are created on demand, only the two registered below
+        caffeineCacheManager.setCacheNames(List.of());
+        // The tokens of the authorizations that expire are dropped from the index as they are removed
+        caffeine.expireAfterWrite(timeToLive.getSeconds(), TimeUnit.SECONDS)
+                .removalListener(authorizationTokenIndex::onRemoval);
+        for (String cacheName : List.of(INITIALIZED_AUTHORIZATIONS, AUTHORIZATIONS)) {
+            caffeineCacheManager.registerCustomCache(cacheName, caffeine.build());
+        }
         return caffeineCacheManager;
     }
 }
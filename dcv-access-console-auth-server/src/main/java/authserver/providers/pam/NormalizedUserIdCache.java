@@ -0,0 +1,165 @@
+package authserver.providers.pam;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Caches the normalized userid of each principal, so the normalize userid command is not run for every login.
+ * Failures are cached too, for a shorter time. Concurrent lookups of the same principal wait for a single run of the
+ * command.
+ *
+ * <p>When the command prints the user name with {@code id}, a principal that is the name or the uid of a user in the passwd file is resolved
+ * from the file without running it. Any other principal, such as one only known to a directory service, still runs the
+ * command.
+ */
+@Slf4j
+public class NormalizedUserIdCache {
+    // The flags of id that print the user name, the real one only changing which user id is used
+    private static final Set<Character> ID_SHORT_FLAGS = Set.of('u', 'n', 'r');
+    private static final Map<String, Character> ID_LONG_FLAGS = Map.of("--user", 'u', "--name", 'n', "--real", 'r');
+
+    private record Result(@Nullable String normalizedUserId, @Nullable AuthenticationServiceException failure) {}
+
+    private final Function<String, String> command;
+    @Nullable
+    private final Path passwdFile;
+    @Nullable
+    private final LoadingCache<String, Result> cache;
+    private final LongAdder commandRuns = new LongAdder();
+    private final LongAdder passwdLookups = new LongAdder();
+
+    /**
+     * @param command runs the normalize userid command, throwing an AuthenticationServiceException if it fails
+     * @param passwdFile the passwd file to resolve principals from, or null to always run the command
+     * @param maximumSize the maximum number of principals to cache, or 0 to not cache at all
+     */
+    public NormalizedUserIdCache(
+            Function<String, String> command,
+            @Nullable Path passwdFile,
+            long maximumSize,
+            Duration timeToLive,
+            Duration failureTimeToLive) {
+        this.command = command;
+        this.passwdFile = passwdFile;
+        this.cache = maximumSize <= 0
+                ? null
+                : Caffeine.newBuilder()
+                        .maximumSize(maximumSize)
+                        .expireAfter(Expiry.<String, Result>creating(
+                                (principal, result) -> result.failure() == null ? timeToLive : failureTimeToLive))
+                        .recordStats()
+                        .build(this::load);
+    }
+
+    /**
+     * @return whether the command prints the user name of the principal with {@code id}, as in {@code id -u -n "$0"},
+     * {@code id -un "$0"} or {@code id --user --name "$0"}, with or without the real flag, so that looking the principal
+     * up in the passwd file gives the same answer
+     */
+    public static boolean isIdCommand(String normalizeUserIdCommand) {
+        String command = normalizeUserIdCommand.strip();
+        if (command.length() > 1 && command.startsWith("'") && command.endsWith("'")) {
+            command = command.substring(1, command.length() - 1).strip();
+        }
+        String[] words = command.split("\\s+");
+        if (words.length < 3 || !words[0].equals("id") || !words[words.length - 1].equals("\"$0\"")) {
+            return false;
+        }
+        Set<Character> flags = new HashSet<>();
+        for (int i = 1; i < words.length - 1; i++) {
+            String word = words[i];
+            if (word.startsWith("--")) {
+                Character flag = ID_LONG_FLAGS.get(word);
+                if (flag == null) {
+                    return false;
+                }
+                flags.add(flag);
+            } else if (word.startsWith("-") && word.length() > 1) {
+                for (char flag : word.substring(1).toCharArray()) {
+                    flags.add(flag);
+                }
+            } else {
+                return false;
+            }
+        }
+        return flags.contains('u') && flags.contains('n') && ID_SHORT_FLAGS.containsAll(flags);
+    }
+
+    public String get(String principal) throws AuthenticationServiceException {
+        Result result = cache != null ? cache.get(principal) : load(principal);
+        if (result.failure() != null) {
+            throw result.failure();
+        }
+        log.debug(
+                "Normalized userid cache hit rate: {}, command runs: {}, passwd lookups: {}",
+                getHitRate(),
+                getCommandRuns(),
+                getPasswdLookups());
+        return result.normalizedUserId();
+    }
+
+    public double getHitRate() {
+        return cache != null ? cache.stats().hitRate() : 0;
+    }
+
+    public long getCommandRuns() {
+        return commandRuns.sum();
+    }
+
+    public long getPasswdLookups() {
+        return passwdLookups.sum();
+    }
+
+    private Result load(String principal) {
+        String normalizedUserId = findInPasswdFile(principal);
+        if (normalizedUserId != null) {
+            passwdLookups.increment();
+            log.info("Principal: {} normalized to: {} from {}", principal, normalizedUserId, passwdFile);
+            return new Result(normalizedUserId, null);
+        }
+        commandRuns.increment();
+        try {
+            return new Result(command.apply(principal), null);
+        } catch (AuthenticationServiceException ex) {
+            return new Result(null, ex);
+        }
+    }
+
+    @Nullable
+    private String findInPasswdFile(String principal) {
+        if (passwdFile == null || principal.isEmpty()) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(passwdFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // name:password:uid:gid:gecos:home:shell, lines starting with + or - defer to NSS
+                String[] fields = line.split(":", 4);
+                if (fields.length < 3 || fields[0].startsWith("+") || fields[0].startsWith("-")) {
+                    continue;
+                }
+                if (fields[0].equals(principal) || fields[2].equals(principal)) {
+                    return fields[0];
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Unable to read {}, running the normalize userid command instead", passwdFile, ex);
+        }
+        return null;
+    }
+}
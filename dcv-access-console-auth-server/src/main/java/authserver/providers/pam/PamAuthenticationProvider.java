@@ -3,10 +3,15 @@ package authserver.providers.pam;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.micrometer.common.util.StringUtils;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
 import lombok.NonNull;
@@ -52,16 +57,90 @@ public class PamAuthenticationProvider implements AuthenticationProvider {
     @Value("${authentication.pam.normalize-userid-command:'id --user --name \"$0\"'}")
     private String normalizeUserIdCommand;
 
+    @Value("${authentication.pam.normalize-userid-cache-size:1000}")
+    private long normalizeUserIdCacheSize;
+
+    @Value("${authentication.pam.normalize-userid-cache-time-to-live:10m}")
+    private String normalizeUserIdCacheTimeToLive;
+
+    @Value("${authentication.pam.normalize-userid-failure-cache-time-to-live:30s}")
+    private String normalizeUserIdFailureCacheTimeToLive;
+
+    @Value("${authentication.pam.normalize-userid-passwd-file:/etc/passwd}")
+    private String normalizeUserIdPasswdFile;
+
+    @Value("${authentication.pam.worker-pool-size:0}")
+    private int workerPoolSize;
+
+    @Value("${authentication.pam.worker-max-uses:100}")
+    private int workerMaxUses;
+
     @NonNull
     private ProcessBuilderProvider processBuilderProvider; // Created for testing in order to mock process builder
 
     private String command;
 
+    private PamHelperPool helperPool;
+
+    private NormalizedUserIdCache normalizedUserIdCache;
+
     @PostConstruct
     void init() {
         this.command = String.format(
                 "exec %s %s --stdout --service=%s 3<&0", dcvPamHelperPath, debug ? "--debug" : "", pamService);
         log.info("Setting up PAM command: {} {} {}", this.bash, this.bashOptions, this.command);
+        this.normalizedUserIdCache = new NormalizedUserIdCache(
+                this::runNormalizeUserIdCommand,
+                NormalizedUserIdCache.isIdCommand(normalizeUserIdCommand) && !normalizeUserIdPasswdFile.isEmpty()
+                        ? Path.of(normalizeUserIdPasswdFile)
+                        : null,
+                normalizeUserIdCacheSize,
+                Duration.parse("PT" + normalizeUserIdCacheTimeToLive),
+                Duration.parse("PT" + normalizeUserIdFailureCacheTimeToLive));
+        if (workerPoolSize > 0) {
+            try {
+                helperPool = new PamHelperPool(
+                        processBuilderProvider,
+                        this.bash,
+                        this.bashOptions,
+                        this.command,
+                        normalizeUserIdCommand,
+                        workerPoolSize,
+                        workerMaxUses,
+                        Duration.ofSeconds(processTimeout));
+            } catch (IOException ex) {
+                log.warn("Unable to start the PAM helper workers, starting a process for every login instead", ex);
+            }
+        }
+    }
+
+    @PreDestroy
+    void destroy() {
+        if (helperPool != null) {
+            helperPool.close();
+        }
+    }
+
+    /**
+     * Runs the request on a PAM helper worker, if there is a pool of them.
+     * @return the response, or null if there is no pool or the request was not sent to a worker, in which case the
+     * caller starts a process itself
+     * @throws AuthenticationServiceException if the worker failed after it was sent the request, which may have run
+     * already and must not be run again
+     */
+    private PamHelperPool.Response callHelperPool(String kind, byte[] payload) throws AuthenticationServiceException {
+        if (helperPool == null) {
+            return null;
+        }
+        try {
+            return helperPool.call(kind, payload);
+        } catch (PamHelperPool.NotDispatchedException ex) {
+            log.warn("PAM helper worker did not take the request, starting a process instead", ex);
+            return null;
+        } catch (IOException ex) {
+            log.warn("PAM helper worker failed to {}", kind, ex);
+            throw new AuthenticationServiceException("PAM helper worker failed", ex);
+        }
     }
 
     private void validateCredentials(String username, String password) throws AuthenticationServiceException {
@@ -69,6 +148,20 @@ public class PamAuthenticationProvider implements AuthenticationProvider {
         if (StringUtils.isEmpty(username) || StringUtils.isEmpty(password)) {
             throw new AuthenticationServiceException("Username or password is empty");
         }
+        ByteArrayOutputStream credentials = new ByteArrayOutputStream();
+        credentials.writeBytes(username.getBytes(Charset.defaultCharset()));
+        credentials.write(0);
+        credentials.writeBytes(password.getBytes(Charset.defaultCharset()));
+        credentials.write(0);
+        PamHelperPool.Response response = callHelperPool(PamHelperPool.AUTHENTICATE, credentials.toByteArray());
+        if (response != null) {
+            if (response.exitValue() == 0) {
+                log.debug("PAM helper worker was successful, user authenticated");
+                return;
+            }
+            log.debug("PAM helper worker was unsuccessful, user is not authenticated");
+            throw new AuthenticationServiceException("Authentication failed");
+        }
         try {
             log.debug("Attempting to authenticate user: {}", username);
             Process process = processBuilderProvider
@@ -113,6 +206,21 @@ public class PamAuthenticationProvider implements AuthenticationProvider {
             log.debug("normalize-userid not enabled returning principal: {}", principal);
             return principal;
         }
+        return normalizedUserIdCache.get(principal);
+    }
+
+    private String runNormalizeUserIdCommand(String principal) {
+        PamHelperPool.Response response =
+                callHelperPool(PamHelperPool.NORMALIZE, principal.getBytes(Charset.defaultCharset()));
+        if (response != null) {
+            if (response.exitValue() == 0) {
+                String normalizedUserId = new String(response.output(), StandardCharsets.UTF_8).trim();
+                log.info("Principal: {} normalized to: {}", principal, normalizedUserId);
+                return normalizedUserId;
+            }
+            log.info("PAM helper worker was unable to normalize userid for: {}", principal);
+            throw new AuthenticationServiceException("Normalizing userid failed");
+        }
         try {
             log.info("Attempting to normalize userid for: {}", principal);
             Process process = processBuilderProvider
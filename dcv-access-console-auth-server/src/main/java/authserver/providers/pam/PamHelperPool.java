@@ -0,0 +1,314 @@
+package authserver.providers.pam;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A bounded pool of long running shell workers that run the PAM helper and the normalize userid command, so a login
+ * does not have to start a process, and a shell, from the auth server. A worker reads requests from its stdin and
+ * writes responses to its stdout, both length prefixed:
+ *
+ * <pre>
+ * request:  &lt;kind&gt; &lt;payload length&gt;\n&lt;payload&gt;
+ * response: &lt;exit status&gt; &lt;output length&gt;\n&lt;output&gt;
+ * </pre>
+ *
+ * Each worker is checked with a ping when it is started and whether it is still alive when it is taken from the pool.
+ * A worker is replaced after a number of uses, and when a request fails or times out.
+ *
+ * <p>A request that fails before it reaches a worker fails with a {@link NotDispatchedException}, and can safely be run
+ * another way. Once it has been sent to a worker it may have run, even if it then fails or times out, so it must not
+ * be run again: for authentication, that would be a second PAM conversation with the same credentials.
+ */
+@Slf4j
+public class PamHelperPool implements Closeable {
+    static final String PING = "ping";
+    static final String AUTHENTICATE = "authenticate";
+    static final String NORMALIZE = "normalize";
+
+    // $1 is the PAM helper command, $2 the normalize userid command, $3 and $4 the shell and its options to run it with
+    private static final String WORKER_SCRIPT = """
+            while read -r kind length; do
+              case "$kind" in
+                ping)
+                  printf '0 0\\n' ;;
+                authenticate)
+                  head -c "$length" | (eval "$1") 1>&2
+                  printf '%s 0\\n' "$?" ;;
+                normalize)
+                  principal=$(head -c "$length")
+                  output=$("$3" "$4" "$2" "$principal" 2>&1)
+                  status=$?
+                  printf '%s %s\\n%s' "$status" $(printf '%s' "$output" | wc -c) "$output" ;;
+                *)
+                  exit 1 ;;
+              esac
+            done
+            """;
+
+    public record Response(int exitValue, byte[] output) {}
+
+    /**
+     * The request was not sent to a worker, so it was not run.
+     */
+    public static class NotDispatchedException extends IOException {
+        NotDispatchedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final ProcessBuilderProvider processBuilderProvider;
+    private final String[] workerCommand;
+    private final int maxUses;
+    private final Duration timeout;
+    private final BlockingQueue<Worker> idleWorkers;
+    private final Semaphore permits;
+    private final ScheduledExecutorService watchdog;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final LongAdder recycledWorkers = new LongAdder();
+
+    public PamHelperPool(
+            ProcessBuilderProvider processBuilderProvider,
+            String bash,
+            String bashOptions,
+            String helperCommand,
+            String normalizeUserIdCommand,
+            int size,
+            int maxUses,
+            Duration timeout)
+            throws IOException {
+        this.processBuilderProvider = processBuilderProvider;
+        this.workerCommand = new String[] {
+            bash, bashOptions, WORKER_SCRIPT, "dcvpamhelper-worker", helperCommand, normalizeUserIdCommand, bash, bashOptions
+        };
+        this.maxUses = maxUses;
+        this.timeout = timeout;
+        this.idleWorkers = new ArrayBlockingQueue<>(size);
+        this.permits = new Semaphore(size, true);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dcvpamhelper-worker-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int i = 0; i < size; i++) {
+                idleWorkers.add(startWorker());
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        log.info("Started {} PAM helper workers", size);
+    }
+
+    /**
+     * Sends the request to an idle worker, waiting for one to be free for up to the timeout.
+     * @throws NotDispatchedException if no worker could take the request, in which case it was not run
+     * @throws IOException if the worker failed or timed out after it was sent the request, in which case it may have
+     * run
+     */
+    public Response call(String kind, byte[] payload) throws IOException {
+        long started = System.nanoTime();
+        queueDepth.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new NotDispatchedException("No PAM helper worker became free within " + timeout, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NotDispatchedException("Interrupted waiting for a PAM helper worker", e);
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+
+        Worker worker = null;
+        boolean reusable = false;
+        try {
+            worker = idleWorkers.poll();
+            if (worker == null || !worker.process.isAlive()) {
+                if (worker != null) {
+                    log.warn("PAM helper worker with pid: {} died, replacing it", worker.process.pid());
+                    worker.destroy();
+                }
+                try {
+                    worker = startWorker();
+                } catch (IOException e) {
+                    throw new NotDispatchedException("Unable to start a PAM helper worker", e);
+                }
+            }
+            Response response = worker.send(kind, payload);
+            reusable = worker.uses < maxUses;
+            return response;
+        } finally {
+            if (worker != null) {
+                if (reusable) {
+                    idleWorkers.add(worker);
+                } else {
+                    recycledWorkers.increment();
+                    worker.destroy();
+                }
+            }
+            permits.release();
+            record(System.nanoTime() - started);
+        }
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public Duration getAverageLatency() {
+        long count = requests.sum();
+        return Duration.ofNanos(count == 0 ? 0 : latencyNanos.sum() / count);
+    }
+
+    public Duration getMaxLatency() {
+        return Duration.ofNanos(maxLatencyNanos.get());
+    }
+
+    public long getRecycledWorkers() {
+        return recycledWorkers.sum();
+    }
+
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.destroy();
+        }
+    }
+
+    private void record(long nanos) {
+        requests.increment();
+        latencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+        log.debug(
+                "PAM helper request took {} ms, queue depth: {}, average latency: {} ms, max latency: {} ms",
+                TimeUnit.NANOSECONDS.toMillis(nanos),
+                getQueueDepth(),
+                getAverageLatency().toMillis(),
+                getMaxLatency().toMillis());
+    }
+
+    private Worker startWorker() throws IOException {
+        Process process = processBuilderProvider
+                .getProcessBuilder()
+                .command(workerCommand)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        Worker worker = new Worker(process);
+        log.debug("Started PAM helper worker with pid: {}", process.pid());
+        try {
+            if (worker.send(PING, new byte[0]).exitValue() != 0) {
+                throw new IOException("PAM helper worker with pid: " + process.pid() + " failed its health check");
+            }
+        } catch (IOException e) {
+            worker.destroy();
+            throw e;
+        }
+        return worker;
+    }
+
+    private final class Worker {
+        private final Process process;
+        private final OutputStream input;
+        private final InputStream output;
+        private int uses;
+
+        Worker(Process process) {
+            this.process = process;
+            this.input = process.getOutputStream();
+            this.output = new BufferedInputStream(process.getInputStream());
+        }
+
+        Response send(String kind, byte[] payload) throws IOException {
+            uses++;
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> kill = watchdog.schedule(
+                    () -> {
+                        timedOut.set(true);
+                        destroy();
+                    },
+                    timeout.toMillis(),
+                    TimeUnit.MILLISECONDS);
+            try {
+                try {
+                    input.write((kind + " " + payload.length + "\n").getBytes(StandardCharsets.US_ASCII));
+                    input.write(payload);
+                    input.flush();
+                } catch (IOException e) {
+                    // The worker is gone, it did not get the whole request
+                    throw new NotDispatchedException(
+                            "PAM helper worker with pid: " + process.pid() + " did not take the request", e);
+                }
+
+                String[] header = readLine().trim().split("\\s+");
+                if (header.length != 2) {
+                    throw new IOException("Unexpected response from PAM helper worker: " + String.join(" ", header));
+                }
+                int exitValue = Integer.parseInt(header[0]);
+                byte[] response = output.readNBytes(Integer.parseInt(header[1]));
+                if (response.length != Integer.parseInt(header[1])) {
+                    throw new EOFException("PAM helper worker response is cut short");
+                }
+                return new Response(exitValue, response);
+            } catch (IOException | NumberFormatException e) {
+                if (e instanceof NotDispatchedException notDispatchedException) {
+                    throw notDispatchedException;
+                }
+                if (timedOut.get()) {
+                    throw new IOException("PAM helper worker timed out after " + timeout, e);
+                }
+                throw e instanceof IOException ioException
+                        ? ioException
+                        : new IOException("Unexpected response from PAM helper worker", e);
+            } finally {
+                kill.cancel(false);
+            }
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = output.read()) != '\n') {
+                if (b < 0) {
+                    throw new EOFException("PAM helper worker with pid: " + process.pid() + " exited");
+                }
+                line.write(b);
+            }
+            return line.toString(StandardCharsets.US_ASCII);
+        }
+
+        void destroy() {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+    }
+}
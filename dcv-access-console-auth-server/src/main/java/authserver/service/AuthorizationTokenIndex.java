@@ -0,0 +1,151 @@
+package authserver.service;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.AbstractOAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+/**
+ * Maps the value of every token of the cached authorizations to the id of its authorization, with one map per type of
+ * token, so an authorization can be found by token without scanning the caches. The index only narrows the search:
+ * the authorization it points to is always read from the cache and checked against the token.
+ */
+public class AuthorizationTokenIndex {
+
+    enum TokenKind {
+        STATE(authorization -> authorization.getAttribute(OAuth2ParameterNames.STATE)),
+        CODE(authorization -> tokenValueOf(authorization, OAuth2AuthorizationCode.class)),
+        ACCESS_TOKEN(authorization -> tokenValueOf(authorization, OAuth2AccessToken.class)),
+        ID_TOKEN(authorization -> tokenValueOf(authorization, OidcIdToken.class)),
+        REFRESH_TOKEN(authorization -> tokenValueOf(authorization, OAuth2RefreshToken.class)),
+        DEVICE_CODE(authorization -> tokenValueOf(authorization, OAuth2DeviceCode.class)),
+        USER_CODE(authorization -> tokenValueOf(authorization, OAuth2UserCode.class));
+
+        private final Function<OAuth2Authorization, String> tokenValue;
+
+        TokenKind(Function<OAuth2Authorization, String> tokenValue) {
+            this.tokenValue = tokenValue;
+        }
+
+        @Nullable
+        String tokenValue(OAuth2Authorization authorization) {
+            return tokenValue.apply(authorization);
+        }
+
+        /**
+         * @return the kinds of token to look the token up in, all of them when the type is not given, or none when
+         * the type is not one of the supported types
+         */
+        static List<TokenKind> of(@Nullable OAuth2TokenType tokenType) {
+            if (tokenType == null) {
+                return List.of(values());
+            } else if (OAuth2ParameterNames.STATE.equals(tokenType.getValue())) {
+                return List.of(STATE);
+            } else if (OAuth2ParameterNames.CODE.equals(tokenType.getValue())) {
+                return List.of(CODE);
+            } else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+                return List.of(ACCESS_TOKEN);
+            } else if (OidcParameterNames.ID_TOKEN.equals(tokenType.getValue())) {
+                return List.of(ID_TOKEN);
+            } else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+                return List.of(REFRESH_TOKEN);
+            } else if (OAuth2ParameterNames.DEVICE_CODE.equals(tokenType.getValue())) {
+                return List.of(DEVICE_CODE);
+            } else if (OAuth2ParameterNames.USER_CODE.equals(tokenType.getValue())) {
+                return List.of(USER_CODE);
+            }
+            return List.of();
+        }
+    }
+
+    private final Map<TokenKind, Map<String, String>> authorizationIds = new EnumMap<>(TokenKind.class);
+
+    public AuthorizationTokenIndex() {
+        for (TokenKind kind : TokenKind.values()) {
+            authorizationIds.put(kind, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Indexes the tokens of the authorization, and drops the tokens of the version it replaces that it no longer has.
+     */
+    public void put(OAuth2Authorization authorization, @Nullable OAuth2Authorization previous) {
+        for (TokenKind kind : TokenKind.values()) {
+            String token = kind.tokenValue(authorization);
+            if (token != null) {
+                authorizationIds.get(kind).put(token, authorization.getId());
+            }
+            if (previous != null) {
+                String previousToken = kind.tokenValue(previous);
+                if (previousToken != null && !previousToken.equals(token)) {
+                    authorizationIds.get(kind).remove(previousToken, previous.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the tokens of the authorization, unless they have since been indexed for another authorization.
+     */
+    public void remove(OAuth2Authorization authorization) {
+        for (TokenKind kind : TokenKind.values()) {
+            String token = kind.tokenValue(authorization);
+            if (token != null) {
+                authorizationIds.get(kind).remove(token, authorization.getId());
+            }
+        }
+    }
+
+    /**
+     * A Caffeine removal listener that drops the tokens of the authorizations the caches expire or evict. Explicit
+     * removals and replacements are indexed by the authorization service itself.
+     */
+    public void onRemoval(@Nullable Object id, @Nullable Object value, RemovalCause cause) {
+        if (cause.wasEvicted() && value instanceof OAuth2Authorization authorization) {
+            remove(authorization);
+        }
+    }
+
+    /**
+     * @return the ids of the authorizations the token may belong to, in the order the types of token are checked in
+     */
+    public List<String> findIds(String token, @Nullable OAuth2TokenType tokenType) {
+        List<String> ids = new ArrayList<>(1);
+        for (TokenKind kind : TokenKind.of(tokenType)) {
+            String id = authorizationIds.get(kind).get(token);
+            if (id != null && !ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return the number of tokens indexed
+     */
+    public int size() {
+        return authorizationIds.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Nullable
+    private static String tokenValueOf(
+            OAuth2Authorization authorization, Class<? extends AbstractOAuth2Token> tokenClass) {
+        OAuth2Authorization.Token<? extends AbstractOAuth2Token> token = authorization.getToken(tokenClass);
+        return token != null ? token.getToken().getTokenValue() : null;
+    }
+}
@@ -26,6 +26,7 @@ import org.springframework.util.Assert;
 public class CaffeineOAuth2AuthorizationService implements OAuth2AuthorizationService {
 
     private final CaffeineCacheManager tokenCacheManager;
+    private final AuthorizationTokenIndex tokenIndex;
 
     private CaffeineCache getAuthorizations() {
         return (CaffeineCache) tokenCacheManager.getCache(TokenInvalidationConfig.AUTHORIZATIONS);
@@ -38,11 +39,15 @@ public class CaffeineOAuth2AuthorizationService implements OAuth2AuthorizationSe
     @Override
     public void save(OAuth2Authorization authorization) {
         Assert.notNull(authorization, "authorization cannot be null");
+        OAuth2Authorization previous = findCached(authorization.getId());
         if (isComplete(authorization)) {
             getAuthorizations().put(authorization.getId(), authorization);
+            // The initialized copy would otherwise stay cached, and indexed, until it expires
+            getInitializedAuthorizations().evictIfPresent(authorization.getId());
         } else {
             getInitializedAuthorizations().put(authorization.getId(), authorization);
         }
+        tokenIndex.put(authorization, previous);
     }
 
     @Override
@@ -53,12 +58,18 @@ public class CaffeineOAuth2AuthorizationService implements OAuth2AuthorizationSe
         } else {
             getInitializedAuthorizations().evictIfPresent(authorization.getId());
         }
+        tokenIndex.remove(authorization);
     }
 
     @Nullable
     @Override
     public OAuth2Authorization findById(String id) {
         Assert.hasText(id, "id cannot be empty");
+        return findCached(id);
+    }
+
+    @Nullable
+    private OAuth2Authorization findCached(String id) {
         OAuth2Authorization authorization =
                 (OAuth2Authorization) getAuthorizations().get(id);
         return authorization != null
@@ -71,16 +82,9 @@ public class CaffeineOAuth2AuthorizationService implements OAuth2AuthorizationSe
     public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
         Assert.hasText(token, "token cannot be empty");
 
-        for (Object value : getAuthorizations().getNativeCache().asMap().values()) {
-            OAuth2Authorization authorization = (OAuth2Authorization) value;
-            if (hasToken(authorization, token, tokenType)) {
-                return authorization;
-            }
-        }
-        for (Object value :
-                getInitializedAuthorizations().getNativeCache().asMap().values()) {
-            OAuth2Authorization authorization = (OAuth2Authorization) value;
-            if (hasToken(authorization, token, tokenType)) {
+        for (String id : tokenIndex.findIds(token, tokenType)) {
+            OAuth2Authorization authorization = findById(id);
+            if (authorization != null && hasToken(authorization, token, tokenType)) {
                 return authorization;
             }
         }
@@ -0,0 +1,140 @@
+package authserver.service;
+
+import authserver.store.FileKeyValueStore;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the signing keys in a {@link FileKeyValueStore}, so the tokens signed before a restart can still be verified
+ * after it. A new key is generated once the newest one is older than the rotation period; the older keys are still
+ * published, to verify the tokens they signed, until the retention period has passed too.
+ *
+ * <p>Tokens are only ever signed with the newest key. The encoder asks for a key by type and algorithm alone, while
+ * the JWK set endpoint asks for every key and verifiers ask for the key by id, so those get the whole set.
+ */
+@Slf4j
+public class PersistentJwkSource implements JWKSource<SecurityContext> {
+    private static final String KEY_PREFIX = "signing-key:";
+
+    private final FileKeyValueStore store;
+    private final Supplier<RSAKey> keyGenerator;
+    private final Duration rotationPeriod;
+    private final Duration retentionPeriod;
+    private final Clock clock;
+    private volatile RSAKey currentKey;
+    private volatile JWKSet jwkSet;
+
+    public PersistentJwkSource(
+            FileKeyValueStore store, Supplier<RSAKey> keyGenerator, Duration rotationPeriod, Duration retentionPeriod) {
+        this(store, keyGenerator, rotationPeriod, retentionPeriod, Clock.systemUTC());
+    }
+
+    PersistentJwkSource(
+            FileKeyValueStore store,
+            Supplier<RSAKey> keyGenerator,
+            Duration rotationPeriod,
+            Duration retentionPeriod,
+            Clock clock) {
+        this.store = store;
+        this.keyGenerator = keyGenerator;
+        this.rotationPeriod = rotationPeriod;
+        this.retentionPeriod = retentionPeriod;
+        this.clock = clock;
+        load();
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        rotateIfNeeded();
+        JWKMatcher matcher = jwkSelector.getMatcher();
+        boolean signing = (matcher.getKeyIDs() == null || matcher.getKeyIDs().isEmpty())
+                && matcher.getKeyTypes() != null
+                && !matcher.getKeyTypes().isEmpty();
+        return jwkSelector.select(signing ? new JWKSet(currentKey) : jwkSet);
+    }
+
+    private void rotateIfNeeded() {
+        if (isDue(currentKey)) {
+            synchronized (this) {
+                if (isDue(currentKey)) {
+                    RSAKey key = new RSAKey.Builder(keyGenerator.get())
+                            .issueTime(Date.from(clock.instant()))
+                            .build();
+                    try {
+                        store.put(
+                                KEY_PREFIX + key.getKeyID(),
+                                key.toJSONString().getBytes(StandardCharsets.UTF_8),
+                                expiry(key).toEpochMilli());
+                    } catch (IOException e) {
+                        // The key can still sign, the tokens it signs just will not be verifiable after a restart
+                        log.warn("Failed to store signing key {}", key.getKeyID(), e);
+                    }
+                    log.info("Rotated the signing key to {}", key.getKeyID());
+                    publish(key, jwkSet != null ? jwkSet.getKeys() : List.of());
+                }
+            }
+        }
+    }
+
+    private boolean isDue(RSAKey key) {
+        return key == null || !key.getIssueTime().toInstant().plus(rotationPeriod).isAfter(clock.instant());
+    }
+
+    private Instant expiry(RSAKey key) {
+        return key.getIssueTime().toInstant().plus(rotationPeriod).plus(retentionPeriod);
+    }
+
+    private void load() {
+        List<JWK> keys = new ArrayList<>();
+        for (String storeKey : store.keys(KEY_PREFIX)) {
+            try {
+                byte[] value = store.get(storeKey);
+                if (value != null) {
+                    keys.add(JWK.parse(new String(value, StandardCharsets.UTF_8)).toRSAKey());
+                }
+            } catch (IOException | ParseException e) {
+                log.warn("Failed to read stored signing key {}", storeKey, e);
+            }
+        }
+        keys.sort(Comparator.comparing(JWK::getIssueTime).reversed());
+        log.info("Loaded {} stored signing keys", keys.size());
+        if (keys.isEmpty()) {
+            rotateIfNeeded();
+        } else {
+            publish((RSAKey) keys.get(0), keys);
+        }
+    }
+
+    /**
+     * Makes the key the one to sign with, and publishes it with the keys that have not passed their retention period.
+     */
+    private void publish(RSAKey key, List<JWK> keys) {
+        List<JWK> published = new ArrayList<>();
+        published.add(key);
+        for (JWK retired : keys) {
+            if (!retired.getKeyID().equals(key.getKeyID())
+                    && expiry(retired.toRSAKey()).isAfter(clock.instant())) {
+                published.add(retired);
+            }
+        }
+        jwkSet = new JWKSet(published);
+        currentKey = key;
+    }
+}
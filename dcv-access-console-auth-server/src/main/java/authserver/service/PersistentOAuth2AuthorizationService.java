@@ -0,0 +1,186 @@
+package authserver.service;
+
+import authserver.store.FileKeyValueStore;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+/**
+ * Writes the authorizations through to a {@link FileKeyValueStore}, so they outlive a restart of the auth server. The
+ * caches are still what is read from: the stored authorizations are loaded back into them in the background on
+ * startup. Until that is done, an authorization that is not cached yet is read from the store by id, and a token that
+ * is not indexed yet waits for the load to finish.
+ */
+@Slf4j
+public class PersistentOAuth2AuthorizationService extends CaffeineOAuth2AuthorizationService {
+    private static final String KEY_PREFIX = "authorization:";
+    private static final ObjectInputFilter DESERIALIZATION_FILTER =
+            ObjectInputFilter.Config.createFilter("java.**;org.springframework.**;authserver.**;!*");
+
+    private final FileKeyValueStore store;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    // Held by the load while it caches a stored authorization, and by saves and removes until the load is done, so
+    // that the load cannot bring back an authorization that was removed or replaced after it read it
+    private final Object loadLock = new Object();
+
+    public PersistentOAuth2AuthorizationService(
+            CaffeineCacheManager tokenCacheManager,
+            AuthorizationTokenIndex tokenIndex,
+            FileKeyValueStore store,
+            Duration timeToLive) {
+        this(tokenCacheManager, tokenIndex, store, timeToLive, Clock.systemUTC(), ForkJoinPool.commonPool());
+    }
+
+    PersistentOAuth2AuthorizationService(
+            CaffeineCacheManager tokenCacheManager,
+            AuthorizationTokenIndex tokenIndex,
+            FileKeyValueStore store,
+            Duration timeToLive,
+            Clock clock,
+            Executor loadExecutor) {
+        super(tokenCacheManager, tokenIndex);
+        this.store = store;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        CompletableFuture.runAsync(this::load, loadExecutor).whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.warn("Failed to load the stored authorizations", e);
+            }
+            loaded.complete(null);
+        });
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        if (loaded.isDone()) {
+            saveAndStore(authorization);
+        } else {
+            synchronized (loadLock) {
+                saveAndStore(authorization);
+            }
+        }
+    }
+
+    private void saveAndStore(OAuth2Authorization authorization) {
+        super.save(authorization);
+        try {
+            store.put(
+                    KEY_PREFIX + authorization.getId(),
+                    serialize(authorization),
+                    clock.millis() + timeToLive.toMillis());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to store authorization {}, it will not outlive a restart", authorization.getId(), e);
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        if (loaded.isDone()) {
+            removeAndUnstore(authorization);
+        } else {
+            synchronized (loadLock) {
+                removeAndUnstore(authorization);
+            }
+        }
+    }
+
+    private void removeAndUnstore(OAuth2Authorization authorization) {
+        super.remove(authorization);
+        try {
+            store.remove(KEY_PREFIX + authorization.getId());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to remove stored authorization {}", authorization.getId(), e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        OAuth2Authorization authorization = super.findById(id);
+        if (authorization == null && !loaded.isDone()) {
+            authorization = read(KEY_PREFIX + id);
+        }
+        return authorization;
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        OAuth2Authorization authorization = super.findByToken(token, tokenType);
+        if (authorization == null && !loaded.isDone()) {
+            loaded.join();
+            authorization = super.findByToken(token, tokenType);
+        }
+        return authorization;
+    }
+
+    /**
+     * @return whether the stored authorizations have been loaded into the caches
+     */
+    public boolean isLoaded() {
+        return loaded.isDone();
+    }
+
+    private void load() {
+        int count = 0;
+        for (String key : store.keys(KEY_PREFIX)) {
+            OAuth2Authorization authorization = read(key);
+            if (authorization == null) {
+                continue;
+            }
+            synchronized (loadLock) {
+                // Skip the ones saved since startup, the cached version is newer, and the ones removed since they
+                // were read
+                if (super.findById(authorization.getId()) == null && store.contains(key)) {
+                    super.save(authorization);
+                    count++;
+                }
+            }
+        }
+        log.info("Loaded {} stored authorizations", count);
+    }
+
+    @Nullable
+    private OAuth2Authorization read(String key) {
+        try {
+            byte[] value = store.get(key);
+            return value != null ? deserialize(value) : null;
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            log.warn("Failed to read stored authorization {}", key, e);
+            return null;
+        }
+    }
+
+    private static byte[] serialize(OAuth2Authorization authorization) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(authorization);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static OAuth2Authorization deserialize(byte[] value) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(value))) {
+            input.setObjectInputFilter(DESERIALIZATION_FILTER);
+            Object authorization = input.readObject();
+            Assert.isInstanceOf(OAuth2Authorization.class, authorization);
+            return (OAuth2Authorization) authorization;
+        }
+    }
+}
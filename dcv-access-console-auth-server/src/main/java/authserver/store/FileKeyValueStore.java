@@ -0,0 +1,393 @@
+package authserver.store;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+/**
+ * A key-value store kept in a single append-only file. Every put and remove is appended as a record, and only the
+ * position of the latest value of each key is held in memory; values are read from the file when they are asked for.
+ * Each value expires at a given time, after which it is no longer returned. Compacting rewrites the file with only the
+ * live values, dropping the overwritten, removed and expired ones. The live values are copied to the new file without
+ * holding the store, so puts, removes and gets carry on meanwhile; only the changes made during the copy are caught up
+ * with while holding it, just before the new file replaces the old one.
+ *
+ * <p>A record is laid out as: operation (1 byte), expiry in epoch millis (8 bytes), key length (2 bytes), key (UTF-8),
+ * value length (4 bytes), value. A record cut short by a crash is truncated away when the file is opened.
+ */
+@Slf4j
+public class FileKeyValueStore implements Closeable {
+    private static final int MAGIC = 0x44435631; // "DCV1"
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 0;
+    private static final int RECORD_HEADER_BYTES = 1 + 8 + 2 + 4;
+
+    private record Entry(long valuePosition, int valueLength, long expiresAtMillis) {
+        long recordBytes(int keyLength) {
+            return RECORD_HEADER_BYTES + keyLength + valueLength;
+        }
+    }
+
+    private final Path file;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new HashMap<>();
+    // Held for the whole of a compaction, so only one runs at a time
+    private final Object compactionLock = new Object();
+    // Only replaced by a compaction, and read without holding the store while it copies the values
+    private volatile FileChannel channel;
+    private ScheduledExecutorService compactionExecutor;
+    private long liveBytes;
+    private long garbageBytes;
+
+    public FileKeyValueStore(Path file) throws IOException {
+        this(file, Clock.systemUTC());
+    }
+
+    FileKeyValueStore(Path file, Clock clock) throws IOException {
+        this.file = file;
+        this.clock = clock;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (Files.notExists(file)) {
+            createOwnerOnly(file);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, MAGIC), 0);
+        }
+        readIndex();
+    }
+
+    /**
+     * Appends the value of the key, replacing any previous value.
+     */
+    public synchronized void put(String key, byte[] value, long expiresAtMillis) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long position = append(PUT, expiresAtMillis, keyBytes, value);
+        Entry previous = entries.put(key, new Entry(position + RECORD_HEADER_BYTES + keyBytes.length, value.length, expiresAtMillis));
+        if (previous != null) {
+            liveBytes -= previous.recordBytes(keyBytes.length);
+            garbageBytes += previous.recordBytes(keyBytes.length);
+        }
+        liveBytes += RECORD_HEADER_BYTES + keyBytes.length + value.length;
+    }
+
+    public synchronized void remove(String key) throws IOException {
+        Entry previous = entries.remove(key);
+        if (previous == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        append(REMOVE, 0, keyBytes, new byte[0]);
+        liveBytes -= previous.recordBytes(keyBytes.length);
+        garbageBytes += previous.recordBytes(keyBytes.length) + RECORD_HEADER_BYTES + keyBytes.length;
+    }
+
+    /**
+     * Reads the value of the key from the file.
+     * @return the value, or null if the key has no value or its value has expired
+     */
+    @Nullable
+    public synchronized byte[] get(String key) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry == null || isExpired(entry)) {
+            return null;
+        }
+        return readValue(entry);
+    }
+
+    /**
+     * @return whether the key has a value that has not expired, without reading the value from the file
+     */
+    public synchronized boolean contains(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && !isExpired(entry);
+    }
+
+    /**
+     * @return the keys starting with the prefix whose values have not expired
+     */
+    public synchronized List<String> keys(String prefix) {
+        List<String> keys = new ArrayList<>();
+        entries.forEach((key, entry) -> {
+            if (key.startsWith(prefix) && !isExpired(entry)) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    /**
+     * Rewrites the file with only the live values, if at least half of it is taken up by overwritten, removed or
+     * expired records.
+     * @return whether the file was rewritten
+     */
+    public boolean compactIfNeeded() throws IOException {
+        synchronized (this) {
+            long expiredBytes = 0;
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (isExpired(entry.getValue())) {
+                    expiredBytes +=
+                            entry.getValue().recordBytes(entry.getKey().getBytes(StandardCharsets.UTF_8).length);
+                }
+            }
+            if (garbageBytes + expiredBytes < liveBytes - expiredBytes) {
+                return false;
+            }
+        }
+        compact();
+        return true;
+    }
+
+    /**
+     * Checks whether the file needs compacting at the given interval, on a background thread that is stopped when the
+     * store is closed.
+     */
+    public synchronized void scheduleCompaction(Duration interval) {
+        if (compactionExecutor != null) {
+            return;
+        }
+        compactionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "key-value-store-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactionExecutor.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        compactIfNeeded();
+                    } catch (IOException | RuntimeException e) {
+                        log.warn("Failed to compact {}", file, e);
+                    }
+                },
+                interval.toMillis(),
+                interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Copies the live values to a new file, then, holding the store, appends the puts and removes made since, and
+     * replaces the file with it. The store keeps the old file if anything fails.
+     */
+    void compact() throws IOException {
+        synchronized (compactionLock) {
+            Map<String, Entry> snapshot;
+            synchronized (this) {
+                snapshot = new HashMap<>(entries);
+            }
+
+            Path compacted = file.resolveSibling(file.getFileName() + ".compacting");
+            Files.deleteIfExists(compacted);
+            createOwnerOnly(compacted);
+            FileChannel output = FileChannel.open(compacted, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean replaced = false;
+            try {
+                output.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, MAGIC));
+                Map<String, Entry> compactedEntries = new HashMap<>();
+                for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                    if (!isExpired(entry.getValue())) {
+                        copy(output, entry.getKey(), entry.getValue(), compactedEntries);
+                    }
+                }
+                output.force(true);
+
+                synchronized (this) {
+                    if (!channel.isOpen()) {
+                        throw new IOException(file + " was closed while it was being compacted");
+                    }
+                    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                        if (!entry.getValue().equals(snapshot.get(entry.getKey()))) {
+                            copy(output, entry.getKey(), entry.getValue(), compactedEntries);
+                        }
+                    }
+                    for (Iterator<String> keys = compactedEntries.keySet().iterator(); keys.hasNext(); ) {
+                        String key = keys.next();
+                        if (!entries.containsKey(key)) {
+                            writeRecord(output, REMOVE, 0, key.getBytes(StandardCharsets.UTF_8), new byte[0]);
+                            keys.remove();
+                        }
+                    }
+                    output.force(true);
+
+                    // The new channel follows the file it was opened on through the move
+                    Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    FileChannel previous = channel;
+                    channel = output;
+                    replaced = true;
+                    log.info("Compacted {} from {} to {} entries", file, entries.size(), compactedEntries.size());
+                    entries.clear();
+                    entries.putAll(compactedEntries);
+                    liveBytes = 0;
+                    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                        liveBytes +=
+                                entry.getValue().recordBytes(entry.getKey().getBytes(StandardCharsets.UTF_8).length);
+                    }
+                    garbageBytes = output.size() - Integer.BYTES - liveBytes;
+                    try {
+                        previous.close();
+                    } catch (IOException e) {
+                        log.warn("Failed to close the file {} was compacted from", file, e);
+                    }
+                }
+            } finally {
+                if (!replaced) {
+                    output.close();
+                    Files.deleteIfExists(compacted);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends the value of the entry, read from the current file, to the output as a put.
+     */
+    private void copy(FileChannel output, String key, Entry entry, Map<String, Entry> compactedEntries)
+            throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] value = readValue(entry);
+        long position = output.position();
+        writeRecord(output, PUT, entry.expiresAtMillis(), keyBytes, value);
+        Entry copied =
+                new Entry(position + RECORD_HEADER_BYTES + keyBytes.length, value.length, entry.expiresAtMillis());
+        compactedEntries.put(key, copied);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = compactionExecutor;
+            compactionExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the value of the entry from the file, whether it has expired or not.
+     */
+    private byte[] readValue(Entry entry) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(entry.valueLength());
+        while (value.hasRemaining()) {
+            if (channel.read(value, entry.valuePosition() + value.position()) < 0) {
+                throw new EOFException("Value at byte " + entry.valuePosition() + " is cut short in " + file);
+            }
+        }
+        return value.array();
+    }
+
+    private boolean isExpired(Entry entry) {
+        return entry.expiresAtMillis() <= clock.millis();
+    }
+
+    private long append(byte operation, long expiresAtMillis, byte[] keyBytes, byte[] value) throws IOException {
+        long position = channel.size();
+        channel.position(position);
+        writeRecord(channel, operation, expiresAtMillis, keyBytes, value);
+        return position;
+    }
+
+    private static void writeRecord(FileChannel output, byte operation, long expiresAtMillis, byte[] keyBytes, byte[] value)
+            throws IOException {
+        if (keyBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Key is longer than " + Short.MAX_VALUE + " bytes");
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + keyBytes.length + value.length)
+                .put(operation)
+                .putLong(expiresAtMillis)
+                .putShort((short) keyBytes.length)
+                .put(keyBytes)
+                .putInt(value.length)
+                .put(value)
+                .flip();
+        while (record.hasRemaining()) {
+            output.write(record);
+        }
+    }
+
+    private void readIndex() throws IOException {
+        long position = Integer.BYTES;
+        channel.position(0);
+        InputStream stream = new BufferedInputStream(Channels.newInputStream(channel));
+        DataInputStream input = new DataInputStream(stream);
+        if (input.readInt() != MAGIC) {
+            throw new IOException(file + " is not a key-value store file");
+        }
+
+        try {
+            while (true) {
+                int operation = input.read();
+                if (operation < 0) {
+                    break;
+                }
+                long expiresAtMillis = input.readLong();
+                byte[] keyBytes = new byte[input.readShort()];
+                input.readFully(keyBytes);
+                int valueLength = input.readInt();
+                input.skipNBytes(valueLength);
+
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                long recordBytes = RECORD_HEADER_BYTES + keyBytes.length + valueLength;
+                Entry previous = operation == PUT
+                        ? entries.put(key, new Entry(position + RECORD_HEADER_BYTES + keyBytes.length, valueLength, expiresAtMillis))
+                        : entries.remove(key);
+                if (previous != null) {
+                    liveBytes -= previous.recordBytes(keyBytes.length);
+                    garbageBytes += previous.recordBytes(keyBytes.length);
+                }
+                if (operation == PUT) {
+                    liveBytes += recordBytes;
+                } else {
+                    garbageBytes += recordBytes;
+                }
+                position += recordBytes;
+            }
+        } catch (EOFException e) {
+            log.warn("Truncating the incomplete record at the end of {}, at byte {}", file, position);
+            channel.truncate(position);
+        }
+        log.info("Read {} entries from {}", entries.size(), file);
+    }
+
+    private static void createOwnerOnly(Path path) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(path);
+        }
+    }
+}
@@ -43,7 +43,9 @@ import org.springframework.test.web.servlet.ResultMatcher;
         properties = {
             "authentication.pam.dcvpamhelper-path=/path/to/dcvpamhelper",
             "authentication.pam.service-name=service-name",
-            "authentication.pam.normalize-userid=true"
+            "authentication.pam.normalize-userid=true",
+            // Each test mocks the command with a different result for the same principal
+            "authentication.pam.normalize-userid-cache-size=0"
         })
 public class PamAuthenticationWithUserIdNormalizationTest extends BaseTestClass {
     private static final String REDIRECT_URI = "http://127.0.0.1:8080/login/oauth2/code/test-client-id";
@@ -0,0 +1,145 @@
+package authserver.providers.pam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+public class NormalizedUserIdCacheTest {
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+    @TempDir
+    private Path directory;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    private Function<String, String> command(Function<String, String> result) {
+        return principal -> {
+            runs.incrementAndGet();
+            return result.apply(principal);
+        };
+    }
+
+    @Test
+    public void testResultsAreCached() {
+        NormalizedUserIdCache cache =
+                new NormalizedUserIdCache(command(String::toLowerCase), null, 10, TIME_TO_LIVE, TIME_TO_LIVE);
+
+        assertEquals("test-user", cache.get("TEsT-uSeR"));
+        assertEquals("test-user", cache.get("TEsT-uSeR"));
+
+        assertEquals(1, runs.get());
+        assertEquals(1, cache.getCommandRuns());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    public void testFailuresAreCached() {
+        NormalizedUserIdCache cache = new NormalizedUserIdCache(
+                command(principal -> {
+                    throw new AuthenticationServiceException("Normalizing userid failed");
+                }),
+                null,
+                10,
+                TIME_TO_LIVE,
+                TIME_TO_LIVE);
+
+        assertThrows(AuthenticationServiceException.class, () -> cache.get("unknown-user"));
+        assertThrows(AuthenticationServiceException.class, () -> cache.get("unknown-user"));
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testNothingIsCachedWithoutASize() {
+        NormalizedUserIdCache cache =
+                new NormalizedUserIdCache(command(String::toLowerCase), null, 0, TIME_TO_LIVE, TIME_TO_LIVE);
+
+        cache.get("TEsT-uSeR");
+        cache.get("TEsT-uSeR");
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testConcurrentLookupsRunTheCommandOnce() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NormalizedUserIdCache cache = new NormalizedUserIdCache(
+                command(principal -> {
+                    running.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return principal.toLowerCase();
+                }),
+                null,
+                10,
+                TIME_TO_LIVE,
+                TIME_TO_LIVE);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("TEsT-uSeR"));
+        running.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("TEsT-uSeR"));
+        release.countDown();
+
+        assertEquals("test-user", first.get());
+        assertEquals("test-user", second.get());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testLocalUsersAreResolvedFromThePasswdFile() throws IOException {
+        Path passwd = directory.resolve("passwd");
+        Files.write(passwd, List.of(
+                "root:x:0:0:root:/root:/bin/bash",
+                "test-user:x:1000:1000::/home/test-user:/bin/sh",
+                "+@netgroup"));
+        NormalizedUserIdCache cache = new NormalizedUserIdCache(
+                command(principal -> "from-command"), passwd, 10, TIME_TO_LIVE, TIME_TO_LIVE);
+
+        assertEquals("test-user", cache.get("test-user"));
+        assertEquals("test-user", cache.get("1000"));
+        assertEquals("from-command", cache.get("directory-user"));
+
+        assertEquals(2, cache.getPasswdLookups());
+        assertEquals(1, cache.getCommandRuns());
+    }
+
+    @Test
+    public void testIsIdCommand() {
+        assertTrue(NormalizedUserIdCache.isIdCommand("id -u -nr \"$0\""));
+        assertTrue(NormalizedUserIdCache.isIdCommand("'id --user --name \"$0\"'"));
+        assertTrue(NormalizedUserIdCache.isIdCommand("id -u -n \"$0\""));
+        assertTrue(NormalizedUserIdCache.isIdCommand("id -un \"$0\""));
+        assertTrue(NormalizedUserIdCache.isIdCommand("id -nu \"$0\""));
+        assertTrue(NormalizedUserIdCache.isIdCommand("id --user --name --real \"$0\""));
+        assertTrue(NormalizedUserIdCache.isIdCommand("  id  -unr   \"$0\"  "));
+
+        assertFalse(NormalizedUserIdCache.isIdCommand("id -u \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id -n \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id -gn \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id -Gn \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id -un \"$0\" | tr A-Z a-z"));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id --user --group --name \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id -un someone"));
+        assertFalse(NormalizedUserIdCache.isIdCommand("id \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("idx -un \"$0\""));
+        assertFalse(NormalizedUserIdCache.isIdCommand("getent passwd \"$0\" | cut -d: -f1"));
+    }
+}
@@ -0,0 +1,96 @@
+package authserver.providers.pam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PamHelperPoolTest {
+    // Stands in for dcvpamhelper: succeeds when it reads the expected credentials from fd 3
+    private static final String HELPER_COMMAND =
+            "exec sh -c '[ \"$(tr \"\\\\000\" \" \" <&3)\" = \"test-user test-password \" ]' 3<&0";
+    private static final String NORMALIZE_USER_ID_COMMAND =
+            "if [ \"$0\" = slow-user ]; then sleep 5; fi; echo \"normalized-$0\"";
+
+    private PamHelperPool pool;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pool = new PamHelperPool(
+                new ProcessBuilderProvider(),
+                "/bin/sh",
+                "-c",
+                HELPER_COMMAND,
+                NORMALIZE_USER_ID_COMMAND,
+                2,
+                3,
+                Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAuthenticate() throws IOException {
+        assertEquals(0, pool.call(PamHelperPool.AUTHENTICATE, bytes("test-user\0test-password\0")).exitValue());
+        assertEquals(1, pool.call(PamHelperPool.AUTHENTICATE, bytes("test-user\0wrong-password\0")).exitValue());
+    }
+
+    @Test
+    public void testNormalize() throws IOException {
+        PamHelperPool.Response response = pool.call(PamHelperPool.NORMALIZE, bytes("test-user"));
+
+        assertEquals(0, response.exitValue());
+        assertEquals("normalized-test-user", new String(response.output(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testWorkersAreRecycled() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, pool.call(PamHelperPool.AUTHENTICATE, bytes("test-user\0test-password\0")).exitValue());
+        }
+
+        assertEquals(10, pool.getRequests());
+        assertEquals(0, pool.getQueueDepth());
+        assertEquals(5, pool.getRecycledWorkers());
+    }
+
+    @Test
+    public void testTimedOutWorkerIsReplaced() throws IOException {
+        IOException e = assertThrows(IOException.class, () -> pool.call(PamHelperPool.NORMALIZE, bytes("slow-user")));
+        // The request reached the worker, so it must not be run again some other way
+        assertFalse(e instanceof PamHelperPool.NotDispatchedException);
+
+        assertEquals(0, pool.call(PamHelperPool.AUTHENTICATE, bytes("test-user\0test-password\0")).exitValue());
+        assertEquals(1, pool.getRecycledWorkers());
+    }
+
+    @Test
+    public void testRequestNotSentToAWorker() throws IOException {
+        Thread.currentThread().interrupt();
+        try {
+            assertInstanceOf(
+                    PamHelperPool.NotDispatchedException.class,
+                    assertThrows(IOException.class, () -> pool.call(PamHelperPool.AUTHENTICATE, bytes("test-user"))));
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+
+        assertEquals(0, pool.getRequests());
+        assertEquals(0, pool.call(PamHelperPool.AUTHENTICATE, bytes("test-user\0test-password\0")).exitValue());
+    }
+}
@@ -0,0 +1,65 @@
+package authserver.service;
+
+import authserver.config.TokenInvalidationConfig;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+/**
+ * The authorizations and the token caches shared by the authorization service tests.
+ */
+final class AuthorizationFixtures {
+    static final Duration CACHE_TIME_TO_LIVE = Duration.ofMinutes(1);
+    static final RegisteredClient CLIENT = RegisteredClient.withId("client")
+            .clientId("client")
+            .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+            .redirectUri("http://localhost/callback")
+            .build();
+
+    private AuthorizationFixtures() {}
+
+    /**
+     * @return the caches the auth server uses, with the removal listener run on the calling thread
+     */
+    static CaffeineCacheManager tokenCacheManager(AuthorizationTokenIndex tokenIndex, Ticker ticker) {
+        return TokenInvalidationConfig.tokenCacheManager(
+                CACHE_TIME_TO_LIVE,
+                tokenIndex,
+                Caffeine.newBuilder().ticker(ticker).executor(Runnable::run));
+    }
+
+    /**
+     * @return an authorization that has been through the authorization request, indexed by its state and code
+     */
+    static OAuth2Authorization.Builder initialized(String id) {
+        Instant now = Instant.now();
+        return OAuth2Authorization.withRegisteredClient(CLIENT)
+                .id(id)
+                .principalName("user")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .attribute(OAuth2ParameterNames.STATE, "state-" + id)
+                .token(new OAuth2AuthorizationCode("code-" + id, now, now.plus(5, ChronoUnit.MINUTES)));
+    }
+
+    /**
+     * @return an authorization that has been issued its access and refresh tokens
+     */
+    static OAuth2Authorization complete(String id) {
+        Instant now = Instant.now();
+        return initialized(id)
+                .accessToken(new OAuth2AccessToken(
+                        OAuth2AccessToken.TokenType.BEARER, "access-" + id, now, now.plus(5, ChronoUnit.MINUTES)))
+                .refreshToken(new OAuth2RefreshToken("refresh-" + id, now, now.plus(2, ChronoUnit.HOURS)))
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+package authserver.service;
+
+import static authserver.service.AuthorizationFixtures.complete;
+import static authserver.service.AuthorizationFixtures.initialized;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import authserver.config.TokenInvalidationConfig;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+@Slf4j
+public class CaffeineOAuth2AuthorizationServiceTest {
+    private static final OAuth2TokenType STATE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+    private static final OAuth2TokenType CODE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+
+    private final AtomicLong ticker = new AtomicLong();
+    private AuthorizationTokenIndex tokenIndex;
+    private CaffeineCacheManager cacheManager;
+    private CaffeineOAuth2AuthorizationService service;
+
+    @BeforeEach
+    public void setUp() {
+        tokenIndex = new AuthorizationTokenIndex();
+        cacheManager = AuthorizationFixtures.tokenCacheManager(tokenIndex, ticker::get);
+        service = new CaffeineOAuth2AuthorizationService(cacheManager, tokenIndex);
+    }
+
+    private void cleanUp() {
+        for (String cacheName :
+                List.of(TokenInvalidationConfig.INITIALIZED_AUTHORIZATIONS, TokenInvalidationConfig.AUTHORIZATIONS)) {
+            ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache().cleanUp();
+        }
+    }
+
+    @Test
+    public void testFindByEveryTokenType() {
+        OAuth2Authorization authorization = complete("1");
+        service.save(authorization);
+
+        assertSame(authorization, service.findByToken("state-1", STATE));
+        assertSame(authorization, service.findByToken("code-1", CODE));
+        assertSame(authorization, service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+        assertSame(authorization, service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+        assertSame(authorization, service.findByToken("refresh-1", null));
+        assertNull(service.findByToken("refresh-1", OAuth2TokenType.ACCESS_TOKEN));
+        assertNull(service.findByToken("unknown", null));
+    }
+
+    @Test
+    public void testCompletingAnAuthorizationReindexesIt() {
+        service.save(initialized("1").build());
+        OAuth2Authorization completed = OAuth2Authorization.from(complete("1"))
+                .attributes(attributes -> attributes.remove(OAuth2ParameterNames.STATE))
+                .build();
+        service.save(completed);
+
+        assertSame(completed, service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+        assertSame(completed, service.findByToken("code-1", CODE));
+        assertNull(service.findByToken("state-1", STATE));
+        assertNull(cacheManager.getCache(TokenInvalidationConfig.INITIALIZED_AUTHORIZATIONS).get("1"));
+    }
+
+    @Test
+    public void testRemoveDropsTheTokens() {
+        OAuth2Authorization authorization = complete("1");
+        service.save(authorization);
+        service.remove(authorization);
+
+        assertNull(service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+        assertEquals(0, tokenIndex.size());
+    }
+
+    @Test
+    public void testExpiredAuthorizationsAreDroppedFromTheIndex() {
+        service.save(complete("1"));
+        service.save(initialized("2").build());
+        assertEquals(6, tokenIndex.size());
+
+        ticker.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        cleanUp();
+
+        assertEquals(0, tokenIndex.size());
+        assertNull(service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+    }
+
+    // Run with ./gradlew benchmark
+    @Test
+    @Tag("benchmark")
+    public void testLookupsWithManyLiveAuthorizations() {
+        int authorizations = 100_000;
+        for (int i = 0; i < authorizations; i++) {
+            service.save(complete(Integer.toString(i)));
+        }
+        assertEquals(4 * authorizations, tokenIndex.size());
+
+        long started = System.nanoTime();
+        for (int i = 0; i < authorizations; i++) {
+            String id = Integer.toString(i);
+            assertEquals(id, service.findByToken("access-" + id, OAuth2TokenType.ACCESS_TOKEN).getId());
+            assertEquals(id, service.findByToken("refresh-" + id, null).getId());
+        }
+        long nanosPerLookup = (System.nanoTime() - started) / (2L * authorizations);
+        log.info("Found each of {} live authorizations by token in {} ns on average", authorizations, nanosPerLookup);
+
+        // Scanning the caches would compare each token against every live authorization
+        assertTrue(nanosPerLookup < TimeUnit.MILLISECONDS.toNanos(1), "Lookup took " + nanosPerLookup + " ns");
+    }
+}
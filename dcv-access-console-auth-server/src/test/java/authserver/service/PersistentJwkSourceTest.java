@@ -0,0 +1,151 @@
+package authserver.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import authserver.store.FileKeyValueStore;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PersistentJwkSourceTest {
+    private static final Duration ROTATION_PERIOD = Duration.ofHours(1);
+    private static final Duration RETENTION_PERIOD = Duration.ofHours(1);
+    private static final JWKSelector SIGNING_KEY = new JWKSelector(new JWKMatcher.Builder()
+            .keyType(KeyType.RSA)
+            .build());
+    private static final JWKSelector ALL_KEYS = new JWKSelector(new JWKMatcher.Builder().build());
+
+    @TempDir
+    private Path directory;
+
+    // The store expires the keys by the system clock, so this one starts from now and only moves forward
+    private final TestClock clock = new TestClock(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    private final AtomicInteger generatedKeys = new AtomicInteger();
+
+    private static class TestClock extends Clock {
+        private Instant instant;
+
+        TestClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    private RSAKey generateKey() {
+        generatedKeys.incrementAndGet();
+        try {
+            return new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PersistentJwkSource newSource(FileKeyValueStore store) {
+        return new PersistentJwkSource(store, this::generateKey, ROTATION_PERIOD, RETENTION_PERIOD, clock);
+    }
+
+    private static String signingKeyId(PersistentJwkSource source) {
+        List<JWK> keys = source.get(SIGNING_KEY, null);
+        assertEquals(1, keys.size());
+        return keys.get(0).getKeyID();
+    }
+
+    private static Set<String> publishedKeyIds(PersistentJwkSource source) {
+        return source.get(ALL_KEYS, null).stream().map(JWK::getKeyID).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testKeyIsRotatedAfterTheRotationPeriod() throws IOException {
+        try (FileKeyValueStore store = new FileKeyValueStore(directory.resolve("store"))) {
+            PersistentJwkSource source = newSource(store);
+            String first = signingKeyId(source);
+
+            clock.advance(Duration.ofMinutes(59));
+            assertEquals(first, signingKeyId(source));
+            assertEquals(1, generatedKeys.get());
+
+            clock.advance(Duration.ofMinutes(1));
+            String second = signingKeyId(source);
+            assertNotEquals(first, second);
+            assertEquals(2, generatedKeys.get());
+            // The retired key is still published, to verify the tokens it signed
+            assertEquals(Set.of(first, second), publishedKeyIds(source));
+        }
+    }
+
+    @Test
+    public void testRetiredKeyIsDroppedAfterTheRetentionPeriod() throws IOException {
+        try (FileKeyValueStore store = new FileKeyValueStore(directory.resolve("store"))) {
+            PersistentJwkSource source = newSource(store);
+            String first = signingKeyId(source);
+            clock.advance(Duration.ofMinutes(61));
+            String second = signingKeyId(source);
+
+            // The first key has passed its rotation and retention periods, the second only its rotation period
+            clock.advance(Duration.ofMinutes(61));
+            String third = signingKeyId(source);
+
+            assertEquals(Set.of(second, third), publishedKeyIds(source));
+            assertNotEquals(first, third);
+        }
+    }
+
+    @Test
+    public void testKeysAreReloadedAfterRestart() throws IOException {
+        Path file = directory.resolve("store");
+        String first;
+        String second;
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            PersistentJwkSource source = newSource(store);
+            first = signingKeyId(source);
+            clock.advance(Duration.ofMinutes(61));
+            second = signingKeyId(source);
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            PersistentJwkSource source = newSource(store);
+
+            assertEquals(second, signingKeyId(source));
+            assertEquals(Set.of(first, second), publishedKeyIds(source));
+            assertEquals(2, generatedKeys.get());
+        }
+    }
+}
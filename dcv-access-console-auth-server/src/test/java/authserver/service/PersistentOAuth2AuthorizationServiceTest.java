@@ -0,0 +1,144 @@
+package authserver.service;
+
+import static authserver.service.AuthorizationFixtures.complete;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import authserver.config.TokenInvalidationConfig;
+import authserver.store.FileKeyValueStore;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+public class PersistentOAuth2AuthorizationServiceTest {
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(2);
+
+    @TempDir
+    private Path directory;
+
+    // Holds the load back until the test runs it
+    private final List<Runnable> pendingLoads = new ArrayList<>();
+
+    private static PersistentOAuth2AuthorizationService newService(FileKeyValueStore store, Executor loadExecutor) {
+        AuthorizationTokenIndex tokenIndex = new AuthorizationTokenIndex();
+        CaffeineCacheManager cacheManager = new TokenInvalidationConfig().caffeineCacheManager("2h", tokenIndex);
+        return new PersistentOAuth2AuthorizationService(
+                cacheManager, tokenIndex, store, TIME_TO_LIVE, Clock.systemUTC(), loadExecutor);
+    }
+
+    private void runPendingLoads() {
+        List<Runnable> loads = new ArrayList<>(pendingLoads);
+        pendingLoads.clear();
+        loads.forEach(Runnable::run);
+    }
+
+    @Test
+    public void testAuthorizationsAreReloadedAfterRestart() throws IOException {
+        Path file = directory.resolve("store");
+        OAuth2Authorization authorization = complete("1");
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            PersistentOAuth2AuthorizationService service = newService(store, Runnable::run);
+            service.save(authorization);
+            service.save(complete("2"));
+            service.remove(complete("2"));
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            PersistentOAuth2AuthorizationService service = newService(store, Runnable::run);
+
+            assertTrue(service.isLoaded());
+            // Everything the authorization holds survives being serialized to the store and back
+            assertEquals(authorization, service.findById("1"));
+            assertEquals(authorization, service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+            assertEquals(authorization, service.findByToken("refresh-1", OAuth2TokenType.REFRESH_TOKEN));
+            assertNull(service.findById("2"));
+            assertNull(service.findByToken("access-2", null));
+        }
+    }
+
+    @Test
+    public void testFindByIdReadsTheStoreUntilLoaded() throws IOException {
+        Path file = directory.resolve("store");
+        OAuth2Authorization authorization = complete("1");
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            newService(store, Runnable::run).save(authorization);
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            PersistentOAuth2AuthorizationService service = newService(store, pendingLoads::add);
+
+            assertFalse(service.isLoaded());
+            assertEquals(authorization, service.findById("1"));
+            assertNull(service.findById("2"));
+
+            runPendingLoads();
+            assertTrue(service.isLoaded());
+            assertEquals(authorization, service.findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+        }
+    }
+
+    @Test
+    public void testSavedSinceStartupIsNotReplacedByTheLoad() throws IOException {
+        Path file = directory.resolve("store");
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            newService(store, Runnable::run).save(complete("1"));
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            PersistentOAuth2AuthorizationService service = newService(store, pendingLoads::add);
+            OAuth2Authorization updated = OAuth2Authorization.from(complete("1"))
+                    .principalName("other-user")
+                    .build();
+            service.save(updated);
+
+            runPendingLoads();
+            assertEquals(updated, service.findById("1"));
+        }
+    }
+
+    @Test
+    public void testRemovedDuringTheLoadIsNotReloaded() throws IOException {
+        Path file = directory.resolve("store");
+        OAuth2Authorization authorization = complete("1");
+        try (FileKeyValueStore store = new FileKeyValueStore(file)) {
+            newService(store, Runnable::run).save(authorization);
+        }
+
+        PersistentOAuth2AuthorizationService[] service = new PersistentOAuth2AuthorizationService[1];
+        // Removes the authorization right after the load has read it, before it is cached
+        try (FileKeyValueStore store = new FileKeyValueStore(file) {
+            private boolean removed;
+
+            @Nullable
+            @Override
+            public synchronized byte[] get(String key) throws IOException {
+                byte[] value = super.get(key);
+                if (!removed && service[0] != null) {
+                    removed = true;
+                    service[0].remove(authorization);
+                }
+                return value;
+            }
+        }) {
+            service[0] = newService(store, pendingLoads::add);
+
+            runPendingLoads();
+            assertTrue(service[0].isLoaded());
+            assertNull(service[0].findById("1"));
+            assertNull(service[0].findByToken("access-1", OAuth2TokenType.ACCESS_TOKEN));
+            assertFalse(store.contains("authorization:1"));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package authserver.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileKeyValueStoreTest {
+    private static final long NOW = 1_000_000L;
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC);
+
+    @TempDir
+    private Path directory;
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testValuesOutliveReopening() throws IOException {
+        Path file = directory.resolve("store");
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            store.put("a:1", bytes("one"), NOW + 1000);
+            store.put("a:2", bytes("two"), NOW + 1000);
+            store.put("a:1", bytes("uno"), NOW + 1000);
+            store.put("b:1", bytes("other"), NOW + 1000);
+            store.remove("a:2");
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            assertArrayEquals(bytes("uno"), store.get("a:1"));
+            assertNull(store.get("a:2"));
+            assertEquals(List.of("a:1"), store.keys("a:"));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    public void testExpiredValuesAreNotReturned() throws IOException {
+        try (FileKeyValueStore store = new FileKeyValueStore(directory.resolve("store"), CLOCK)) {
+            store.put("expired", bytes("value"), NOW);
+            store.put("live", bytes("value"), NOW + 1);
+
+            assertNull(store.get("expired"));
+            assertEquals(List.of("live"), store.keys(""));
+        }
+    }
+
+    @Test
+    public void testCompactionDropsDeadRecords() throws IOException {
+        Path file = directory.resolve("store");
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            store.put("live", bytes("value"), NOW + 1000);
+            assertFalse(store.compactIfNeeded());
+
+            for (int i = 0; i < 10; i++) {
+                store.put("overwritten", bytes("value " + i), NOW + 1000);
+            }
+            store.put("removed", bytes("value"), NOW + 1000);
+            store.remove("removed");
+            store.put("expired", bytes("value"), NOW);
+            long sizeBefore = Files.size(file);
+
+            assertTrue(store.compactIfNeeded());
+            assertTrue(Files.size(file) < sizeBefore);
+            assertArrayEquals(bytes("value"), store.get("live"));
+            assertArrayEquals(bytes("value 9"), store.get("overwritten"));
+
+            store.put("after", bytes("value"), NOW + 1000);
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            assertEquals(3, store.size());
+            assertArrayEquals(bytes("value"), store.get("after"));
+        }
+    }
+
+    @Test
+    public void testCompactionKeepsChangesMadeWhileCopying() throws Exception {
+        Path file = directory.resolve("store");
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            for (int i = 0; i < 5000; i++) {
+                store.put("old:" + i, bytes("value " + i), NOW + 1000);
+                store.put("old:" + i, bytes("value " + i), NOW + 1000);
+            }
+
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5000; i++) {
+                        store.put("new:" + i, bytes("value " + i), NOW + 1000);
+                        store.remove("old:" + i);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                store.compact();
+            }
+            writer.join();
+            store.compact();
+
+            assertEquals(5000, store.size());
+            assertArrayEquals(bytes("value 4999"), store.get("new:4999"));
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            assertEquals(5000, store.keys("new:").size());
+            assertEquals(List.of(), store.keys("old:"));
+            assertArrayEquals(bytes("value 0"), store.get("new:0"));
+            assertFalse(store.compactIfNeeded());
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsTruncated() throws IOException {
+        Path file = directory.resolve("store");
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            store.put("complete", bytes("value"), NOW + 1000);
+            store.put("incomplete", bytes("value"), NOW + 1000);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            assertArrayEquals(bytes("value"), store.get("complete"));
+            assertNull(store.get("incomplete"));
+            store.put("appended", bytes("value"), NOW + 1000);
+        }
+        try (FileKeyValueStore store = new FileKeyValueStore(file, CLOCK)) {
+            assertEquals(2, store.size());
+            assertArrayEquals(bytes("value"), store.get("appended"));
+        }
+    }
+}
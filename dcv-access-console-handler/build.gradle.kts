@@ -29,6 +29,7 @@ plugins {
     id("io.freefair.lombok") version "8.0.1"
     id("org.javacc.javacc") version "3.0.0"
     id("com.github.jk1.dependency-license-report") version "2.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 licenseReport {
@@ -137,6 +138,13 @@ sourceSets.main {
     java.srcDirs("src/main/java", "${layout.buildDirectory.get()}/generated/javacc")
 }
 
+jmh {
+    // Benchmarks live under src/jmh/java and are run on demand with `./gradlew jmh`
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 java {
     sourceCompatibility = JavaVersion.VERSION_17
     targetCompatibility = JavaVersion.VERSION_17
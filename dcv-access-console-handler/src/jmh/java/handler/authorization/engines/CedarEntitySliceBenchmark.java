@@ -0,0 +1,145 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import handler.authorization.enums.ResourceAction;
+import handler.authorization.enums.ResourceType;
+import handler.authorization.enums.ShareLevel;
+import handler.authorization.enums.SystemAction;
+import com.cedarpolicy.BasicAuthorizationEngine;
+import com.cedarpolicy.model.AuthorizationRequest;
+import com.cedarpolicy.model.AuthorizationResponse;
+import com.cedarpolicy.model.entity.Entity;
+import com.cedarpolicy.model.exception.AuthException;
+import com.cedarpolicy.model.policy.Policy;
+import com.cedarpolicy.model.policy.PolicySet;
+import com.cedarpolicy.value.CedarList;
+import com.cedarpolicy.value.EntityTypeName;
+import com.cedarpolicy.value.EntityUID;
+import com.cedarpolicy.value.PrimBool;
+import com.cedarpolicy.value.PrimString;
+import com.cedarpolicy.value.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares authorizing against the full entity set with authorizing against the per-request slice built by
+ * {@link CedarEntitySlicer}, as the number of users, groups and session templates grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CedarEntitySliceBenchmark {
+    private static final EntityTypeName RoleTypeName = EntityTypeName.parse(ResourceType.Role.toString()).get();
+    private static final EntityTypeName UserTypeName = EntityTypeName.parse(ResourceType.User.toString()).get();
+    private static final EntityTypeName UserGroupTypeName = EntityTypeName.parse(ResourceType.Group.toString()).get();
+    private static final EntityTypeName SessionTemplateTypeName = EntityTypeName.parse(ResourceType.SessionTemplate.toString()).get();
+    private static final EntityTypeName ActionTypeName = EntityTypeName.parse("Action").get();
+    private static final int USERS_PER_GROUP = 10;
+
+    @Param({"100", "1000", "10000"})
+    private int userCount;
+
+    private final BasicAuthorizationEngine engine = new BasicAuthorizationEngine();
+    private final PolicySet policies = new PolicySet();
+    private final Map<String, Entity> entitiesMap = new HashMap<>();
+    private Set<Entity> entities;
+    private AuthorizationRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        loadPolicies();
+
+        CedarList actions = new CedarList();
+        actions.add(new EntityUID(ActionTypeName, SystemAction.describeSessionTemplates.toString()));
+        Map<String, Value> roleAttributes = new HashMap<>();
+        roleAttributes.put("actions", actions);
+        put(new Entity(new EntityUID(RoleTypeName, "User"), roleAttributes, new HashSet<>()));
+
+        int groupCount = Math.max(1, userCount / USERS_PER_GROUP);
+        for (int i = 0; i < groupCount; i++) {
+            put(new Entity(new EntityUID(UserGroupTypeName, "group-" + i), Collections.emptyMap(), new HashSet<>()));
+        }
+
+        requests = new AuthorizationRequest[userCount];
+        for (int i = 0; i < userCount; i++) {
+            EntityUID userEUID = new EntityUID(UserTypeName, "user-" + i);
+            Map<String, Value> userAttributes = new HashMap<>();
+            userAttributes.put("loginUser", userEUID);
+            userAttributes.put("role", new EntityUID(RoleTypeName, "User"));
+            userAttributes.put("displayName", new PrimString("user-" + i));
+            userAttributes.put("disabled", new PrimBool(false));
+            Set<EntityUID> parents = new HashSet<>();
+            parents.add(new EntityUID(UserGroupTypeName, "group-" + (i % groupCount)));
+            put(new Entity(userEUID, userAttributes, parents));
+
+            EntityUID templateEUID = new EntityUID(SessionTemplateTypeName, "template-" + i);
+            CedarList publishedTo = new CedarList();
+            publishedTo.add(new EntityUID(UserGroupTypeName, "group-" + ((i + 1) % groupCount)));
+            Map<String, Value> templateAttributes = new HashMap<>();
+            templateAttributes.put("owner", new EntityUID(UserTypeName, "user-0"));
+            templateAttributes.put(ShareLevel.publishedTo.toString(), publishedTo);
+            put(new Entity(templateEUID, templateAttributes, new HashSet<>()));
+
+            requests[i] = new AuthorizationRequest(userEUID,
+                    new EntityUID(ActionTypeName, ResourceAction.viewSessionTemplateDetails.toString()),
+                    new EntityUID(SessionTemplateTypeName, "template-" + ((i * 7) % userCount)),
+                    Collections.emptyMap());
+        }
+        entities = new HashSet<>(entitiesMap.values());
+    }
+
+    @Benchmark
+    public AuthorizationResponse fullEntitySet() throws AuthException {
+        return engine.isAuthorized(nextRequest(), policies, entities);
+    }
+
+    @Benchmark
+    public AuthorizationResponse slicedEntitySet() throws AuthException {
+        AuthorizationRequest request = nextRequest();
+        return engine.isAuthorized(request, policies,
+                CedarEntitySlicer.slice(entitiesMap, request.principalEUID, request.resourceEUID));
+    }
+
+    private AuthorizationRequest nextRequest() {
+        next = (next + 1) % requests.length;
+        return requests[next];
+    }
+
+    private void put(Entity entity) {
+        entitiesMap.put(entity.getEUID().toString(), entity);
+    }
+
+    private void loadPolicies() throws IOException {
+        try (InputStream stream = getClass().getResourceAsStream("/authorization/policies.cedar")) {
+            String contents = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            Matcher m = Pattern.compile(CedarAuthorizationEngine.POLICY_MATCHER_REGEX).matcher(contents);
+            Set<Policy> policySet = new HashSet<>();
+            int i = 0;
+            while (m.find()) {
+                policySet.add(new Policy(m.group(), "Policy " + i++));
+            }
+            policies.policies = policySet;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.utils;
+
+import handler.model.Availability;
+import handler.model.CpuInfo;
+import handler.model.DescribeServersUIRequestData;
+import handler.model.Endpoint;
+import handler.model.FilterAvailabilityToken;
+import handler.model.FilterNumberToken;
+import handler.model.FilterOsFamilyToken;
+import handler.model.FilterProtocolToken;
+import handler.model.FilterToken;
+import handler.model.Host;
+import handler.model.Os;
+import handler.model.OsFamily;
+import handler.model.Protocol;
+import handler.model.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Compares {@link Filter} with the BeanWrapper based property access it replaced, filtering servers with one token
+ * for each of five properties, including a nested path and a list element property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterBenchmark {
+    @Param({"10000"})
+    private int serverCount;
+
+    private final Filter<DescribeServersUIRequestData, Server> filter = new Filter<>();
+    private DescribeServersUIRequestData request;
+    private List<Map.Entry<String[], Predicate<Object>>> beanWrapperFilters;
+    private List<Server> servers;
+
+    @Setup
+    public void setup() {
+        request = new DescribeServersUIRequestData()
+                .addHostnamesItem(new FilterToken().operator(FilterToken.OperatorEnum.CONTAINS).value("server-1"))
+                .addAvailabilitiesItem(new FilterAvailabilityToken().operator(FilterAvailabilityToken.OperatorEnum.EQUAL).value(Availability.AVAILABLE))
+                .addNumberOfCpusItem(new FilterNumberToken().operator(FilterNumberToken.OperatorEnum.GREATER_THAN_OR_EQUAL_TO).value(4L))
+                .addProtocolsItem(new FilterProtocolToken().operator(FilterProtocolToken.OperatorEnum.EQUAL).value(Protocol.QUIC))
+                .addOsFamiliesItem(new FilterOsFamilyToken().operator(FilterOsFamilyToken.OperatorEnum.EQUAL).value(OsFamily.LINUX));
+
+        // The same tokens, evaluated the way Filter did before its accessors were compiled
+        beanWrapperFilters = List.of(
+                Map.entry(new String[]{"hostname"}, value -> ((String) value).contains("server-1")),
+                Map.entry(new String[]{"availability"}, value -> Availability.AVAILABLE.toString().equals(value)),
+                Map.entry(new String[]{"host.cpuInfo.numberOfCpus"}, value -> ((Number) value).longValue() >= 4L),
+                Map.entry(new String[]{"endpoints", "protocol"}, value -> Protocol.QUIC.toString().equals(value)),
+                Map.entry(new String[]{"host.os.family"}, value -> OsFamily.LINUX.toString().equals(value)));
+
+        servers = new ArrayList<>(serverCount);
+        for (int i = 0; i < serverCount; i++) {
+            Server server = new Server()
+                    .id("server-" + i)
+                    .hostname("server-" + i)
+                    .availability((i % 4 == 0 ? Availability.UNAVAILABLE : Availability.AVAILABLE).toString())
+                    .host(new Host()
+                            .os(new Os().family((i % 3 == 0 ? OsFamily.WINDOWS : OsFamily.LINUX).toString()))
+                            .cpuInfo(new CpuInfo().numberOfCpus(1 << (i % 4))))
+                    .addEndpointsItem(new Endpoint().protocol(Protocol.HTTP.toString()).port(8443))
+                    .addEndpointsItem(new Endpoint().protocol(Protocol.QUIC.toString()).port(8443));
+            servers.add(server);
+        }
+    }
+
+    @Benchmark
+    public List<Server> compiledAccessors() {
+        return filter.getFiltered(request, servers);
+    }
+
+    @Benchmark
+    public List<Server> beanWrapperAccessors() {
+        List<Server> filtered = new ArrayList<>();
+        for (Server server : servers) {
+            boolean matches = true;
+            for (Map.Entry<String[], Predicate<Object>> entry : beanWrapperFilters) {
+                if (!isFiltered(server, entry.getKey(), entry.getValue())) {
+                    matches = false;
+                    break;
+                }
+            }
+            if (matches) {
+                filtered.add(server);
+            }
+        }
+        return filtered;
+    }
+
+    private static boolean isFiltered(Server server, String[] property, Predicate<Object> filter) {
+        try {
+            Object object = PropertyAccessorFactory.forBeanPropertyAccess(server).getPropertyValue(property[0]);
+            if (object == null) {
+                return false;
+            }
+            if (object instanceof List<?> objects) {
+                for (Object objectProperty : objects) {
+                    Object objectValue = PropertyAccessorFactory.forBeanPropertyAccess(objectProperty).getPropertyValue(property[1]);
+                    if (objectValue != null && filter.test(objectValue)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return filter.test(object);
+        } catch (NullValueInNestedPathException e) {
+            return false;
+        }
+    }
+}
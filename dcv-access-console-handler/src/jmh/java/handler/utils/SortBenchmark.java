@@ -0,0 +1,88 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.utils;
+
+import handler.model.DescribeServersUIRequestData;
+import handler.model.Host;
+import handler.model.Memory;
+import handler.model.Server;
+import handler.model.SortToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Sort} with the BeanWrapper based comparator it replaced, sorting servers by a string key and by a
+ * nested long key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortBenchmark {
+    @Param({"50000"})
+    private int serverCount;
+
+    @Param({"Hostname", "Host.Memory.TotalBytes"})
+    private String key;
+
+    private final Sort<DescribeServersUIRequestData, Server> sort = new Sort<>();
+    private DescribeServersUIRequestData request;
+    private List<Server> servers;
+
+    @Setup
+    public void setup() {
+        request = new DescribeServersUIRequestData().sortToken(new SortToken().operator(SortToken.OperatorEnum.ASC).key(key));
+
+        Random random = new Random(42);
+        servers = new ArrayList<>(serverCount);
+        for (int i = 0; i < serverCount; i++) {
+            servers.add(new Server()
+                    .id("server-" + i)
+                    .hostname("server-" + random.nextInt(serverCount))
+                    .host(new Host().memory(new Memory().totalBytes((long) random.nextInt(64) << 30))));
+        }
+    }
+
+    @Benchmark
+    public List<Server> extractedKeys() {
+        return sort.getSorted(request, new ArrayList<>(servers));
+    }
+
+    @Benchmark
+    public List<Server> beanWrapperComparator() {
+        List<Server> sorted = new ArrayList<>(servers);
+        // The comparator Sort used before the keys were extracted up front
+        sorted.sort(new Comparator<Server>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public int compare(Server o1, Server o2) {
+                Object propertyValue1 = PropertyAccessorFactory.forBeanPropertyAccess(o1).getPropertyValue(key);
+                Object propertyValue2 = PropertyAccessorFactory.forBeanPropertyAccess(o2).getPropertyValue(key);
+                if (propertyValue1 == null && propertyValue2 == null) {
+                    return 0;
+                }
+                if (propertyValue1 == null) {
+                    return -1;
+                }
+                if (propertyValue2 == null) {
+                    return 1;
+                }
+                return ((Comparable<Object>) propertyValue1).compareTo(propertyValue2);
+            }
+        });
+        return sorted;
+    }
+}
@@ -4,12 +4,14 @@
 package handler.authorization.engines;
 
 import handler.authorization.engines.entities.SetShareListResponse;
+import handler.authorization.engines.entities.UserChangeSet;
 import handler.authorization.enums.PrincipalType;
 import handler.authorization.enums.ResourceAction;
 import handler.authorization.enums.ResourceType;
 import handler.authorization.enums.ShareLevel;
 import handler.authorization.enums.SystemAction;
 import java.util.List;
+import java.util.Map;
 import org.springframework.security.access.AuthorizationServiceException;
 
 public abstract class AbstractAuthorizationEngine {
@@ -47,6 +49,21 @@ public abstract class AbstractAuthorizationEngine {
     public abstract boolean isAuthorized(PrincipalType principalType, String principalUUID, ResourceAction action,
                                          ResourceType resourceType, String resourceUUID) throws AuthorizationServiceException;
 
+    /**
+     * Checks if the principal is authorized to take that action on each of the resources.
+     * @param principalType The type of principal, as defined by the PrincipalType enum.
+     * @param principalUUID The unique identifier of the principal.
+     * @param action The action the principal is taking.
+     * @param resourceType The type of resource, as defined by the ResourceType enum.
+     * @param resourceUUIDs The unique identifiers of the resources the principal is taking that action on.
+     * @return Returns a map from each resource identifier to true if the principal is authorized on it.
+     * @throws AuthorizationServiceException if the Authorization Engine is not able to determine if the principal is
+     * authorized or not for any of the resources.
+     */
+    public abstract Map<String, Boolean> isAuthorizedBatch(PrincipalType principalType, String principalUUID,
+                                                           ResourceAction action, ResourceType resourceType,
+                                                           List<String> resourceUUIDs) throws AuthorizationServiceException;
+
     /**
      * Adds a new user to the system with the default role and saves it to the persistence layer.
      * @param userUUID The unique identifier of the user to add.
@@ -64,6 +81,14 @@ public abstract class AbstractAuthorizationEngine {
      */
     public abstract void addUser(String userUUID, String loginUsername, String displayName, String roleUUID, boolean isDisabled);
 
+    /**
+     * Applies users and group memberships that were already saved to the persistence layer, without reloading the
+     * rest of the entities. Groups that don't exist yet are added. Users keep their existing group memberships
+     * unless they are listed as replaced.
+     * @param changeSet The users and memberships that were added or updated.
+     */
+    public abstract void applyUserChanges(UserChangeSet changeSet);
+
     /**
      * Adds a new group to the system with the UUID specified.
      * @param groupUUID The unique identifier of the group to be added.
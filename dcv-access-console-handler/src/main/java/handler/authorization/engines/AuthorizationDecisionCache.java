@@ -0,0 +1,68 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of authorization decisions keyed on principal, action and resource.
+ * <p>
+ * Every key also carries the generation of the entity store it was computed against. Any change to the entities
+ * bumps the generation, so a decision computed before the change can never be served afterwards, even if it is
+ * written to the cache after the change was made.
+ */
+@Slf4j
+@Component
+public class AuthorizationDecisionCache {
+    private static final String CACHE_NAME = "authorizationDecisions";
+
+    private final Cache<DecisionKey, Boolean> decisions;
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthorizationDecisionCache(@Value("${authorization-decision-cache-max-size:10000}") long maxSize,
+                                      @Value("${authorization-decision-cache-ttl-seconds:300}") long ttlSeconds,
+                                      MeterRegistry meterRegistry) {
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, decisions, CACHE_NAME);
+        meterRegistry.gauge("authorization.decisions.generation", generation);
+    }
+
+    /**
+     * Returns the cached decision for the request, computing and caching it if it is not present.
+     * @param principal The Cedar identifier of the principal.
+     * @param action The Cedar identifier of the action.
+     * @param resource The Cedar identifier of the resource.
+     * @param decision Computes the decision on a cache miss. Exceptions are propagated and nothing is cached.
+     * @return Returns true if the principal is authorized.
+     */
+    public boolean get(String principal, String action, String resource, Supplier<Boolean> decision) {
+        return decisions.get(new DecisionKey(generation.get(), principal, action, resource), key -> decision.get());
+    }
+
+    /**
+     * Discards every cached decision. Must be called after any change to the entities or policies.
+     */
+    public void invalidate() {
+        long newGeneration = generation.incrementAndGet();
+        decisions.invalidateAll();
+        log.debug("Invalidated authorization decisions, now at generation {}", newGeneration);
+    }
+
+    private record DecisionKey(long generation, String principal, String action, String resource) {
+    }
+}
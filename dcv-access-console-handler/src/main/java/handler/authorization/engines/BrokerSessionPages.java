@@ -0,0 +1,111 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import handler.brokerclients.BrokerClient;
+import handler.model.DescribeSessionsUIRequestData;
+import handler.model.DescribeSessionsUIResponse;
+import handler.model.SessionWithPermissions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pages through every session on the broker on a background thread, following the NextToken of each response. The
+ * next page is fetched while the previous one is being consumed, and at most a couple of pages are held at a time.
+ */
+@Slf4j
+final class BrokerSessionPages implements AutoCloseable {
+    private static final int PAGES_AHEAD = 2;
+    private static final long OFFER_INTERVAL_MILLIS = 100;
+    private static final Page END = new Page(Collections.emptyList(), true, null);
+
+    private final BrokerClient brokerClient;
+    private final int pageSize;
+    private final BlockingQueue<Page> pages = new ArrayBlockingQueue<>(PAGES_AHEAD);
+    private volatile boolean closed;
+
+    record Page(List<SessionWithPermissions> sessions, boolean last, Exception failure) {
+    }
+
+    BrokerSessionPages(BrokerClient brokerClient, int pageSize, Executor executor) {
+        this.brokerClient = brokerClient;
+        this.pageSize = pageSize;
+        executor.execute(this::fetch);
+    }
+
+    /**
+     * Waits for the next page.
+     * @param timeoutMillis How long to wait for the page.
+     * @return Returns the next page, or null if it was not fetched in time.
+     * @throws Exception Throws the exception the broker client failed with, if it failed.
+     */
+    Page poll(long timeoutMillis) throws Exception {
+        return unwrap(pages.poll(timeoutMillis, TimeUnit.MILLISECONDS));
+    }
+
+    Page take() throws Exception {
+        return unwrap(pages.take());
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops fetching. Anyone waiting for a page is given a last, empty one.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pages.clear();
+        pages.offer(END);
+    }
+
+    private static Page unwrap(Page page) throws Exception {
+        if (page != null && page.failure() != null) {
+            throw page.failure();
+        }
+        return page;
+    }
+
+    private void fetch() {
+        String token = null;
+        try {
+            do {
+                DescribeSessionsUIResponse response = brokerClient.describeSessions(
+                        new DescribeSessionsUIRequestData().maxResults(pageSize).nextToken(token));
+                String nextToken = response.getNextToken();
+                if (nextToken != null && nextToken.equals(token)) {
+                    log.warn("Broker returned NextToken {} again, no more sessions will be loaded", nextToken);
+                    nextToken = null;
+                }
+                token = nextToken;
+                List<SessionWithPermissions> sessions = response.getSessions() != null ? response.getSessions() : Collections.emptyList();
+                put(new Page(sessions, token == null, null));
+            } while (token != null && !closed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            try {
+                put(new Page(Collections.emptyList(), true, e));
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void put(Page page) throws InterruptedException {
+        while (!closed) {
+            if (pages.offer(page, OFFER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+}
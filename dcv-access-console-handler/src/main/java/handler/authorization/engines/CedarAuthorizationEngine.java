@@ -4,20 +4,13 @@
 package handler.authorization.engines;
 
 import handler.authorization.engines.entities.SetShareListResponse;
+import handler.authorization.engines.entities.UserChangeSet;
 import handler.authorization.enums.PrincipalType;
 import handler.authorization.enums.ResourceAction;
 import handler.authorization.enums.ResourceType;
 import handler.authorization.enums.ShareLevel;
 import handler.authorization.enums.SystemAction;
-import handler.brokerclients.BrokerClient;
-import handler.model.DescribeSessionTemplatesRequestData;
-import handler.model.DescribeSessionTemplatesResponse;
-import handler.model.DescribeSessionsUIRequestData;
-import handler.model.DescribeSessionsUIResponse;
-import handler.model.DescribeUserGroupsRequestData;
-import handler.model.DescribeUserGroupsResponse;
-import handler.model.DescribeUsersRequestData;
-import handler.model.DescribeUsersResponse;
+import handler.brokerclients.dcv.DCVBrokerClient;
 import handler.model.SessionTemplate;
 import handler.model.SessionWithPermissions;
 import handler.model.User;
@@ -40,8 +33,12 @@ import com.cedarpolicy.value.EntityUID;
 import com.cedarpolicy.value.PrimBool;
 import com.cedarpolicy.value.PrimString;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -66,6 +63,13 @@ import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -77,7 +81,7 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     // new line, then any collection of characters that doesn't contain a right parenthesis, then a right parenthesis,
     // then optionally a space and the word 'when' followed by a left curly bracket, then any characters that aren't
     // a right curly bracket, then a right curly bracket, and finally a semicolon.
-    private static final String POLICY_MATCHER_REGEX = "(permit|forbid) \\(\\n\\s* [^)]*\\)( when \\{\\n\\s*[^}]*})?;";
+    static final String POLICY_MATCHER_REGEX = "(permit|forbid) \\(\\n\\s* [^)]*\\)( when \\{\\n\\s*[^}]*})?;";
 
     private static final String ACTIONS_ATTRIBUTE = "actions";
     private static final String ROLE_ATTRIBUTE = "role";
@@ -85,13 +89,25 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     private static final String OWNER_ATTRIBUTE = "owner";
     private static final String DISPLAY_NAME_ATTRIBUTE = "displayName";
     private static final String LOGINUSER_ATTRIBUTE = "loginUser";
+    private static final String LOAD_TIMER = "authorization.engine.load";
 
     @Value("${default-role}")
     private String defaultRole;
     private final UserService userService;
     private final UserGroupService userGroupService;
     private final SessionTemplateService sessionTemplateService;
-    private final BrokerClient brokerClient;
+    // The broker itself rather than the primary, caching client: the preload pages through every session once, which
+    // the cache would turn into a single blocking read of the whole broker
+    private final DCVBrokerClient brokerClient;
+    private final AuthorizationDecisionCache decisionCache;
+    private final MeterRegistry meterRegistry;
+    // Users that already exist on the persistence layer but were not added to the engine by this instance
+    private final Cache<String, Boolean> persistedUsers;
+    private final int sessionPreloadPageSize;
+    private final long startupBudgetMillis;
+    private final ExecutorService preloadExecutor;
+    // The sessions still being loaded from the broker by the last call to loadEntities
+    private volatile BrokerSessionPages sessionPages;
 
     // TODO: Move these to configuration file
     private static final ShareLevel[] SESSION_SHARE_LEVELS = new ShareLevel[] {ShareLevel.collaborators};
@@ -106,9 +122,8 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     private static final EntityTypeName UserGroupTypeName = EntityTypeName.parse(ResourceType.Group.toString()).get();
     private static final EntityTypeName ActionTypeName = EntityTypeName.parse("Action").get();
     private static final EntityUID emptyResourceEUID = new EntityUID(EntityTypeName.parse("Resource").get(), "");
-    private final PolicySet policies;
-    private final HashMap<String, Entity> entitiesMap;
-    private Set<Entity> entities;
+    private final CedarEntityStore entityStore = new CedarEntityStore();
+    private volatile PolicySet policies;
 
     private final ObjectMapper mapper;
     private final ObjectWriter writer;
@@ -116,11 +131,17 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     public CedarAuthorizationEngine(@Value("${authorization-policies-location}") File policyFile,
                                     @Value("${authorization-roles-location}") File roleFile,
                                     @Value("${user-id-case-sensitive:true}")  boolean caseSensitive,
+                                    @Value("${provisioned-users-cache-max-size:10000}") long provisionedUsersCacheMaxSize,
+                                    @Value("${provisioned-users-cache-ttl-seconds:300}") long provisionedUsersCacheTtlSeconds,
+                                    @Value("${authorization-session-preload-page-size:1000}") int sessionPreloadPageSize,
+                                    @Value("${authorization-startup-budget-seconds:30}") long startupBudgetSeconds,
                                     BasicAuthorizationEngine basicAuthorizationEngine, ObjectMapper mapper, ObjectWriter writer,
                                     UserService userService,
                                     UserGroupService userGroupService,
                                     SessionTemplateService sessionTemplateService,
-                                    BrokerClient brokerClient) {
+                                    DCVBrokerClient brokerClient,
+                                    AuthorizationDecisionCache decisionCache,
+                                    MeterRegistry meterRegistry) {
         this.caseSensitive = caseSensitive;
         this.mapper = mapper;
         this.writer = writer;
@@ -129,29 +150,104 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         this.userGroupService = userGroupService;
         this.sessionTemplateService = sessionTemplateService;
         this.brokerClient = brokerClient;
+        this.decisionCache = decisionCache;
+        this.meterRegistry = meterRegistry;
+        this.persistedUsers = Caffeine.newBuilder()
+                .maximumSize(provisionedUsersCacheMaxSize)
+                .expireAfterWrite(provisionedUsersCacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        this.sessionPreloadPageSize = sessionPreloadPageSize;
+        this.startupBudgetMillis = TimeUnit.SECONDS.toMillis(startupBudgetSeconds);
+        AtomicInteger preloadThreads = new AtomicInteger();
+        this.preloadExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "authorization-preload-" + preloadThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
 
         this.policyFile = policyFile;
         this.roleFile = roleFile;
-        
-        this.policies = new PolicySet();
-        this.entitiesMap = new HashMap<>();
 
         loadEntities();
     }
 
     @Override
     public void loadEntities() {
+        // Sessions still being loaded for a previous call would be replaced by this one
+        BrokerSessionPages previousPages = sessionPages;
+        if (previousPages != null) {
+            previousPages.close();
+        }
+        long started = System.nanoTime();
+        long deadline = System.currentTimeMillis() + startupBudgetMillis;
         loadPoliciesFromFile(policyFile);
-        entities = new HashSet<>();
-        entitiesMap.clear();
-        loadRolesFromFile(roleFile);
-        loadUsersFromDb();
-        loadUserGroupsFromDb();
+
+        // Every source is read at once, so loading takes as long as the slowest one rather than all of them together.
+        // Nothing is published until the reads have been joined into a single rebuild.
+        BrokerSessionPages pages = new BrokerSessionPages(brokerClient, sessionPreloadPageSize, preloadExecutor);
+        sessionPages = pages;
+        CompletableFuture<List<User>> users = loadAsync("users", userService::getAllUsers);
+        CompletableFuture<List<UserGroup>> userGroups = loadAsync("userGroups", userGroupService::getAllUserGroups);
+        CompletableFuture<Iterable<UserGroupUserMembership>> memberships = loadAsync("memberships",
+                userGroupService::getUserGroupUserMemberships);
+        CompletableFuture<List<SessionTemplate>> sessionTemplates = loadAsync("sessionTemplates",
+                sessionTemplateService::getAllSessionTemplates);
+        CompletableFuture<Map<String, List<String>>> userShareLists = loadAsync("userShareLists",
+                sessionTemplateService::getUserIdsBySessionTemplates);
+        CompletableFuture<Map<String, List<String>>> groupShareLists = loadAsync("groupShareLists",
+                sessionTemplateService::getUserGroupIdsBySessionTemplates);
+
+        List<User> loadedUsers;
+        List<UserGroup> loadedUserGroups;
+        Iterable<UserGroupUserMembership> loadedMemberships;
         try {
-            loadResourcesFromDb();
-        } catch (Exception e) {
-            log.error("Unable to load resources to the Authorization Engine", e);
+            loadedUsers = join(users);
+            loadedUserGroups = join(userGroups);
+            loadedMemberships = join(memberships);
+        } catch (RuntimeException e) {
+            pages.close();
+            throw e;
+        }
+        List<SessionTemplate> loadedSessionTemplates = null;
+        SessionTemplateShareLists loadedShareLists = null;
+        try {
+            loadedSessionTemplates = join(sessionTemplates);
+            loadedShareLists = new SessionTemplateShareLists(join(userShareLists), join(groupShareLists));
+        } catch (RuntimeException e) {
+            log.error("Unable to load Session Templates to the Authorization Engine", e);
         }
+
+        List<SessionTemplate> templatesToPut = loadedSessionTemplates;
+        SessionTemplateShareLists shareListsToPut = loadedShareLists;
+        long rebuildStarted = System.nanoTime();
+        entityStore.rebuild(entities -> {
+            loadRolesFromFile(roleFile, entities);
+            putUsers(entities, loadedUsers);
+            putUserGroups(entities, loadedUserGroups, loadedMemberships);
+            if (templatesToPut != null) {
+                putSessionTemplates(entities, templatesToPut, shareListsToPut);
+            }
+            long sessionsStarted = System.nanoTime();
+            try {
+                loadSessionsFromBroker(entities, pages, deadline);
+            } catch (Exception e) {
+                log.error("Unable to load Sessions to the Authorization Engine", e);
+            } finally {
+                record("sessions", sessionsStarted);
+            }
+        });
+        decisionCache.invalidate();
+        record("rebuild", rebuildStarted);
+        record("total", started);
+    }
+
+    @PreDestroy
+    public void close() {
+        BrokerSessionPages pages = sessionPages;
+        if (pages != null) {
+            pages.close();
+        }
+        preloadExecutor.shutdownNow();
     }
 
     @Override
@@ -161,19 +257,22 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         EntityUID cedarPrincipalEUID = new EntityUID(principalTypeName, normalizeUUID(principalUUID));
         EntityUID cedarActionEUID = new EntityUID(ActionTypeName, action.toString());
         // The resource doesn't matter, but the request will fail if it isn't present.
-        AuthorizationRequest request = new AuthorizationRequest(cedarPrincipalEUID, cedarActionEUID, emptyResourceEUID,
-                Collections.emptyMap());
-        try {
-            log.info("Checking authorization for principal: {} and action: {}", cedarPrincipalEUID, action);
-            AuthorizationResponse response = this.basicAuthorizationEngine.isAuthorized(request, policies, entities);
-            logAuthorization(response);
-            return response.success.map(AuthorizationSuccessResponse::isAllowed).orElse(false);
-        } catch (AuthException e) {
-            log.error("Unable to reach authorization decision. ", e);
-            String errorMsg = String.format("The Cedar Authorization Engine encountered an error and was unable to "
-                    + "reach an authorization decision for principal: %s and action: %s", principalUUID, action);
-            throw new AuthorizationServiceException(errorMsg);
-        }
+        return decisionCache.get(cedarPrincipalEUID.toString(), cedarActionEUID.toString(), emptyResourceEUID.toString(), () -> {
+            AuthorizationRequest request = new AuthorizationRequest(cedarPrincipalEUID, cedarActionEUID, emptyResourceEUID,
+                    Collections.emptyMap());
+            try {
+                log.info("Checking authorization for principal: {} and action: {}", cedarPrincipalEUID, action);
+                AuthorizationResponse response = this.basicAuthorizationEngine.isAuthorized(request, policies,
+                        CedarEntitySlicer.slice(entityStore.snapshot().entities(), cedarPrincipalEUID, emptyResourceEUID));
+                logAuthorization(response);
+                return response.success.map(AuthorizationSuccessResponse::isAllowed).orElse(false);
+            } catch (AuthException e) {
+                log.error("Unable to reach authorization decision. ", e);
+                String errorMsg = String.format("The Cedar Authorization Engine encountered an error and was unable to "
+                        + "reach an authorization decision for principal: %s and action: %s", principalUUID, action);
+                throw new AuthorizationServiceException(errorMsg);
+            }
+        });
     }
 
     @Override
@@ -184,21 +283,73 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         EntityUID cedarPrincipalEUID = new EntityUID(principalTypeName, normalizeUUID(principalUUID));
         EntityUID cedarActionEUID = new EntityUID(ActionTypeName, action.toString());
         EntityUID cedarResourceEUID = new EntityUID(resourceTypeName, normalizeUUID(resourceType, resourceUUID));
-        AuthorizationRequest request = new AuthorizationRequest(cedarPrincipalEUID, cedarActionEUID, cedarResourceEUID,
-                Collections.emptyMap());
-        try {
-            log.info("Checking authorization for principal: {} and action: {} on resource {}", cedarPrincipalEUID,
-                    action, cedarResourceEUID);
-            AuthorizationResponse response = this.basicAuthorizationEngine.isAuthorized(request, policies, entities);
-            logAuthorization(response);
-            return response.success.map(AuthorizationSuccessResponse::isAllowed).orElse(false);
-        } catch (AuthException e) {
-            log.error("Unable to reach authorization decision. ", e);
-            String errorMsg = String.format("The Cedar Authorization Engine encountered an error and was unable to "
-                            + "reach an authorization decision for principal: %s, action: %s, and resource: %s", principalUUID,
-                    action, resourceUUID);
-            throw new AuthorizationServiceException(errorMsg);
+        return decisionCache.get(cedarPrincipalEUID.toString(), cedarActionEUID.toString(), cedarResourceEUID.toString(), () -> {
+            AuthorizationRequest request = new AuthorizationRequest(cedarPrincipalEUID, cedarActionEUID, cedarResourceEUID,
+                    Collections.emptyMap());
+            try {
+                log.info("Checking authorization for principal: {} and action: {} on resource {}", cedarPrincipalEUID,
+                        action, cedarResourceEUID);
+                AuthorizationResponse response = this.basicAuthorizationEngine.isAuthorized(request, policies,
+                        CedarEntitySlicer.slice(entityStore.snapshot().entities(), cedarPrincipalEUID, cedarResourceEUID));
+                logAuthorization(response);
+                return response.success.map(AuthorizationSuccessResponse::isAllowed).orElse(false);
+            } catch (AuthException e) {
+                log.error("Unable to reach authorization decision. ", e);
+                String errorMsg = String.format("The Cedar Authorization Engine encountered an error and was unable to "
+                                + "reach an authorization decision for principal: %s, action: %s, and resource: %s", principalUUID,
+                        action, resourceUUID);
+                throw new AuthorizationServiceException(errorMsg);
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Boolean> isAuthorizedBatch(PrincipalType principalType, String principalUUID, ResourceAction action,
+                                                  ResourceType resourceType, List<String> resourceUUIDs) {
+        EntityTypeName principalTypeName = EntityTypeName.parse(principalType.toString()).get();
+        EntityTypeName resourceTypeName = EntityTypeName.parse(resourceType.toString()).get();
+        EntityUID cedarPrincipalEUID = new EntityUID(principalTypeName, normalizeUUID(principalUUID));
+        EntityUID cedarActionEUID = new EntityUID(ActionTypeName, action.toString());
+        // Every resource in the batch is checked against the same snapshot, and the principal side of the slice is
+        // the same for all of them, so it is only built once
+        Map<String, Entity> entities = entityStore.snapshot().entities();
+        Map<String, Entity> principalEntities = CedarEntitySlicer.closure(entities, cedarPrincipalEUID);
+        log.info("Checking authorization for principal: {} and action: {} on {} {} resources", cedarPrincipalEUID,
+                action, resourceUUIDs.size(), resourceType);
+
+        // Each decision takes microseconds once the slice is built, so the batch is evaluated on the calling thread
+        // rather than competing with every other request for the common pool
+        Map<String, Boolean> decisions = new HashMap<>();
+        for (String resourceUUID : resourceUUIDs) {
+            if (resourceUUID == null || decisions.containsKey(resourceUUID)) {
+                continue;
+            }
+            EntityUID cedarResourceEUID = new EntityUID(resourceTypeName, normalizeUUID(resourceType, resourceUUID));
+            decisions.put(resourceUUID, decisionCache.get(cedarPrincipalEUID.toString(), cedarActionEUID.toString(),
+                    cedarResourceEUID.toString(), () -> {
+                AuthorizationRequest request = new AuthorizationRequest(cedarPrincipalEUID, cedarActionEUID,
+                        cedarResourceEUID, Collections.emptyMap());
+                try {
+                    AuthorizationResponse response = this.basicAuthorizationEngine.isAuthorized(request, policies,
+                            CedarEntitySlicer.slice(entities, principalEntities, cedarResourceEUID));
+                    response.errors.ifPresent(e -> log.warn("Authorization engine denied access to {} due to errors: {}",
+                            cedarResourceEUID, e.stream().map(er -> er.message).collect(Collectors.toList())));
+                    boolean allowed = response.success.map(AuthorizationSuccessResponse::isAllowed).orElse(false);
+                    log.debug("Principal {} was{} permitted on resource {}", cedarPrincipalEUID, allowed ? "" : " not",
+                            cedarResourceEUID);
+                    return allowed;
+                } catch (AuthException e) {
+                    log.error("Unable to reach authorization decision. ", e);
+                    String errorMsg = String.format("The Cedar Authorization Engine encountered an error and was unable to "
+                                    + "reach an authorization decision for principal: %s, action: %s, and resource: %s",
+                            principalUUID, action, resourceUUID);
+                    throw new AuthorizationServiceException(errorMsg);
+                }
+            }));
         }
+        log.info("Principal {} was permitted on {} of {} {} resources", cedarPrincipalEUID,
+                decisions.values().stream().filter(Boolean::booleanValue).count(), decisions.size(), resourceType);
+        return decisions;
     }
 
     private void logAuthorization(AuthorizationResponse response) {
@@ -208,6 +359,15 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     }
 
     public void addUser(String userUUID, String loginUsername, String displayName, String roleUUID, boolean isDisabled) {
+        entityStore.update(entities -> {
+            putUser(entities, userUUID, loginUsername, displayName, roleUUID, isDisabled);
+            return true;
+        });
+        decisionCache.invalidate();
+    }
+
+    private void putUser(Map<String, Entity> entities, String userUUID, String loginUsername, String displayName,
+                         String roleUUID, boolean isDisabled) {
         EntityUID userEUID = new EntityUID(UserTypeName, normalizeUUID(userUUID));
         Map<String, com.cedarpolicy.value.Value> attributes = new HashMap<>();
         if (StringUtils.isEmpty(loginUsername)) {
@@ -218,22 +378,23 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         attributes.put(DISPLAY_NAME_ATTRIBUTE, new PrimString(displayName));
         attributes.put(DISABLED_ATTRIBUTE, new PrimBool(isDisabled));
 
-        if(entitiesMap.containsKey(userEUID.toString())) {
-            Entity userEntity = entitiesMap.get(userEUID.toString());
-            entities.remove(userEntity);
-        }
-
-        Entity userEntity = new Entity(userEUID, attributes, new HashSet<>());
-        entitiesMap.put(userEUID.toString(), userEntity);
-        entities.add(userEntity);
+        entities.put(userEUID.toString(), new Entity(userEUID, attributes, new HashSet<>()));
         log.info("Successfully added user {} to the Authorization Engine", userUUID);
     }
 
     @Override
     public boolean addUserWithPersistence(String userUUID) {
         String userId = normalizeUUID(userUUID);
+        // Every user on the engine was loaded from or saved to the persistence layer, so only users that haven't been
+        // seen before need the round trip to the persistence layer
+        if (entityStore.snapshot().entities().containsKey(new EntityUID(UserTypeName, userId).toString())
+                || persistedUsers.getIfPresent(userId) != null) {
+            log.debug("User {} has already been provisioned", userId);
+            return false;
+        }
         if(!userService.createUser(userId, userId, defaultRole)) {
             log.warn("Cannot add user {} as it already exists", userId);
+            persistedUsers.put(userId, true);
             return false;
         }
 
@@ -241,25 +402,75 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         return true;
     }
 
+    @Override
+    public void applyUserChanges(UserChangeSet changeSet) {
+        Set<String> replacedMemberships = changeSet.getReplacedMemberships();
+        entityStore.update(entities -> {
+            for (User user : changeSet.getUsers()) {
+                String userEUID = new EntityUID(UserTypeName, normalizeUUID(user.getUserId())).toString();
+                Entity existingUser = entities.get(userEUID);
+                putUser(entities, user.getUserId(), user.getLoginUsername(), user.getDisplayName(), user.getRole(),
+                        Boolean.TRUE.equals(user.getIsDisabled()));
+                if (existingUser != null && !replacedMemberships.contains(user.getUserId())) {
+                    // The user entity was just created by putUser and is not published yet
+                    entities.get(userEUID).parentsEUIDs.addAll(existingUser.parentsEUIDs);
+                }
+            }
+
+            changeSet.getMemberships().forEach((userId, groupIds) -> {
+                String userEUID = new EntityUID(UserTypeName, normalizeUUID(userId)).toString();
+                Entity userEntity = entities.get(userEUID);
+                if (userEntity == null) {
+                    log.warn("Unable to add user {} to groups {} because the user could " +
+                            "not be found in the authorization engine", userId, groupIds);
+                    return;
+                }
+                Set<EntityUID> parents = replacedMemberships.contains(userId) ? new HashSet<>() :
+                        new HashSet<>(userEntity.parentsEUIDs);
+                for (String groupId : groupIds) {
+                    EntityUID groupEUID = new EntityUID(UserGroupTypeName, normalizeUUID(groupId));
+                    entities.putIfAbsent(groupEUID.toString(), new Entity(groupEUID, Collections.emptyMap(), Collections.emptySet()));
+                    parents.add(groupEUID);
+                }
+                entities.put(userEUID, new Entity(userEntity.getEUID(), userEntity.attrs, parents));
+            });
+            return true;
+        });
+        decisionCache.invalidate();
+        log.info("Applied {} user(s) and group memberships for {} user(s) to the Authorization Engine",
+                changeSet.getUsers().size(), changeSet.getMemberships().size());
+    }
+
     @Override
     public boolean addGroup(String groupUUID) {
         EntityUID groupEUID = new EntityUID(UserGroupTypeName, normalizeUUID(groupUUID));
-        if (entitiesMap.containsKey(groupEUID.toString())) {
-            return false;
+        boolean added = entityStore.update(entities -> {
+            if (entities.containsKey(groupEUID.toString())) {
+                return false;
+            }
+            entities.put(groupEUID.toString(), new Entity(groupEUID, Collections.emptyMap(), Collections.emptySet()));
+            return true;
+        });
+        if (added) {
+            decisionCache.invalidate();
+            log.info("Successfully added group {} to the Authorization Engine", groupUUID);
         }
-
-        Entity groupEntity = new Entity(groupEUID, Collections.emptyMap(), Collections.emptySet());
-        entitiesMap.put(groupEUID.toString(), groupEntity);
-        entities.add(groupEntity);
-        log.info("Successfully added group {} to the Authorization Engine", groupUUID);
-        return true;
+        return added;
     }
 
     @Override
     public boolean addRole(String roleUUID, List<SystemAction> permissions) {
         // TODO: Save role to persistenceLayer
+        boolean added = entityStore.update(entities -> putRole(entities, roleUUID, permissions));
+        if (added) {
+            decisionCache.invalidate();
+        }
+        return added;
+    }
+
+    private boolean putRole(Map<String, Entity> entities, String roleUUID, List<SystemAction> permissions) {
         EntityUID roleEUID = new EntityUID(RoleTypeName, roleUUID);
-        if (entitiesMap.containsKey(roleEUID.toString())) {
+        if (entities.containsKey(roleEUID.toString())) {
             log.warn("Cannot add role {} as it already exists", roleUUID);
             return false;
         }
@@ -269,9 +480,7 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         }
         Map<String, com.cedarpolicy.value.Value> attributes = new HashMap<>();
         attributes.put(ACTIONS_ATTRIBUTE, new CedarList(cedarPermissions));
-        Entity roleEntity = new Entity(roleEUID, attributes, Collections.emptySet());
-        entitiesMap.put(roleEUID.toString(), roleEntity);
-        entities.add(roleEntity);
+        entities.put(roleEUID.toString(), new Entity(roleEUID, attributes, Collections.emptySet()));
         return true;
     }
 
@@ -293,6 +502,15 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
 
     private boolean addResource(ResourceType resourceType, String resourceUUID, ShareLevel[] shareLevels,
                                 Optional<String> ownerUUID) {
+        boolean added = entityStore.update(entities -> putResource(entities, resourceType, resourceUUID, shareLevels, ownerUUID));
+        if (added) {
+            decisionCache.invalidate();
+        }
+        return added;
+    }
+
+    private boolean putResource(Map<String, Entity> entities, ResourceType resourceType, String resourceUUID,
+                                ShareLevel[] shareLevels, Optional<String> ownerUUID) {
         EntityTypeName resourceTypeName = EntityTypeName.parse(resourceType.toString()).get();
         EntityUID resourceEUID = new EntityUID(resourceTypeName, resourceUUID);
         Map<String, com.cedarpolicy.value.Value> attributes = new HashMap<>();
@@ -300,13 +518,11 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
             attributes.put(shareLevel.toString(), new CedarList());
         }
         ownerUUID.ifPresent(s -> attributes.put(OWNER_ATTRIBUTE, new EntityUID(UserTypeName, s)));
-        if (entitiesMap.containsKey(resourceEUID.toString())) {
+        if (entities.containsKey(resourceEUID.toString())) {
             log.warn("{} {} already exists on the Authorization Engine", resourceType, resourceUUID);
             return false;
         }
-        Entity resourceEntity = new Entity(resourceEUID, attributes, Collections.emptySet());
-        entitiesMap.put(resourceEUID.toString(), resourceEntity);
-        entities.add(resourceEntity);
+        entities.put(resourceEUID.toString(), new Entity(resourceEUID, attributes, Collections.emptySet()));
         log.info("Successfully added {} {} to the Authorization Engine", resourceType, resourceUUID);
 
         return true;
@@ -323,21 +539,30 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         String userEUID = new EntityUID(UserTypeName, normalizeUUID(userUUID)).toString();
         String groupEUID = new EntityUID(UserGroupTypeName, normalizeUUID(groupUUID)).toString();
 
-        if (!entitiesMap.containsKey(userEUID)) {
-            log.warn("Unable to add user {} to group {} because the user could " +
-                    "not be found in the authorization engine", userUUID, groupUUID);
-            return false;
-        }
+        boolean added = entityStore.update(entities -> {
+            if (!entities.containsKey(userEUID)) {
+                log.warn("Unable to add user {} to group {} because the user could " +
+                        "not be found in the authorization engine", userUUID, groupUUID);
+                return false;
+            }
 
-        if (!entitiesMap.containsKey(groupEUID)) {
-            log.warn("Unable to add user {} to group {} because the group could " +
-                    "not be found in the authorization engine", userUUID, groupUUID);
-            return false;
-        }
+            if (!entities.containsKey(groupEUID)) {
+                log.warn("Unable to add user {} to group {} because the group could " +
+                        "not be found in the authorization engine", userUUID, groupUUID);
+                return false;
+            }
 
-        entitiesMap.get(userEUID).parentsEUIDs.add(entitiesMap.get(groupEUID).getEUID());
-        log.info("Successfully added user {} to group {}", userUUID, groupUUID);
-        return true;
+            Entity userEntity = entities.get(userEUID);
+            Set<EntityUID> parents = new HashSet<>(userEntity.parentsEUIDs);
+            parents.add(entities.get(groupEUID).getEUID());
+            entities.put(userEUID, new Entity(userEntity.getEUID(), userEntity.attrs, parents));
+            return true;
+        });
+        if (added) {
+            decisionCache.invalidate();
+            log.info("Successfully added user {} to group {}", userUUID, groupUUID);
+        }
+        return added;
     }
 
     @Override
@@ -345,21 +570,30 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         String userEUID = new EntityUID(UserTypeName, normalizeUUID(userUUID)).toString();
         String groupEUID = new EntityUID(UserGroupTypeName, normalizeUUID(groupUUID)).toString();
 
-        if (!entitiesMap.containsKey(userEUID)) {
-            log.warn("Unable to remove user {} from group {} because the user could " +
-                    "not be found in the authorization engine", userUUID, groupUUID);
-            return false;
-        }
+        boolean removed = entityStore.update(entities -> {
+            if (!entities.containsKey(userEUID)) {
+                log.warn("Unable to remove user {} from group {} because the user could " +
+                        "not be found in the authorization engine", userUUID, groupUUID);
+                return false;
+            }
 
-        if (!entitiesMap.containsKey(groupEUID)) {
-            log.warn("Unable to from user {} from group {} because the group could " +
-                    "not be found in the authorization engine", userUUID, groupUUID);
-            return false;
-        }
+            if (!entities.containsKey(groupEUID)) {
+                log.warn("Unable to from user {} from group {} because the group could " +
+                        "not be found in the authorization engine", userUUID, groupUUID);
+                return false;
+            }
 
-        entitiesMap.get(userEUID).parentsEUIDs.remove(entitiesMap.get(groupEUID).getEUID());
-        log.info("Successfully removed user {} from group {}", userUUID, groupUUID);
-        return true;
+            Entity userEntity = entities.get(userEUID);
+            Set<EntityUID> parents = new HashSet<>(userEntity.parentsEUIDs);
+            parents.remove(entities.get(groupEUID).getEUID());
+            entities.put(userEUID, new Entity(userEntity.getEUID(), userEntity.attrs, parents));
+            return true;
+        });
+        if (removed) {
+            decisionCache.invalidate();
+            log.info("Successfully removed user {} from group {}", userUUID, groupUUID);
+        }
+        return removed;
     }
 
     @Override
@@ -373,14 +607,12 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         EntityTypeName resourceTypeName = EntityTypeName.parse(resourceType.toString()).get();
         String resourceUUID = normalizeUUID(resourceType, resourceId);
         String resourceEUID = new EntityUID(resourceTypeName, resourceUUID).toString();
-        if (!entitiesMap.containsKey(resourceEUID)) {
+        if (!entityStore.update(entities -> entities.remove(resourceEUID) != null)) {
             log.warn("Unable to find {} {} on the Authorization Engine", resourceType, resourceId);
             return false;
         }
 
-        Entity resourceEntity = entitiesMap.get(resourceEUID);
-        entitiesMap.remove(resourceEUID);
-        entities.remove(resourceEntity);
+        decisionCache.invalidate();
         log.info("Successfully deleted {} {} from the Authorization Engine", resourceType, resourceId);
         return true;
     }
@@ -400,13 +632,11 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     @Override
     public boolean removeGroup(String groupUUID) {
         String groupEUID = new EntityUID(UserGroupTypeName, groupUUID).toString();
-        if (!entitiesMap.containsKey(groupEUID)) {
+        if (!entityStore.update(entities -> entities.remove(groupEUID) != null)) {
             log.warn("Unable to find group {} on the Authorization Engine", groupUUID);
             return false;
         }
-        Entity userGroupEntity = entitiesMap.get(groupEUID);
-        entitiesMap.remove(groupEUID);
-        entities.remove(userGroupEntity);
+        decisionCache.invalidate();
         log.info("Successfully deleted group {} from the Authorization Engine", groupUUID);
 
         return true;
@@ -427,30 +657,39 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         String cedarResourceEUID = new EntityUID(resourceTypeName, normalizeUUID(resourceType, resourceUUID)).toString();
         log.info("Adding {} {} to shareList {} on {} {}", principalType, normalizeUUID(principalUUID), shareLevel, resourceType,
                 normalizeUUID(resourceType, resourceUUID));
-        if (!entitiesMap.containsKey(cedarResourceEUID)) {
-            log.warn("Unable to find {} {}", resourceType, resourceUUID);
-            return false;
-        }
-        if (!entitiesMap.containsKey(cedarPrincipalEUID) && !entitiesMap.containsKey(cedarPrincipalEUID)) {
-            log.warn("Unable to find {} {}", principalType, principalUUID);
-            return false;
-        }
-        Entity resourceEntity = entitiesMap.get(cedarResourceEUID);
-        if (resourceEntity.attrs.containsKey(shareLevel.toString()) && resourceEntity.attrs.get(
-                shareLevel.toString()) instanceof CedarList sharedList) {
-            EntityUID sharedWith = new EntityUID(principalTypeName, cedarPrincipalEUID);
-            if (!sharedList.contains(sharedWith)) {
-                log.info("Successfully added {} {} to shareList {} on {} {}", principalType, principalUUID, shareLevel,
-                        resourceType, resourceUUID);
-                sharedList.add(sharedWith);
+        boolean added = entityStore.update(entities -> {
+            if (!entities.containsKey(cedarResourceEUID)) {
+                log.warn("Unable to find {} {}", resourceType, resourceUUID);
+                return false;
+            }
+            if (!entities.containsKey(cedarPrincipalEUID) && !entities.containsKey(cedarPrincipalEUID)) {
+                log.warn("Unable to find {} {}", principalType, principalUUID);
+                return false;
+            }
+            Entity resourceEntity = entities.get(cedarResourceEUID);
+            if (resourceEntity.attrs.containsKey(shareLevel.toString()) && resourceEntity.attrs.get(
+                    shareLevel.toString()) instanceof CedarList sharedList) {
+                EntityUID sharedWith = new EntityUID(principalTypeName, cedarPrincipalEUID);
+                if (!sharedList.contains(sharedWith)) {
+                    log.info("Successfully added {} {} to shareList {} on {} {}", principalType, principalUUID, shareLevel,
+                            resourceType, resourceUUID);
+                    CedarList updatedList = new CedarList(sharedList);
+                    updatedList.add(sharedWith);
+                    entities.put(cedarResourceEUID, withAttribute(resourceEntity, shareLevel.toString(), updatedList));
+                    return true;
+                } else {
+                    log.warn("{} {} is already shared with {} {}", principalType, principalUUID, resourceType, resourceUUID);
+                    return false;
+                }
             } else {
-                log.warn("{} {} is already shared with {} {}", principalType, principalUUID, resourceType, resourceUUID);
+                log.warn("Share List with name {} does not exist on {} {}", shareLevel, resourceType, resourceUUID);
                 return false;
             }
-        } else {
-            log.warn("Share List with name {} does not exist on {} {}", shareLevel, resourceType, resourceUUID);
+        });
+        if (!added) {
             return false;
         }
+        decisionCache.invalidate();
         if (resourceType == ResourceType.SessionTemplate) {
             log.info("Updating SessionTemplate {} in persistence layer", resourceUUID);
             if (PrincipalType.User.equals(principalType)) {
@@ -478,8 +717,9 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         List<String> presentUsers = new ArrayList<>();
         List<String> presentGroups = new ArrayList<>();
 
+        Map<String, Entity> entities = entityStore.snapshot().entities();
         for (EntityUID user : cedarEUIDUsersList) {
-            if (entitiesMap.containsKey(user.toString())) {
+            if (entities.containsKey(user.toString())) {
                 entitiesToAddToShareList.add(user);
                 presentUsers.add(user.getId().toString());
             } else {
@@ -488,7 +728,7 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         }
 
         for (EntityUID group : cedarEUIDGroupsList) {
-            if (entitiesMap.containsKey(group.toString())) {
+            if (entities.containsKey(group.toString())) {
                 entitiesToAddToShareList.add(group);
                 presentGroups.add(group.getId().toString());
             } else {
@@ -525,18 +765,27 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         return response;
     }
 
+    private void setResourceShareList(ResourceType resourceType, String resourceUUID, ShareLevel shareLevel, CedarList entityList) {
+        entityStore.update(entities -> {
+            putResourceShareList(entities, resourceType, resourceUUID, shareLevel, entityList);
+            return true;
+        });
+        decisionCache.invalidate();
+    }
+
     // This method could use some work. It should check that each entity is present in Cedar, and return some sort
     // of response to indicate which entities were successful and which weren't
-    private void setResourceShareList(ResourceType resourceType, String resourceUUID, ShareLevel shareLevel, CedarList entityList) {
+    private void putResourceShareList(Map<String, Entity> entities, ResourceType resourceType, String resourceUUID,
+                                      ShareLevel shareLevel, CedarList entityList) {
         EntityTypeName resourceTypeName = EntityTypeName.parse(resourceType.toString()).get();
         String cedarResourceEUID = new EntityUID(resourceTypeName, resourceUUID).toString();
 
-        if (!entitiesMap.containsKey(cedarResourceEUID)) {
+        if (!entities.containsKey(cedarResourceEUID)) {
             String msg = String.format("Unable to find resource %s on the Authorization Engine", cedarResourceEUID);
             throw new MissingResourceException(msg, resourceType.toString(), resourceUUID);
         }
 
-        Entity resourceEntity = entitiesMap.get(cedarResourceEUID);
+        Entity resourceEntity = entities.get(cedarResourceEUID);
         if (!resourceEntity.attrs.containsKey(shareLevel.toString()) || !(resourceEntity.attrs.get(
                 shareLevel.toString()) instanceof CedarList)) {
             String msg = String.format("Share List with name %s does not exist on this resource", shareLevel);
@@ -544,7 +793,7 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         }
 
         //The share list for the resource entity is entirely replaced
-        resourceEntity.attrs.put(shareLevel.toString(), entityList);
+        entities.put(cedarResourceEUID, withAttribute(resourceEntity, shareLevel.toString(), entityList));
     }
 
     @Override
@@ -555,31 +804,48 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         String cedarPrincipalEUID = new EntityUID(principalTypeName, normalizeUUID(principalUUID)).toString();
         String cedarResourceEUID = new EntityUID(resourceTypeName, normalizeUUID(resourceType, resourceUUID)).toString();
         log.info("Removing {} from shareList {} on {}", cedarPrincipalEUID, shareLevel, cedarResourceEUID);
-        if (!entitiesMap.containsKey(cedarResourceEUID)) {
-            log.warn("Unable to find resource {}", cedarResourceEUID);
-            return false;
-        }
-        if (!entitiesMap.containsKey(cedarPrincipalEUID) && !entitiesMap.containsKey(cedarPrincipalEUID)) {
-            log.warn("Unable to find {}", cedarPrincipalEUID);
-            return false;
-        }
-        Entity resourceEntity = entitiesMap.get(cedarResourceEUID);
-        if (resourceEntity.attrs.containsKey(shareLevel.toString()) && resourceEntity.attrs.get(
-                shareLevel.toString()) instanceof CedarList sharedList) {
-            EntityUID sharedWith = new EntityUID(principalTypeName, cedarPrincipalEUID);
-            if (!sharedList.contains(sharedWith)) {
-                log.info("Successfully removed {} {} from shareList {} on {} {}", principalType, principalUUID, shareLevel,
-                        resourceType, resourceUUID);
-                sharedList.remove(sharedWith);
+        boolean removed = entityStore.update(entities -> {
+            if (!entities.containsKey(cedarResourceEUID)) {
+                log.warn("Unable to find resource {}", cedarResourceEUID);
+                return false;
+            }
+            if (!entities.containsKey(cedarPrincipalEUID) && !entities.containsKey(cedarPrincipalEUID)) {
+                log.warn("Unable to find {}", cedarPrincipalEUID);
+                return false;
+            }
+            Entity resourceEntity = entities.get(cedarResourceEUID);
+            if (resourceEntity.attrs.containsKey(shareLevel.toString()) && resourceEntity.attrs.get(
+                    shareLevel.toString()) instanceof CedarList sharedList) {
+                EntityUID sharedWith = new EntityUID(principalTypeName, cedarPrincipalEUID);
+                if (!sharedList.contains(sharedWith)) {
+                    log.info("Successfully removed {} {} from shareList {} on {} {}", principalType, principalUUID, shareLevel,
+                            resourceType, resourceUUID);
+                    CedarList updatedList = new CedarList(sharedList);
+                    updatedList.remove(sharedWith);
+                    entities.put(cedarResourceEUID, withAttribute(resourceEntity, shareLevel.toString(), updatedList));
+                    return true;
+                } else {
+                    log.warn("Principal {} is not present on the share list", principalUUID);
+                    return false;
+                }
             } else {
-                log.warn("Principal {} is not present on the share list", principalUUID);
+                log.warn("Share List with name {} does not exist on this resource", shareLevel);
                 return false;
             }
-        } else {
-            log.warn("Share List with name {} does not exist on this resource", shareLevel);
-            return false;
+        });
+        if (removed) {
+            decisionCache.invalidate();
         }
-        return true;
+        return removed;
+    }
+
+    /**
+     * Entities in a published snapshot are never modified, so changing an attribute means replacing the entity.
+     */
+    private static Entity withAttribute(Entity entity, String name, com.cedarpolicy.value.Value value) {
+        Map<String, com.cedarpolicy.value.Value> attributes = new HashMap<>(entity.attrs);
+        attributes.put(name, value);
+        return new Entity(entity.getEUID(), attributes, entity.parentsEUIDs);
     }
 
     @Override
@@ -588,12 +854,12 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         EntityTypeName resourceTypeName = EntityTypeName.parse(resourceType.toString()).get();
         EntityTypeName principalTypeName = EntityTypeName.parse(principalType.toString()).get();
         String cedarResourceEUID = new EntityUID(resourceTypeName, normalizeUUID(resourceType, resourceUUID)).toString();
-        if (!entitiesMap.containsKey(cedarResourceEUID)) {
+        Entity resourceEntity = entityStore.snapshot().entities().get(cedarResourceEUID);
+        if (resourceEntity == null) {
             log.warn("Unable to find resource {}", cedarResourceEUID);
             return Collections.emptyList();
         }
 
-        Entity resourceEntity = entitiesMap.get(cedarResourceEUID);
         if (resourceEntity.attrs.containsKey(shareLevel.toString()) && resourceEntity.attrs.get(
                 shareLevel.toString()) instanceof CedarList shareList) {
             List<String> principalsSharedTo = new ArrayList<>();
@@ -634,10 +900,11 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
 
     private Entity getUserEntity(String userUUID) {
         String cedarUserEUID = new EntityUID(UserTypeName, normalizeUUID(userUUID)).toString();
-        if (!entitiesMap.containsKey(cedarUserEUID)) {
+        Entity userEntity = entityStore.snapshot().entities().get(cedarUserEUID);
+        if (userEntity == null) {
             throw new UsernameNotFoundException("Unable to find user " + userUUID);
         }
-        return entitiesMap.get(cedarUserEUID);
+        return userEntity;
     }
 
     private void loadPoliciesFromFile(File policyFile) {
@@ -651,14 +918,16 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
                 Policy policy = new Policy(m.group(), "Policy " + i++);
                 policySet.add(policy);
             }
-            this.policies.policies = policySet;
+            PolicySet loadedPolicies = new PolicySet();
+            loadedPolicies.policies = policySet;
+            this.policies = loadedPolicies;
         } catch (IOException e) {
             log.error("Failed to load policies from file: {}", policyFile.getPath(), e);
             throw new RuntimeException(e);
         }
     }
 
-    private void loadRolesFromFile(File roleFile) {
+    private void loadRolesFromFile(File roleFile, Map<String, Entity> entities) {
         try {
             List<Role> rolesList = mapper.readValue(roleFile, new TypeReference<>() {
             });
@@ -672,7 +941,7 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
                         log.warn("Invalid action: {} in role file {}", permission, roleFile);
                     }
                 }
-                this.addRole(role.roleName, permissions);
+                putRole(entities, role.roleName, permissions);
             }
         } catch (IOException e) {
             log.error("ERROR: Failed to read role file {}, roles not loaded. Error: ", roleFile, e);
@@ -680,97 +949,165 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         }
     }
 
-    private void loadUsersFromDb() {
-        DescribeUsersResponse response;
-        String token = null;
-        do {
-            response = userService.describeUsers(new DescribeUsersRequestData().nextToken(token));
-            for (User user : response.getUsers()) {
-                addUser(user.getUserId(), user.getLoginUsername(), user.getDisplayName(), user.getRole(), user.getIsDisabled());
+    private <T> CompletableFuture<T> loadAsync(String phase, Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(() -> timed(phase, loader), preloadExecutor);
+    }
+
+    private <T> T timed(String phase, Supplier<T> loader) {
+        long started = System.nanoTime();
+        try {
+            return loader.get();
+        } finally {
+            record(phase, started);
+        }
+    }
+
+    private void record(String phase, long startedNanos) {
+        long elapsed = System.nanoTime() - startedNanos;
+        meterRegistry.timer(LOAD_TIMER, "phase", phase).record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Loaded {} for the Authorization Engine in {} ms", phase, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
-            token = response.getNextToken();
-        } while (token != null);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private void putUsers(Map<String, Entity> entities, List<User> users) {
+        for (User user : users) {
+            putUser(entities, user.getUserId(), user.getLoginUsername(), user.getDisplayName(), user.getRole(), user.getIsDisabled());
+        }
     }
 
-    private void loadUserGroupsFromDb() {
-        DescribeUserGroupsResponse describeUserGroupsResponse;
-        String token = null;
-        do {
-            describeUserGroupsResponse = userGroupService.describeUserGroups(new DescribeUserGroupsRequestData().nextToken(token));
-            for (UserGroup group : describeUserGroupsResponse.getUserGroups()) {
-                EntityUID groupEUID = new EntityUID(UserGroupTypeName, normalizeUUID(group.getUserGroupId()));
+    private void putUserGroups(Map<String, Entity> entities, List<UserGroup> userGroups, Iterable<UserGroupUserMembership> memberships) {
+        for (UserGroup group : userGroups) {
+            EntityUID groupEUID = new EntityUID(UserGroupTypeName, normalizeUUID(group.getUserGroupId()));
 
-                if (entitiesMap.containsKey(groupEUID.toString())) {
-                    log.info("Found existing group with EUID: {}", groupEUID);
-                } else {
-                    log.info("Creating new group with EUID: {}", groupEUID);
-                    Entity groupEntity = new Entity(groupEUID, Collections.emptyMap(), Collections.emptySet());
-                    entitiesMap.put(groupEUID.toString(), groupEntity);
-                    entities.add(groupEntity);
-                }
+            if (entities.containsKey(groupEUID.toString())) {
+                log.info("Found existing group with EUID: {}", groupEUID);
+            } else {
+                log.info("Creating new group with EUID: {}", groupEUID);
+                Entity groupEntity = new Entity(groupEUID, Collections.emptyMap(), Collections.emptySet());
+                entities.put(groupEUID.toString(), groupEntity);
             }
-            token = describeUserGroupsResponse.getNextToken();
-        } while (token != null);
+        }
 
-        // This iterable could be quite large. Worth finding a solution to shrink it
-        Iterable<UserGroupUserMembership> memberships = userGroupService.getUserGroupUserMemberships();
         for (UserGroupUserMembership membership : memberships) {
             String userEUID = new EntityUID(UserTypeName, membership.getId().getUserId()).toString();
-            Entity userEntity = entitiesMap.get(userEUID);
+            Entity userEntity = entities.get(userEUID);
             String groupEUID = new EntityUID(UserGroupTypeName, membership.getId().getUserGroupId()).toString();
-            Entity groupEntity = entitiesMap.get(groupEUID);
+            Entity groupEntity = entities.get(groupEUID);
+            if (userEntity == null || groupEntity == null) {
+                log.warn("Skipping membership of user {} in group {} as one of them doesn't exist in the authorization engine",
+                        membership.getId().getUserId(), membership.getId().getUserGroupId());
+                continue;
+            }
 
+            // The users were created by this rebuild and have not been published yet, so their parents can be
+            // modified in place
             userEntity.parentsEUIDs.add(groupEntity.getEUID());
         }
     }
 
-    private void loadResourcesFromDb() throws Exception {
-        DescribeSessionTemplatesResponse describeSessionTemplatesResponse;
-        String token = null;
-        do {
-            describeSessionTemplatesResponse = sessionTemplateService.describeSessionTemplates(new DescribeSessionTemplatesRequestData().nextToken(token));
-            for (SessionTemplate sessionTemplate: describeSessionTemplatesResponse.getSessionTemplates()) {
-                addSessionTemplate(sessionTemplate.getId(), sessionTemplate.getCreatedBy());
-                List<String> userIds = sessionTemplateService.getUserIdsBySessionTemplate(sessionTemplate.getId());
-                List<String> groupIds = sessionTemplateService.getUserGroupIdsBySessionTemplate(sessionTemplate.getId());
-
-                CedarList entitiesToPublish = new CedarList();
-                for (String userID : userIds) {
-                    EntityUID userEUID = new EntityUID(UserTypeName, userID);
-                    Entity userEntity = entitiesMap.get(userEUID.toString());
-                    if (userEntity != null) {
-                        entitiesToPublish.add(userEntity.getEUID());
-                        log.debug("Added user {} to share list for Session Template {}", userID, sessionTemplate.getId());
-                    } else {
-                        log.warn("Unable to add user {} to share list for Session Template {}" +
-                                " as they don't exist in the authorization engine", userID, sessionTemplate.getId());
-                    }
+    private void putSessionTemplates(Map<String, Entity> entities, List<SessionTemplate> sessionTemplates, SessionTemplateShareLists shareLists) {
+        for (SessionTemplate sessionTemplate : sessionTemplates) {
+            putResource(entities, ResourceType.SessionTemplate, sessionTemplate.getId(), SESSION_TEMPLATE_SHARE_LEVELS,
+                    Optional.of(normalizeUUID(sessionTemplate.getCreatedBy())));
+
+            CedarList entitiesToPublish = new CedarList();
+            for (String userID : shareLists.userIds().getOrDefault(sessionTemplate.getId(), Collections.emptyList())) {
+                EntityUID userEUID = new EntityUID(UserTypeName, userID);
+                Entity userEntity = entities.get(userEUID.toString());
+                if (userEntity != null) {
+                    entitiesToPublish.add(userEntity.getEUID());
+                    log.debug("Added user {} to share list for Session Template {}", userID, sessionTemplate.getId());
+                } else {
+                    log.warn("Unable to add user {} to share list for Session Template {}" +
+                            " as they don't exist in the authorization engine", userID, sessionTemplate.getId());
                 }
-                for (String groupID : groupIds) {
-                    EntityUID groupEUID = new EntityUID(UserGroupTypeName, groupID);
-                    Entity groupEntity = entitiesMap.get(groupEUID.toString());
-                    if (groupEntity != null) {
-                        entitiesToPublish.add(groupEntity.getEUID());
-                        log.debug("Added group {} to share list for Session Template {}", groupID, sessionTemplate.getId());
-                    } else {
-                        log.warn("Unable to add group {} to share list for Session Template {}" +
-                                " as they don't exist in the authorization engine", groupID, sessionTemplate.getId());
-                    }
+            }
+            for (String groupID : shareLists.groupIds().getOrDefault(sessionTemplate.getId(), Collections.emptyList())) {
+                EntityUID groupEUID = new EntityUID(UserGroupTypeName, groupID);
+                Entity groupEntity = entities.get(groupEUID.toString());
+                if (groupEntity != null) {
+                    entitiesToPublish.add(groupEntity.getEUID());
+                    log.debug("Added group {} to share list for Session Template {}", groupID, sessionTemplate.getId());
+                } else {
+                    log.warn("Unable to add group {} to share list for Session Template {}" +
+                            " as they don't exist in the authorization engine", groupID, sessionTemplate.getId());
                 }
-                setResourceShareList(ResourceType.SessionTemplate, sessionTemplate.getId(), ShareLevel.publishedTo, entitiesToPublish);
             }
-            token = describeSessionTemplatesResponse.getNextToken();
-        } while(token != null);
-        log.info("Loaded all Session Templates from the persistence layer onto the Authorization Engine");
-
-        DescribeSessionsUIResponse describeSessionsResponse;
-        do {
-            describeSessionsResponse = brokerClient.describeSessions(new DescribeSessionsUIRequestData());
-            for (SessionWithPermissions session: describeSessionsResponse.getSessions()) {
-                addSession(session.getId(), session.getOwner());
+            putResourceShareList(entities, ResourceType.SessionTemplate, sessionTemplate.getId(), ShareLevel.publishedTo, entitiesToPublish);
+        }
+        log.info("Loaded all {} Session Templates from the persistence layer onto the Authorization Engine", sessionTemplates.size());
+    }
+
+    /**
+     * Adds the broker's sessions to the entities being rebuilt until they have all been loaded or the deadline has
+     * passed. The sessions that are left are added to the published entities in the background, so a large broker does
+     * not hold up startup.
+     */
+    private void loadSessionsFromBroker(Map<String, Entity> entities, BrokerSessionPages pages, long deadline) throws Exception {
+        int loaded = 0;
+        try {
+            while (true) {
+                BrokerSessionPages.Page page = pages.poll(Math.max(0, deadline - System.currentTimeMillis()));
+                if (page == null) {
+                    log.warn("Loaded {} Sessions from the broker within the startup budget, loading the rest in the background", loaded);
+                    preloadExecutor.execute(() -> finishLoadingSessions(pages));
+                    return;
+                }
+                putSessions(entities, page.sessions());
+                loaded += page.sessions().size();
+                if (page.last()) {
+                    break;
+                }
             }
-        } while(describeSessionsResponse.getNextToken() != null);
-        log.info("Loaded all Sessions from the broker onto the Authorization Engine");
+        } catch (Exception e) {
+            pages.close();
+            throw e;
+        }
+        log.info("Loaded all {} Sessions from the broker onto the Authorization Engine", loaded);
+    }
+
+    private void finishLoadingSessions(BrokerSessionPages pages) {
+        int loaded = 0;
+        try {
+            BrokerSessionPages.Page page;
+            do {
+                page = pages.take();
+                if (pages.isClosed()) {
+                    log.info("Stopped loading Sessions from the broker in the background after {} Sessions", loaded);
+                    return;
+                }
+                List<SessionWithPermissions> sessions = page.sessions();
+                // Waits for the rebuild that started this load to be published
+                if (entityStore.update(entities -> putSessions(entities, sessions))) {
+                    decisionCache.invalidate();
+                }
+                loaded += sessions.size();
+            } while (!page.last());
+            log.info("Loaded the remaining {} Sessions from the broker onto the Authorization Engine", loaded);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Unable to load Sessions from the broker in the background after {} Sessions", loaded, e);
+        }
+    }
+
+    private boolean putSessions(Map<String, Entity> entities, List<SessionWithPermissions> sessions) {
+        boolean added = false;
+        for (SessionWithPermissions session : sessions) {
+            added |= putResource(entities, ResourceType.Session, session.getId(), SESSION_SHARE_LEVELS,
+                    Optional.of(normalizeUUID(session.getOwner())));
+        }
+        return added;
     }
 
     private String normalizeUUID(String UUID) {
@@ -787,7 +1124,7 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
     }
 
     public List<String> getRoles() {
-        return entitiesMap.keySet().stream().filter(r -> ResourceType.Role.toString().equals(EntityUID.parse(r).get().getType().getBaseName())).map(r -> EntityUID.parse(r).get().getId().toString()).collect(Collectors.toList());
+        return entityStore.snapshot().entities().keySet().stream().filter(r -> ResourceType.Role.toString().equals(EntityUID.parse(r).get().getType().getBaseName())).map(r -> EntityUID.parse(r).get().getId().toString()).collect(Collectors.toList());
     }
 
     @Override
@@ -795,6 +1132,10 @@ public class CedarAuthorizationEngine extends AbstractAuthorizationEngine {
         return defaultRole;
     }
 
+    // The users and groups each session template is published to, by session template id
+    private record SessionTemplateShareLists(Map<String, List<String>> userIds, Map<String, List<String>> groupIds) {
+    }
+
     @Getter
     @Setter
     @AllArgsConstructor
@@ -0,0 +1,90 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import com.cedarpolicy.model.entity.Entity;
+import com.cedarpolicy.value.CedarList;
+import com.cedarpolicy.value.EntityUID;
+import com.cedarpolicy.value.Value;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the subset of entities that a single authorization request can reach, so that Cedar does not have to
+ * serialize and evaluate every user, group and resource loaded on the engine for each decision.
+ * <p>
+ * The slice contains the principal and all of its ancestor groups, the resource and its ancestors, and every entity
+ * referenced directly from an attribute of either of them (e.g. the role, login user, owner and share lists).
+ */
+final class CedarEntitySlicer {
+
+    private CedarEntitySlicer() {
+    }
+
+    static Set<Entity> slice(Map<String, Entity> entitiesMap, EntityUID principalEUID, EntityUID resourceEUID) {
+        return slice(entitiesMap, closure(entitiesMap, principalEUID), resourceEUID);
+    }
+
+    /**
+     * Extends a previously computed principal closure with the entities reachable from the resource. The closure is
+     * not modified, so it can be shared across the checks of a batch.
+     */
+    static Set<Entity> slice(Map<String, Entity> entitiesMap, Map<String, Entity> principalClosure,
+                             EntityUID resourceEUID) {
+        Map<String, Entity> slice = new HashMap<>(principalClosure);
+        addWithReferences(entitiesMap, resourceEUID, slice);
+        return new HashSet<>(slice.values());
+    }
+
+    static Map<String, Entity> closure(Map<String, Entity> entitiesMap, EntityUID euid) {
+        Map<String, Entity> closure = new HashMap<>();
+        addWithReferences(entitiesMap, euid, closure);
+        return closure;
+    }
+
+    private static void addWithReferences(Map<String, Entity> entitiesMap, EntityUID euid, Map<String, Entity> slice) {
+        Entity entity = addWithAncestors(entitiesMap, euid, slice);
+        if (entity == null) {
+            return;
+        }
+        for (Value value : entity.attrs.values()) {
+            if (value instanceof EntityUID referenced) {
+                addWithAncestors(entitiesMap, referenced, slice);
+            } else if (value instanceof CedarList list) {
+                for (Value element : list) {
+                    if (element instanceof EntityUID referenced) {
+                        addWithAncestors(entitiesMap, referenced, slice);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Entity addWithAncestors(Map<String, Entity> entitiesMap, EntityUID euid, Map<String, Entity> slice) {
+        Entity root = entitiesMap.get(euid.toString());
+        if (root == null) {
+            return null;
+        }
+        Deque<Entity> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            Entity entity = toVisit.pop();
+            if (slice.putIfAbsent(entity.getEUID().toString(), entity) != null) {
+                continue;
+            }
+            for (EntityUID parentEUID : entity.parentsEUIDs) {
+                Entity parent = entitiesMap.get(parentEUID.toString());
+                if (parent != null) {
+                    toVisit.push(parent);
+                }
+            }
+        }
+        return root;
+    }
+}
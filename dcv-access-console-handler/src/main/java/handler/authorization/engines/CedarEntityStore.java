@@ -0,0 +1,80 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import com.cedarpolicy.model.entity.Entity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Holds the Cedar entities as an immutable, versioned snapshot keyed by EntityUID string.
+ * <p>
+ * Readers take the current snapshot without locking and can use it for as long as they need, since it is never
+ * modified after it is published. Writers are serialized on a single lock, apply their change to a private copy of
+ * the current snapshot and then publish that copy atomically as the next version.
+ * <p>
+ * Entities in a published snapshot must be treated as immutable too: a writer that needs to change an entity's
+ * attributes or parents replaces it with a new {@link Entity} instead of modifying it in place.
+ */
+final class CedarEntityStore {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Snapshot current = new Snapshot(0, Collections.emptyMap());
+
+    Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * Applies the mutation to a copy of the current entities and publishes it if the mutation reports a change.
+     * The mutation must not call back into the store.
+     * <p>
+     * Every call copies the whole map, so a single write costs time and garbage proportional to the number of entities
+     * rather than to the size of the change. That is cheap next to the persistence call behind each interactive write,
+     * but bulk changes should be applied in one mutation (as {@code applyUserChanges} and {@code rebuild} do) instead of
+     * one call per entity.
+     * @param mutation Modifies the working copy and returns true if it changed anything.
+     * @return Returns the result of the mutation.
+     */
+    boolean update(Predicate<Map<String, Entity>> mutation) {
+        writeLock.lock();
+        try {
+            Map<String, Entity> working = new HashMap<>(current.entities());
+            if (!mutation.test(working)) {
+                return false;
+            }
+            publish(working);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Builds an entirely new set of entities and publishes it. Readers keep seeing the previous snapshot until the
+     * rebuild has completed, and other writers wait for it so that none of their changes are lost.
+     * @param builder Populates the empty working map.
+     */
+    void rebuild(Consumer<Map<String, Entity>> builder) {
+        writeLock.lock();
+        try {
+            Map<String, Entity> working = new HashMap<>();
+            builder.accept(working);
+            publish(working);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void publish(Map<String, Entity> working) {
+        current = new Snapshot(current.version() + 1, Collections.unmodifiableMap(working));
+    }
+
+    record Snapshot(long version, Map<String, Entity> entities) {
+    }
+}
@@ -0,0 +1,15 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines.entities;
+
+import handler.model.ImportUsersResponse;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ImportUsersResult {
+    ImportUsersResponse response;
+    UserChangeSet changeSet;
+}
@@ -0,0 +1,27 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines.entities;
+
+import handler.model.User;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The users and group memberships that were written to the persistence layer by a bulk operation, so that the
+ * Authorization Engine can apply just those changes instead of reloading every entity.
+ */
+@Value
+@Builder
+public class UserChangeSet {
+    // Users that were added or updated
+    List<User> users;
+    // Group IDs that each user was added to, keyed by user ID
+    Map<String, Set<String>> memberships;
+    // Users whose previous group memberships were removed before the new ones were added
+    Set<String> replacedMemberships;
+}
@@ -0,0 +1,31 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.brokerclients.dcv;
+
+import lombok.AllArgsConstructor;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+
+/**
+ * Adds the broker access token to every request sent through the shared broker HTTP client, so the API clients never
+ * have their credentials mutated between calls.
+ */
+@AllArgsConstructor
+public class BrokerBearerTokenInterceptor implements Interceptor {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final DCVBrokerTokenClient tokenClient;
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request().newBuilder()
+                .header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + tokenClient.getToken())
+                .build();
+        return chain.proceed(request);
+    }
+}
@@ -0,0 +1,119 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.brokerclients.dcv;
+
+import broker.model.Server;
+import handler.exceptions.BrokerClientException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of the servers sessions run on, used to fill in the server details of describeSessions responses.
+ * Consecutive pages and polls mostly share their hosts, so only the servers missing from the cache are described, in
+ * chunks that are sent to the broker in parallel.
+ */
+@Slf4j
+@Component
+public class BrokerServerInfoCache {
+    private final Cache<String, Server> servers;
+    private final int chunkSize;
+    private final ThreadPoolExecutor executor;
+
+    public BrokerServerInfoCache(@Value("${broker-server-info-cache-ttl-seconds:5}") long ttlSeconds,
+                                 @Value("${broker-server-info-cache-max-size:10000}") long maxSize,
+                                 @Value("${broker-server-info-chunk-size:100}") int chunkSize,
+                                 @Value("${broker-server-info-max-threads:4}") int maxThreads) {
+        this.servers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "broker-server-info-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the servers with the given ids, describing the ones that are not cached.
+     * @param serverIds The ids of the servers to return.
+     * @param describeServers Describes the servers with the given ids on the broker.
+     * @return Returns the servers by id. Servers the broker did not return are absent.
+     */
+    public Map<String, Server> getServers(Collection<String> serverIds, Function<List<String>, List<Server>> describeServers) {
+        Map<String, Server> found = new HashMap<>(servers.getAllPresent(serverIds));
+
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = null;
+        for (String serverId : serverIds) {
+            if (found.containsKey(serverId)) {
+                continue;
+            }
+            if (chunk == null || chunk.size() == chunkSize) {
+                chunk = new ArrayList<>(chunkSize);
+                chunks.add(chunk);
+            }
+            chunk.add(serverId);
+        }
+        if (chunks.isEmpty()) {
+            return found;
+        }
+        log.debug("Describing {} uncached servers in {} requests", serverIds.size() - found.size(), chunks.size());
+
+        // Every chunk but the last is sent from the pool, the last one is sent from the calling thread
+        List<CompletableFuture<List<Server>>> described = new ArrayList<>(chunks.size());
+        for (List<String> ids : chunks.subList(0, chunks.size() - 1)) {
+            described.add(CompletableFuture.supplyAsync(() -> describeServers.apply(ids), executor));
+        }
+        described.add(CompletableFuture.completedFuture(describeServers.apply(chunks.get(chunks.size() - 1))));
+
+        for (CompletableFuture<List<Server>> future : described) {
+            for (Server server : join(future)) {
+                if (server != null && server.getId() != null) {
+                    servers.put(server.getId(), server);
+                    found.put(server.getId(), server);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static List<Server> join(CompletableFuture<List<Server>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BrokerClientException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,506 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.brokerclients.dcv;
+
+import handler.brokerclients.BrokerClient;
+import handler.exceptions.BadRequestException;
+import handler.exceptions.BrokerClientException;
+import handler.model.CreateSessionTemplateRequestData;
+import handler.model.CreateSessionUIRequestData;
+import handler.model.CreateSessionsUIResponse;
+import handler.model.DeleteSessionUIRequestData;
+import handler.model.DeleteSessionsUIResponse;
+import handler.model.DescribeServersUIRequestData;
+import handler.model.DescribeServersUIResponse;
+import handler.model.DescribeSessionsUIRequestData;
+import handler.model.DescribeSessionsUIResponse;
+import handler.model.FilterToken;
+import handler.model.GetSessionConnectionDataUIResponse;
+import handler.model.GetSessionScreenshotsUIRequestData;
+import handler.model.GetSessionScreenshotsUIResponse;
+import handler.model.KeyValuePair;
+import handler.model.Server;
+import handler.model.SessionTemplate;
+import handler.model.SessionWithPermissions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.javatuples.Pair;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Serves sessions and servers from an in-memory snapshot of the broker, so every user polling the console shares one
+ * broker call per refresh instead of making their own. A snapshot is fresh for the TTL, after which it is still served
+ * for up to the stale period while it is refreshed in the background. Snapshots that are being read are also refreshed
+ * ahead of time, once per TTL. The sessions created or deleted through the handler are patched into the sessions
+ * snapshot, so the change is visible on the next request, and the snapshot is then refreshed in the background; the
+ * servers snapshot is left to its TTL. Requests the snapshot cannot answer (session tags are matched by the broker)
+ * and screenshots go to the broker, but identical requests made at the same time share a single broker call.
+ * <p>
+ * Snapshots are kept sorted by id and the next token is the last id returned, so a client paging through them
+ * carries on where it stopped even if the snapshot was refreshed in between.
+ */
+@Primary
+@Component
+@Slf4j
+public class CachingBrokerClient extends BrokerClient {
+    private static final Comparator<String> ID_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final DCVBrokerClient delegate;
+    private final DCVBrokerHandlerMapper mapper;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final int pageSize;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService refreshScheduler;
+
+    private final Snapshot<SessionWithPermissions> sessions;
+    private final Snapshot<Server> servers;
+    private final Map<SessionsQuery, CompletableFuture<DescribeSessionsUIResponse>> sessionsQueries = new ConcurrentHashMap<>();
+    private final Map<ScreenshotsQuery, CompletableFuture<GetSessionScreenshotsUIResponse>> screenshotsQueries = new ConcurrentHashMap<>();
+
+    private record SessionsQuery(List<KeyValuePair> tags, Set<String> sessionIds, Integer maxResults, String nextToken) {
+    }
+
+    private record ScreenshotsQuery(List<String> sessionIds, Long maxWidth, Long maxHeight) {
+    }
+
+    private record Entry<T>(List<T> items, long fetchedAt) {
+    }
+
+    @Autowired
+    public CachingBrokerClient(DCVBrokerClient delegate, DCVBrokerHandlerMapper mapper,
+                               @Value("${broker-cache-ttl-seconds:10}") long ttlSeconds,
+                               @Value("${broker-cache-stale-seconds:30}") long staleSeconds,
+                               @Value("${broker-cache-page-size:1000}") int pageSize) {
+        this(delegate, mapper, TimeUnit.SECONDS.toMillis(ttlSeconds), TimeUnit.SECONDS.toMillis(staleSeconds), pageSize,
+                System::currentTimeMillis);
+    }
+
+    CachingBrokerClient(DCVBrokerClient delegate, DCVBrokerHandlerMapper mapper, long ttlMillis, long staleMillis,
+                        int pageSize, LongSupplier clock) {
+        this.delegate = delegate;
+        this.mapper = mapper;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.pageSize = pageSize;
+        this.clock = clock;
+
+        sessions = new Snapshot<>("sessions", this::loadSessions);
+        servers = new Snapshot<>("servers", this::loadServers);
+
+        if (isCaching()) {
+            refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "broker-snapshot-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refreshScheduler.scheduleAtFixedRate(this::refreshActiveSnapshots, ttlMillis, ttlMillis, TimeUnit.MILLISECONDS);
+        } else {
+            log.info("Broker snapshot cache is disabled, every request is sent to the broker");
+            refreshScheduler = null;
+        }
+    }
+
+    private boolean isCaching() {
+        return ttlMillis > 0;
+    }
+
+    @Override
+    public DescribeSessionsUIResponse describeSessions(DescribeSessionsUIRequestData request) {
+        if (!isCaching()) {
+            return delegate.describeSessions(request);
+        }
+
+        Set<String> sessionIds = getEqualValues(request.getSessionIds());
+        if (request.getTags() != null && !request.getTags().isEmpty()) {
+            SessionsQuery query = new SessionsQuery(new ArrayList<>(request.getTags()), sessionIds,
+                    request.getMaxResults(), request.getNextToken());
+            DescribeSessionsUIResponse response = coalesce(sessionsQueries, query, () -> delegate.describeSessions(request));
+            return new DescribeSessionsUIResponse()
+                    .requestId(response.getRequestId())
+                    .sessions(copySessions(response.getSessions()))
+                    .nextToken(response.getNextToken())
+                    .error(response.getError());
+        }
+
+        List<SessionWithPermissions> page = new ArrayList<>();
+        String nextToken = readPage(sessions.get(), sessionIds, SessionWithPermissions::getId,
+                request.getMaxResults(), request.getNextToken(), page);
+        // Callers set the level of access on the sessions they are given, so they must not share the snapshot's copies
+        return new DescribeSessionsUIResponse().sessions(copySessions(page)).nextToken(nextToken);
+    }
+
+    @Override
+    public GetSessionScreenshotsUIResponse getSessionScreenshots(GetSessionScreenshotsUIRequestData request) {
+        if (!isCaching() || request.getSessionIds() == null) {
+            return delegate.getSessionScreenshots(request);
+        }
+
+        ScreenshotsQuery query = new ScreenshotsQuery(new ArrayList<>(request.getSessionIds()), request.getMaxWidth(),
+                request.getMaxHeight());
+        GetSessionScreenshotsUIResponse response = coalesce(screenshotsQueries, query, () -> delegate.getSessionScreenshots(request));
+        // Callers add their own failures to the response, so each of them is given its own lists
+        return new GetSessionScreenshotsUIResponse()
+                .requestId(response.getRequestId())
+                .successfulList(response.getSuccessfulList() == null ? null : new ArrayList<>(response.getSuccessfulList()))
+                .unsuccessfulList(response.getUnsuccessfulList() == null ? null : new ArrayList<>(response.getUnsuccessfulList()))
+                .error(response.getError());
+    }
+
+    @Override
+    public DescribeServersUIResponse describeServers(DescribeServersUIRequestData request) {
+        if (!isCaching()) {
+            return delegate.describeServers(request);
+        }
+
+        List<Server> page = new ArrayList<>();
+        String nextToken = readPage(servers.get(), getEqualValues(request.getIds()), Server::getId,
+                request.getMaxResults(), request.getNextToken(), page);
+        return new DescribeServersUIResponse().servers(page).nextToken(nextToken);
+    }
+
+    @Override
+    public void validateSessionTemplate(CreateSessionTemplateRequestData request, boolean ignoreExisting) {
+        delegate.validateSessionTemplate(request, ignoreExisting);
+    }
+
+    @Override
+    public CreateSessionsUIResponse createSessions(List<Pair<CreateSessionUIRequestData, SessionTemplate>> requests) {
+        CreateSessionsUIResponse response = delegate.createSessions(requests);
+        if (isCaching() && response.getSuccessfulList() != null && !response.getSuccessfulList().isEmpty()) {
+            // The controller sets the level of access on the sessions it returns, so the snapshot keeps its own copies
+            List<SessionWithPermissions> created = copySessions(response.getSuccessfulList());
+            Set<String> createdIds = new HashSet<>();
+            created.forEach(session -> createdIds.add(session.getId()));
+            sessions.patch(items -> {
+                items.removeIf(session -> createdIds.contains(session.getId()));
+                items.addAll(created);
+                items.sort(Comparator.comparing(SessionWithPermissions::getId, ID_ORDER));
+            });
+        }
+        return response;
+    }
+
+    @Override
+    public GetSessionConnectionDataUIResponse getSessionConnectionData(String sessionId, String username) {
+        return delegate.getSessionConnectionData(sessionId, username);
+    }
+
+    @Override
+    public DeleteSessionsUIResponse deleteSessions(List<DeleteSessionUIRequestData> deleteSessionsUIRequestData) {
+        DeleteSessionsUIResponse response = delegate.deleteSessions(deleteSessionsUIRequestData);
+        if (isCaching() && response.getSuccessfulList() != null && !response.getSuccessfulList().isEmpty()) {
+            Set<String> deletedIds = new HashSet<>();
+            response.getSuccessfulList().forEach(deleted -> deletedIds.add(deleted.getSessionId()));
+            sessions.patch(items -> items.removeIf(session -> deletedIds.contains(session.getId())));
+        }
+        return response;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refreshScheduler != null) {
+            refreshScheduler.shutdownNow();
+        }
+    }
+
+    private void refreshActiveSnapshots() {
+        sessions.refreshIfRead();
+        servers.refreshIfRead();
+    }
+
+    private List<SessionWithPermissions> loadSessions() {
+        List<SessionWithPermissions> loaded = new ArrayList<>();
+        String nextToken = null;
+        do {
+            DescribeSessionsUIResponse response = delegate.describeSessions(
+                    new DescribeSessionsUIRequestData().maxResults(pageSize).nextToken(nextToken));
+            if (response.getSessions() != null) {
+                loaded.addAll(response.getSessions());
+            }
+            nextToken = response.getNextToken();
+        } while (nextToken != null);
+        loaded.sort(Comparator.comparing(SessionWithPermissions::getId, ID_ORDER));
+        return loaded;
+    }
+
+    private List<Server> loadServers() {
+        List<Server> loaded = new ArrayList<>();
+        String nextToken = null;
+        do {
+            DescribeServersUIResponse response = delegate.describeServers(
+                    new DescribeServersUIRequestData().maxResults(pageSize).nextToken(nextToken));
+            if (response.getServers() != null) {
+                loaded.addAll(response.getServers());
+            }
+            nextToken = response.getNextToken();
+        } while (nextToken != null);
+        loaded.sort(Comparator.comparing(Server::getId, ID_ORDER));
+        return loaded;
+    }
+
+    private List<SessionWithPermissions> copySessions(List<SessionWithPermissions> sessions) {
+        if (sessions == null) {
+            return null;
+        }
+        List<SessionWithPermissions> copies = new ArrayList<>(sessions.size());
+        for (SessionWithPermissions session : sessions) {
+            copies.add(mapper.copySession(session));
+        }
+        return copies;
+    }
+
+    /**
+     * The ids the broker would have been asked for, i.e. the values of the EQUAL tokens. Other tokens are applied by
+     * the caller, so an empty set means every item.
+     */
+    private static Set<String> getEqualValues(List<FilterToken> tokens) {
+        Set<String> values = new HashSet<>();
+        if (tokens != null) {
+            for (FilterToken token : tokens) {
+                if (FilterToken.OperatorEnum.EQUAL.equals(token.getOperator())) {
+                    values.add(token.getValue());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Adds one page of the snapshot to the given list and returns the token for the next page, or null if there is
+     * none. The token is the id of the last item on the page, and the next page starts after that id rather than at a
+     * position, which would shift whenever a refresh adds or removes items before it.
+     */
+    private static <T> String readPage(List<T> items, Set<String> ids, Function<T, String> getId, Integer maxResults,
+                                       String nextToken, List<T> page) {
+        int limit = maxResults != null ? maxResults : Integer.MAX_VALUE;
+        if (limit < 1) {
+            throw new BadRequestException("MaxResults must be greater than 0");
+        }
+
+        int position = 0;
+        if (nextToken != null) {
+            String lastId;
+            try {
+                lastId = new String(Base64.getUrlDecoder().decode(nextToken), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid NextToken " + nextToken);
+            }
+            position = positionAfter(items, getId, lastId);
+        }
+
+        for (; position < items.size(); position++) {
+            T item = items.get(position);
+            if (ids.isEmpty() || ids.contains(getId.apply(item))) {
+                if (page.size() == limit) {
+                    String lastReturnedId = Objects.toString(getId.apply(page.get(page.size() - 1)), "");
+                    return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                            lastReturnedId.getBytes(StandardCharsets.UTF_8));
+                }
+                page.add(item);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The position of the first item in the sorted snapshot whose id comes after the given one.
+     */
+    private static <T> int positionAfter(List<T> items, Function<T, String> getId, String id) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ID_ORDER.compare(getId.apply(items.get(middle)), id) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sends the request to the broker unless an identical one is already in flight, in which case its response is
+     * shared.
+     */
+    private static <K, V> V coalesce(Map<K, CompletableFuture<V>> inFlight, K query, Supplier<V> call) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(query, future);
+        if (existing != null) {
+            return join(existing);
+        }
+        try {
+            future.complete(call.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            inFlight.remove(query, future);
+        }
+        return join(future);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new BrokerClientException(e.getCause());
+        }
+    }
+
+    /**
+     * A snapshot of every item of one kind on the broker. Only one load runs at a time: readers that find the
+     * snapshot missing or expired wait for the load in flight rather than starting their own.
+     */
+    private final class Snapshot<T> {
+        private final String name;
+        private final Supplier<List<T>> loader;
+
+        private volatile Entry<T> entry;
+        private volatile long lastRead;
+        // Both guarded by this. A load only publishes its snapshot if nothing was patched since it started
+        private CompletableFuture<Entry<T>> load;
+        private long generation;
+
+        private Snapshot(String name, Supplier<List<T>> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+
+        private List<T> get() {
+            long now = clock.getAsLong();
+            lastRead = now;
+            Entry<T> current = entry;
+            if (current != null) {
+                long age = now - current.fetchedAt();
+                if (age < ttlMillis) {
+                    return current.items();
+                }
+                if (age < ttlMillis + staleMillis) {
+                    refreshInBackground();
+                    return current.items();
+                }
+            }
+            return awaitLoad().items();
+        }
+
+        private Entry<T> awaitLoad() {
+            CompletableFuture<Entry<T>> future;
+            long loadGeneration = 0;
+            boolean loading = false;
+            synchronized (this) {
+                Entry<T> current = entry;
+                if (current != null && clock.getAsLong() - current.fetchedAt() < ttlMillis) {
+                    // Another reader finished loading while this one was waiting for the lock
+                    return current;
+                }
+                if (load == null) {
+                    load = new CompletableFuture<>();
+                    loadGeneration = generation;
+                    loading = true;
+                }
+                future = load;
+            }
+
+            if (loading) {
+                load(future, loadGeneration);
+            }
+            return join(future);
+        }
+
+        private void refreshInBackground() {
+            CompletableFuture<Entry<T>> future;
+            long loadGeneration;
+            synchronized (this) {
+                if (load != null) {
+                    return;
+                }
+                future = load = new CompletableFuture<>();
+                loadGeneration = generation;
+            }
+            refreshScheduler.execute(() -> load(future, loadGeneration));
+        }
+
+        private void refreshIfRead() {
+            Entry<T> current = entry;
+            if (current != null && lastRead >= current.fetchedAt()) {
+                refreshInBackground();
+            }
+        }
+
+        private void load(CompletableFuture<Entry<T>> future, long loadGeneration) {
+            try {
+                // Timestamped before the broker is called, so the snapshot is never considered newer than it is
+                long fetchedAt = clock.getAsLong();
+                Entry<T> loaded = new Entry<>(Collections.unmodifiableList(loader.get()), fetchedAt);
+                synchronized (this) {
+                    if (generation == loadGeneration) {
+                        entry = loaded;
+                    }
+                    if (load == future) {
+                        load = null;
+                    }
+                }
+                log.debug("Loaded {} {} from the broker", loaded.items().size(), name);
+                future.complete(loaded);
+            } catch (RuntimeException e) {
+                log.warn("Failed to load {} from the broker", name, e);
+                synchronized (this) {
+                    if (load == future) {
+                        load = null;
+                    }
+                }
+                future.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Applies a change made through the handler to the snapshot, then refreshes it in the background to pick up
+         * whatever else the broker changed along with it. A load already in flight may have missed the change, so it
+         * is not published.
+         */
+        private void patch(Consumer<List<T>> change) {
+            synchronized (this) {
+                generation++;
+                load = null;
+                Entry<T> current = entry;
+                if (current == null) {
+                    // The next reader loads the snapshot, change included
+                    return;
+                }
+                List<T> items = new ArrayList<>(current.items());
+                change.accept(items);
+                entry = new Entry<>(Collections.unmodifiableList(items), current.fetchedAt());
+            }
+            refreshInBackground();
+        }
+    }
+}
@@ -50,32 +50,27 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.javatuples.Pair;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Component
 @AllArgsConstructor
 @Slf4j
 public class DCVBrokerClient extends BrokerClient {
-    private ObjectProvider<SessionsApi> sessionsApiProvider;
-    private ObjectProvider<ServersApi> serversApiProvider;
-    private ObjectProvider<GetSessionConnectionDataApi> getSessionConnectionDataApiProvider;
+    private SessionsApi sessionsApi;
+    private ServersApi serversApi;
+    private GetSessionConnectionDataApi getSessionConnectionDataApi;
     private DCVBrokerHandlerMapper mapper;
-    private DCVBrokerTokenClient tokenClient;
     private ObjectMapper objectMapper;
     private final PagingAndSortingCrudRepository<SessionTemplate, String> sessionTemplateRepository;
-
-    private SessionsApi getSessionsApi() {
-        SessionsApi sessionsApi = sessionsApiProvider.getIfAvailable();
-        sessionsApi.getApiClient().setBearerToken(tokenClient.getToken());
-        return sessionsApi;
-    }
+    private final BrokerServerInfoCache serverInfoCache;
 
     @Override
     public DescribeSessionsUIResponse describeSessions(DescribeSessionsUIRequestData request) {
@@ -93,7 +88,7 @@ public class DCVBrokerClient extends BrokerClient {
                 }
             }
 
-            DescribeSessionsResponse describeSessionsResponse = getSessionsApi().describeSessions(brokerRequest);
+            DescribeSessionsResponse describeSessionsResponse = sessionsApi.describeSessions(brokerRequest);
             populateSessionsWithHostInfo(describeSessionsResponse);
 
             return mapper.mapToDescribeSessionsUIResponse(describeSessionsResponse);
@@ -112,8 +107,6 @@ public class DCVBrokerClient extends BrokerClient {
             return;
         }
 
-        // Map should contain an index from each server ID to the index of which session requires it
-        Map<String, List<Integer>> serverInfoMap = new HashMap<>();
         List<Session> sessions = describeSessionsResponse.getSessions();
 
         if (sessions == null) {
@@ -121,7 +114,8 @@ public class DCVBrokerClient extends BrokerClient {
             return;
         }
 
-        // Loop through each session and add the index of the session to the map
+        // Collect the ID of every server that a session requires
+        Set<String> serverIds = new LinkedHashSet<>();
         for (int i = 0; i < sessions.size(); i++) {
             Session session = sessions.get(i);
             if (session == null) {
@@ -132,29 +126,35 @@ public class DCVBrokerClient extends BrokerClient {
                 log.warn("Unable to retrieve server info for session {} in describeSessions response {}, response didn't contain host ID", session, describeSessionsResponse);
                 continue;
             }
-            if (!serverInfoMap.containsKey(session.getServer().getId())) {
-                serverInfoMap.put(session.getServer().getId(), new ArrayList<>());
-            }
-            serverInfoMap.get(session.getServer().getId()).add(i);
+            serverIds.add(session.getServer().getId());
+        }
+        if (serverIds.isEmpty()) {
+            return;
         }
 
-        // Get all the servers that we've added to the map
-        DescribeServersRequestData describeServersRequest = new DescribeServersRequestData();
-        describeServersRequest.serverIds(serverInfoMap.keySet().stream().toList());
-        DescribeServersResponse brokerResponse = describeServers(describeServersRequest);
-
-        // For each server, get all the sessions that need that server info and populate each session object with it
-        for (Server server : brokerResponse.getServers()) {
-            if (serverInfoMap.get(server.getId()) == null) {
-                log.warn("Unable to retrieve server info for server {} in describeSessions response {}, response didn't contain host ID", server, describeSessionsResponse);
+        // Get the servers, only describing the ones that were not seen recently, and populate each session with its server
+        Map<String, Server> servers = serverInfoCache.getServers(serverIds, this::describeServersById);
+        for (Session session : sessions) {
+            if (session == null || session.getServer() == null) {
                 continue;
             }
-            for (int sessionIndex : serverInfoMap.get(server.getId())) {
-                describeSessionsResponse.getSessions().get(sessionIndex).server(server);
+            Server server = servers.get(session.getServer().getId());
+            if (server == null) {
+                log.warn("Unable to retrieve server info for session {} in describeSessions response {}, server {} was not returned", session, describeSessionsResponse, session.getServer().getId());
+                continue;
             }
+            session.server(server);
         }
     }
 
+    private List<Server> describeServersById(List<String> serverIds) {
+        DescribeServersResponse brokerResponse = describeServers(new DescribeServersRequestData().serverIds(serverIds));
+        if (brokerResponse == null || brokerResponse.getServers() == null) {
+            return List.of();
+        }
+        return brokerResponse.getServers();
+    }
+
     @Override
     public GetSessionScreenshotsUIResponse getSessionScreenshots(GetSessionScreenshotsUIRequestData request) {
         try {
@@ -171,7 +171,7 @@ public class DCVBrokerClient extends BrokerClient {
                     brokerRequestList.add(brokerRequest);
                 }
             }
-            return mapper.mapToGetSessionScreenshotsUIResponse(getSessionsApi().getSessionScreenshots(brokerRequestList));
+            return mapper.mapToGetSessionScreenshotsUIResponse(sessionsApi.getSessionScreenshots(brokerRequestList));
         } catch (ApiException e) {
             if (e.getCode() == 400 && (e.getMessage().contains("MaxWidth") || e.getMessage().contains("MaxHeight"))) {
                 log.warn("Broker does not support maxWidth and maxHeight parameters for getSessionScreenshots");
@@ -194,7 +194,7 @@ public class DCVBrokerClient extends BrokerClient {
                     brokerRequestList.add(brokerRequest);
                 }
             }
-            return mapper.mapToGetSessionScreenshotsUIResponse(getSessionsApi().getSessionScreenshots(brokerRequestList));
+            return mapper.mapToGetSessionScreenshotsUIResponse(sessionsApi.getSessionScreenshots(brokerRequestList));
         } catch (ApiException e) {
             if (e.getCode() == 400) {
                 throw new BadRequestException(e);
@@ -227,9 +227,6 @@ public class DCVBrokerClient extends BrokerClient {
 
     private DescribeServersResponse describeServers(DescribeServersRequestData brokerRequest) {
         try {
-            ServersApi serversApi = serversApiProvider.getIfAvailable();
-            serversApi.getApiClient().setBearerToken(tokenClient.getToken());
-
             return serversApi.describeServers(brokerRequest);
         } catch (ApiException e) {
             if (e.getCode() == 400) {
@@ -353,7 +350,7 @@ public class DCVBrokerClient extends BrokerClient {
             }
 
             if(!brokerRequests.isEmpty()) {
-                CreateSessionsResponse brokerResponse = getSessionsApi().createSessions(brokerRequests);
+                CreateSessionsResponse brokerResponse = sessionsApi.createSessions(brokerRequests);
                 if(brokerResponse.getUnsuccessfulList() != null) {
                     for(UnsuccessfulCreateSessionRequestData unsuccessfulCreateSessionRequestData: brokerResponse.getUnsuccessfulList()) {
                         CreateSessionRequestData createSessionRequestData = mapper.mapToHandlerCreateSessionRequestData(unsuccessfulCreateSessionRequestData.getCreateSessionRequestData());
@@ -384,8 +381,6 @@ public class DCVBrokerClient extends BrokerClient {
     @Override
     public GetSessionConnectionDataUIResponse getSessionConnectionData(String sessionId, String username) {
         try {
-            GetSessionConnectionDataApi getSessionConnectionDataApi = getSessionConnectionDataApiProvider.getIfAvailable();
-            getSessionConnectionDataApi.getApiClient().setBearerToken(tokenClient.getToken());
             return mapper.mapToGetSessionConnectionDataUIResponse(getSessionConnectionDataApi.getSessionConnectionData(sessionId, username));
         }
         catch (ApiException e) {
@@ -433,7 +428,7 @@ public class DCVBrokerClient extends BrokerClient {
             }
 
             // Make the request and map it to the UI response
-            DeleteSessionsResponse brokerResponse = getSessionsApi().deleteSessions(brokerRequests);
+            DeleteSessionsResponse brokerResponse = sessionsApi.deleteSessions(brokerRequests);
             DeleteSessionsUIResponse mappedResponse = mapper.mapToDeleteSessionsDataUIResponse(brokerResponse);
 
             if (brokerResponse.getUnsuccessfulList() != null ) {
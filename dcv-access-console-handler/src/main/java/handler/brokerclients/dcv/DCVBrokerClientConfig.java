@@ -4,9 +4,12 @@
 package handler.brokerclients.dcv;
 
 import broker.api.GetSessionConnectionDataApi;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Scope;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
@@ -14,35 +17,58 @@ import broker.api.SessionsApi;
 import broker.api.ServersApi;
 import broker.ApiClient;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class DCVBrokerClientConfig {
+    /**
+     * A single HTTP client shared by every broker API, so connections (and their TLS sessions) to the broker are
+     * pooled and reused across calls. HTTP/2 is negotiated when the broker supports it.
+     */
     @Bean
     @Autowired
-    @Scope("prototype")
-    public SessionsApi provideSessionsApi(@Value("${client-to-broker-connector-url}") String baseApiUrl, @Value("${client-to-broker-connection-verify-ssl}") boolean verifySsl) {
-        ApiClient apiClient = new ApiClient();
-        apiClient.setBasePath(baseApiUrl);
-        apiClient.setVerifyingSsl(verifySsl);
-        return new SessionsApi(apiClient);
+    public OkHttpClient provideBrokerHttpClient(DCVBrokerTokenClient tokenClient,
+                                                @Value("${broker-client-max-idle-connections:20}") int maxIdleConnections,
+                                                @Value("${broker-client-keep-alive-seconds:300}") long keepAliveSeconds,
+                                                @Value("${broker-client-max-requests:128}") int maxRequests,
+                                                @Value("${broker-client-max-requests-per-host:64}") int maxRequestsPerHost) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .addInterceptor(new BrokerBearerTokenInterceptor(tokenClient))
+                .build();
     }
 
     @Bean
     @Autowired
-    @Scope("prototype")
-    public ServersApi provideServersApi(@Value("${client-to-broker-connector-url}") String baseApiUrl, @Value("${client-to-broker-connection-verify-ssl}") boolean verifySsl) {
-        ApiClient apiClient = new ApiClient();
+    public ApiClient provideBrokerApiClient(OkHttpClient brokerHttpClient, @Value("${client-to-broker-connector-url}") String baseApiUrl, @Value("${client-to-broker-connection-verify-ssl}") boolean verifySsl) {
+        ApiClient apiClient = new ApiClient(brokerHttpClient);
         apiClient.setBasePath(baseApiUrl);
+        // Rebuilds the client with the SSL settings, keeping the shared connection pool and dispatcher
         apiClient.setVerifyingSsl(verifySsl);
-        return new ServersApi(apiClient);
+        return apiClient;
     }
 
     @Bean
     @Autowired
-    @Scope("prototype")
-    public GetSessionConnectionDataApi provideGetSessionConnectionDataApi(@Value("${client-to-broker-connector-url}") String baseApiUrl, @Value("${client-to-broker-connection-verify-ssl}") boolean verifySsl) {
-        ApiClient apiClient = new ApiClient();
-        apiClient.setBasePath(baseApiUrl);
-        apiClient.setVerifyingSsl(verifySsl);
-        return new GetSessionConnectionDataApi(apiClient);
+    public SessionsApi provideSessionsApi(ApiClient brokerApiClient) {
+        return new SessionsApi(brokerApiClient);
+    }
+
+    @Bean
+    @Autowired
+    public ServersApi provideServersApi(ApiClient brokerApiClient) {
+        return new ServersApi(brokerApiClient);
+    }
+
+    @Bean
+    @Autowired
+    public GetSessionConnectionDataApi provideGetSessionConnectionDataApi(ApiClient brokerApiClient) {
+        return new GetSessionConnectionDataApi(brokerApiClient);
     }
 }
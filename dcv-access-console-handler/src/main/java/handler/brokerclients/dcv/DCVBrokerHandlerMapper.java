@@ -31,6 +31,8 @@ public interface DCVBrokerHandlerMapper {
 
     handler.model.SessionWithPermissions mapToHandlerSession(broker.model.Session session);
 
+    handler.model.SessionWithPermissions copySession(handler.model.SessionWithPermissions session);
+
     GetSessionConnectionDataUIResponse mapToGetSessionConnectionDataUIResponse(GetSessionConnectionDataResponse response);
 
     DeleteSessionsUIResponse mapToDeleteSessionsDataUIResponse(DeleteSessionsResponse response);
@@ -5,10 +5,17 @@ package handler.brokerclients.dcv;
 
 import handler.exceptions.BrokerAuthenticationException;
 
+import java.io.IOException;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -26,6 +33,7 @@ import org.springframework.http.HttpHeaders;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -42,12 +50,26 @@ public class DCVBrokerTokenClient {
     private final String authUrl;
     private final String clientId;
     private final String clientPassword;
-    private TokenResult tokenResult;
-    private long lastTokenTimestamp = 0;
     private final double tokenExpirationMargin = 0.8;
+    // Tokens are renewed in the background once this much of their lifetime has passed, ahead of the expiration margin
+    private final double proactiveRefreshMargin = 0.6;
+    private static final long MIN_PROACTIVE_REFRESH_DELAY_MILLIS = 5000;
+
+    private volatile Token token;
+    private final Object renewalLock = new Object();
+    private CompletableFuture<Token> renewal;
+    private ScheduledFuture<?> scheduledRefresh;
+    private volatile CloseableHttpClient httpClient;
+    private final ScheduledExecutorService refreshScheduler;
 
     Gson gson;
 
+    private record Token(TokenResult result, long timestamp) {
+        private boolean hasExpired(double margin) {
+            return System.currentTimeMillis() - timestamp > result.expires_in * 1000 * margin;
+        }
+    }
+
     @Autowired
     public DCVBrokerTokenClient(@Value("${client-to-broker-connector-auth-url}") String authUrl,
                                      @Value("${broker-client-id}") String clientId, @Value("${broker-client-password}") String clientPassword) {
@@ -61,46 +83,126 @@ public class DCVBrokerTokenClient {
         AUTHORIZATION_HEADER = "Basic " + clientCredentials;
 
         gson = new Gson();
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "broker-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    private boolean hasTokenExpired() {
-        return System.currentTimeMillis() - lastTokenTimestamp > tokenResult.expires_in * 1000 * tokenExpirationMargin;
+    public final String getToken() throws BrokerAuthenticationException {
+        Token current = token;
+        if (current == null || current.hasExpired(tokenExpirationMargin)) {
+            current = awaitRenewal();
+        }
+        return current.result().access_token;
     }
 
-    public final String getToken() throws BrokerAuthenticationException {
-        if(tokenResult == null || hasTokenExpired()) {
+    /**
+     * Waits for the token to be renewed. Only one renewal runs at a time: the first caller performs it and every other
+     * caller waits on the same future.
+     */
+    private Token awaitRenewal() throws BrokerAuthenticationException {
+        CompletableFuture<Token> future;
+        boolean renewing = false;
+        synchronized (renewalLock) {
+            Token current = token;
+            if (current != null && !current.hasExpired(tokenExpirationMargin)) {
+                // Another caller finished renewing while this one was waiting for the lock
+                return current;
+            }
+            if (renewal == null) {
+                renewal = new CompletableFuture<>();
+                renewing = true;
+            }
+            future = renewal;
+        }
+
+        if (renewing) {
+            renewWithRetries(future);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BrokerAuthenticationException brokerAuthenticationException) {
+                throw brokerAuthenticationException;
+            }
+            throw new BrokerAuthenticationException(e.getCause());
+        }
+    }
+
+    private void refreshInBackground() {
+        CompletableFuture<Token> future;
+        synchronized (renewalLock) {
+            if (renewal != null) {
+                return;
+            }
+            renewal = new CompletableFuture<>();
+            future = renewal;
+        }
+        renewWithRetries(future);
+        if (future.isCompletedExceptionally()) {
+            log.warn("Unable to renew token ahead of its expiration. It will be renewed when it is next requested");
+        }
+    }
+
+    private void renewWithRetries(CompletableFuture<Token> future) {
+        try {
             for (int i = 0; i < NUMBER_OF_RETRIES; i++) {
                 try {
-                    renewToken();
-                    break;
+                    Token renewed = renewToken();
+                    token = renewed;
+                    scheduleRefresh(renewed);
+                    future.complete(renewed);
+                    return;
                 } catch (Exception e) {
                     log.error("Error while renewing token", e);
                     if (i == NUMBER_OF_RETRIES - 1) {
                         log.warn("Unable to renew token after {} retries. Not trying again...", NUMBER_OF_RETRIES);
-                        throw new BrokerAuthenticationException(e);
+                        future.completeExceptionally(new BrokerAuthenticationException(e));
                     }
                 }
             }
+        } finally {
+            if (!future.isDone()) {
+                future.completeExceptionally(new BrokerAuthenticationException("Token renewal did not complete"));
+            }
+            synchronized (renewalLock) {
+                renewal = null;
+            }
+        }
+    }
+
+    private void scheduleRefresh(Token renewed) {
+        long delay = (long) (renewed.result().expires_in * 1000 * proactiveRefreshMargin);
+        synchronized (renewalLock) {
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+                scheduledRefresh = null;
+            }
+            if (delay >= MIN_PROACTIVE_REFRESH_DELAY_MILLIS && !refreshScheduler.isShutdown()) {
+                scheduledRefresh = refreshScheduler.schedule(this::refreshInBackground, delay, TimeUnit.MILLISECONDS);
+            }
         }
-        return tokenResult.access_token;
     }
 
-    private void renewToken() throws BrokerAuthenticationException {
+    private Token renewToken() throws BrokerAuthenticationException {
         log.info("Attempting to renew token from endpoint {}", tokenUri);
-        try(CloseableHttpClient client = getHttpClient()) {
+        try {
             HttpUriRequest request = RequestBuilder.post().setUri(tokenUri)
                     .setHeader(HttpHeaders.AUTHORIZATION, AUTHORIZATION_HEADER)
                     .setHeader(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE_HEADER).build();
-            HttpResponse response = client.execute(request);
-            HttpEntity entity = response.getEntity();
-            String responseString = EntityUtils.toString(entity, "UTF-8");
-            if (response.getStatusLine().getStatusCode() == 200) {
-                tokenResult = parseTokenResult(responseString);
-                log.info("Successfully retrieved new token. Token expiration: {} seconds", tokenResult.expires_in);
-                lastTokenTimestamp = System.currentTimeMillis();
-            }
-            else {
-                throw new BrokerAuthenticationException(responseString);
+            try (CloseableHttpResponse response = getHttpClient().execute(request)) {
+                HttpEntity entity = response.getEntity();
+                String responseString = EntityUtils.toString(entity, "UTF-8");
+                if (response.getStatusLine().getStatusCode() == 200) {
+                    TokenResult tokenResult = parseTokenResult(responseString);
+                    log.info("Successfully retrieved new token. Token expiration: {} seconds", tokenResult.expires_in);
+                    return new Token(tokenResult, System.currentTimeMillis());
+                }
+                else {
+                    throw new BrokerAuthenticationException(responseString);
+                }
             }
         }
         catch (Exception e) {
@@ -108,14 +210,36 @@ public class DCVBrokerTokenClient {
         }
     }
 
+    @PreDestroy
+    public void close() throws IOException {
+        refreshScheduler.shutdownNow();
+        CloseableHttpClient client = httpClient;
+        if (client != null) {
+            client.close();
+        }
+    }
+
     private TokenResult parseTokenResult(String jsonResult) throws JsonSyntaxException {
         return gson.fromJson(jsonResult, TokenResult.class);
     }
 
+    /**
+     * The token endpoint client is built once and reused, so renewals share its pooled connections.
+     */
     private CloseableHttpClient getHttpClient() throws Exception {
-        return HttpClients.custom()
-                .setSSLContext(new SSLContextBuilder().loadTrustMaterial(null, TrustAllStrategy.INSTANCE).build())
-                .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE).build();
+        CloseableHttpClient client = httpClient;
+        if (client == null) {
+            synchronized (renewalLock) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClients.custom()
+                            .setSSLContext(new SSLContextBuilder().loadTrustMaterial(null, TrustAllStrategy.INSTANCE).build())
+                            .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE).build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
     }
 
     public static class TokenResult {
@@ -16,13 +16,10 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import org.springframework.web.context.annotation.RequestScope;
 import software.amazon.awssdk.core.internal.waiters.ResponseOrException;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
-import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
-import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
@@ -118,76 +115,4 @@ public class DynamoDbConfig {
         createTable(tableName, table, dynamoDbClient);
         return table;
     }
-
-    @Bean
-    @RequestScope
-    public WriteBatch.Builder<SessionTemplate> provideSessionTemplateWriteBuilder(DynamoDbTable<SessionTemplate> table) {
-        return WriteBatch.builder(SessionTemplate.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public WriteBatch.Builder<UserEntity> provideUserWriteBuilder(DynamoDbTable<UserEntity> table) {
-        return WriteBatch.builder(UserEntity.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public WriteBatch.Builder<SessionTemplatePublishedToUser> provideSessionTemplatePublishedToUserWriteBuilder(DynamoDbTable<SessionTemplatePublishedToUser> table) {
-        return WriteBatch.builder(SessionTemplatePublishedToUser.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public WriteBatch.Builder<UserGroupEntity> provideUserGroupWriteBuilder(DynamoDbTable<UserGroupEntity> table) {
-        return WriteBatch.builder(UserGroupEntity.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public WriteBatch.Builder<SessionTemplatePublishedToUserGroup> provideSessionTemplatePublishedToUserGroupWriteBuilder(DynamoDbTable<SessionTemplatePublishedToUserGroup> table) {
-        return WriteBatch.builder(SessionTemplatePublishedToUserGroup.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public WriteBatch.Builder<UserGroupUserMembership> provideUserGroupUserMembershipWriteBuilder(DynamoDbTable<UserGroupUserMembership> table) {
-        return WriteBatch.builder(UserGroupUserMembership.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public ReadBatch.Builder<SessionTemplate> provideSessionTemplateReadBuilder(DynamoDbTable<SessionTemplate> table) {
-        return ReadBatch.builder(SessionTemplate.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public ReadBatch.Builder<UserEntity> provideUserReadBuilder(DynamoDbTable<UserEntity> table) {
-        return ReadBatch.builder(UserEntity.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public ReadBatch.Builder<SessionTemplatePublishedToUser> provideSessionTemplatePublishedToUserReadBuilder(DynamoDbTable<SessionTemplatePublishedToUser> table) {
-        return ReadBatch.builder(SessionTemplatePublishedToUser.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public ReadBatch.Builder<UserGroupEntity> provideUserGroupReadBuilder(DynamoDbTable<UserGroupEntity> table) {
-        return ReadBatch.builder(UserGroupEntity.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public ReadBatch.Builder<SessionTemplatePublishedToUserGroup> provideSessionTemplatePublishedToUserGroupReadBuilder(DynamoDbTable<SessionTemplatePublishedToUserGroup> table) {
-        return ReadBatch.builder(SessionTemplatePublishedToUserGroup.class).mappedTableResource(table);
-    }
-
-    @Bean
-    @RequestScope
-    public ReadBatch.Builder<UserGroupUserMembership> provideUserGroupUserMembershipReadBuilder(DynamoDbTable<UserGroupUserMembership> table) {
-        return ReadBatch.builder(UserGroupUserMembership.class).mappedTableResource(table);
-    }
 }
\ No newline at end of file
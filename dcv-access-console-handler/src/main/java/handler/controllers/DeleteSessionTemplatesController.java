@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static handler.errors.CommonErrorsEnum.BAD_REQUEST_ERROR;
 import static handler.errors.DeleteSessionTemplatesErrors.DELETE_SESSION_TEMPLATES_DEFAULT_MESSAGE;
@@ -59,9 +60,10 @@ public class DeleteSessionTemplatesController implements DeleteSessionTemplatesA
             List<String> filteredSessionTemplates = new ArrayList<>();
             DeleteSessionTemplatesResponse response = new DeleteSessionTemplatesResponse();
 
+            Map<String, Boolean> decisions = authorizationEngine.isAuthorizedBatch(PrincipalType.User, username,
+                    ResourceAction.deleteSessionTemplate, ResourceType.SessionTemplate, request.getIds());
             for (String id : request.getIds()) {
-                if (!authorizationEngine.isAuthorized(PrincipalType.User, username,
-                        ResourceAction.deleteSessionTemplate, ResourceType.SessionTemplate, id)) {
+                if (!decisions.getOrDefault(id, false)) {
                     log.warn("User {} is not authorized to delete Session Template {}", username, id);
                     continue;
                 }
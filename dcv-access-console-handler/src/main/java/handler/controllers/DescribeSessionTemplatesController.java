@@ -35,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 
@@ -126,13 +127,15 @@ public class DescribeSessionTemplatesController implements DescribeSessionTempla
 
     private List<SessionTemplate> getAuthorizedSessionTemplates(List<SessionTemplate> sessionTemplates, String username) {
         List<SessionTemplate> authorizedSessionTemplates = new ArrayList<>();
+        Map<String, Boolean> decisions = authorizationEngine.isAuthorizedBatch(PrincipalType.User, username,
+                ResourceAction.viewSessionTemplateDetails, ResourceType.SessionTemplate,
+                sessionTemplates.stream().map(SessionTemplate::getId).toList());
         for (SessionTemplate sessionTemplate : sessionTemplates) {
-            if (authorizationEngine.isAuthorized(PrincipalType.User, username,
-                    ResourceAction.viewSessionTemplateDetails, ResourceType.SessionTemplate, sessionTemplate.getId())) {
-                log.info("User {} is authorized to view Session Template {}", username, sessionTemplate.getId());
+            if (decisions.getOrDefault(sessionTemplate.getId(), false)) {
+                log.debug("User {} is authorized to view Session Template {}", username, sessionTemplate.getId());
                 authorizedSessionTemplates.add(sessionTemplate);
             } else {
-                log.warn("User {} is not authorized to view Session Template {}", username, sessionTemplate.getId());
+                log.debug("User {} is not authorized to view Session Template {}", username, sessionTemplate.getId());
             }
         }
         return authorizedSessionTemplates;
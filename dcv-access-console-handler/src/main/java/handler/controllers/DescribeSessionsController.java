@@ -33,6 +33,7 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import lombok.RequiredArgsConstructor;
@@ -109,11 +110,14 @@ public class DescribeSessionsController implements DescribeSessionsApi {
 
     private List<SessionWithPermissions> getAuthorizedSessions(List<SessionWithPermissions> sessions, String username) {
         List<SessionWithPermissions> authorizedSessions = new ArrayList<>();
+        Map<String, Boolean> decisions = authorizationEngine.isAuthorizedBatch(PrincipalType.User, username,
+                ResourceAction.viewSessionDetails, ResourceType.Session,
+                sessions.stream().map(SessionWithPermissions::getId).toList());
         for (SessionWithPermissions session : sessions) {
-            if (!authorizationEngine.isAuthorized(PrincipalType.User, username, ResourceAction.viewSessionDetails, ResourceType.Session, session.getId())) {
-                log.warn("User {} not authorized to view session {}", username, session.getId());
+            if (!decisions.getOrDefault(session.getId(), false)) {
+                log.debug("User {} not authorized to view session {}", username, session.getId());
             } else {
-                log.info("User {} is authorized to view session {}", username, session.getId());
+                log.debug("User {} is authorized to view session {}", username, session.getId());
                 session.levelOfAccess(session.getOwner().equals(authorizationEngine.getUserLoginUsername(username)) ? "Owner" : "Admin");
                 authorizedSessions.add(session);
             }
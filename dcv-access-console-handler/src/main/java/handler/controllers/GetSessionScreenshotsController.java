@@ -29,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 
 import static handler.errors.CommonErrorsEnum.BAD_REQUEST_ERROR;
 import static handler.errors.CommonErrorsEnum.BROKER_AUTHENTICATION_ERROR;
@@ -84,13 +85,15 @@ public class GetSessionScreenshotsController implements GetSessionScreenshotsApi
             if(!isAdmin) {
                 GetSessionScreenshotsUIRequestData getSessionScreenshotsUIRequestData = new GetSessionScreenshotsUIRequestData();
                 List<GetSessionScreenshotUnsuccessfulResponse> unauthorizedList = new ArrayList<>();
+                Map<String, Boolean> decisions = authorizationEngine.isAuthorizedBatch(PrincipalType.User, username,
+                        ResourceAction.viewSessionScreenshotDetails, ResourceType.Session, request.getSessionIds());
                 for (String sessionId : request.getSessionIds()) {
-                    if (!authorizationEngine.isAuthorized(PrincipalType.User, username, ResourceAction.viewSessionScreenshotDetails, ResourceType.Session, sessionId)) {
+                    if (!decisions.getOrDefault(sessionId, false)) {
                         String msg = String.format("User %s is not authorized to view session screenshot details for session %s", username, sessionId);
                         log.warn(msg);
                         unauthorizedList.add(new GetSessionScreenshotUnsuccessfulResponse().failureReason(msg).getSessionScreenshotRequestData(new GetSessionScreenshotRequestData().sessionId(sessionId)));
                     } else {
-                        log.info("User {} is authorized to view session screenshots for session {}", username, sessionId);
+                        log.debug("User {} is authorized to view session screenshots for session {}", username, sessionId);
                         getSessionScreenshotsUIRequestData.addSessionIdsItem(sessionId);
                     }
                 }
@@ -5,6 +5,7 @@ package handler.controllers;
 
 import handler.api.ImportUsersApi;
 import handler.authorization.engines.AbstractAuthorizationEngine;
+import handler.authorization.engines.entities.ImportUsersResult;
 import handler.errors.HandlerErrorMessage;
 import handler.exceptions.BadRequestException;
 import handler.model.Error;
@@ -42,8 +43,9 @@ public class ImportUsersController implements ImportUsersApi {
         try {
             log.info("Received importUsers request: overwriteExistingUsers={} overwriteGroups={}", overwriteExistingUsers, overwriteGroups);
 
-            ImportUsersResponse response = userService.importUsers(file, overwriteExistingUsers, overwriteGroups, authorizationEngine.getRoles(), authorizationEngine.getDefaultUserRole());
-            authorizationEngine.loadEntities();
+            ImportUsersResult result = userService.importUsers(file, overwriteExistingUsers, overwriteGroups, authorizationEngine.getRoles(), authorizationEngine.getDefaultUserRole());
+            authorizationEngine.applyUserChanges(result.getChangeSet());
+            ImportUsersResponse response = result.getResponse();
 
             log.info("Successfully sent importUsers response: {}", response);
             return new ResponseEntity<>(response, HttpStatus.OK);
@@ -7,6 +7,8 @@ import handler.model.User;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
 
@@ -14,6 +16,12 @@ import java.time.OffsetDateTime;
 
 @Entity
 @DynamoDbBean
+@Table(indexes = {
+        @Index(name = "idx_user_display_name", columnList = "displayName, userId"),
+        @Index(name = "idx_user_login_username", columnList = "loginUsername, userId"),
+        @Index(name = "idx_user_role", columnList = "role, userId"),
+        @Index(name = "idx_user_last_logged_in_time", columnList = "lastLoggedInTime, userId")
+})
 public class UserEntity extends User {
     public UserEntity() {
         super();
@@ -9,6 +9,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -25,6 +26,10 @@ import java.util.List;
 
 @Entity
 @DynamoDbBean
+@Table(indexes = {
+        @Index(name = "idx_user_group_display_name", columnList = "displayName, userGroupId"),
+        @Index(name = "idx_user_group_creation_time", columnList = "creationTime, userGroupId")
+})
 public class UserGroupEntity extends UserGroup {
 
     public UserGroupEntity() {
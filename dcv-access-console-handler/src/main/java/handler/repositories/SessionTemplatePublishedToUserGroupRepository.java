@@ -11,6 +11,7 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @NoRepositoryBean
 public interface SessionTemplatePublishedToUserGroupRepository extends CrudRepository<SessionTemplatePublishedToUserGroup, SessionTemplateUserGroupId> {
@@ -19,4 +20,9 @@ public interface SessionTemplatePublishedToUserGroupRepository extends CrudRepos
      List<SessionTemplatePublishedToUserGroup> findByUserGroupUserGroupId(String userGroupId);
 
      RepositoryResponse<SessionTemplatePublishedToUserGroup> findByUserGroupUserGroupId(String userGroupId, RepositoryRequest request);
+
+     /**
+      * Streams the id of every row to the consumer in a single read of the table.
+      */
+     void findAllIds(Consumer<SessionTemplateUserGroupId> consumer);
 }
\ No newline at end of file
@@ -8,9 +8,15 @@ import handler.persistence.SessionTemplateUserId;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @NoRepositoryBean
 public interface SessionTemplatePublishedToUserRepository extends PagingAndSortingCrudRepository<SessionTemplatePublishedToUser, SessionTemplateUserId> {
      List<SessionTemplatePublishedToUser> findBySessionTemplateId(String sessionTemplateId);
      List<SessionTemplatePublishedToUser> findByUserUserId(String userId);
+
+     /**
+      * Streams the id of every row to the consumer in a single read of the table.
+      */
+     void findAllIds(Consumer<SessionTemplateUserId> consumer);
 }
\ No newline at end of file
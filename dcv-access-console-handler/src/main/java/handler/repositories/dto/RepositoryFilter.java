@@ -0,0 +1,45 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.repositories.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The filter tokens of a describe request, in a form the repositories can translate into their own queries. Every
+ * property must match, and a property matches when any of its conditions do, the same way the in memory filter
+ * evaluates the tokens. Repositories push down the properties they can express exactly, or as a superset of the
+ * matching items, and skip the rest; the in memory filter is still applied to what they return.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RepositoryFilter {
+    public enum Operator {
+        EQUAL,
+        NOT_EQUAL,
+        CONTAINS,
+        NOT_CONTAINS,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL_TO,
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL_TO
+    }
+
+    /**
+     * A single token. The value is a String, an OffsetDateTime or a Boolean, depending on the token it came from.
+     */
+    public record Condition(Operator operator, Object value) {
+    }
+
+    public record PropertyConditions(String property, List<Condition> conditions) {
+    }
+
+    private final List<PropertyConditions> properties;
+
+    public boolean isEmpty() {
+        return properties.isEmpty();
+    }
+}
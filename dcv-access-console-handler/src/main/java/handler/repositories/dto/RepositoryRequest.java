@@ -17,4 +17,5 @@ public class RepositoryRequest {
     private int maxResults;
     private Sort sort;
     private Class<?> clazz;
+    private RepositoryFilter filter;
 }
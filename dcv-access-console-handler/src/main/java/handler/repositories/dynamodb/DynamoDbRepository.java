@@ -7,37 +7,85 @@ import handler.persistence.SessionTemplateUserGroupId;
 import handler.persistence.SessionTemplateUserId;
 import handler.persistence.UserGroupUser;
 import handler.repositories.PagingAndSortingCrudRepository;
+import handler.repositories.dto.RepositoryFilter;
 import handler.repositories.dto.RepositoryRequest;
 import handler.repositories.dto.RepositoryResponse;
 import handler.utils.NextToken;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
 import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
 import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @ConditionalOnProperty(name = "persistence-db", havingValue = "dynamodb")
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository<T, ID> {
+    // The most items DynamoDB accepts in one BatchWriteItem and BatchGetItem request
+    private static final int MAX_BATCH_WRITE_ITEMS = 25;
+    private static final int MAX_BATCH_GET_KEYS = 100;
+    private static final long BACKOFF_BASE_MILLIS = 25;
+    private static final long BACKOFF_MAX_MILLIS = 2000;
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "dynamodb-repository-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final DynamoDbEnhancedClient client;
     private final DynamoDbTable<T> table;
-    private ObjectProvider<WriteBatch.Builder<T>> writeBuilderProvider;
-    private ObjectProvider<ReadBatch.Builder<T>> readBuilderProvider;
+
+    @Value("${dynamodb-scan-segments:4}")
+    private int scanSegments = 4;
+
+    @Value("${dynamodb-batch-write-parallelism:4}")
+    private int batchWriteParallelism = 4;
+
+    @Value("${dynamodb-batch-read-parallelism:4}")
+    private int batchReadParallelism = 4;
+
+    @Value("${dynamodb-batch-max-attempts:8}")
+    private int batchMaxAttempts = 8;
 
     @Override
     public <S extends T> S save(S entity) {
@@ -45,29 +93,25 @@ public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository
         return entity;
     }
 
+    /**
+     * Writes the entities in batches, retrying the ones DynamoDB leaves unprocessed.
+     * @return Returns the entities that were written. Entities that were still unprocessed after the last attempt are
+     * left out.
+     */
     @Override
     public <S extends T> Iterable<S> saveAll(Iterable<S> entities) {
-        WriteBatch.Builder<T> writeBuilder = writeBuilderProvider.getIfAvailable();
-        entities.forEach(writeBuilder::addPutItem);
-        client.batchWriteItem(w -> w.addWriteBatch(writeBuilder.build()));
-        return entities;
+        Map<Key, S> puts = new LinkedHashMap<>();
+        entities.forEach(entity -> puts.put(table.keyFrom(entity), entity));
+        Set<Key> unprocessed = writeAll(puts, Collections.emptyList());
+        return puts.entrySet().stream()
+                .filter(put -> !unprocessed.contains(put.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
     }
 
     @Override
     public Optional<T> findById(ID id) {
-        Key key;
-        if(id instanceof SessionTemplateUserId sessionTemplateUserId) {
-            key = Key.builder().partitionValue(sessionTemplateUserId.getSessionTemplateId()).sortValue(sessionTemplateUserId.getUserId()).build();
-        } else if (id instanceof SessionTemplateUserGroupId sessionTemplateUserGroupId) {
-            key = Key.builder().partitionValue(sessionTemplateUserGroupId.getSessionTemplateId()).sortValue(sessionTemplateUserGroupId.getUserGroupId()).build();
-        } else if (id instanceof UserGroupUser userGroupUser) {
-            key = Key.builder().partitionValue(userGroupUser.getUserGroupId()).sortValue(userGroupUser.getUserId()).build();
-        } else if(id instanceof String string) {
-            key = Key.builder().partitionValue(string).build();
-        } else {
-            throw new UnsupportedOperationException();
-        }
-        return Optional.ofNullable(table.getItem(key));
+        return Optional.ofNullable(table.getItem(keyOf(id)));
     }
 
     @Override
@@ -75,9 +119,44 @@ public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository
         return findById(id).isPresent();
     }
 
+    /**
+     * Reads the whole table with a parallel scan, each segment of the table being scanned on its own thread.
+     */
     @Override
     public Iterable<T> findAll() {
-        return table.scan().items().stream().toList();
+        List<T> items = new ArrayList<>();
+        scanAll(items::add);
+        return items;
+    }
+
+    /**
+     * Passes every item in the table to the consumer as the pages of a parallel scan arrive, without holding the
+     * whole table in memory. The consumer is called by one segment at a time.
+     * @param consumer Receives the items.
+     */
+    public void scanAll(Consumer<? super T> consumer) {
+        if (scanSegments <= 1) {
+            table.scan().items().forEach(consumer);
+            return;
+        }
+
+        List<CompletableFuture<Void>> segments = new ArrayList<>(scanSegments);
+        for (int segment = 0; segment < scanSegments; segment++) {
+            ScanEnhancedRequest request = ScanEnhancedRequest.builder()
+                    .segment(segment)
+                    .totalSegments(scanSegments)
+                    .build();
+            segments.add(CompletableFuture.runAsync(() -> table.scan(request).forEach(page -> {
+                synchronized (consumer) {
+                    page.items().forEach(consumer);
+                }
+            }), EXECUTOR));
+        }
+
+        for (CompletableFuture<Void> segment : segments) {
+            join(segment);
+        }
+        log.debug("Scanned table {} in {} segments", table.tableName(), scanSegments);
     }
 
     @Override
@@ -91,23 +170,37 @@ public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository
     }
 
     public PageIterable<T> findAll(Map<String, AttributeValue> startKey, int limit) {
+        return findAll(startKey, limit, null);
+    }
+
+    public PageIterable<T> findAll(Map<String, AttributeValue> startKey, int limit, Expression filterExpression) {
         ScanEnhancedRequest request = ScanEnhancedRequest.builder()
                 .exclusiveStartKey(startKey)
                 .limit(limit)
+                .filterExpression(filterExpression)
                 .build();
 
         return table.scan(request);
     }
 
+    /**
+     * Returns a page of items. The filter of the request is pushed down as a FilterExpression, so DynamoDB only returns
+     * the items that match. A filtered page can hold fewer items than requested, as the limit applies to the items
+     * scanned, so the next token is taken from the last evaluated key instead of reading ahead to the next page.
+     */
     public RepositoryResponse<T> findAll(RepositoryRequest request) {
         Map<String, AttributeValue> startKey = request.getNextToken().getDynamoDbStartKey().orElse(null);
-        PageIterable<T> iterable = findAll(startKey, request.getMaxResults());
+        Expression filterExpression = toFilterExpression(request.getFilter());
+        PageIterable<T> iterable = findAll(startKey, request.getMaxResults(), filterExpression);
 
         software.amazon.awssdk.enhanced.dynamodb.model.Page<T> pageOne = null;
         software.amazon.awssdk.enhanced.dynamodb.model.Page<T> pageTwo = null;
         for (software.amazon.awssdk.enhanced.dynamodb.model.Page<T> page : iterable) {
             if (pageOne == null) {
                 pageOne = page;
+                if (filterExpression != null) {
+                    break;
+                }
                 continue;
             }
             pageTwo = page;
@@ -115,36 +208,119 @@ public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository
         }
 
         NextToken newNextToken = null;
-        if (pageTwo != null && pageTwo.items().size() > 0) {
+        if (filterExpression != null) {
+            newNextToken = NextToken.from(pageOne.lastEvaluatedKey(), request.getClazz());
+        } else if (pageTwo != null && pageTwo.items().size() > 0) {
             newNextToken = NextToken.from(pageOne.lastEvaluatedKey(), request.getClazz());;
         }
 
-        List<T> items = pageOne.items().subList(request.getNextToken().getPageOffset().getAsInt(), pageOne.items().size());
+        int pageOffset = request.getNextToken().getPageOffset().getAsInt();
+        List<T> items = pageOne.items().subList(Math.min(pageOffset, pageOne.items().size()), pageOne.items().size());
         return RepositoryResponse.<T>builder().items(items).nextToken(newNextToken).build();
     }
 
+    /**
+     * Translates the properties of the filter that are String or Boolean attributes of the table into a
+     * FilterExpression. DynamoDB compares strings exactly, as the in memory filter does. Dates are stored as ISO-8601
+     * strings, which do not compare by instant across offsets, so they are left to the in memory filter.
+     * @return Returns the expression, or null if nothing could be pushed down.
+     */
+    Expression toFilterExpression(RepositoryFilter filter) {
+        if (filter == null || filter.isEmpty()) {
+            return null;
+        }
+
+        Class<?> itemType = table.tableSchema().itemType().rawClass();
+        List<String> expressions = new ArrayList<>();
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        for (RepositoryFilter.PropertyConditions property : filter.getProperties()) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(itemType, property.property());
+            if (descriptor == null || !table.tableSchema().attributeNames().contains(property.property())) {
+                continue;
+            }
+
+            String name = "#f" + names.size();
+            Map<String, AttributeValue> propertyValues = new HashMap<>();
+            List<String> conditions = new ArrayList<>();
+            for (RepositoryFilter.Condition condition : property.conditions()) {
+                String value = ":f" + names.size() + "_" + conditions.size();
+                String expression = toFilterExpression(name, value, descriptor.getPropertyType(), condition, propertyValues);
+                if (expression == null) {
+                    conditions = null;
+                    break;
+                }
+                conditions.add(expression);
+            }
+
+            if (conditions != null) {
+                names.put(name, property.property());
+                values.putAll(propertyValues);
+                expressions.add("(" + String.join(" OR ", conditions) + ")");
+            }
+        }
+
+        if (expressions.isEmpty()) {
+            return null;
+        }
+        return Expression.builder()
+                .expression(String.join(" AND ", expressions))
+                .expressionNames(names)
+                .expressionValues(values)
+                .build();
+    }
+
+    private static String toFilterExpression(String name, String value, Class<?> type, RepositoryFilter.Condition condition,
+                                             Map<String, AttributeValue> values) {
+        if (type == String.class && condition.value() instanceof String string && !string.isEmpty()) {
+            values.put(value, AttributeValue.fromS(string));
+            return switch (condition.operator()) {
+                case EQUAL -> name + " = " + value;
+                case NOT_EQUAL -> "(attribute_exists(" + name + ") AND " + name + " <> " + value + ")";
+                case CONTAINS -> "contains(" + name + ", " + value + ")";
+                case NOT_CONTAINS -> "(attribute_exists(" + name + ") AND NOT contains(" + name + ", " + value + "))";
+                default -> null;
+            };
+        }
+        if (type == Boolean.class && condition.value() instanceof Boolean bool) {
+            values.put(value, AttributeValue.fromBool(bool));
+            return switch (condition.operator()) {
+                case EQUAL -> name + " = " + value;
+                case NOT_EQUAL -> "(attribute_exists(" + name + ") AND " + name + " <> " + value + ")";
+                default -> null;
+            };
+        }
+        return null;
+    }
+
+    /**
+     * Reads the items in batches of 100 keys, several batches at a time, retrying the keys DynamoDB leaves unprocessed.
+     * @return Returns the items that were found, in the order their ids were given.
+     * @throws DynamoDbException if some keys were still unprocessed after the last attempt, since the items that were
+     * found would otherwise be mistaken for all of them.
+     */
     @Override
     public Iterable<T> findAllById(Iterable<ID> ids) {
-        ReadBatch.Builder<T> readBuilder = readBuilderProvider.getIfAvailable();
-        for(ID id: ids) {
-            if(id instanceof SessionTemplateUserId sessionTemplateUserId) {
-                readBuilder.addGetItem(Key.builder().partitionValue(sessionTemplateUserId.getSessionTemplateId()).sortValue(sessionTemplateUserId.getUserId()).build());
-            } else if (id instanceof SessionTemplateUserGroupId sessionTemplateUserGroupId) {
-                readBuilder.addGetItem(Key.builder().partitionValue(sessionTemplateUserGroupId.getSessionTemplateId()).sortValue(sessionTemplateUserGroupId.getUserGroupId()).build());
-            } else if (id instanceof UserGroupUser userGroupUser) {
-                readBuilder.addGetItem(Key.builder().partitionValue(userGroupUser.getUserGroupId()).sortValue(userGroupUser.getUserId()).build());
-            } else if(id instanceof String string) {
-                readBuilder.addGetItem(Key.builder().partitionValue(string).build());
-            } else {
-                throw new UnsupportedOperationException();
-            }
+        // A batch is rejected if it names the same item twice
+        Set<Key> keySet = new LinkedHashSet<>();
+        for (ID id : ids) {
+            keySet.add(keyOf(id));
         }
+        List<Key> keys = new ArrayList<>(keySet);
 
-        ReadBatch readBatch = readBuilder.build();
-        if (readBatch.keysAndAttributes() == null) {
-            return List.of();
+        Queue<List<Key>> chunks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < keys.size(); i += MAX_BATCH_GET_KEYS) {
+            chunks.add(keys.subList(i, Math.min(i + MAX_BATCH_GET_KEYS, keys.size())));
         }
-        return client.batchGetItem(r -> r.addReadBatch(readBatch)).resultsForTable(table).stream().toList();
+        Map<Key, T> found = new ConcurrentHashMap<>();
+        runInParallel(() -> {
+            List<Key> chunk;
+            while ((chunk = chunks.poll()) != null) {
+                readChunk(chunk, found);
+            }
+        }, Math.min(batchReadParallelism, chunks.size()));
+
+        return keys.stream().map(found::get).filter(Objects::nonNull).toList();
     }
 
     @Override
@@ -154,19 +330,7 @@ public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository
 
     @Override
     public void deleteById(ID id) {
-        Key key;
-        if(id instanceof SessionTemplateUserId sessionTemplateUserId) {
-            key = Key.builder().partitionValue(sessionTemplateUserId.getSessionTemplateId()).sortValue(sessionTemplateUserId.getUserId()).build();
-        } else if (id instanceof SessionTemplateUserGroupId sessionTemplateUserGroupId) {
-            key = Key.builder().partitionValue(sessionTemplateUserGroupId.getSessionTemplateId()).sortValue(sessionTemplateUserGroupId.getUserGroupId()).build();
-        } else if (id instanceof UserGroupUser userGroupUser) {
-            key = Key.builder().partitionValue(userGroupUser.getUserGroupId()).sortValue(userGroupUser.getUserId()).build();
-        } else if(id instanceof String string) {
-            key = Key.builder().partitionValue(string).build();
-        } else {
-            throw new UnsupportedOperationException();
-        }
-        table.deleteItem(key);
+        table.deleteItem(keyOf(id));
     }
 
     @Override
@@ -176,34 +340,176 @@ public class DynamoDbRepository<T, ID> implements PagingAndSortingCrudRepository
 
     @Override
     public void deleteAllById(Iterable<? extends ID> ids) {
-        WriteBatch.Builder<T> writeBuilder = writeBuilderProvider.getIfAvailable();
-        for(ID id: ids) {
-            if (id instanceof SessionTemplateUserId sessionTemplateUserId) {
-                writeBuilder.addDeleteItem(Key.builder().partitionValue(sessionTemplateUserId.getSessionTemplateId()).sortValue(sessionTemplateUserId.getUserId()).build());
-            } else if (id instanceof SessionTemplateUserGroupId sessionTemplateUserGroupId) {
-                writeBuilder.addDeleteItem(Key.builder().partitionValue(sessionTemplateUserGroupId.getSessionTemplateId()).sortValue(sessionTemplateUserGroupId.getUserGroupId()).build());
-            } else if (id instanceof UserGroupUser userGroupUser) {
-                writeBuilder.addDeleteItem(Key.builder().partitionValue(userGroupUser.getUserGroupId()).sortValue(userGroupUser.getUserId()).build());
-            } else if (id instanceof String string) {
-                writeBuilder.addDeleteItem(Key.builder().partitionValue(string).build());
-            } else {
-                throw new UnsupportedOperationException("Unable to delete using ID of type: " + id);
-            }
+        List<Key> keys = new ArrayList<>();
+        for (ID id : ids) {
+            keys.add(keyOf(id));
         }
-        client.batchWriteItem(w -> w.addWriteBatch(writeBuilder.build()));
+        deleteAllByKey(keys);
     }
 
     @Override
     public void deleteAll(Iterable<? extends T> entities) {
-        WriteBatch.Builder<T> writeBuilder = writeBuilderProvider.getIfAvailable();
-        entities.forEach(writeBuilder::addDeleteItem);
-        client.batchWriteItem(w -> w.addWriteBatch(writeBuilder.build()));
+        List<Key> keys = new ArrayList<>();
+        entities.forEach(entity -> keys.add(table.keyFrom(entity)));
+        deleteAllByKey(keys);
     }
 
     @Override
     public void deleteAll() {
-        WriteBatch.Builder<T> writeBuilder = writeBuilderProvider.getIfAvailable();
-        findAll().forEach(writeBuilder::addDeleteItem);
-        client.batchWriteItem(w -> w.addWriteBatch(writeBuilder.build()));
+        List<Key> keys = new ArrayList<>();
+        scanAll(item -> keys.add(table.keyFrom(item)));
+        deleteAllByKey(keys);
+    }
+
+    private Key keyOf(ID id) {
+        if (id instanceof SessionTemplateUserId sessionTemplateUserId) {
+            return Key.builder().partitionValue(sessionTemplateUserId.getSessionTemplateId()).sortValue(sessionTemplateUserId.getUserId()).build();
+        } else if (id instanceof SessionTemplateUserGroupId sessionTemplateUserGroupId) {
+            return Key.builder().partitionValue(sessionTemplateUserGroupId.getSessionTemplateId()).sortValue(sessionTemplateUserGroupId.getUserGroupId()).build();
+        } else if (id instanceof UserGroupUser userGroupUser) {
+            return Key.builder().partitionValue(userGroupUser.getUserGroupId()).sortValue(userGroupUser.getUserId()).build();
+        } else if (id instanceof String string) {
+            return Key.builder().partitionValue(string).build();
+        }
+        throw new UnsupportedOperationException("Unsupported ID type: " + id);
+    }
+
+    private void deleteAllByKey(Collection<Key> keys) {
+        Set<Key> unprocessed = writeAll(Collections.emptyMap(), keys);
+        if (!unprocessed.isEmpty()) {
+            throw DynamoDbException.builder()
+                    .message(String.format("Unable to delete %d of %d items from table %s", unprocessed.size(), keys.size(), table.tableName()))
+                    .build();
+        }
+    }
+
+    /**
+     * Sends the puts and deletes in chunks of 25, several chunks at a time.
+     * @return Returns the keys of the items that were still unprocessed after the last attempt.
+     */
+    private Set<Key> writeAll(Map<Key, ? extends T> puts, Collection<Key> deletes) {
+        List<Key> keys = new ArrayList<>(puts.keySet());
+        // A batch is rejected if it names the same item twice
+        keys.addAll(new LinkedHashSet<>(deletes));
+
+        Queue<List<Key>> chunks = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < keys.size(); i += MAX_BATCH_WRITE_ITEMS) {
+            chunks.add(keys.subList(i, Math.min(i + MAX_BATCH_WRITE_ITEMS, keys.size())));
+        }
+        Set<Key> unprocessed = ConcurrentHashMap.newKeySet();
+        runInParallel(() -> {
+            List<Key> chunk;
+            while ((chunk = chunks.poll()) != null) {
+                unprocessed.addAll(writeChunk(chunk, puts));
+            }
+        }, Math.min(batchWriteParallelism, chunks.size()));
+        return unprocessed;
+    }
+
+    private Set<Key> writeChunk(List<Key> chunk, Map<Key, ? extends T> puts) {
+        Set<Key> pending = new LinkedHashSet<>(chunk);
+        for (int attempt = 1; ; attempt++) {
+            WriteBatch.Builder<T> builder = WriteBatch.builder(table.tableSchema().itemType().rawClass()).mappedTableResource(table);
+            for (Key key : pending) {
+                T item = puts.get(key);
+                if (item != null) {
+                    builder.addPutItem(item);
+                } else {
+                    builder.addDeleteItem(key);
+                }
+            }
+            WriteBatch writeBatch = builder.build();
+            BatchWriteResult result = client.batchWriteItem(r -> r.addWriteBatch(writeBatch));
+
+            pending = new LinkedHashSet<>(result.unprocessedDeleteItemsForTable(table));
+            for (T item : result.unprocessedPutItemsForTable(table)) {
+                pending.add(table.keyFrom(item));
+            }
+            if (pending.isEmpty()) {
+                return pending;
+            }
+            if (attempt >= batchMaxAttempts || !backOff(attempt)) {
+                log.warn("{} items were still unprocessed by table {} after {} attempts", pending.size(), table.tableName(), attempt);
+                return pending;
+            }
+            log.debug("Retrying {} unprocessed items for table {}", pending.size(), table.tableName());
+        }
+    }
+
+    private void readChunk(List<Key> chunk, Map<Key, T> found) {
+        ReadBatch.Builder<T> builder = ReadBatch.builder(table.tableSchema().itemType().rawClass()).mappedTableResource(table);
+        chunk.forEach(builder::addGetItem);
+        ReadBatch readBatch = builder.build();
+
+        // Every page after the first requests the keys DynamoDB left unprocessed by the one before it
+        Iterator<BatchGetResultPage> pages = client.batchGetItem(r -> r.addReadBatch(readBatch)).iterator();
+        for (int attempt = 1; pages.hasNext(); attempt++) {
+            if (attempt > 1) {
+                if (attempt > batchMaxAttempts || !backOff(attempt - 1)) {
+                    throw DynamoDbException.builder()
+                            .message(String.format("Unable to read some of %d items from table %s after %d attempts",
+                                    chunk.size(), table.tableName(), attempt - 1))
+                            .build();
+                }
+                log.debug("Retrying unprocessed keys for table {}", table.tableName());
+            }
+            for (T item : pages.next().resultsForTable(table)) {
+                found.put(table.keyFrom(item), item);
+            }
+        }
+    }
+
+    /**
+     * Sleeps for a random time of up to an exponentially growing limit, so throttled requests spread out their retries.
+     * @return Returns false if the thread was interrupted.
+     */
+    private static boolean backOff(int attempt) {
+        long limit = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(limit + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Runs the worker on this thread and on workers - 1 pooled threads, then waits for all of them.
+     */
+    private static void runInParallel(Runnable worker, int workers) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 1; i < workers; i++) {
+            futures.add(CompletableFuture.runAsync(worker, EXECUTOR));
+        }
+        RuntimeException failure = null;
+        try {
+            worker.run();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                join(future);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
     }
 }
@@ -9,7 +9,6 @@ import handler.repositories.SessionTemplatePublishedToUserGroupRepository;
 import handler.repositories.dto.RepositoryRequest;
 import handler.repositories.dto.RepositoryResponse;
 import handler.utils.NextToken;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.core.pagination.sync.SdkIterable;
@@ -20,12 +19,11 @@ import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
-import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
-import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.Map;
 
 import static software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional.keyEqualTo;
@@ -36,10 +34,8 @@ public class DynamoDbSessionTemplatePublishedToUserGroupRepository extends Dynam
     private final DynamoDbTable<SessionTemplatePublishedToUserGroup> table;
 
     public DynamoDbSessionTemplatePublishedToUserGroupRepository(DynamoDbEnhancedClient client,
-                                                                 DynamoDbTable<SessionTemplatePublishedToUserGroup> table,
-                                                                 ObjectProvider<WriteBatch.Builder<SessionTemplatePublishedToUserGroup>> writeBuilder,
-                                                                 ObjectProvider<ReadBatch.Builder<SessionTemplatePublishedToUserGroup>> readBuilder) {
-        super(client, table, writeBuilder, readBuilder);
+                                                                 DynamoDbTable<SessionTemplatePublishedToUserGroup> table) {
+        super(client, table);
         this.table = table;
     }
 
@@ -98,4 +94,9 @@ public class DynamoDbSessionTemplatePublishedToUserGroupRepository extends Dynam
 
         return RepositoryResponse.<SessionTemplatePublishedToUserGroup>builder().items(items).nextToken(newNextToken).build();
     }
+
+    @Override
+    public void findAllIds(Consumer<SessionTemplateUserGroupId> consumer) {
+        scanAll(item -> consumer.accept(item.getId()));
+    }
 }
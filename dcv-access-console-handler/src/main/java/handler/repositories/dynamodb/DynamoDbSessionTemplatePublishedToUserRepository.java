@@ -6,29 +6,26 @@ package handler.repositories.dynamodb;
 import handler.persistence.SessionTemplatePublishedToUser;
 import handler.persistence.SessionTemplateUserId;
 import handler.repositories.SessionTemplatePublishedToUserRepository;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
-import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional.keyEqualTo;
 
 @Repository
 @ConditionalOnProperty(name = "persistence-db", havingValue = "dynamodb")
 public class DynamoDbSessionTemplatePublishedToUserRepository extends DynamoDbRepository<SessionTemplatePublishedToUser, SessionTemplateUserId> implements SessionTemplatePublishedToUserRepository {
+    private static final String USER_ID_INDEX = "userId";
     private final DynamoDbTable<SessionTemplatePublishedToUser> table;
 
     public DynamoDbSessionTemplatePublishedToUserRepository(DynamoDbEnhancedClient client,
-                                  DynamoDbTable<SessionTemplatePublishedToUser> table,
-                                  ObjectProvider<WriteBatch.Builder<SessionTemplatePublishedToUser>> writeBuilder,
-                                  ObjectProvider<ReadBatch.Builder<SessionTemplatePublishedToUser>> readBuilder) {
-        super(client, table, writeBuilder, readBuilder);
+                                  DynamoDbTable<SessionTemplatePublishedToUser> table) {
+        super(client, table);
         this.table = table;
     }
 
@@ -42,7 +39,13 @@ public class DynamoDbSessionTemplatePublishedToUserRepository extends DynamoDbRe
     @Override
     public List<SessionTemplatePublishedToUser> findByUserUserId(String userId) {
         List<SessionTemplatePublishedToUser> result = new ArrayList<>();
-        table.query(keyEqualTo(k -> k.partitionValue(userId))).stream().forEach(page -> result.addAll(page.items()));
+        // The table is partitioned by Session Template ID, so look the user up on its index
+        table.index(USER_ID_INDEX).query(keyEqualTo(k -> k.partitionValue(userId))).stream().forEach(page -> result.addAll(page.items()));
         return result;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void findAllIds(Consumer<SessionTemplateUserId> consumer) {
+        scanAll(item -> consumer.accept(item.getId()));
+    }
+}
@@ -8,13 +8,10 @@ import handler.persistence.UserGroupUserMembership;
 import handler.persistence.UserGroupUser;
 import handler.repositories.SessionTemplatePublishedToUserGroupRepository;
 import handler.repositories.UserGroupUserMembershipRepository;
-import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
-import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,13 +21,12 @@ import static software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional.ke
 @Repository
 @ConditionalOnProperty(name = "persistence-db", havingValue = "dynamodb")
 public class DynamoDbUserGroupMembershipRepository extends DynamoDbRepository<UserGroupUserMembership, UserGroupUser> implements UserGroupUserMembershipRepository {
+    private static final String USER_ID_INDEX = "userId";
     private final DynamoDbTable<UserGroupUserMembership> table;
 
     public DynamoDbUserGroupMembershipRepository(DynamoDbEnhancedClient client,
-                                                 DynamoDbTable<UserGroupUserMembership> table,
-                                                 ObjectProvider<WriteBatch.Builder<UserGroupUserMembership>> writeBuilder,
-                                                 ObjectProvider<ReadBatch.Builder<UserGroupUserMembership>> readBuilder) {
-        super(client, table, writeBuilder, readBuilder);
+                                                 DynamoDbTable<UserGroupUserMembership> table) {
+        super(client, table);
         this.table = table;
     }
 
@@ -44,7 +40,8 @@ public class DynamoDbUserGroupMembershipRepository extends DynamoDbRepository<Us
     @Override
     public List<UserGroupUserMembership> findByUserUserId(String userId) {
         List<UserGroupUserMembership> result = new ArrayList<>();
-        table.query(keyEqualTo(k -> k.partitionValue(userId))).stream().forEach(page -> result.addAll(page.items()));
+        // The table is partitioned by group ID, so look the user up on its index
+        table.index(USER_ID_INDEX).query(keyEqualTo(k -> k.partitionValue(userId))).stream().forEach(page -> result.addAll(page.items()));
         return result;
     }
 }
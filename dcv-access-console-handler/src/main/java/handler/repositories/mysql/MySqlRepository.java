@@ -7,24 +7,112 @@ import handler.repositories.PagingAndSortingCrudRepository;
 import handler.repositories.dto.RepositoryResponse;
 import handler.repositories.dto.RepositoryRequest;
 import handler.utils.NextToken;
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Id;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.BeanUtils;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.stereotype.Repository;
+import org.springframework.util.ReflectionUtils;
 
 @ConditionalOnProperty(name = "persistence-db", havingValue = "mysql")
 @NoRepositoryBean
-public interface MySqlRepository<T, ID> extends PagingAndSortingCrudRepository<T, ID> {
+public interface MySqlRepository<T, ID> extends PagingAndSortingCrudRepository<T, ID>, JpaSpecificationExecutor<T> {
+    /**
+     * Returns a page of items using keyset pagination: the next page is read with
+     * {@code WHERE (sortKey, id) > (lastSortKey, lastId) ORDER BY sortKey, id LIMIT n}, so no rows are skipped over and
+     * no count query is needed. Tokens without a keyset (the last item had a null sort key, or the token was issued
+     * before keysets were added) fall back to offset pagination. So do descending sorts on nullable columns: MySQL sorts
+     * nulls last in a descending order, and {@code sortKey < lastSortKey} never matches them, so those rows would be
+     * dropped. The filter of the request is pushed down as a {@link Specification}, so a filtered page is read in one
+     * query.
+     */
     default RepositoryResponse<T> findAll(RepositoryRequest request) {
+        NextToken nextToken = request.getNextToken();
+        int pageNumber = nextToken.getPageNumber().orElse(0);
+        Optional<Map<String, Object>> keyset = nextToken.getKeyset() != null ? nextToken.getKeyset() : Optional.empty();
+        Specification<T> specification = new RepositoryFilterSpecification<>(request.getFilter());
+        if ((keyset.isEmpty() && pageNumber > 0) || hasNullableDescendingOrder(request)) {
+            return findPage(request, specification);
+        }
+
+        ScrollPosition position = keyset.<ScrollPosition>map(ScrollPosition::forward).orElseGet(ScrollPosition::keyset);
+        Window<T> window = findBy(specification, query -> query
+                .sortBy(request.getSort())
+                .limit(request.getMaxResults())
+                .scroll(position));
+
+        NextToken newNextToken = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            newNextToken = NextToken.fromKeyset(last.getKeys(), pageNumber + 1);
+        }
+
+        List<T> items = window.getContent();
+        int pageOffset = nextToken.getPageOffset().orElse(0);
+        items = items.subList(Math.min(pageOffset, items.size()), items.size());
+        return RepositoryResponse.<T>builder().items(items).nextToken(newNextToken).build();
+    }
+
+    private static boolean hasNullableDescendingOrder(RepositoryRequest request) {
+        if (request.getSort() == null) {
+            return false;
+        }
+        for (Sort.Order order : request.getSort()) {
+            if (order.isDescending() && isNullable(request.getClazz(), order.getProperty())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A property is only known to be non-null if it is primitive, the id, or a column declared as not nullable, on
+     * either its field or its getter.
+     */
+    private static boolean isNullable(Class<?> clazz, String property) {
+        if (clazz == null) {
+            return true;
+        }
+        Field field = ReflectionUtils.findField(clazz, property);
+        if (field != null && (field.getType().isPrimitive() || isNotNull(field))) {
+            return false;
+        }
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(clazz, property);
+        Method getter = descriptor != null ? descriptor.getReadMethod() : null;
+        return getter == null || !(getter.getReturnType().isPrimitive() || isNotNull(getter));
+    }
+
+    private static boolean isNotNull(AnnotatedElement element) {
+        Column column = element.getAnnotation(Column.class);
+        return element.isAnnotationPresent(Id.class) || element.isAnnotationPresent(EmbeddedId.class)
+                || (column != null && !column.nullable());
+    }
+
+    private RepositoryResponse<T> findPage(RepositoryRequest request, Specification<T> specification) {
         PageRequest pageRequest = PageRequest.ofSize(request.getMaxResults())
                 .withPage(request.getNextToken().getPageNumber().getAsInt())
                 .withSort(request.getSort());
-        Page<T> page = findAll(pageRequest);
+        Page<T> page = findAll(specification, pageRequest);
 
-        List<T> items = page.getContent().subList(request.getNextToken().getPageOffset().getAsInt(), page.getContent().size());
+        int pageOffset = request.getNextToken().getPageOffset().orElse(0);
+        List<T> items = page.getContent().subList(Math.min(pageOffset, page.getContent().size()), page.getContent().size());
         NextToken newNextToken = NextToken.from(request.getNextToken().getPageNumber().getAsInt() + 1, page.getTotalPages(), 0);
 
         return RepositoryResponse.<T>builder().items(items).nextToken(newNextToken).build();
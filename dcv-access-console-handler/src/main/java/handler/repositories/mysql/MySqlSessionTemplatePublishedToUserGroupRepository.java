@@ -14,9 +14,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ConditionalOnProperty(name = "persistence-db", havingValue = "mysql")
 @Repository
@@ -41,4 +45,17 @@ public interface MySqlSessionTemplatePublishedToUserGroupRepository extends Sess
 
         return RepositoryResponse.<SessionTemplatePublishedToUserGroup>builder().items(items).nextToken(newNextToken).build();
     }
+
+    // Only the ids are selected, so the session templates and groups the rows refer to are not loaded. Connector/J
+    // buffers the whole result before the first row is returned, but that is only the two ids of each row
+    @Query("SELECT p.id FROM SessionTemplatePublishedToUserGroup p ORDER BY p.id.sessionTemplateId")
+    Stream<SessionTemplateUserGroupId> streamAllIds();
+
+    @Override
+    @Transactional(readOnly = true)
+    default void findAllIds(Consumer<SessionTemplateUserGroupId> consumer) {
+        try (Stream<SessionTemplateUserGroupId> ids = streamAllIds()) {
+            ids.forEach(consumer);
+        }
+    }
 }
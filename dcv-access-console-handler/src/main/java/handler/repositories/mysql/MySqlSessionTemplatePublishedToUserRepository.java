@@ -7,9 +7,13 @@ import handler.persistence.SessionTemplatePublishedToUser;
 import handler.persistence.SessionTemplateUserId;
 import handler.repositories.SessionTemplatePublishedToUserRepository;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @ConditionalOnProperty(name = "persistence-db", havingValue = "mysql")
 @Repository
@@ -19,4 +23,17 @@ public interface MySqlSessionTemplatePublishedToUserRepository extends SessionTe
 
     @Override
     List<SessionTemplatePublishedToUser> findByUserUserId(String userId);
+
+    // Only the ids are selected, so the session templates and users the rows refer to are not loaded. Connector/J
+    // buffers the whole result before the first row is returned, but that is only the two ids of each row
+    @Query("SELECT p.id FROM SessionTemplatePublishedToUser p ORDER BY p.id.sessionTemplateId")
+    Stream<SessionTemplateUserId> streamAllIds();
+
+    @Override
+    @Transactional(readOnly = true)
+    default void findAllIds(Consumer<SessionTemplateUserId> consumer) {
+        try (Stream<SessionTemplateUserId> ids = streamAllIds()) {
+            ids.forEach(consumer);
+        }
+    }
 }
@@ -0,0 +1,105 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.repositories.mysql;
+
+import handler.repositories.dto.RepositoryFilter;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates a RepositoryFilter into a JPA Specification. MySQL compares strings case insensitively, so only EQUAL and
+ * CONTAINS are pushed down for strings, as those can only match more rows than the in memory filter, never fewer.
+ * Properties that are not basic attributes of the entity are left to the in memory filter.
+ */
+@RequiredArgsConstructor
+class RepositoryFilterSpecification<T> implements Specification<T> {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final RepositoryFilter filter;
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        if (filter == null || filter.isEmpty()) {
+            return null;
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        for (RepositoryFilter.PropertyConditions property : filter.getProperties()) {
+            Predicate predicate = toPredicate(root, builder, property);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        return predicates.isEmpty() ? null : builder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    private static Predicate toPredicate(Root<?> root, CriteriaBuilder builder, RepositoryFilter.PropertyConditions property) {
+        Attribute<?, ?> attribute;
+        try {
+            attribute = root.getModel().getAttribute(property.property());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!(attribute instanceof SingularAttribute<?, ?>) || attribute.isAssociation()) {
+            return null;
+        }
+
+        List<Predicate> predicates = new ArrayList<>(property.conditions().size());
+        for (RepositoryFilter.Condition condition : property.conditions()) {
+            Predicate predicate = toPredicate(root.get(property.property()), builder, attribute.getJavaType(), condition);
+            if (predicate == null) {
+                return null;
+            }
+            predicates.add(predicate);
+        }
+        return builder.or(predicates.toArray(new Predicate[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate toPredicate(Path<?> path, CriteriaBuilder builder, Class<?> type, RepositoryFilter.Condition condition) {
+        if (type == String.class && condition.value() instanceof String value) {
+            Path<String> stringPath = (Path<String>) path;
+            return switch (condition.operator()) {
+                case EQUAL -> builder.equal(stringPath, value);
+                case CONTAINS -> builder.like(stringPath, "%" + escapeLike(value) + "%", LIKE_ESCAPE);
+                default -> null;
+            };
+        }
+        if (type == OffsetDateTime.class && condition.value() instanceof OffsetDateTime value) {
+            Path<OffsetDateTime> timePath = (Path<OffsetDateTime>) path;
+            return switch (condition.operator()) {
+                case EQUAL -> builder.equal(timePath, value);
+                case NOT_EQUAL -> builder.notEqual(timePath, value);
+                case LESS_THAN -> builder.lessThan(timePath, value);
+                case LESS_THAN_OR_EQUAL_TO -> builder.lessThanOrEqualTo(timePath, value);
+                case GREATER_THAN -> builder.greaterThan(timePath, value);
+                case GREATER_THAN_OR_EQUAL_TO -> builder.greaterThanOrEqualTo(timePath, value);
+                default -> null;
+            };
+        }
+        if (type == Boolean.class && condition.value() instanceof Boolean value) {
+            return switch (condition.operator()) {
+                case EQUAL -> builder.equal(path, value);
+                case NOT_EQUAL -> builder.notEqual(path, value);
+                default -> null;
+            };
+        }
+        return null;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
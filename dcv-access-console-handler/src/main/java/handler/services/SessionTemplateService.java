@@ -30,6 +30,7 @@ import handler.repositories.SessionTemplatePublishedToUserGroupRepository;
 import handler.repositories.SessionTemplatePublishedToUserRepository;
 import handler.repositories.dto.RepositoryRequest;
 import handler.repositories.dto.RepositoryResponse;
+import handler.utils.Filter;
 import handler.utils.NextToken;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,12 +43,16 @@ import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 @Service
@@ -57,6 +62,7 @@ public class SessionTemplateService {
     private final SessionTemplatePublishedToUserRepository sessionTemplatePublishedToUserRepository;
     private final SessionTemplatePublishedToUserGroupRepository sessionTemplatePublishedToUserGroupRepository;
     private final BrokerClient brokerClient;
+    private final Filter<DescribeSessionTemplatesRequestData, SessionTemplate> sessionTemplateFilter;
 
     @Value("${persistence-db-default-max-results:20}")
     private int defaultMaxResults;
@@ -147,6 +153,7 @@ public class SessionTemplateService {
                 .maxResults(maxResults)
                 .sort(sort)
                 .clazz(SessionTemplate.class)
+                .filter(sessionTemplateFilter.getRepositoryFilter(request))
                 .build();
 
         RepositoryResponse<SessionTemplate> repositoryResponse = sessionTemplateRepository.findAll(repositoryRequest);
@@ -158,6 +165,15 @@ public class SessionTemplateService {
 
     }
 
+    /**
+     * Reads every session template in one pass over the persistence layer, without filtering, sorting or paging.
+     */
+    public List<SessionTemplate> getAllSessionTemplates() {
+        List<SessionTemplate> sessionTemplates = new ArrayList<>();
+        sessionTemplateRepository.findAll().forEach(sessionTemplates::add);
+        return sessionTemplates;
+    }
+
     public List<SessionTemplate> filterByGroupId(DescribeSessionTemplatesRequestData request, List<SessionTemplate> sessionTemplates) {
         List<FilterTokenStrict> filterTokens = request.getGroupsSharedWith();
         if (filterTokens == null) {
@@ -166,33 +182,22 @@ public class SessionTemplateService {
         }
         log.info("Filtering Session Templates by group ID. Found {} Group ID(s) to filter by", filterTokens.size());
 
-        Set<String> filteredSessionTemplates = new HashSet<>();
-
-        for (SessionTemplate sessionTemplate : sessionTemplates) {
-            for (FilterTokenStrict filterToken : filterTokens) {
-                log.info("Checking if session template {} is {} to group {}",
-                        sessionTemplate.getId(),
-                        filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) ? "published" : "not published",
-                        filterToken.getValue());
-
-                SessionTemplateUserGroupId sessionTemplateUserGroupId = new SessionTemplateUserGroupId();
-                sessionTemplateUserGroupId.setUserGroupId(filterToken.getValue());
-                sessionTemplateUserGroupId.setSessionTemplateId(sessionTemplate.getId());
-                boolean exists = sessionTemplatePublishedToUserGroupRepository.existsById(sessionTemplateUserGroupId);
-
-                if (filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) && exists) {
-                    log.info("Session Template {} is published to group {}", sessionTemplate.getId(), filterToken.getValue());
-                    filteredSessionTemplates.add(sessionTemplate.getId());
-                } else if (filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.NOT_EQUAL) && !exists) {
-                    log.info("Session Template {} is not published to group {}", sessionTemplate.getId(), filterToken.getValue());
-                    filteredSessionTemplates.add(sessionTemplate.getId());
-                } else {
-                    log.info("Session template {} does not fulfill GroupSharedWith filter token", sessionTemplate.getId());
-                }
-            }
+        // Load the Session Templates published to each group once, instead of checking every template against every group
+        Map<String, Set<String>> sessionTemplatesByGroupId = new HashMap<>();
+        for (FilterTokenStrict filterToken : filterTokens) {
+            sessionTemplatesByGroupId.computeIfAbsent(filterToken.getValue(), groupId ->
+                    sessionTemplatePublishedToUserGroupRepository.findByUserGroupUserGroupId(groupId).stream()
+                            .map(published -> published.getId().getSessionTemplateId())
+                            .collect(Collectors.toSet()));
         }
 
-        return sessionTemplates.parallelStream().filter(sessionTemplate -> filteredSessionTemplates.contains(sessionTemplate.getId())).toList();
+        return sessionTemplates.stream().filter(sessionTemplate -> filterTokens.stream().anyMatch(filterToken -> {
+            boolean exists = sessionTemplatesByGroupId.get(filterToken.getValue()).contains(sessionTemplate.getId());
+            boolean matches = filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) == exists;
+            log.debug("Session Template {} is {} to group {}, {} the GroupSharedWith filter token", sessionTemplate.getId(),
+                    exists ? "published" : "not published", filterToken.getValue(), matches ? "fulfilling" : "not fulfilling");
+            return matches;
+        })).toList();
     }
 
     public List<SessionTemplate> filterByUserId(DescribeSessionTemplatesRequestData request, List<SessionTemplate> sessionTemplates) {
@@ -201,34 +206,24 @@ public class SessionTemplateService {
             log.debug("Not filtering Session Templates by User Publishing");
             return sessionTemplates;
         }
-        log.info("Filtering Session Templates by user ID. Found {} Group ID(s) to filter by", filterTokens.size());
-        Set<String> filteredSessionTemplates = new HashSet<>();
-
-        for (SessionTemplate sessionTemplate : sessionTemplates) {
-            for (FilterTokenStrict filterToken : filterTokens) {
-                log.debug("Checking if session template {} is {} to user {}",
-                        sessionTemplate.getId(),
-                        filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) ? "published" : "not published",
-                        filterToken.getValue());
-
-                SessionTemplateUserId sessionTemplateUserId = new SessionTemplateUserId();
-                sessionTemplateUserId.setUserId(filterToken.getValue());
-                sessionTemplateUserId.setSessionTemplateId(sessionTemplate.getId());
-                boolean exists = sessionTemplatePublishedToUserRepository.existsById(sessionTemplateUserId);
-
-                if (filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) && exists) {
-                    log.debug("Session Template {} is published to user {}", sessionTemplate.getId(), filterToken.getValue());
-                    filteredSessionTemplates.add(sessionTemplate.getId());
-                } else if (filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.NOT_EQUAL) && !exists) {
-                    log.debug("Session Template {} is not published to user {}", sessionTemplate.getId(), filterToken.getValue());
-                    filteredSessionTemplates.add(sessionTemplate.getId());
-                } else {
-                    log.debug("Session template {} does not fulfill GroupSharedWith filter token", sessionTemplate.getId());
-                }
-            }
+        log.info("Filtering Session Templates by user ID. Found {} User ID(s) to filter by", filterTokens.size());
+
+        // Load the Session Templates published to each user once, instead of checking every template against every user
+        Map<String, Set<String>> sessionTemplatesByUserId = new HashMap<>();
+        for (FilterTokenStrict filterToken : filterTokens) {
+            sessionTemplatesByUserId.computeIfAbsent(filterToken.getValue(), userId ->
+                    sessionTemplatePublishedToUserRepository.findByUserUserId(userId).stream()
+                            .map(published -> published.getId().getSessionTemplateId())
+                            .collect(Collectors.toSet()));
         }
 
-        return sessionTemplates.parallelStream().filter(sessionTemplate -> filteredSessionTemplates.contains(sessionTemplate.getId())).toList();
+        return sessionTemplates.stream().filter(sessionTemplate -> filterTokens.stream().anyMatch(filterToken -> {
+            boolean exists = sessionTemplatesByUserId.get(filterToken.getValue()).contains(sessionTemplate.getId());
+            boolean matches = filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) == exists;
+            log.debug("Session Template {} is {} to user {}, {} the UsersSharedWith filter token", sessionTemplate.getId(),
+                    exists ? "published" : "not published", filterToken.getValue(), matches ? "fulfilling" : "not fulfilling");
+            return matches;
+        })).toList();
     }
 
     public RepositoryResponse<SessionTemplatePublishedToUserGroup> getSessionTemplatesPublishedToUserGroup(String userGroupId, RepositoryRequest repositoryRequest) {
@@ -284,8 +279,9 @@ public class SessionTemplateService {
                 SessionTemplatePublishedToUser sessionTemplatePublishedToUser = new SessionTemplatePublishedToUser(sessionTemplate, (UserEntity) new UserEntity().userId(userId));
                 sessionTemplatePublishedToUsers.add(sessionTemplatePublishedToUser);
             }
-            sessionTemplatePublishedToUserRepository.saveAll(sessionTemplatePublishedToUsers);
-            List<String> successfulUserIds = sessionTemplatePublishedToUsers.stream().map(SessionTemplatePublishedToUser::getId).map(SessionTemplateUserId::getUserId).toList();
+            // Only the users that were saved are returned
+            List<String> successfulUserIds = StreamSupport.stream(sessionTemplatePublishedToUserRepository.saveAll(sessionTemplatePublishedToUsers).spliterator(), false)
+                    .map(SessionTemplatePublishedToUser::getId).map(SessionTemplateUserId::getUserId).toList();
             response.getSuccessfulUsers().addAll(successfulUserIds);
             response.getUnSuccessfulUsers().addAll(newUserIds.stream().filter(userId -> !successfulUserIds.contains(userId)).toList());
         }
@@ -313,8 +309,9 @@ public class SessionTemplateService {
                 SessionTemplatePublishedToUserGroup sessionTemplatePublishedToUserGroup = new SessionTemplatePublishedToUserGroup(sessionTemplate, (UserGroupEntity) new UserGroupEntity().userGroupId(groupId));
                 sessionTemplatePublishedToUserGroups.add(sessionTemplatePublishedToUserGroup);
             }
-            sessionTemplatePublishedToUserGroupRepository.saveAll(sessionTemplatePublishedToUserGroups);
-            List<String> successfulGroupIds = sessionTemplatePublishedToUserGroups.stream().map(SessionTemplatePublishedToUserGroup::getId).map(SessionTemplateUserGroupId::getUserGroupId).toList();
+            // Only the groups that were saved are returned
+            List<String> successfulGroupIds = StreamSupport.stream(sessionTemplatePublishedToUserGroupRepository.saveAll(sessionTemplatePublishedToUserGroups).spliterator(), false)
+                    .map(SessionTemplatePublishedToUserGroup::getId).map(SessionTemplateUserGroupId::getUserGroupId).toList();
             response.getSuccessfulGroups().addAll(successfulGroupIds);
             response.getUnSuccessfulGroups().addAll(newGroupIds.stream().filter(groupId -> !successfulGroupIds.contains(groupId)).toList());
         }
@@ -425,4 +422,26 @@ public class SessionTemplateService {
     public List<String> getUserGroupIdsBySessionTemplate(String sessionTemplateId) {
         return sessionTemplatePublishedToUserGroupRepository.findBySessionTemplateId(sessionTemplateId).stream().map(sessionTemplatePublishedToUserGroup -> sessionTemplatePublishedToUserGroup.getId().getUserGroupId()).toList();
     }
+
+    /**
+     * Reads the users every session template is published to in a single read of the share list table.
+     * @return Returns the ids of the users each session template is published to, by session template id.
+     */
+    public Map<String, List<String>> getUserIdsBySessionTemplates() {
+        Map<String, List<String>> userIds = new HashMap<>();
+        sessionTemplatePublishedToUserRepository.findAllIds(id ->
+                userIds.computeIfAbsent(id.getSessionTemplateId(), sessionTemplateId -> new ArrayList<>()).add(id.getUserId()));
+        return userIds;
+    }
+
+    /**
+     * Reads the groups every session template is published to in a single read of the share list table.
+     * @return Returns the ids of the groups each session template is published to, by session template id.
+     */
+    public Map<String, List<String>> getUserGroupIdsBySessionTemplates() {
+        Map<String, List<String>> groupIds = new HashMap<>();
+        sessionTemplatePublishedToUserGroupRepository.findAllIds(id ->
+                groupIds.computeIfAbsent(id.getSessionTemplateId(), sessionTemplateId -> new ArrayList<>()).add(id.getUserGroupId()));
+        return groupIds;
+    }
 }
@@ -210,6 +210,7 @@ public class UserGroupService {
                 .maxResults(maxResults)
                 .sort(sort)
                 .clazz(UserGroupEntity.class)
+                .filter(userGroupFilter.getRepositoryFilter(request))
                 .build();
 
         RepositoryResponse<UserGroupEntity> repositoryResponse = userGroupRepository.findAll(repositoryRequest);
@@ -223,6 +224,16 @@ public class UserGroupService {
                 .nextToken(NextToken.serialize(repositoryResponse.getNextToken(), UserGroupEntity.class));
     }
 
+    /**
+     * Reads every user group in one pass over the persistence layer. Unlike describeUserGroups, the members of the
+     * groups are not populated.
+     */
+    public List<UserGroup> getAllUserGroups() {
+        List<UserGroup> userGroups = new ArrayList<>();
+        userGroupRepository.findAll().forEach(userGroups::add);
+        return userGroups;
+    }
+
     public UserGroup populateUserGroupWithUsers(UserGroup userGroup) {
         userGroup.setUserIds(getUserIdsForGroup(userGroup.getUserGroupId()));
         return userGroup;
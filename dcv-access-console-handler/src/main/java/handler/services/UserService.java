@@ -3,6 +3,7 @@
 
 package handler.services;
 
+import handler.authorization.engines.entities.ImportUsersResult;
 import handler.authorization.engines.entities.UserCsvEntity;
 import handler.exceptions.BadRequestException;
 import handler.model.DescribeUsersRequestData;
@@ -12,7 +13,6 @@ import handler.model.ImportUsersResponse;
 import handler.model.User;
 import handler.persistence.UserEntity;
 import handler.persistence.UserGroupEntity;
-import handler.persistence.UserGroupUser;
 import handler.persistence.UserGroupUserMembership;
 import handler.repositories.PagingAndSortingCrudRepository;
 import handler.repositories.UserGroupUserMembershipRepository;
@@ -37,8 +37,10 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.Set;
@@ -57,6 +59,9 @@ public class UserService {
     @Value("${persistence-db-default-max-results:20}")
     private int defaultMaxResults;
 
+    @Value("${user-id-case-sensitive:true}")
+    private boolean caseSensitive = true;
+
     @Value("${users-batch-save-size:100}")
     private int MAX_BATCH_SAVE_SIZE;
 
@@ -133,6 +138,7 @@ public class UserService {
                 .maxResults(maxResults)
                 .sort(sort)
                 .clazz(UserEntity.class)
+                .filter(userFilter.getRepositoryFilter(request))
                 .build();
 
         RepositoryResponse<UserEntity> repositoryResponse = userRepository.findAll(repositoryRequest);
@@ -145,6 +151,15 @@ public class UserService {
                 .nextToken(NextToken.serialize(repositoryResponse.getNextToken(), UserEntity.class));
     }
 
+    /**
+     * Reads every user in one pass over the persistence layer, without filtering, sorting or paging.
+     */
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        userRepository.findAll().forEach(users::add);
+        return users;
+    }
+
     private List<User> filterByGroupId(DescribeUsersRequestData request, List<User> users) {
         List<FilterTokenStrict> userGroupIdFilterTokens = request.getUserGroupIds();
         if (userGroupIdFilterTokens == null || userGroupIdFilterTokens.isEmpty()) {
@@ -152,34 +167,31 @@ public class UserService {
             return users;
         }
         log.info("Filtering users by group ID. Found {} Group ID(s) to filter by", userGroupIdFilterTokens.size());
-        Set<String> filteredUsers = new HashSet<>();
-
-        for (User user : users) {
-            for (FilterTokenStrict filterToken : userGroupIdFilterTokens) {
-
-                log.debug("Checking if user {} is {} in group {}",
-                        user.getUserId(),
-                        filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) ? "present" : "not present",
-                        filterToken.getValue());
-
-                UserGroupUser userGroupUser = new UserGroupUser();
-                userGroupUser.setUserGroupId(filterToken.getValue());
-                userGroupUser.setUserId(user.getUserId());
-                boolean exists = userGroupUserMembershipRepository.existsById(userGroupUser);
-
-                if (filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) && exists) {
-                    log.debug("User {} is in group {}", user.getUserId(), filterToken.getValue());
-                    filteredUsers.add(user.getUserId());
-                } else if (filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.NOT_EQUAL) && !exists) {
-                    log.debug("User {} is not in group {}", user.getUserId(), filterToken.getValue());
-                    filteredUsers.add(user.getUserId());
-                } else {
-                    log.debug("User {} does not fulfill UserGroupId filter token", user.getUserId());
-                }
-            }
+
+        // Load the members of each group once, instead of checking every user against every group
+        Map<String, Set<String>> membersByGroupId = new HashMap<>();
+        for (FilterTokenStrict filterToken : userGroupIdFilterTokens) {
+            membersByGroupId.computeIfAbsent(filterToken.getValue(), groupId ->
+                    userGroupUserMembershipRepository.findByUserGroupUserGroupId(groupId).stream()
+                            .map(membership -> normalizeUserId(membership.getId().getUserId()))
+                            .collect(Collectors.toSet()));
         }
 
-        return users.parallelStream().filter(user -> filteredUsers.contains(user.getUserId())).toList();
+        return users.stream().filter(user -> userGroupIdFilterTokens.stream().anyMatch(filterToken -> {
+            boolean exists = membersByGroupId.get(filterToken.getValue()).contains(normalizeUserId(user.getUserId()));
+            boolean matches = filterToken.getOperator().equals(FilterTokenStrict.OperatorEnum.EQUAL) == exists;
+            log.debug("User {} is {} group {}, {} the UserGroupId filter token", user.getUserId(),
+                    exists ? "in" : "not in", filterToken.getValue(), matches ? "fulfilling" : "not fulfilling");
+            return matches;
+        })).toList();
+    }
+
+    // Matches the authorization engine, which compares user IDs ignoring case unless they are case-sensitive
+    private String normalizeUserId(String userId) {
+        if (!caseSensitive && userId != null) {
+            return userId.toLowerCase();
+        }
+        return userId;
     }
 
     public void updateLastLoggedInTime(String userId) {
@@ -191,7 +203,7 @@ public class UserService {
         }
     }
 
-    public ImportUsersResponse importUsers(MultipartFile file, Boolean overwriteExistingUsers, Boolean overwriteGroups, List<String> roles, String defaultRole) throws IOException {
+    public ImportUsersResult importUsers(MultipartFile file, Boolean overwriteExistingUsers, Boolean overwriteGroups, List<String> roles, String defaultRole) throws IOException {
         if (file == null) {
             throw new BadRequestException("ImportUsers failed: File is invalid/null");
         }
@@ -254,6 +266,9 @@ public class UserService {
             batcher.getSuccessfulUsersList().forEach(response::addSuccessfulUsersListItem);
             batcher.getUnsuccessfulUsersList().forEach(response::addUnsuccessfulUsersListItem);
         }
-        return response;
+        return ImportUsersResult.builder()
+                .response(response)
+                .changeSet(batcher.getChangeSet())
+                .build();
     }
 }
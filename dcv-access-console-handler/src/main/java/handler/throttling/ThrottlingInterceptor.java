@@ -6,36 +6,128 @@ package handler.throttling;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Throttles each client separately: authenticated requests by the name of the user, the others by the address of the
+ * client. The address is the remote address of the request, unless the request comes from a trusted proxy, in which
+ * case it is the last address in the X-Forwarded-For header that is not a trusted proxy. Each request consumes the
+ * cost of its endpoint from the bucket of the client, one token unless the endpoint is given another cost.
+ */
 @Slf4j
 @Component
-@AllArgsConstructor
 public class ThrottlingInterceptor implements HandlerInterceptor {
     public static final String THROTTLE_MESSAGE = "Too many requests";
+    static final String REQUESTS_COUNTER = "handler.throttling.requests";
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
     private static final long NANOS_TO_SECONDS = 1_000_000_000;
-    private AbstractThrottlingService rateLimiterService;
+    private static final long DEFAULT_COST = 1;
+    private static final String OTHER_ENDPOINT = "other";
+
+    private final AbstractThrottlingService rateLimiterService;
+    private final Map<String, Long> endpointCosts = new HashMap<>();
+    private final List<IpAddressMatcher> trustedProxies = new ArrayList<>();
+    private final MeterRegistry meterRegistry;
+
+    public ThrottlingInterceptor(AbstractThrottlingService rateLimiterService,
+            @Value("${throttling-endpoint-costs:}") String endpointCosts,
+            @Value("${throttling-trusted-proxies:}") String trustedProxies,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.rateLimiterService = rateLimiterService;
+        for (String endpointCost : StringUtils.commaDelimitedListToStringArray(endpointCosts)) {
+            String[] endpointAndCost = endpointCost.trim().split(":");
+            if (endpointAndCost.length != 2) {
+                throw new IllegalArgumentException("Invalid throttling endpoint cost: " + endpointCost);
+            }
+            this.endpointCosts.put(endpointAndCost[0].trim(), Long.parseLong(endpointAndCost[1].trim()));
+        }
+        for (String trustedProxy : StringUtils.commaDelimitedListToStringArray(trustedProxies)) {
+            this.trustedProxies.add(new IpAddressMatcher(trustedProxy.trim()));
+        }
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull Object handler)
             throws Exception {
-        String requesterIp = request.getLocalAddr();
+        String clientId = getClientId(request);
+        String endpoint = handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethod().getName() : OTHER_ENDPOINT;
+        long cost = endpointCosts.getOrDefault(endpoint, DEFAULT_COST);
 
-        AbstractConsumptionProbe probe = rateLimiterService.getThrottler(requesterIp).tryConsumeAndReturnRemaining(1);
+        AbstractConsumptionProbe probe = rateLimiterService.getThrottler(clientId).tryConsumeAndReturnRemaining(cost);
         if (probe.isConsumed()) {
-            log.debug("RequesterIp: {} not throttled, remaining tokens: {}", requesterIp, probe.getRemainingTokens());
+            meterRegistry.counter(REQUESTS_COUNTER, "endpoint", endpoint, "outcome", "allowed").increment();
+            log.debug("Client: {} not throttled on {}, remaining tokens: {}", clientId, endpoint, probe.getRemainingTokens());
             return true;
         }
 
-        log.debug("RequesterIp: {} throttled, time to refill in seconds: {}", requesterIp,
-                probe.getNanosToWaitForRefill() / NANOS_TO_SECONDS);
+        // Round up, so the client does not come back before the tokens it needs have been refilled
+        long retryAfterSeconds = Math.max(1, (probe.getNanosToWaitForRefill() + NANOS_TO_SECONDS - 1) / NANOS_TO_SECONDS);
+        meterRegistry.counter(REQUESTS_COUNTER, "endpoint", endpoint, "outcome", "throttled").increment();
+        log.debug("Client: {} throttled on {}, time to refill in seconds: {}", clientId, endpoint, retryAfterSeconds);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
         response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), THROTTLE_MESSAGE);
         return false;
     }
+
+    private String getClientId(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "address:" + getClientAddress(request);
+    }
+
+    private String getClientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!isTrustedProxy(address)) {
+            return address;
+        }
+        // Each proxy appends the address it received the request from, so only the addresses from the right up to the
+        // first one that is not a trusted proxy can be relied on
+        String[] forwardedFor = StringUtils.commaDelimitedListToStringArray(request.getHeader(FORWARDED_FOR_HEADER));
+        for (int i = forwardedFor.length - 1; i >= 0; i--) {
+            address = forwardedFor[i].trim();
+            if (!isTrustedProxy(address)) {
+                return address;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher trustedProxy : trustedProxies) {
+            try {
+                if (trustedProxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                log.debug("Not an IP address: {}", address);
+                return false;
+            }
+        }
+        return false;
+    }
 }
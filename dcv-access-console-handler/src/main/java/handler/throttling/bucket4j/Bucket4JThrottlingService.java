@@ -8,39 +8,57 @@ import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import handler.throttling.AbstractThrottler;
 import handler.throttling.AbstractThrottlingService;
 
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
-@NoArgsConstructor
-@AllArgsConstructor
 public class Bucket4JThrottlingService implements AbstractThrottlingService {
+    private static final long DEFAULT_MAX_SIZE = 1000;
+    private static final long DEFAULT_IDLE_MINUTES = 20;
+
+    private final long burst;
+    private final long refill;
+    private final long periodInSeconds;
 
-    @Value("${throttling-burst}")
-    private long burst;
+    // Holds one bucket per client. A bucket that has not been used for a while has refilled, so dropping it loses nothing
+    private final Cache<String, AbstractThrottler> throttlers;
 
-    @Value("${throttling-refill}")
-    private long refill;
+    @Autowired
+    public Bucket4JThrottlingService(@Value("${throttling-burst}") long burst,
+            @Value("${throttling-refill}") long refill,
+            @Value("${throttling-period-in-seconds}") long periodInSeconds,
+            @Value("${throttling-cache-max-size:1000}") long maxSize,
+            @Value("${throttling-cache-max-time-minutes:20}") long idleMinutes) {
+        this.burst = burst;
+        this.refill = refill;
+        this.periodInSeconds = periodInSeconds;
+        this.throttlers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleMinutes, TimeUnit.MINUTES)
+                .build();
+    }
 
-    @Value("${throttling-period-in-seconds}")
-    private long periodInSeconds;
+    public Bucket4JThrottlingService(long burst, long refill, long periodInSeconds) {
+        this(burst, refill, periodInSeconds, DEFAULT_MAX_SIZE, DEFAULT_IDLE_MINUTES);
+    }
 
     @Override
-    @Cacheable("throttling-cache")
     public AbstractThrottler getThrottler(String id) {
-        // This is cached using spring-cache. Each subsequent call to this method will return the same throttler.
-        return new Bucket4JThrottler(Bucket.builder()
+        // The bucket is created atomically on the first request of the client, every later request gets the same one
+        return throttlers.get(id, key -> new Bucket4JThrottler(Bucket.builder()
                 .addLimit(Bandwidth.classic(burst, Refill.intervally(refill, Duration.ofSeconds(periodInSeconds))))
-                .build());
+                .build()));
     }
 }
@@ -3,6 +3,8 @@
 
 package handler.utils;
 
+import handler.authorization.engines.entities.UserChangeSet;
+import handler.model.User;
 import handler.persistence.UserEntity;
 import handler.persistence.UserGroupUserMembership;
 import handler.repositories.UserGroupUserMembershipRepository;
@@ -17,8 +19,12 @@ import org.springframework.web.context.annotation.RequestScope;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -37,6 +43,10 @@ public class BatchUserSaver {
     @Getter
     private final List<String> unsuccessfulUsersList;
 
+    private final List<User> savedUsers;
+    private final Map<String, Set<String>> savedMemberships;
+    private final Set<String> replacedMemberships;
+
     private final int maxBatchSaveSize;
 
     public BatchUserSaver(@Value("${users-batch-save-size:100}") int maxBatchSaveSize,
@@ -47,6 +57,9 @@ public class BatchUserSaver {
         this.batchUserGroupUserMembershipsMap = new HashMap<>();
         this.successfulUsersList = new ArrayList<>();
         this.unsuccessfulUsersList = new ArrayList<>();
+        this.savedUsers = new ArrayList<>();
+        this.savedMemberships = new LinkedHashMap<>();
+        this.replacedMemberships = new HashSet<>();
         this.userRepository = userRepository;
         this.userGroupUserMembershipRepository = userGroupUserMembershipRepository;
         this.maxBatchSaveSize = maxBatchSaveSize;
@@ -77,6 +90,7 @@ public class BatchUserSaver {
             log.info("Overwriting groups for user {}", userId);
             List<UserGroupUserMembership> existingUserGroups = userGroupUserMembershipRepository.findByUserUserId(userId);
             userGroupUserMembershipRepository.deleteAll(existingUserGroups);
+            replacedMemberships.add(userId);
             batchUserGroupUserMembershipsMap.put(userId, memberships);
         } else {
             if (batchUserGroupUserMembershipsMap.containsKey(userId)) {
@@ -89,20 +103,51 @@ public class BatchUserSaver {
 
     public void sendBatchAndClear() {
         if (!batchSaveUsersMap.isEmpty()) {
-            userRepository.saveAll(batchSaveUsersMap.values());
-            successfulUsersList.addAll(batchSaveUsersMap.keySet());
+            // The repository only returns the users it saved
+            Set<String> savedUserIds = new HashSet<>();
+            for (UserEntity user : userRepository.saveAll(batchSaveUsersMap.values())) {
+                savedUserIds.add(user.getUserId());
+                savedUsers.add(user);
+            }
+            for (String userId : batchSaveUsersMap.keySet()) {
+                if (savedUserIds.contains(userId)) {
+                    successfulUsersList.add(userId);
+                } else {
+                    log.warn("User {} was not saved", userId);
+                    unsuccessfulUsersList.add(userId);
+                }
+            }
             batchSaveUsersMap.clear();
         }
         if (!batchUserGroupUserMembershipsMap.isEmpty()) {
-            userGroupUserMembershipRepository.saveAll(batchUserGroupUserMembershipsMap
+            List<UserGroupUserMembership> memberships = batchUserGroupUserMembershipsMap
                     .values()
                     .stream()
                     .flatMap(List::stream)
-                    .collect(Collectors.toList()));
+                    .collect(Collectors.toList());
+            int saved = 0;
+            for (UserGroupUserMembership membership : userGroupUserMembershipRepository.saveAll(memberships)) {
+                savedMemberships.computeIfAbsent(membership.getId().getUserId(), id -> new HashSet<>()).add(membership.getId().getUserGroupId());
+                saved++;
+            }
+            if (saved < memberships.size()) {
+                log.warn("Only {} of {} group memberships were saved", saved, memberships.size());
+            }
             batchUserGroupUserMembershipsMap.clear();
         }
     }
 
+    /**
+     * @return Returns the users and memberships saved by every batch sent so far.
+     */
+    public UserChangeSet getChangeSet() {
+        return UserChangeSet.builder()
+                .users(new ArrayList<>(savedUsers))
+                .memberships(new LinkedHashMap<>(savedMemberships))
+                .replacedMemberships(new HashSet<>(replacedMemberships))
+                .build();
+    }
+
     private void sendBatchIfReady() {
         if(batchSaveUsersMap.size() >= this.maxBatchSaveSize) {
             sendBatchAndClear();
@@ -5,22 +5,20 @@ package handler.utils;
 
 import static java.util.Map.entry;
 
-import java.lang.reflect.Field;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import handler.model.DescribeUserGroupsRequestData;
 import handler.model.DescribeUsersRequestData;
 import handler.model.FilterBooleanToken;
+import handler.repositories.dto.RepositoryFilter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.NullValueInNestedPathException;
-import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.stereotype.Component;
 
 import handler.exceptions.BadRequestException;
@@ -141,248 +139,293 @@ public class Filter<T, U> {
                     entry("lastModifiedTimes", new String[]{"lastModifiedTime"})
             ))); // TODO: Add filter tokens for Sessions/Session Templates shared
 
-    private boolean filter(Object value, Object filter) {
-        if (filter instanceof FilterToken filterToken) {
-            String propertyValue = (String) value;
-            if (filterToken.getOperator() == FilterToken.OperatorEnum.EQUAL) {
-                return filterToken.getValue().equals(propertyValue);
-            }
-            if (filterToken.getOperator() == FilterToken.OperatorEnum.NOT_EQUAL) {
-                return !filterToken.getValue().equals(propertyValue);
-            }
-            if (filterToken.getOperator() == FilterToken.OperatorEnum.CONTAINS) {
-                return propertyValue.contains(filterToken.getValue());
-            }
-            if (filterToken.getOperator() == FilterToken.OperatorEnum.NOT_CONTAINS) {
-                return !propertyValue.contains(filterToken.getValue());
-            }
-            throw new RuntimeException("Failed to filter: FilterToken operator is invalid/null for " + filter);
-        }
-        if(filter instanceof FilterTypeToken filterTypeToken) {
-            String propertyValue = (String) value;
+    // The token list accessors of each request are compiled once, when the class is loaded
+    private static final Map<Class<?>, List<FilteredProperty>> FILTERED_PROPERTIES = compileFilteredProperties();
 
-            // Allow null operators for auto complete
-            if (filterTypeToken.getOperator() == null) {
-                return true;
-            }
-            if(filterTypeToken.getOperator() == FilterTypeToken.OperatorEnum.EQUAL) {
-                return filterTypeToken.getValue().toString().equals(propertyValue);
-            }
-            if(filterTypeToken.getOperator() == FilterTypeToken.OperatorEnum.NOT_EQUAL) {
-                return !filterTypeToken.getValue().toString().equals(propertyValue);
-            }
+    // The filtered properties are compiled the first time a class of object is filtered
+    private static final ClassValue<Map<String, PropertyPath>> PROPERTY_PATHS = new ClassValue<>() {
+        @Override
+        protected Map<String, PropertyPath> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
         }
-        if(filter instanceof FilterStateToken filterStateToken) {
-            String propertyValue = (String) value;
+    };
 
-            // Allow null operators for auto complete
-            if (filterStateToken.getOperator() == null) {
-                return true;
-            }
-            if(filterStateToken.getOperator() == FilterStateToken.OperatorEnum.EQUAL) {
-                return filterStateToken.getValue().toString().equals(propertyValue);
-            }
-            if(filterStateToken.getOperator() == FilterStateToken.OperatorEnum.NOT_EQUAL) {
-                return !filterStateToken.getValue().toString().equals(propertyValue);
+    private record FilteredProperty(PropertyAccessors.Accessor tokens, String[] property, String key) {
+    }
+
+    private record PropertyPath(PropertyAccessors.Accessor accessor, PropertyAccessors.Accessor elementAccessor) {
+        static PropertyPath compile(Class<?> type, String[] property) {
+            PropertyAccessors.Accessor accessor = PropertyAccessors.forPath(type, property[0]);
+            if (property.length == 1) {
+                return new PropertyPath(accessor, null);
             }
+            return new PropertyPath(accessor, PropertyAccessors.forPath(accessor.elementType(), property[1]));
         }
-        if(filter instanceof FilterNumberToken filterNumberToken) {
-            Long propertyValue = ((Number) value).longValue();
+    }
 
-            // Allow null operators for auto complete
-            if (filterNumberToken.getOperator() == null) {
-                return true;
-            }
-            if (filterNumberToken.getOperator() == FilterNumberToken.OperatorEnum.EQUAL) {
-                return propertyValue.equals(filterNumberToken.getValue());
-            }
-            if (filterNumberToken.getOperator() == FilterNumberToken.OperatorEnum.NOT_EQUAL) {
-                return !propertyValue.equals(filterNumberToken.getValue());
-            }
-            if (filterNumberToken.getOperator() == FilterNumberToken.OperatorEnum.LESS_THAN) {
-                return propertyValue < filterNumberToken.getValue();
-            }
-            if (filterNumberToken.getOperator() == FilterNumberToken.OperatorEnum.LESS_THAN_OR_EQUAL_TO) {
-                return propertyValue <= filterNumberToken.getValue();
-            }
-            if(filterNumberToken.getOperator() == FilterNumberToken.OperatorEnum.GREATER_THAN) {
-                return propertyValue > filterNumberToken.getValue();
-            }
-            if(filterNumberToken.getOperator() == FilterNumberToken.OperatorEnum.GREATER_THAN_OR_EQUAL_TO) {
-                return propertyValue >= filterNumberToken.getValue();
-            }
+    /**
+     * The tokens of a single filtered property, compiled for one request. An object matches when any of the tokens
+     * match, and the tokens are only evaluated until one does.
+     */
+    private static final class PropertyFilter {
+        private final FilteredProperty property;
+        private final Predicate<Object>[] matchers;
+        private Class<?> compiledFor;
+        private PropertyPath path;
+
+        private PropertyFilter(FilteredProperty property, Predicate<Object>[] matchers) {
+            this.property = property;
+            this.matchers = matchers;
         }
-        if(filter instanceof FilterDateToken filterDateToken) {
 
-            // Allow null operators for auto complete
-            if (filterDateToken.getOperator() == null) {
-                return true;
+        private boolean test(Object obj) {
+            if (obj.getClass() != compiledFor) {
+                Class<?> type = obj.getClass();
+                path = PROPERTY_PATHS.get(type).computeIfAbsent(property.key(), key -> PropertyPath.compile(type, property.property()));
+                compiledFor = type;
             }
 
-            OffsetDateTime propertyValue = (OffsetDateTime) value;
-            OffsetDateTime filterValue = OffsetDateTime.parse(filterDateToken.getValue());
-            if(filterDateToken.getOperator() == FilterDateToken.OperatorEnum.EQUAL) {
-                return propertyValue.isEqual(filterValue);
-            }
-            if(filterDateToken.getOperator() == FilterDateToken.OperatorEnum.NOT_EQUAL) {
-                return !propertyValue.isEqual(filterValue);
-            }
-            if(filterDateToken.getOperator() == FilterDateToken.OperatorEnum.LESS_THAN) {
-                return propertyValue.isBefore(filterValue);
-            }
-            if(filterDateToken.getOperator() == FilterDateToken.OperatorEnum.LESS_THAN_OR_EQUAL_TO) {
-                return !propertyValue.isAfter(filterValue);
-            }
-            if(filterDateToken.getOperator() == FilterDateToken.OperatorEnum.GREATER_THAN) {
-                return propertyValue.isAfter(filterValue);
+            Object value = path.accessor().get(obj);
+            if (value == null) {
+                return false;
             }
-            if(filterDateToken.getOperator() == FilterDateToken.OperatorEnum.GREATER_THAN_OR_EQUAL_TO) {
-                return !propertyValue.isBefore(filterValue);
+            if (value instanceof List<?> values) {
+                for (Object element : values) {
+                    if (element == null) {
+                        continue;
+                    }
+                    Object elementValue = path.elementAccessor() != null ? path.elementAccessor().get(element) : element;
+                    if (elementValue != null && matches(elementValue)) {
+                        return true;
+                    }
+                }
+                return false;
             }
+            return matches(value);
         }
-        if(filter instanceof FilterProtocolToken filterProtocolToken) {
-            String propertyValue = (String) value;
 
-            // Allow null operators for auto complete
-            if (filterProtocolToken.getOperator() == null) {
-                return true;
-            }
-            if(filterProtocolToken.getOperator() == FilterProtocolToken.OperatorEnum.EQUAL) {
-                return filterProtocolToken.getValue().toString().equals(propertyValue);
-            }
-            if(filterProtocolToken.getOperator() == FilterProtocolToken.OperatorEnum.NOT_EQUAL) {
-                return !filterProtocolToken.getValue().toString().equals(propertyValue);
+        private boolean matches(Object value) {
+            for (Predicate<Object> matcher : matchers) {
+                if (matcher.test(value)) {
+                    return true;
+                }
             }
+            return false;
         }
-        if(filter instanceof FilterAvailabilityToken filterAvailabilityToken) {
-            String propertyValue = (String) value;
+    }
 
-            // Allow null operators for auto complete
-            if (filterAvailabilityToken.getOperator() == null) {
-                return true;
+    private static Map<Class<?>, List<FilteredProperty>> compileFilteredProperties() {
+        Map<Class<?>, List<FilteredProperty>> filteredProperties = new HashMap<>();
+        FILTER_PROPERTIES.forEach((requestClass, properties) -> filteredProperties.put(requestClass,
+                properties.entrySet().stream()
+                        .map(property -> new FilteredProperty(PropertyAccessors.forPath(requestClass, property.getKey()),
+                                property.getValue(), String.join("/", property.getValue())))
+                        .toList()));
+        return Map.copyOf(filteredProperties);
+    }
+
+    private static Predicate<Object> compileToken(Object filter) {
+        if (filter instanceof FilterToken filterToken) {
+            String filterValue = filterToken.getValue();
+            if (filterToken.getOperator() == FilterToken.OperatorEnum.EQUAL) {
+                return value -> filterValue.equals(value);
+            }
+            if (filterToken.getOperator() == FilterToken.OperatorEnum.NOT_EQUAL) {
+                return value -> !filterValue.equals(value);
             }
-            if(filterAvailabilityToken.getOperator() == FilterAvailabilityToken.OperatorEnum.EQUAL) {
-                return filterAvailabilityToken.getValue().toString().equals(propertyValue);
+            if (filterToken.getOperator() == FilterToken.OperatorEnum.CONTAINS) {
+                return value -> ((String) value).contains(filterValue);
             }
-            if(filterAvailabilityToken.getOperator() == FilterAvailabilityToken.OperatorEnum.NOT_EQUAL) {
-                return !filterAvailabilityToken.getValue().toString().equals(propertyValue);
+            if (filterToken.getOperator() == FilterToken.OperatorEnum.NOT_CONTAINS) {
+                return value -> !((String) value).contains(filterValue);
             }
+            throw new RuntimeException("Failed to filter: FilterToken operator is invalid/null for " + filter);
         }
-        if(filter instanceof FilterUnavailabilityReasonToken filterUnavailabilityReasonToken) {
-            String propertyValue = (String) value;
-
+        if (filter instanceof FilterTypeToken filterTypeToken) {
+            return compileEnumToken(filter, filterTypeToken.getOperator(), filterTypeToken.getValue(),
+                    FilterTypeToken.OperatorEnum.EQUAL, FilterTypeToken.OperatorEnum.NOT_EQUAL);
+        }
+        if (filter instanceof FilterStateToken filterStateToken) {
+            return compileEnumToken(filter, filterStateToken.getOperator(), filterStateToken.getValue(),
+                    FilterStateToken.OperatorEnum.EQUAL, FilterStateToken.OperatorEnum.NOT_EQUAL);
+        }
+        if (filter instanceof FilterProtocolToken filterProtocolToken) {
+            return compileEnumToken(filter, filterProtocolToken.getOperator(), filterProtocolToken.getValue(),
+                    FilterProtocolToken.OperatorEnum.EQUAL, FilterProtocolToken.OperatorEnum.NOT_EQUAL);
+        }
+        if (filter instanceof FilterAvailabilityToken filterAvailabilityToken) {
+            return compileEnumToken(filter, filterAvailabilityToken.getOperator(), filterAvailabilityToken.getValue(),
+                    FilterAvailabilityToken.OperatorEnum.EQUAL, FilterAvailabilityToken.OperatorEnum.NOT_EQUAL);
+        }
+        if (filter instanceof FilterUnavailabilityReasonToken filterUnavailabilityReasonToken) {
+            return compileEnumToken(filter, filterUnavailabilityReasonToken.getOperator(), filterUnavailabilityReasonToken.getValue(),
+                    FilterUnavailabilityReasonToken.OperatorEnum.EQUAL, FilterUnavailabilityReasonToken.OperatorEnum.NOT_EQUAL);
+        }
+        if (filter instanceof FilterOsFamilyToken filterOsFamilyToken) {
+            return compileEnumToken(filter, filterOsFamilyToken.getOperator(), filterOsFamilyToken.getValue(),
+                    FilterOsFamilyToken.OperatorEnum.EQUAL, FilterOsFamilyToken.OperatorEnum.NOT_EQUAL);
+        }
+        if (filter instanceof FilterNumberToken filterNumberToken) {
             // Allow null operators for auto complete
-            if (filterUnavailabilityReasonToken.getOperator() == null) {
-                return true;
-            }
-            if(filterUnavailabilityReasonToken.getOperator() == FilterUnavailabilityReasonToken.OperatorEnum.EQUAL) {
-                return filterUnavailabilityReasonToken.getValue().toString().equals(propertyValue);
-            }
-            if(filterUnavailabilityReasonToken.getOperator() == FilterUnavailabilityReasonToken.OperatorEnum.NOT_EQUAL) {
-                return !filterUnavailabilityReasonToken.getValue().toString().equals(propertyValue);
-            }
+            if (filterNumberToken.getOperator() == null) {
+                return value -> true;
+            }
+            Long filterValue = filterNumberToken.getValue();
+            return switch (filterNumberToken.getOperator()) {
+                case EQUAL -> value -> filterValue != null && ((Number) value).longValue() == filterValue;
+                case NOT_EQUAL -> value -> filterValue == null || ((Number) value).longValue() != filterValue;
+                case LESS_THAN -> value -> ((Number) value).longValue() < filterValue;
+                case LESS_THAN_OR_EQUAL_TO -> value -> ((Number) value).longValue() <= filterValue;
+                case GREATER_THAN -> value -> ((Number) value).longValue() > filterValue;
+                case GREATER_THAN_OR_EQUAL_TO -> value -> ((Number) value).longValue() >= filterValue;
+                default -> throw new UnsupportedOperationException("Failed to filter: Filtering not defined for " + filter);
+            };
         }
-        if(filter instanceof FilterOsFamilyToken filterOsFamilyToken) {
-            String propertyValue = (String) value;
-
+        if (filter instanceof FilterDateToken filterDateToken) {
             // Allow null operators for auto complete
-            if (filterOsFamilyToken.getOperator() == null) {
-                return true;
-            }
-            if(filterOsFamilyToken.getOperator() == FilterOsFamilyToken.OperatorEnum.EQUAL) {
-                return filterOsFamilyToken.getValue().toString().equals(propertyValue);
-            }
-            if(filterOsFamilyToken.getOperator() == FilterOsFamilyToken.OperatorEnum.NOT_EQUAL) {
-                return !filterOsFamilyToken.getValue().toString().equals(propertyValue);
+            if (filterDateToken.getOperator() == null) {
+                return value -> true;
             }
+            OffsetDateTime filterValue = OffsetDateTime.parse(filterDateToken.getValue());
+            return switch (filterDateToken.getOperator()) {
+                case EQUAL -> value -> ((OffsetDateTime) value).isEqual(filterValue);
+                case NOT_EQUAL -> value -> !((OffsetDateTime) value).isEqual(filterValue);
+                case LESS_THAN -> value -> ((OffsetDateTime) value).isBefore(filterValue);
+                case LESS_THAN_OR_EQUAL_TO -> value -> !((OffsetDateTime) value).isAfter(filterValue);
+                case GREATER_THAN -> value -> ((OffsetDateTime) value).isAfter(filterValue);
+                case GREATER_THAN_OR_EQUAL_TO -> value -> !((OffsetDateTime) value).isBefore(filterValue);
+                default -> throw new UnsupportedOperationException("Failed to filter: Filtering not defined for " + filter);
+            };
         }
-        if(filter instanceof FilterBooleanToken filterBooleanToken) {
-            Boolean propertyValue = (Boolean) value;
-
+        if (filter instanceof FilterBooleanToken filterBooleanToken) {
             // Allow null operators for auto complete
             if (filterBooleanToken.getOperator() == null) {
-                return true;
-            }
-            if(FilterBooleanToken.OperatorEnum.EQUAL.equals(filterBooleanToken.getOperator())) {
-                return filterBooleanToken.getValue().equals(propertyValue);
-            }
-            if(FilterBooleanToken.OperatorEnum.NOT_EQUAL.equals(filterBooleanToken.getOperator())) {
-                return !filterBooleanToken.getValue().equals(propertyValue);
-            }
+                return value -> true;
+            }
+            Boolean filterValue = filterBooleanToken.getValue();
+            return switch (filterBooleanToken.getOperator()) {
+                case EQUAL -> value -> filterValue.equals(value);
+                case NOT_EQUAL -> value -> !filterValue.equals(value);
+                default -> throw new UnsupportedOperationException("Failed to filter: Filtering not defined for " + filter);
+            };
         }
-        if(filter instanceof KeyValuePair keyValuePair) {
-            KeyValuePair propertyValue = (KeyValuePair) value;
-            return keyValuePair.equals(propertyValue);
+        if (filter instanceof KeyValuePair keyValuePair) {
+            return keyValuePair::equals;
         }
         throw new UnsupportedOperationException("Failed to filter: Filtering not defined for " + filter);
     }
 
-    private boolean isFiltered(U obj, String[] property, Object filter) {
-        try {
-            Object object = PropertyAccessorFactory.forBeanPropertyAccess(obj).getPropertyValue(property[0]);
-            if(object == null) {
-                return false;
-            }
-            if(object instanceof List objects) {
-                for(Object objectProperty: objects) {
-                    if(objectProperty != null) {
-                        if(property.length > 1) {
-                            Object objectValue = PropertyAccessorFactory.forBeanPropertyAccess(objectProperty).getPropertyValue(property[1]);
-                            if(objectValue != null) {
-                                if(filter(objectValue, filter)) {
-                                    return true;
-                                }
-                            }
-                        }
-                        else if(filter(objectProperty, filter)) {
-                            return true;
-                        }
-                    }
+    private static Predicate<Object> compileEnumToken(Object filter, Enum<?> operator, Object filterValue, Enum<?> equal, Enum<?> notEqual) {
+        // Allow null operators for auto complete
+        if (operator == null) {
+            return value -> true;
+        }
+        String expected = filterValue.toString();
+        if (operator == equal) {
+            return expected::equals;
+        }
+        if (operator == notEqual) {
+            return value -> !expected.equals(value);
+        }
+        throw new UnsupportedOperationException("Failed to filter: Filtering not defined for " + filter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PropertyFilter> getPropertyFilters(T request) {
+        List<FilteredProperty> filteredProperties = FILTERED_PROPERTIES.get(request.getClass());
+        if (filteredProperties == null) {
+            throw new UnsupportedOperationException("Failed to filter: " + request.getClass() + " not in FILTER_PROPERTIES");
+        }
+
+        List<PropertyFilter> propertyFilters = new ArrayList<>();
+        for (FilteredProperty filteredProperty : filteredProperties) {
+            List<?> tokens = (List<?>) filteredProperty.tokens().get(request);
+            if (tokens != null && !tokens.isEmpty()) {
+                Predicate<Object>[] matchers = new Predicate[tokens.size()];
+                for (int i = 0; i < matchers.length; i++) {
+                    matchers[i] = compileToken(tokens.get(i));
                 }
-                return false;
-            }
-            else {
-                return filter(object, filter);
+                propertyFilters.add(new PropertyFilter(filteredProperty, matchers));
             }
         }
-        catch(NullValueInNestedPathException e) {
-            return false;
-        }
+        return propertyFilters;
     }
 
-    private List<List<Predicate<U>>> getPredicateList(T request) {
-        if(!FILTER_PROPERTIES.containsKey(request.getClass())) {
+    /**
+     * Translates the FilterToken, FilterDateToken and FilterBooleanToken properties of the request into a filter the
+     * repositories can push down to the database. Properties holding any other kind of token, or a token without an
+     * operator, are left out and only filtered in memory.
+     */
+    public RepositoryFilter getRepositoryFilter(T request) {
+        List<FilteredProperty> filteredProperties = FILTERED_PROPERTIES.get(request.getClass());
+        if (filteredProperties == null) {
             throw new UnsupportedOperationException("Failed to filter: " + request.getClass() + " not in FILTER_PROPERTIES");
         }
 
-        List<List<Predicate<U>>> predicates = new ArrayList<>();
-        for(String filterProperty: FILTER_PROPERTIES.get(request.getClass()).keySet()) {
-            List<Predicate<U>> propertyPredicates = new ArrayList<>();
-            List<Object> tokens = (List<Object>) PropertyAccessorFactory.forBeanPropertyAccess(request).getPropertyValue(filterProperty);
-            if(tokens != null) {
-                for(Object filter: tokens) {
-                    propertyPredicates.add(obj -> isFiltered(obj, FILTER_PROPERTIES.get(request.getClass()).get(filterProperty), filter));
+        List<RepositoryFilter.PropertyConditions> properties = new ArrayList<>();
+        for (FilteredProperty filteredProperty : filteredProperties) {
+            List<?> tokens = (List<?>) filteredProperty.tokens().get(request);
+            if (tokens == null || tokens.isEmpty() || filteredProperty.property().length != 1) {
+                continue;
+            }
+
+            List<RepositoryFilter.Condition> conditions = new ArrayList<>(tokens.size());
+            for (Object token : tokens) {
+                RepositoryFilter.Condition condition = toCondition(token);
+                if (condition == null) {
+                    log.debug("Not pushing down the {} filter, {} is filtered in memory", filteredProperty.key(), token);
+                    conditions = null;
+                    break;
                 }
+                conditions.add(condition);
             }
-            if(!propertyPredicates.isEmpty()) {
-                predicates.add(propertyPredicates);
+            if (conditions != null) {
+                properties.add(new RepositoryFilter.PropertyConditions(filteredProperty.property()[0], conditions));
             }
         }
-        return predicates;
+        return new RepositoryFilter(properties);
+    }
+
+    private static RepositoryFilter.Condition toCondition(Object filter) {
+        try {
+            if (filter instanceof FilterToken filterToken && filterToken.getOperator() != null && filterToken.getValue() != null) {
+                return new RepositoryFilter.Condition(RepositoryFilter.Operator.valueOf(filterToken.getOperator().name()), filterToken.getValue());
+            }
+            if (filter instanceof FilterDateToken filterDateToken && filterDateToken.getOperator() != null && filterDateToken.getValue() != null) {
+                return new RepositoryFilter.Condition(RepositoryFilter.Operator.valueOf(filterDateToken.getOperator().name()),
+                        OffsetDateTime.parse(filterDateToken.getValue()));
+            }
+            if (filter instanceof FilterBooleanToken filterBooleanToken && filterBooleanToken.getOperator() != null && filterBooleanToken.getValue() != null) {
+                return new RepositoryFilter.Condition(RepositoryFilter.Operator.valueOf(filterBooleanToken.getOperator().name()), filterBooleanToken.getValue());
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Left to the in memory filter, which reports invalid tokens
+        }
+        return null;
     }
 
     public List<U> getFiltered(T request, List<U> list) {
         try {
-            List<List<Predicate<U>>> predicates = getPredicateList(request);
-            return list.stream()
-                    .filter(predicates.stream().
-                            map(l -> l.stream()
-                                    .reduce(Predicate::or).orElse(x -> true))
-                            .reduce(x -> true, Predicate::and))
-                    .collect(Collectors.toList());
+            List<PropertyFilter> propertyFilters = getPropertyFilters(request);
+            List<U> filtered = new ArrayList<>();
+            for (U obj : list) {
+                if (matchesAll(obj, propertyFilters)) {
+                    filtered.add(obj);
+                }
+            }
+            return filtered;
         }
         catch(Exception e) {
             throw new BadRequestException(e);
         }
     }
+
+    private boolean matchesAll(U obj, List<PropertyFilter> propertyFilters) {
+        for (PropertyFilter propertyFilter : propertyFilters) {
+            if (!propertyFilter.test(obj)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
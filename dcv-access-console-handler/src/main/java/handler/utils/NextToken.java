@@ -10,9 +10,14 @@ import handler.model.SessionTemplate;
 import handler.persistence.UserEntity;
 import handler.persistence.UserGroupEntity;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import lombok.Builder;
@@ -20,6 +25,9 @@ import lombok.Getter;
 import lombok.Setter;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
 
 @Builder
 @Getter
@@ -28,10 +36,17 @@ public class NextToken {
     Optional<Map<String, AttributeValue>> dynamoDbStartKey;
     OptionalInt pageNumber;
     OptionalInt pageOffset;
+    /**
+     * The sort key and primary key values of the last item returned, used by MySQL to seek to the next page instead of
+     * skipping over the previous ones.
+     */
+    @Builder.Default
+    Optional<Map<String, Object>> keyset = Optional.empty();
 
     public static final String DYNAMODB_START_KEY = "dynamodb_start_key";
     public static final String PAGE_NUMBER = "page_number";
     public static final String PAGE_OFFSET = "page_offset";
+    public static final String KEYSET_PREFIX = "keyset.";
 
     private static final Map<Class, String> DDB_PRIMARY_KEYS = Map.ofEntries(
             Map.entry(UserEntity.class, "userId"),
@@ -66,6 +81,26 @@ public class NextToken {
         }
     }
 
+    /**
+     * Creates a token that continues after the given keyset. Keysets with null values cannot be compared against, so
+     * the token falls back to the page number for those.
+     * @param keyset The sort key and primary key values of the last item returned.
+     * @param pageNumber The number of the next page.
+     * @return Returns the next token.
+     */
+    public static NextToken fromKeyset(Map<String, ?> keyset, int pageNumber) {
+        Optional<Map<String, Object>> keysetToUse = Optional.empty();
+        if (keyset != null && !keyset.isEmpty() && keyset.values().stream().allMatch(Objects::nonNull)) {
+            keysetToUse = Optional.of(new LinkedHashMap<>(keyset));
+        }
+        return builder()
+                .dynamoDbStartKey(Optional.empty())
+                .pageNumber(OptionalInt.of(pageNumber))
+                .pageOffset(OptionalInt.of(0))
+                .keyset(keysetToUse)
+                .build();
+    }
+
     public static NextToken deserialize(String tokenString, Class c) {
         if (StringUtils.isEmpty(tokenString)) {
             return builder().dynamoDbStartKey(Optional.empty()).pageNumber(OptionalInt.of(0)).pageOffset(OptionalInt.of(0)).build();
@@ -96,7 +131,16 @@ public class NextToken {
                 pageOffset = OptionalInt.empty();
             }
 
-            return builder().dynamoDbStartKey(dynamoDbStartKey).pageNumber(pageNumber).pageOffset(pageOffset).build();
+            Map<String, Object> keyset = new LinkedHashMap<>();
+            for (Map.Entry<String, String> entry : stringMap.entrySet()) {
+                if (entry.getKey().startsWith(KEYSET_PREFIX)) {
+                    String property = entry.getKey().substring(KEYSET_PREFIX.length());
+                    keyset.put(property, toKeysetValue(c, property, entry.getValue()));
+                }
+            }
+
+            return builder().dynamoDbStartKey(dynamoDbStartKey).pageNumber(pageNumber).pageOffset(pageOffset)
+                    .keyset(keyset.isEmpty() ? Optional.empty() : Optional.of(keyset)).build();
         } catch (IOException e) {
             throw new BadRequestException(e);
         }
@@ -121,9 +165,28 @@ public class NextToken {
             tokenMap.put(DYNAMODB_START_KEY, dynamoDbStartKey);
             tokenMap.put(PAGE_NUMBER, Integer.toString(token.getPageNumber().orElse(1)));
             tokenMap.put(PAGE_OFFSET, Integer.toString(token.getPageOffset().orElse(0)));
+            if (token.getKeyset() != null) {
+                token.getKeyset().ifPresent(keyset -> keyset.forEach((property, value) -> tokenMap.put(KEYSET_PREFIX + property, String.valueOf(value))));
+            }
             return objectMapper.writeValueAsString(tokenMap);
         } catch (IOException e) {
             throw new IllegalStateException("Failed to serialize nextToken", e);
         }
     }
-}
\ No newline at end of file
+
+    private static Object toKeysetValue(Class c, String property, String value) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(c, property);
+        if (descriptor == null || value == null) {
+            throw new BadRequestException("Invalid keyset property " + property + " in nextToken");
+        }
+
+        try {
+            if (OffsetDateTime.class.equals(descriptor.getPropertyType())) {
+                return OffsetDateTime.parse(value);
+            }
+            return DefaultConversionService.getSharedInstance().convert(value, descriptor.getPropertyType());
+        } catch (DateTimeParseException | ConversionException e) {
+            throw new BadRequestException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.utils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiles bean property paths such as {@code host.cpuInfo.numberOfCpus} into getter functions. Each getter is
+ * resolved through the JavaBeans introspector once and bound with {@link LambdaMetafactory}, so reading a property
+ * afterwards is a plain method call instead of a reflective lookup.
+ */
+final class PropertyAccessors {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<Map<String, Method>> READ_METHODS = new ClassValue<>() {
+        @Override
+        protected Map<String, Method> computeValue(Class<?> type) {
+            try {
+                Map<String, Method> readMethods = new HashMap<>();
+                for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                    if (descriptor.getReadMethod() != null) {
+                        readMethods.put(descriptor.getName(), descriptor.getReadMethod());
+                    }
+                }
+                return readMethods;
+            } catch (IntrospectionException e) {
+                throw new IllegalArgumentException("Failed to introspect " + type.getName(), e);
+            }
+        }
+    };
+
+    private static final Map<Method, Function<Object, Object>> GETTERS = new ConcurrentHashMap<>();
+
+    private PropertyAccessors() {
+    }
+
+    /**
+     * A compiled property path. Reading a path through a null intermediate property returns null.
+     *
+     * @param getter the compiled getter chain
+     * @param type the declared type of the last property in the path
+     */
+    record Accessor(Function<Object, Object> getter, Type type) {
+        Object get(Object bean) {
+            return getter.apply(bean);
+        }
+
+        /**
+         * @return the element class of the property when it is declared as a parameterized collection
+         */
+        Class<?> elementType() {
+            if (type instanceof ParameterizedType parameterizedType
+                    && parameterizedType.getActualTypeArguments().length == 1
+                    && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+                return elementType;
+            }
+            throw new IllegalArgumentException("Cannot resolve the element type of " + type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Accessor forPath(Class<?> beanType, String path) {
+        String[] names = path.split("\\.");
+        Function<Object, Object>[] chain = new Function[names.length];
+        Class<?> type = beanType;
+        Type genericType = beanType;
+        for (int i = 0; i < names.length; i++) {
+            Method readMethod = readMethod(type, names[i]);
+            if (readMethod == null) {
+                throw new IllegalArgumentException("No readable property '" + names[i] + "' in path '" + path + "' of " + beanType.getName());
+            }
+            chain[i] = GETTERS.computeIfAbsent(readMethod, PropertyAccessors::compile);
+            type = readMethod.getReturnType();
+            genericType = readMethod.getGenericReturnType();
+        }
+
+        if (chain.length == 1) {
+            return new Accessor(chain[0], genericType);
+        }
+        return new Accessor(bean -> {
+            Object value = bean;
+            for (Function<Object, Object> getter : chain) {
+                if (value == null) {
+                    return null;
+                }
+                value = getter.apply(value);
+            }
+            return value;
+        }, genericType);
+    }
+
+    private static Method readMethod(Class<?> type, String name) {
+        Map<String, Method> readMethods = READ_METHODS.get(type);
+        Method readMethod = readMethods.get(name);
+        if (readMethod == null && !name.isEmpty() && Character.isUpperCase(name.charAt(0))) {
+            // Sort keys name properties the way the API does, e.g. "CreationTime"
+            readMethod = readMethods.get(Character.toLowerCase(name.charAt(0)) + name.substring(1));
+        }
+        return readMethod;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> compile(Method readMethod) {
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    LOOKUP.unreflect(readMethod),
+                    MethodType.methodType(readMethod.getReturnType(), readMethod.getDeclaringClass()).wrap());
+            return (Function<Object, Object>) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Failed to compile getter " + readMethod, e);
+        }
+    }
+}
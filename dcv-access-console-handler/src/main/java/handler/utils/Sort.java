@@ -5,46 +5,116 @@ package handler.utils;
 
 import handler.exceptions.BadRequestException;
 import handler.model.SortToken;
-import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.stereotype.Component;
 
-import lombok.AllArgsConstructor;
-
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.ListIterator;
 
 @Component
 public class Sort<T, U> {
-    @AllArgsConstructor
-    private class ValueComparator implements Comparator<U> {
-        private SortToken sortToken;
-        @Override
-        public int compare(U o1, U o2) {
-            Object propertyValue1 = PropertyAccessorFactory.forBeanPropertyAccess(o1).getPropertyValue(sortToken.getKey());
-            Object propertyValue2 = PropertyAccessorFactory.forBeanPropertyAccess(o2).getPropertyValue(sortToken.getKey());
-            if(propertyValue1 == null && propertyValue2 == null) {
-                return 0;
-            }
-            if(propertyValue1 == null) {
-                return -1;
-            }
-            if(propertyValue2 == null) {
-                return 1;
+    /**
+     * The sort key of every element, extracted once before sorting. Integral keys are held as longs and floating point
+     * keys as doubles, so comparing two elements never touches the elements themselves. Null keys sort below every
+     * other key, so they come first in ascending order and last in descending order.
+     */
+    private static final class SortKeys implements Comparator<Integer> {
+        private final boolean[] nulls;
+        private long[] longKeys;
+        private double[] doubleKeys;
+        private Comparable<Object>[] objectKeys;
+
+        @SuppressWarnings("unchecked")
+        private SortKeys(Object[] values) {
+            nulls = new boolean[values.length];
+            Class<?> keyType = null;
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    nulls[i] = true;
+                    continue;
+                }
+                if (keyType == null) {
+                    keyType = value.getClass();
+                    if (isIntegral(keyType)) {
+                        longKeys = new long[values.length];
+                    } else if (keyType == Double.class || keyType == Float.class) {
+                        doubleKeys = new double[values.length];
+                    } else if (keyType == String.class || keyType == OffsetDateTime.class || keyType == Boolean.class) {
+                        objectKeys = new Comparable[values.length];
+                    } else {
+                        throw new UnsupportedOperationException("Failed to sort: Sorting not defined for " + keyType);
+                    }
+                } else if (value.getClass() != keyType) {
+                    throw new UnsupportedOperationException("Failed to sort: Cannot compare " + keyType + " with " + value.getClass());
+                }
+
+                if (longKeys != null) {
+                    longKeys[i] = ((Number) value).longValue();
+                } else if (doubleKeys != null) {
+                    doubleKeys[i] = ((Number) value).doubleValue();
+                } else {
+                    objectKeys[i] = (Comparable<Object>) value;
+                }
             }
-            if(propertyValue1 instanceof String value1) {
-                return value1.compareTo((String) propertyValue2);
+        }
+
+        private static boolean isIntegral(Class<?> type) {
+            return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+        }
+
+        @Override
+        public int compare(Integer index1, Integer index2) {
+            int i = index1;
+            int j = index2;
+            if (nulls[i] || nulls[j]) {
+                return Boolean.compare(!nulls[i], !nulls[j]);
             }
-            if(propertyValue1 instanceof Long value1) {
-                return value1.compareTo((Long) propertyValue2);
+            if (longKeys != null) {
+                return Long.compare(longKeys[i], longKeys[j]);
             }
-            if(propertyValue1 instanceof OffsetDateTime value1) {
-                return value1.compareTo((OffsetDateTime) propertyValue2);
+            if (doubleKeys != null) {
+                return Double.compare(doubleKeys[i], doubleKeys[j]);
             }
-            if(propertyValue1 instanceof Boolean value1) {
-                return value1.compareTo((Boolean) propertyValue2);
+            return objectKeys[i].compareTo(objectKeys[j]);
+        }
+    }
+
+    private Object[] extractKeys(Object[] elements, String key) {
+        Object[] keys = new Object[elements.length];
+        Class<?> compiledFor = null;
+        PropertyAccessors.Accessor accessor = null;
+        for (int i = 0; i < elements.length; i++) {
+            if (elements[i].getClass() != compiledFor) {
+                compiledFor = elements[i].getClass();
+                accessor = PropertyAccessors.forPath(compiledFor, key);
             }
-            throw new UnsupportedOperationException("Failed to sort: Sorting not defined for " + propertyValue1.getClass());
+            keys[i] = accessor.get(elements[i]);
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sort(List<U> list, String key, boolean descending) {
+        if (list.size() < 2) {
+            return;
+        }
+
+        Object[] elements = list.toArray();
+        SortKeys sortKeys = new SortKeys(extractKeys(elements, key));
+        Integer[] order = new Integer[elements.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Arrays.sort is stable, so elements with equal keys keep their order in both directions
+        Arrays.sort(order, descending ? sortKeys.reversed() : sortKeys);
+
+        ListIterator<U> iterator = list.listIterator();
+        for (Integer index : order) {
+            iterator.next();
+            iterator.set((U) elements[index]);
         }
     }
 
@@ -52,7 +122,7 @@ public class Sort<T, U> {
         try {
             SortToken token;
             try {
-                token = (SortToken) PropertyAccessorFactory.forBeanPropertyAccess(request).getPropertyValue("sortToken");
+                token = (SortToken) PropertyAccessors.forPath(request.getClass(), "sortToken").get(request);
             }
             catch(Exception e) {
                 throw new UnsupportedOperationException("Failed to sort: SortToken not defined in " + request.getClass());
@@ -60,10 +130,10 @@ public class Sort<T, U> {
 
             if(token != null) {
                 if(token.getOperator() == SortToken.OperatorEnum.ASC) {
-                    list.sort(new ValueComparator(token));
+                    sort(list, token.getKey(), false);
                 }
                 else if(token.getOperator() == SortToken.OperatorEnum.DESC) {
-                    list.sort(new ValueComparator(token).reversed());
+                    sort(list, token.getKey(), true);
                 }
                 else {
                     throw new RuntimeException("Failed to sort: SortToken Operator is invalid/null");
@@ -75,4 +145,4 @@ public class Sort<T, U> {
             throw new BadRequestException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -3,36 +3,58 @@
 
 package handler.authorization;
 
+import handler.authorization.engines.AuthorizationDecisionCache;
 import handler.authorization.engines.CedarAuthorizationEngine;
 import handler.authorization.engines.entities.SetShareListResponse;
+import handler.authorization.engines.entities.UserChangeSet;
 import handler.authorization.enums.PrincipalType;
 import handler.authorization.enums.ResourceAction;
 import handler.authorization.enums.ResourceType;
 import handler.authorization.enums.ShareLevel;
 import handler.authorization.enums.SystemAction;
-import handler.brokerclients.BrokerClient;
+import handler.brokerclients.dcv.DCVBrokerClient;
+import handler.model.DescribeSessionsUIRequestData;
+import handler.model.DescribeSessionsUIResponse;
+import handler.model.SessionWithPermissions;
 import handler.model.User;
 import handler.services.SessionTemplateService;
 import handler.services.UserGroupService;
 import handler.services.UserService;
 import com.cedarpolicy.BasicAuthorizationEngine;
+import com.cedarpolicy.model.AuthorizationRequest;
+import com.cedarpolicy.model.AuthorizationResponse;
+import com.cedarpolicy.model.AuthorizationSuccessResponse;
+import com.cedarpolicy.model.entity.Entity;
 import com.cedarpolicy.model.exception.AuthException;
+import com.cedarpolicy.model.policy.PolicySet;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AuthorizationServiceException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -72,6 +94,10 @@ public abstract class AbstractCedarAuthorizationEngineTest {
     private String FAKE_USER_UUID = "fakeUser";
     private String FAKE_GROUP_UUID = "fakeGroup";
     private final String GUEST_ROLE = "Guest";
+    private static final long PROVISIONED_USERS_CACHE_MAX_SIZE = 1000;
+    private static final long PROVISIONED_USERS_CACHE_TTL_SECONDS = 300;
+    private static final int SESSION_PRELOAD_PAGE_SIZE = 1000;
+    private static final long STARTUP_BUDGET_SECONDS = 30;
 
     protected final boolean caseSensitive;
 
@@ -93,7 +119,7 @@ public abstract class AbstractCedarAuthorizationEngineTest {
     private final UserService mockUserService;
     private final UserGroupService mockUserGroupService;
     private final SessionTemplateService mockSessionTemplateService;
-    private final BrokerClient mockBrokerClient;
+    private final DCVBrokerClient mockBrokerClient;
 
     @SuppressWarnings("unchecked")
     public AbstractCedarAuthorizationEngineTest(boolean caseSensitive) throws IOException {
@@ -105,7 +131,7 @@ public abstract class AbstractCedarAuthorizationEngineTest {
         this.mockUserService = mock(UserService.class);
         this.mockUserGroupService = mock(UserGroupService.class);
         this.mockSessionTemplateService = mock(SessionTemplateService.class);
-        this.mockBrokerClient = mock(BrokerClient.class);
+        this.mockBrokerClient = mock(DCVBrokerClient.class);
 
         // If it is not case-sensitive, change the UUID to upper case to verify
         this.caseSensitive = caseSensitive;
@@ -125,13 +151,19 @@ public abstract class AbstractCedarAuthorizationEngineTest {
                 policyFile,
                 roleFile,
                 caseSensitive,
+                PROVISIONED_USERS_CACHE_MAX_SIZE,
+                PROVISIONED_USERS_CACHE_TTL_SECONDS,
+                SESSION_PRELOAD_PAGE_SIZE,
+                STARTUP_BUDGET_SECONDS,
                 basicAuthorizationEngine,
                 mapper,
                 mockWriter,
                 mockUserService,
                 mockUserGroupService,
                 mockSessionTemplateService,
-                mockBrokerClient
+                mockBrokerClient,
+                newDecisionCache(),
+                new SimpleMeterRegistry()
         );
         mockBasicAuthorizationEngine = mock(BasicAuthorizationEngine.class);
 
@@ -140,13 +172,19 @@ public abstract class AbstractCedarAuthorizationEngineTest {
                 policyFile,
                 roleFile,
                 caseSensitive,
+                PROVISIONED_USERS_CACHE_MAX_SIZE,
+                PROVISIONED_USERS_CACHE_TTL_SECONDS,
+                SESSION_PRELOAD_PAGE_SIZE,
+                STARTUP_BUDGET_SECONDS,
                 mockBasicAuthorizationEngine,
                 mockMapper,
                 mockWriter,
                 mockUserService,
                 mockUserGroupService,
                 mockSessionTemplateService,
-                mockBrokerClient
+                mockBrokerClient,
+                newDecisionCache(),
+                new SimpleMeterRegistry()
         );
     }
 
@@ -243,6 +281,18 @@ public abstract class AbstractCedarAuthorizationEngineTest {
         assertTrue(testRealCedarAuthorizationEngine.addUserWithPersistence("NewUser"));
     }
 
+    @Test
+    public void testAddUserWithPersistenceSkipsPersistenceForKnownUsers() {
+        assertFalse(testRealCedarAuthorizationEngine.addUserWithPersistence(USER_UUID));
+        verify(mockUserService, times(0)).createUser(any(), any(), any());
+
+        String persistedUser = "persistedUser";
+        when(mockUserService.createUser(any(), any(), any())).thenReturn(false);
+        assertFalse(testRealCedarAuthorizationEngine.addUserWithPersistence(persistedUser));
+        assertFalse(testRealCedarAuthorizationEngine.addUserWithPersistence(persistedUser));
+        verify(mockUserService, times(1)).createUser(any(), any(), any());
+    }
+
     @Test
     public void testAddExistingRole() {
         assertFalse(testRealCedarAuthorizationEngine.addRole("Admin", Collections.emptyList()));
@@ -376,6 +426,30 @@ public abstract class AbstractCedarAuthorizationEngineTest {
         assertFalse(testRealCedarAuthorizationEngine.isAuthorized(PrincipalType.User, USER_UUID, ResourceAction.viewSessionDetails, ResourceType.Session, SESSION_STRING));
     }
 
+    @Test
+    public void testCachedDecisionNotServedAfterResourceDeleted() {
+        assertTrue(testRealCedarAuthorizationEngine.addSession(SESSION_STRING, USER_UUID));
+        assertTrue(testRealCedarAuthorizationEngine.isAuthorized(PrincipalType.User, USER_UUID, ResourceAction.viewSessionDetails, ResourceType.Session, SESSION_STRING));
+        assertTrue(testRealCedarAuthorizationEngine.deleteResource(ResourceType.Session, SESSION_STRING));
+        assertFalse(testRealCedarAuthorizationEngine.isAuthorized(PrincipalType.User, USER_UUID, ResourceAction.viewSessionDetails, ResourceType.Session, SESSION_STRING));
+    }
+
+    @Test
+    public void testApplyUserChanges() {
+        String importedUser = "importedUser";
+        assertTrue(testRealCedarAuthorizationEngine.addSession(SESSION_STRING, ADMIN_UUID));
+        assertTrue(testRealCedarAuthorizationEngine.addPrincipalToSharedList(PrincipalType.Group, PROJECT_GROUP_STRING, ResourceType.Session, SESSION_STRING, ShareLevel.collaborators));
+
+        testRealCedarAuthorizationEngine.applyUserChanges(UserChangeSet.builder()
+                .users(List.of(new User().userId(importedUser).displayName(importedUser).role(USER_ROLE).isDisabled(false)))
+                .memberships(Map.of(importedUser, Set.of(PROJECT_GROUP_STRING)))
+                .replacedMemberships(Collections.emptySet())
+                .build());
+
+        assertEquals(USER_ROLE, testRealCedarAuthorizationEngine.getUserRole(importedUser));
+        assertTrue(testRealCedarAuthorizationEngine.isAuthorized(PrincipalType.User, importedUser, ResourceAction.viewSessionDetails, ResourceType.Session, SESSION_STRING));
+    }
+
     @Test
     public void testLoadBadPolicyFile() {
         File badPolicyFile = new File("fakeLocation");
@@ -384,13 +458,19 @@ public abstract class AbstractCedarAuthorizationEngineTest {
                     badPolicyFile,
                     roleFile,
                     caseSensitive,
+                    PROVISIONED_USERS_CACHE_MAX_SIZE,
+                    PROVISIONED_USERS_CACHE_TTL_SECONDS,
+                    SESSION_PRELOAD_PAGE_SIZE,
+                    STARTUP_BUDGET_SECONDS,
                     new BasicAuthorizationEngine(),
                     mapper,
                     mockWriter,
                     mockUserService,
                     mockUserGroupService,
                     mockSessionTemplateService,
-                    mockBrokerClient
+                    mockBrokerClient,
+                    newDecisionCache(),
+                    new SimpleMeterRegistry()
             );
         });
     }
@@ -403,13 +483,19 @@ public abstract class AbstractCedarAuthorizationEngineTest {
                     policyFile,
                     badRoleFile,
                     caseSensitive,
+                    PROVISIONED_USERS_CACHE_MAX_SIZE,
+                    PROVISIONED_USERS_CACHE_TTL_SECONDS,
+                    SESSION_PRELOAD_PAGE_SIZE,
+                    STARTUP_BUDGET_SECONDS,
                     new BasicAuthorizationEngine(),
                     mapper,
                     mockWriter,
                     mockUserService,
                     mockUserGroupService,
                     mockSessionTemplateService,
-                    mockBrokerClient
+                    mockBrokerClient,
+                    newDecisionCache(),
+                    new SimpleMeterRegistry()
             );
         });
     }
@@ -460,15 +546,269 @@ public abstract class AbstractCedarAuthorizationEngineTest {
     public void testLoadEntitiesFromRepository() {
         CedarAuthorizationEngine testAuthorizationEngine = new CedarAuthorizationEngine(
                 policyFile,
-                roleFile, caseSensitive,
+                roleFile, caseSensitive, PROVISIONED_USERS_CACHE_MAX_SIZE, PROVISIONED_USERS_CACHE_TTL_SECONDS,
+                SESSION_PRELOAD_PAGE_SIZE, STARTUP_BUDGET_SECONDS,
                 new BasicAuthorizationEngine(),
                 mapper,
                 mockWriter,
                 mockUserService,
                 mockUserGroupService,
                 mockSessionTemplateService,
-                mockBrokerClient
+                mockBrokerClient,
+                newDecisionCache(),
+                new SimpleMeterRegistry()
         );
         assertTrue(testAuthorizationEngine.isAuthorized(PrincipalType.User, USER_UUID, ResourceAction.viewSessionTemplateDetails, ResourceType.SessionTemplate, SESSION_TEMPLATE_STRING));
     }
+
+    @Test
+    public void testSlicedDecisionsMatchFullEntitySet() {
+        ParityCheckingAuthorizationEngine parityEngine = new ParityCheckingAuthorizationEngine();
+        CedarAuthorizationEngine engine = newEngine(parityEngine);
+        parityEngine.allEntities = () -> allEntities(engine);
+
+        engine.addUser("parity-admin", null, "parity-admin", "Admin", false);
+        engine.addUser("parity-member", null, "parity-member", USER_ROLE, false);
+        engine.addUser("parity-guest", null, "parity-guest", GUEST_ROLE, false);
+        engine.addUser("parity-outsider", null, "parity-outsider", USER_ROLE, false);
+        engine.addUser("parity-disabled", null, "parity-disabled", USER_ROLE, true);
+        assertTrue(engine.addGroup("parity-group"));
+        assertTrue(engine.addUserToGroup("parity-member", "parity-group"));
+        assertTrue(engine.addUserToGroup("parity-guest", "parity-group"));
+        assertTrue(engine.addUserToGroup("parity-disabled", "parity-group"));
+        assertTrue(engine.addSessionTemplate("parity-template", "parity-admin"));
+        when(mockSessionTemplateService.setSessionTemplateShareList(any(), any(), any())).thenReturn(
+                SetShareListResponse.builder().unSuccessfulUsers(new ArrayList<>()).unSuccessfulGroups(new ArrayList<>()).build());
+        engine.setShareList(Collections.emptyList(), List.of("parity-group"), ResourceType.SessionTemplate,
+                "parity-template", ShareLevel.publishedTo);
+
+        // Role: the permissions are attributes of the role entity that the principal references
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-admin", SystemAction.describeServers));
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-member", SystemAction.describeSessionTemplates));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-member", SystemAction.describeServers));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-guest", SystemAction.describeSessionTemplates));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-disabled", SystemAction.describeSessions));
+
+        // Group membership: principal in resource
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-member", ResourceAction.viewGroupDetails,
+                ResourceType.Group, "parity-group"));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-outsider", ResourceAction.viewGroupDetails,
+                ResourceType.Group, "parity-group"));
+
+        // Published to a group: principal in resource.publishedTo
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-member", ResourceAction.viewSessionTemplateDetails,
+                ResourceType.SessionTemplate, "parity-template"));
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-guest", ResourceAction.useSpecificSessionTemplate,
+                ResourceType.SessionTemplate, "parity-template"));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-outsider", ResourceAction.viewSessionTemplateDetails,
+                ResourceType.SessionTemplate, "parity-template"));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-disabled", ResourceAction.viewSessionTemplateDetails,
+                ResourceType.SessionTemplate, "parity-template"));
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-admin", ResourceAction.useSessionTemplateForOther,
+                ResourceType.SessionTemplate, "parity-template"));
+
+        assertEquals(12, parityEngine.checkedRequests);
+    }
+
+    @Test
+    public void testSlicedDecisionsMatchFullEntitySetAfterMembershipChanges() {
+        ParityCheckingAuthorizationEngine parityEngine = new ParityCheckingAuthorizationEngine();
+        CedarAuthorizationEngine engine = newEngine(parityEngine);
+        parityEngine.allEntities = () -> allEntities(engine);
+
+        engine.addUser("parity-member", null, "parity-member", USER_ROLE, false);
+        assertTrue(engine.addGroup("parity-group"));
+        assertTrue(engine.addSessionTemplate("parity-template", "parity-owner"));
+        when(mockSessionTemplateService.setSessionTemplateShareList(any(), any(), any())).thenReturn(
+                SetShareListResponse.builder().unSuccessfulUsers(new ArrayList<>()).unSuccessfulGroups(new ArrayList<>()).build());
+        engine.setShareList(Collections.emptyList(), List.of("parity-group"), ResourceType.SessionTemplate,
+                "parity-template", ShareLevel.publishedTo);
+
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-member", ResourceAction.viewSessionTemplateDetails,
+                ResourceType.SessionTemplate, "parity-template"));
+        assertTrue(engine.addUserToGroup("parity-member", "parity-group"));
+        assertTrue(engine.isAuthorized(PrincipalType.User, "parity-member", ResourceAction.viewSessionTemplateDetails,
+                ResourceType.SessionTemplate, "parity-template"));
+        assertTrue(engine.removeUserFromGroup("parity-member", "parity-group"));
+        assertFalse(engine.isAuthorized(PrincipalType.User, "parity-member", ResourceAction.viewSessionTemplateDetails,
+                ResourceType.SessionTemplate, "parity-template"));
+
+        assertEquals(3, parityEngine.checkedRequests);
+    }
+
+    @Test
+    public void testBatchDecisionsMatchSingleDecisions() {
+        // Separate engines, so that neither call is answered from decisions cached by the other
+        CedarAuthorizationEngine batchEngine = newEngine(new BasicAuthorizationEngine());
+        CedarAuthorizationEngine singleEngine = newEngine(new BasicAuthorizationEngine());
+        List<String> sessionIds = List.of("batch-owned", "batch-shared", "batch-other", "batch-missing", "batch-owned");
+        for (CedarAuthorizationEngine engine : List.of(batchEngine, singleEngine)) {
+            engine.addUser("batch-user", null, "batch-user", USER_ROLE, false);
+            engine.addUser("batch-owner", null, "batch-owner", USER_ROLE, false);
+            assertTrue(engine.addSession("batch-owned", "batch-user"));
+            assertTrue(engine.addSession("batch-shared", "batch-owner"));
+            assertTrue(engine.addSession("batch-other", "batch-owner"));
+            assertTrue(engine.addPrincipalToSharedList(PrincipalType.User, "batch-user", ResourceType.Session,
+                    "batch-shared", ShareLevel.collaborators));
+        }
+
+        Map<String, Boolean> decisions = batchEngine.isAuthorizedBatch(PrincipalType.User, "batch-user",
+                ResourceAction.viewSessionDetails, ResourceType.Session, sessionIds);
+
+        assertEquals(new HashSet<>(sessionIds), decisions.keySet());
+        for (String sessionId : decisions.keySet()) {
+            assertEquals(singleEngine.isAuthorized(PrincipalType.User, "batch-user", ResourceAction.viewSessionDetails,
+                    ResourceType.Session, sessionId), decisions.get(sessionId), sessionId);
+        }
+        assertTrue(decisions.get("batch-owned"));
+        assertFalse(decisions.get("batch-other"));
+        assertFalse(decisions.get("batch-missing"));
+    }
+
+    @Test
+    public void testIsAuthorizedConcurrentWithUpdates() throws Exception {
+        CedarAuthorizationEngine engine = newEngine(new BasicAuthorizationEngine());
+        engine.addUser("concurrent-owner", null, "concurrent-owner", USER_ROLE, false);
+        assertTrue(engine.addSession("concurrent-session", "concurrent-owner"));
+        assertTrue(engine.addGroup("concurrent-group"));
+
+        int writers = 4;
+        int readers = 4;
+        int operations = 100;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                int writer = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < operations; j++) {
+                        String userId = "concurrent-user-" + writer + "-" + j;
+                        engine.addUser(userId, null, userId, USER_ROLE, false);
+                        assertTrue(engine.addUserToGroup(userId, "concurrent-group"));
+                        assertTrue(engine.addSession("concurrent-session-" + writer + "-" + j, userId));
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < readers; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < operations; j++) {
+                        // Decisions on entities the writers don't touch must not change while they publish
+                        assertTrue(engine.isAuthorized(PrincipalType.User, "concurrent-owner",
+                                ResourceAction.viewSessionDetails, ResourceType.Session, "concurrent-session"));
+                        assertFalse(engine.isAuthorized(PrincipalType.User, "concurrent-owner",
+                                ResourceAction.viewGroupDetails, ResourceType.Group, "concurrent-group"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // None of the writes were lost
+        for (int i = 0; i < writers; i++) {
+            for (int j = 0; j < operations; j++) {
+                String userId = "concurrent-user-" + i + "-" + j;
+                assertTrue(engine.isAuthorized(PrincipalType.User, userId, ResourceAction.viewGroupDetails,
+                        ResourceType.Group, "concurrent-group"));
+                assertTrue(engine.isAuthorized(PrincipalType.User, userId, ResourceAction.connectToSession,
+                        ResourceType.Session, "concurrent-session-" + i + "-" + j));
+            }
+        }
+    }
+
+    @Test
+    public void testSessionsArePreloadedFromTheBrokerInPages() {
+        DCVBrokerClient brokerClient = mock(DCVBrokerClient.class);
+        when(brokerClient.describeSessions(any())).thenAnswer(invocation -> {
+            DescribeSessionsUIRequestData request = invocation.getArgument(0);
+            if (request.getNextToken() == null) {
+                return new DescribeSessionsUIResponse().nextToken("page-2").sessions(
+                        List.of(new SessionWithPermissions().id("preload-1").owner("preload-owner")));
+            }
+            return new DescribeSessionsUIResponse().sessions(
+                    List.of(new SessionWithPermissions().id("preload-2").owner("preload-owner")));
+        });
+
+        CedarAuthorizationEngine engine = newEngine(new BasicAuthorizationEngine(), brokerClient);
+        engine.addUser("preload-owner", null, "preload-owner", USER_ROLE, false);
+
+        ArgumentCaptor<DescribeSessionsUIRequestData> requests = ArgumentCaptor.forClass(DescribeSessionsUIRequestData.class);
+        verify(brokerClient, times(2)).describeSessions(requests.capture());
+        for (DescribeSessionsUIRequestData request : requests.getAllValues()) {
+            assertEquals(SESSION_PRELOAD_PAGE_SIZE, request.getMaxResults());
+        }
+        assertEquals("page-2", requests.getAllValues().get(1).getNextToken());
+        assertTrue(engine.isAuthorized(PrincipalType.User, "preload-owner", ResourceAction.connectToSession,
+                ResourceType.Session, "preload-2"));
+    }
+
+    private CedarAuthorizationEngine newEngine(BasicAuthorizationEngine basicAuthorizationEngine) {
+        return newEngine(basicAuthorizationEngine, mockBrokerClient);
+    }
+
+    private CedarAuthorizationEngine newEngine(BasicAuthorizationEngine basicAuthorizationEngine,
+                                               DCVBrokerClient brokerClient) {
+        return new CedarAuthorizationEngine(
+                policyFile,
+                roleFile,
+                caseSensitive,
+                PROVISIONED_USERS_CACHE_MAX_SIZE,
+                PROVISIONED_USERS_CACHE_TTL_SECONDS,
+                SESSION_PRELOAD_PAGE_SIZE,
+                STARTUP_BUDGET_SECONDS,
+                basicAuthorizationEngine,
+                mapper,
+                mockWriter,
+                mockUserService,
+                mockUserGroupService,
+                mockSessionTemplateService,
+                brokerClient,
+                newDecisionCache(),
+                new SimpleMeterRegistry()
+        );
+    }
+
+    private static Set<Entity> allEntities(CedarAuthorizationEngine engine) {
+        Object snapshot = ReflectionTestUtils.invokeMethod(ReflectionTestUtils.getField(engine, "entityStore"), "snapshot");
+        Map<String, Entity> entities = ReflectionTestUtils.invokeMethod(snapshot, "entities");
+        return new HashSet<>(entities.values());
+    }
+
+    /**
+     * Evaluates every request against the slice of entities the engine passes in and again against every entity
+     * loaded on the engine, and fails the test if the two decisions differ.
+     */
+    private static class ParityCheckingAuthorizationEngine extends BasicAuthorizationEngine {
+        private Supplier<Set<Entity>> allEntities;
+        private int checkedRequests;
+
+        @Override
+        public AuthorizationResponse isAuthorized(AuthorizationRequest request, PolicySet policySet, Set<Entity> entities)
+                throws AuthException {
+            AuthorizationResponse slicedResponse = super.isAuthorized(request, policySet, entities);
+            AuthorizationResponse fullResponse = super.isAuthorized(request, policySet, allEntities.get());
+            assertEquals(isAllowed(fullResponse), isAllowed(slicedResponse),
+                    "Sliced and full entity set decisions differ for " + request.principalEUID + " "
+                            + request.actionEUID + " " + request.resourceEUID);
+            checkedRequests++;
+            return slicedResponse;
+        }
+
+        private static boolean isAllowed(AuthorizationResponse response) {
+            return response.success.map(AuthorizationSuccessResponse::isAllowed).orElse(false);
+        }
+    }
+
+    private static AuthorizationDecisionCache newDecisionCache() {
+        return new AuthorizationDecisionCache(1000, 300, new SimpleMeterRegistry());
+    }
 }
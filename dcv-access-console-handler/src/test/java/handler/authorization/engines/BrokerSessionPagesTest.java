@@ -0,0 +1,125 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import handler.brokerclients.BrokerClient;
+import handler.exceptions.BrokerClientException;
+import handler.model.DescribeSessionsUIRequestData;
+import handler.model.DescribeSessionsUIResponse;
+import handler.model.SessionWithPermissions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BrokerSessionPagesTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final BrokerClient mockBrokerClient = mock(BrokerClient.class);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static DescribeSessionsUIResponse page(String nextToken, String... sessionIds) {
+        List<SessionWithPermissions> sessions = new ArrayList<>();
+        for (String sessionId : sessionIds) {
+            sessions.add(new SessionWithPermissions().id(sessionId).owner("owner"));
+        }
+        return new DescribeSessionsUIResponse().sessions(sessions).nextToken(nextToken);
+    }
+
+    @Test
+    public void testFollowsNextTokens() throws Exception {
+        List<DescribeSessionsUIRequestData> requests = new ArrayList<>();
+        when(mockBrokerClient.describeSessions(any())).thenAnswer(invocation -> {
+            DescribeSessionsUIRequestData request = invocation.getArgument(0);
+            requests.add(request);
+            if (request.getNextToken() == null) {
+                return page("token-1", "session-1", "session-2");
+            }
+            return page(null, "session-3");
+        });
+
+        try (BrokerSessionPages pages = new BrokerSessionPages(mockBrokerClient, 2, executor)) {
+            BrokerSessionPages.Page first = pages.poll(TIMEOUT_MILLIS);
+            assertEquals(2, first.sessions().size());
+            assertFalse(first.last());
+
+            BrokerSessionPages.Page second = pages.poll(TIMEOUT_MILLIS);
+            assertEquals("session-3", second.sessions().get(0).getId());
+            assertTrue(second.last());
+        }
+        assertEquals(2, requests.size());
+        assertEquals(2, requests.get(0).getMaxResults());
+        assertEquals("token-1", requests.get(1).getNextToken());
+    }
+
+    @Test
+    public void testStopsOnRepeatedNextToken() throws Exception {
+        when(mockBrokerClient.describeSessions(any())).thenReturn(page("token-1", "session-1"));
+
+        try (BrokerSessionPages pages = new BrokerSessionPages(mockBrokerClient, 1, executor)) {
+            assertFalse(pages.poll(TIMEOUT_MILLIS).last());
+            assertTrue(pages.poll(TIMEOUT_MILLIS).last());
+        }
+    }
+
+    @Test
+    public void testPollTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockBrokerClient.describeSessions(any())).thenAnswer(invocation -> {
+            release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return page(null, "session-1");
+        });
+
+        try (BrokerSessionPages pages = new BrokerSessionPages(mockBrokerClient, 1, executor)) {
+            assertNull(pages.poll(10));
+            release.countDown();
+            assertTrue(pages.take().last());
+        }
+    }
+
+    @Test
+    public void testFailureIsRethrown() throws Exception {
+        when(mockBrokerClient.describeSessions(any())).thenThrow(new BrokerClientException(new RuntimeException("broker down")));
+
+        try (BrokerSessionPages pages = new BrokerSessionPages(mockBrokerClient, 1, executor)) {
+            assertThrows(BrokerClientException.class, () -> pages.poll(TIMEOUT_MILLIS));
+        }
+    }
+
+    @Test
+    public void testCloseReleasesWaitingConsumer() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockBrokerClient.describeSessions(any())).thenAnswer(invocation -> {
+            release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            return page("token-1", "session-1");
+        });
+
+        BrokerSessionPages pages = new BrokerSessionPages(mockBrokerClient, 1, executor);
+        pages.close();
+        BrokerSessionPages.Page page = pages.take();
+        assertTrue(page.last());
+        assertTrue(page.sessions().isEmpty());
+        assertTrue(pages.isClosed());
+        release.countDown();
+    }
+}
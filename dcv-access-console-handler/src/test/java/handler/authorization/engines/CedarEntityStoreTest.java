@@ -0,0 +1,142 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.authorization.engines;
+
+import com.cedarpolicy.model.entity.Entity;
+import com.cedarpolicy.value.EntityTypeName;
+import com.cedarpolicy.value.EntityUID;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CedarEntityStoreTest {
+    private static final EntityTypeName UserTypeName = EntityTypeName.parse("User").get();
+    private static final EntityTypeName UserGroupTypeName = EntityTypeName.parse("Group").get();
+
+    // Matches the handler's Jetty thread pool size
+    private static final int THREADS = 200;
+    private static final int OPERATIONS_PER_THREAD = 50;
+
+    @Test
+    public void testUpdatePublishesNewSnapshot() {
+        CedarEntityStore store = new CedarEntityStore();
+        CedarEntityStore.Snapshot before = store.snapshot();
+
+        assertTrue(store.update(entities -> entities.put(key(user("user-1")), user("user-1")) == null));
+
+        CedarEntityStore.Snapshot after = store.snapshot();
+        assertEquals(before.version() + 1, after.version());
+        assertTrue(before.entities().isEmpty());
+        assertTrue(after.entities().containsKey(key(user("user-1"))));
+    }
+
+    @Test
+    public void testUpdateWithoutChangeDoesNotPublish() {
+        CedarEntityStore store = new CedarEntityStore();
+        CedarEntityStore.Snapshot before = store.snapshot();
+
+        assertFalse(store.update(entities -> entities.remove("missing") != null));
+
+        assertEquals(before, store.snapshot());
+    }
+
+    @Test
+    public void testPublishedSnapshotIsUnmodifiable() {
+        CedarEntityStore store = new CedarEntityStore();
+        store.rebuild(entities -> entities.put(key(user("user-1")), user("user-1")));
+
+        Map<String, Entity> entities = store.snapshot().entities();
+        assertThrows(UnsupportedOperationException.class, () -> entities.remove(key(user("user-1"))));
+    }
+
+    @Test
+    public void testRebuildReplacesEntities() {
+        CedarEntityStore store = new CedarEntityStore();
+        store.update(entities -> entities.put(key(user("user-1")), user("user-1")) == null);
+
+        store.rebuild(entities -> entities.put(key(user("user-2")), user("user-2")));
+
+        Map<String, Entity> entities = store.snapshot().entities();
+        assertEquals(1, entities.size());
+        assertTrue(entities.containsKey(key(user("user-2"))));
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws Exception {
+        CedarEntityStore store = new CedarEntityStore();
+        Entity group = new Entity(new EntityUID(UserGroupTypeName, "group"), Collections.emptyMap(), Collections.emptySet());
+        store.rebuild(entities -> entities.put(key(group), group));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long lastVersion = -1;
+                    for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                        if (thread % 2 == 0) {
+                            Entity user = user("user-" + thread + "-" + i);
+                            store.update(entities -> {
+                                // Replace the group's members the same way the engine does
+                                Set<EntityUID> parents = new HashSet<>(user.parentsEUIDs);
+                                parents.add(group.getEUID());
+                                entities.put(key(user), new Entity(user.getEUID(), user.attrs, parents));
+                                return true;
+                            });
+                        } else {
+                            CedarEntityStore.Snapshot snapshot = store.snapshot();
+                            assertTrue(snapshot.version() >= lastVersion);
+                            lastVersion = snapshot.version();
+                            // Iterating while writers are publishing must never fail or see a partial entity
+                            for (Entity entity : snapshot.entities().values()) {
+                                if (entity.getEUID().getType().equals(UserTypeName)) {
+                                    assertTrue(entity.parentsEUIDs.contains(group.getEUID()));
+                                }
+                            }
+                            assertTrue(snapshot.entities().containsKey(key(group)));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        CedarEntityStore.Snapshot snapshot = store.snapshot();
+        int writers = THREADS / 2;
+        assertEquals(writers * OPERATIONS_PER_THREAD + 1, snapshot.entities().size());
+        assertEquals(writers * OPERATIONS_PER_THREAD + 1, snapshot.version());
+    }
+
+    private static Entity user(String id) {
+        return new Entity(new EntityUID(UserTypeName, id), Collections.emptyMap(), Collections.emptySet());
+    }
+
+    private static String key(Entity entity) {
+        return entity.getEUID().toString();
+    }
+}
@@ -0,0 +1,47 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.brokerclients.dcv;
+
+import handler.exceptions.BrokerAuthenticationException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+
+public class BrokerBearerTokenInterceptorTest {
+    private final static String testToken = "test-token";
+
+    @Test
+    public void testInterceptAddsBearerToken() throws Exception {
+        DCVBrokerTokenClient tokenClient = mock(DCVBrokerTokenClient.class);
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(tokenClient.getToken()).thenReturn(testToken);
+        when(chain.request()).thenReturn(new Request.Builder().url("https://broker-host:8443/describeServers").build());
+
+        new BrokerBearerTokenInterceptor(tokenClient).intercept(chain);
+
+        ArgumentCaptor<Request> request = ArgumentCaptor.forClass(Request.class);
+        verify(chain).proceed(request.capture());
+        assertEquals("Bearer " + testToken, request.getValue().header("Authorization"));
+    }
+
+    @Test
+    public void testInterceptFailsWithoutToken() throws Exception {
+        DCVBrokerTokenClient tokenClient = mock(DCVBrokerTokenClient.class);
+        Interceptor.Chain chain = mock(Interceptor.Chain.class);
+        when(tokenClient.getToken()).thenThrow(new BrokerAuthenticationException("test"));
+        when(chain.request()).thenReturn(new Request.Builder().url("https://broker-host:8443/describeServers").build());
+
+        assertThrowsExactly(BrokerAuthenticationException.class, () -> new BrokerBearerTokenInterceptor(tokenClient).intercept(chain));
+        verify(chain, never()).proceed(any());
+    }
+}
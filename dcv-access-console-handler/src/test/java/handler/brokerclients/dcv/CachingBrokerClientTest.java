@@ -0,0 +1,291 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.brokerclients.dcv;
+
+import handler.exceptions.BadRequestException;
+import handler.exceptions.BrokerClientException;
+import handler.model.CreateSessionsUIResponse;
+import handler.model.DeleteSessionUIRequestData;
+import handler.model.DeleteSessionsUIResponse;
+import handler.model.DescribeServersUIRequestData;
+import handler.model.DescribeServersUIResponse;
+import handler.model.DescribeSessionsUIRequestData;
+import handler.model.DescribeSessionsUIResponse;
+import handler.model.FilterToken;
+import handler.model.KeyValuePair;
+import handler.model.Server;
+import handler.model.SessionWithPermissions;
+import handler.model.SuccessfulDeleteSessionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingBrokerClientTest {
+    private static final long TTL_MILLIS = 60000;
+    private static final long STALE_MILLIS = 60000;
+
+    private final DCVBrokerClient mockDelegate = mock(DCVBrokerClient.class);
+    private final AtomicLong now = new AtomicLong(1000);
+    private final CachingBrokerClient testBrokerClient = new CachingBrokerClient(mockDelegate,
+            new DCVBrokerHandlerMapperImpl(), TTL_MILLIS, STALE_MILLIS, 2, now::get);
+
+    @AfterEach
+    public void tearDown() {
+        testBrokerClient.close();
+    }
+
+    private static SessionWithPermissions session(String id) {
+        return new SessionWithPermissions().id(id).owner("owner-" + id);
+    }
+
+    private static DescribeSessionsUIResponse sessionsResponse(String nextToken, SessionWithPermissions... sessions) {
+        return new DescribeSessionsUIResponse().sessions(new ArrayList<>(List.of(sessions))).nextToken(nextToken);
+    }
+
+    private void mockSessions() {
+        when(mockDelegate.describeSessions(any())).thenAnswer(invocation -> {
+            DescribeSessionsUIRequestData request = invocation.getArgument(0);
+            if (request.getNextToken() == null) {
+                return sessionsResponse("broker-token", session("1"), session("2"));
+            }
+            return sessionsResponse(null, session("3"));
+        });
+    }
+
+    private void mockServers() {
+        when(mockDelegate.describeServers(any())).thenReturn(
+                new DescribeServersUIResponse().servers(new ArrayList<>(List.of(new Server().id("server")))));
+    }
+
+    @Test
+    public void testDescribeSessionsLoadsEveryPageOnce() {
+        mockSessions();
+
+        DescribeSessionsUIResponse response = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        assertEquals(List.of("1", "2", "3"), response.getSessions().stream().map(SessionWithPermissions::getId).toList());
+        assertNull(response.getNextToken());
+
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        // One call per broker page, the second request is served from the snapshot
+        verify(mockDelegate, times(2)).describeSessions(any());
+    }
+
+    @Test
+    public void testDescribeSessionsPagesAndFiltersTheSnapshot() {
+        mockSessions();
+
+        DescribeSessionsUIResponse firstPage = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData().maxResults(2));
+        assertEquals(List.of("1", "2"), firstPage.getSessions().stream().map(SessionWithPermissions::getId).toList());
+
+        DescribeSessionsUIResponse secondPage = testBrokerClient.describeSessions(
+                new DescribeSessionsUIRequestData().maxResults(2).nextToken(firstPage.getNextToken()));
+        assertEquals(List.of("3"), secondPage.getSessions().stream().map(SessionWithPermissions::getId).toList());
+        assertNull(secondPage.getNextToken());
+
+        DescribeSessionsUIResponse filtered = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData()
+                .addSessionIdsItem(new FilterToken().operator(FilterToken.OperatorEnum.EQUAL).value("3")));
+        assertEquals(List.of("3"), filtered.getSessions().stream().map(SessionWithPermissions::getId).toList());
+
+        assertThrowsExactly(BadRequestException.class,
+                () -> testBrokerClient.describeSessions(new DescribeSessionsUIRequestData().nextToken("not a token")));
+    }
+
+    @Test
+    public void testDescribeSessionsPagingSurvivesRefresh() {
+        when(mockDelegate.describeSessions(any())).thenReturn(
+                sessionsResponse(null, session("3"), session("1"), session("4"), session("2")));
+
+        DescribeSessionsUIResponse firstPage = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData().maxResults(2));
+        assertEquals(List.of("1", "2"), firstPage.getSessions().stream().map(SessionWithPermissions::getId).toList());
+
+        // The refreshed snapshot has a new session before the cursor and has lost the one right after it
+        when(mockDelegate.describeSessions(any())).thenReturn(
+                sessionsResponse(null, session("0"), session("1"), session("2"), session("4"), session("5")));
+        now.addAndGet(TTL_MILLIS + STALE_MILLIS);
+
+        DescribeSessionsUIResponse secondPage = testBrokerClient.describeSessions(
+                new DescribeSessionsUIRequestData().maxResults(2).nextToken(firstPage.getNextToken()));
+        assertEquals(List.of("4", "5"), secondPage.getSessions().stream().map(SessionWithPermissions::getId).toList());
+        assertNull(secondPage.getNextToken());
+    }
+
+    @Test
+    public void testDescribeSessionsReturnsCopies() {
+        mockSessions();
+
+        SessionWithPermissions first = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData()).getSessions().get(0);
+        first.levelOfAccess("Owner");
+        SessionWithPermissions second = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData()).getSessions().get(0);
+
+        assertNotSame(first, second);
+        assertNull(second.getLevelOfAccess());
+    }
+
+    @Test
+    public void testDescribeSessionsServesStaleSnapshotWhileRefreshing() throws InterruptedException {
+        mockSessions();
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+
+        CountDownLatch refreshed = new CountDownLatch(2);
+        when(mockDelegate.describeSessions(any())).thenAnswer(invocation -> {
+            refreshed.countDown();
+            DescribeSessionsUIRequestData request = invocation.getArgument(0);
+            return request.getNextToken() == null ? sessionsResponse("broker-token", session("4")) : sessionsResponse(null);
+        });
+        now.addAndGet(TTL_MILLIS + 1);
+
+        DescribeSessionsUIResponse stale = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        assertEquals(3, stale.getSessions().size());
+
+        refreshed.await(5, TimeUnit.SECONDS);
+        // The refresh completes after the delegate returns, so wait for the new snapshot to be published
+        for (int attempt = 0; attempt < 50; attempt++) {
+            if (testBrokerClient.describeSessions(new DescribeSessionsUIRequestData()).getSessions().size() == 1) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertEquals(List.of("4"), testBrokerClient.describeSessions(new DescribeSessionsUIRequestData())
+                .getSessions().stream().map(SessionWithPermissions::getId).toList());
+    }
+
+    @Test
+    public void testDescribeSessionsReloadsExpiredSnapshot() {
+        mockSessions();
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+
+        now.addAndGet(TTL_MILLIS + STALE_MILLIS);
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        verify(mockDelegate, times(4)).describeSessions(any());
+    }
+
+    @Test
+    public void testConcurrentDescribeSessionsShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(mockDelegate.describeSessions(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return sessionsResponse(null, session("1"));
+        });
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<DescribeSessionsUIResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> testBrokerClient.describeSessions(new DescribeSessionsUIRequestData())));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<DescribeSessionsUIResponse> future : futures) {
+                assertEquals(1, future.get(5, TimeUnit.SECONDS).getSessions().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mockDelegate, times(1)).describeSessions(any());
+    }
+
+    @Test
+    public void testDescribeSessionsWithTagsGoesToBroker() {
+        DescribeSessionsUIRequestData request = new DescribeSessionsUIRequestData()
+                .addTagsItem(new KeyValuePair().key("key").value("value"));
+        when(mockDelegate.describeSessions(request)).thenReturn(sessionsResponse(null, session("1")));
+
+        assertEquals(1, testBrokerClient.describeSessions(request).getSessions().size());
+        testBrokerClient.describeSessions(request);
+        verify(mockDelegate, times(2)).describeSessions(request);
+    }
+
+    @Test
+    public void testDeleteSessionsPatchesSnapshot() {
+        mockSessions();
+        mockServers();
+        List<DeleteSessionUIRequestData> deleteRequests = List.of(new DeleteSessionUIRequestData().sessionId("1").owner("owner-1"));
+        when(mockDelegate.deleteSessions(deleteRequests)).thenReturn(new DeleteSessionsUIResponse()
+                .addSuccessfulListItem(new SuccessfulDeleteSessionResponse().sessionId("1")));
+
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        testBrokerClient.describeServers(new DescribeServersUIRequestData());
+        // Stubbed without calling the mock, whose current answer needs a request
+        doReturn(sessionsResponse(null, session("2"), session("3"))).when(mockDelegate).describeSessions(any());
+        testBrokerClient.deleteSessions(deleteRequests);
+
+        // The deleted session is gone right away, while the snapshot is refreshed in the background
+        assertEquals(List.of("2", "3"), testBrokerClient.describeSessions(new DescribeSessionsUIRequestData())
+                .getSessions().stream().map(SessionWithPermissions::getId).toList());
+        verify(mockDelegate, timeout(5000).times(3)).describeSessions(any());
+        testBrokerClient.describeServers(new DescribeServersUIRequestData());
+        verify(mockDelegate, times(1)).describeServers(any());
+    }
+
+    @Test
+    public void testCreateSessionsPatchesSnapshot() {
+        mockSessions();
+        when(mockDelegate.createSessions(any())).thenReturn(new CreateSessionsUIResponse().addSuccessfulListItem(session("0")));
+
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        CreateSessionsUIResponse response = testBrokerClient.createSessions(List.of());
+        response.getSuccessfulList().get(0).levelOfAccess("Owner");
+
+        List<SessionWithPermissions> described = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData()).getSessions();
+        assertEquals(List.of("0", "1", "2", "3"), described.stream().map(SessionWithPermissions::getId).toList());
+        assertNull(described.get(0).getLevelOfAccess());
+    }
+
+    @Test
+    public void testFailedDeleteSessionsLeavesSnapshot() {
+        mockSessions();
+        when(mockDelegate.deleteSessions(any())).thenThrow(new BrokerClientException(new RuntimeException()));
+
+        testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        assertThrowsExactly(BrokerClientException.class, () -> testBrokerClient.deleteSessions(
+                List.of(new DeleteSessionUIRequestData().sessionId("1").owner("owner-1"))));
+
+        assertEquals(3, testBrokerClient.describeSessions(new DescribeSessionsUIRequestData()).getSessions().size());
+        verify(mockDelegate, times(2)).describeSessions(any());
+    }
+
+    @Test
+    public void testFailedLoadIsRetried() {
+        when(mockDelegate.describeServers(any()))
+                .thenThrow(new BrokerClientException(new RuntimeException()))
+                .thenReturn(new DescribeServersUIResponse().servers(new ArrayList<>(List.of(new Server().id("server")))));
+
+        assertThrowsExactly(BrokerClientException.class, () -> testBrokerClient.describeServers(new DescribeServersUIRequestData()));
+        assertEquals(1, testBrokerClient.describeServers(new DescribeServersUIRequestData()).getServers().size());
+    }
+
+    @Test
+    public void testCacheDisabled() {
+        CachingBrokerClient disabledClient = new CachingBrokerClient(mockDelegate, new DCVBrokerHandlerMapperImpl(), 0, 0, 2, now::get);
+        DescribeSessionsUIRequestData request = new DescribeSessionsUIRequestData();
+        when(mockDelegate.describeSessions(request)).thenReturn(sessionsResponse(null, session("1")));
+
+        disabledClient.describeSessions(request);
+        disabledClient.describeSessions(request);
+        verify(mockDelegate, times(2)).describeSessions(request);
+        verify(mockDelegate, never()).describeServers(any());
+    }
+}
@@ -3,44 +3,58 @@
 
 package handler.brokerclients.dcv;
 
+import broker.ApiClient;
 import broker.api.GetSessionConnectionDataApi;
 import broker.api.SessionsApi;
 import broker.api.ServersApi;
 
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.beans.factory.annotation.Value;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
 
 @ExtendWith(MockitoExtension.class)
 public class DCVBrokerClientConfigTest {
+    private final static String baseApiUrl = "https://broker-host:8443";
+
     @InjectMocks
     private DCVBrokerClientConfig testConfig;
-    @Value("${client-to-broker-connector-url}")
-    private String baseApiUrl;
-    @Value("${client-to-broker-connection-verify-ssl}")
-    private boolean verifySsl;
 
     @Test
-    public void testProvideSessionsApi() {
-        SessionsApi sessionsApi = testConfig.provideSessionsApi(null, false);
-        assertEquals(baseApiUrl, sessionsApi.getApiClient().getBasePath());
-        assertEquals(verifySsl, sessionsApi.getApiClient().isVerifyingSsl());
+    public void testProvideBrokerHttpClient() {
+        OkHttpClient httpClient = testConfig.provideBrokerHttpClient(mock(DCVBrokerTokenClient.class), 5, 60, 32, 16);
+        assertEquals(32, httpClient.dispatcher().getMaxRequests());
+        assertEquals(16, httpClient.dispatcher().getMaxRequestsPerHost());
+        assertTrue(httpClient.protocols().contains(Protocol.HTTP_2));
+        assertTrue(httpClient.interceptors().stream().anyMatch(BrokerBearerTokenInterceptor.class::isInstance));
     }
 
     @Test
-    public void testProvideServersApi() {
-        ServersApi serversApi = testConfig.provideServersApi(null, false);
-        assertEquals(baseApiUrl, serversApi.getApiClient().getBasePath());
-        assertEquals(verifySsl, serversApi.getApiClient().isVerifyingSsl());
+    public void testProvideBrokerApiClientSharesConnectionPool() {
+        OkHttpClient httpClient = testConfig.provideBrokerHttpClient(mock(DCVBrokerTokenClient.class), 5, 60, 32, 16);
+        ApiClient apiClient = testConfig.provideBrokerApiClient(httpClient, baseApiUrl, false);
+        assertEquals(baseApiUrl, apiClient.getBasePath());
+        assertFalse(apiClient.isVerifyingSsl());
+        assertSame(httpClient.connectionPool(), apiClient.getHttpClient().connectionPool());
+        assertSame(httpClient.dispatcher(), apiClient.getHttpClient().dispatcher());
     }
 
     @Test
-    public void testProvideGetSessionConnectionDataApi() {
-        GetSessionConnectionDataApi getSessionConnectionDataApi = testConfig.provideGetSessionConnectionDataApi(null, false);
-        assertEquals(baseApiUrl, getSessionConnectionDataApi.getApiClient().getBasePath());
-        assertEquals(verifySsl, getSessionConnectionDataApi.getApiClient().isVerifyingSsl());
+    public void testProvideApisShareApiClient() {
+        ApiClient apiClient = testConfig.provideBrokerApiClient(new OkHttpClient(), baseApiUrl, false);
+        SessionsApi sessionsApi = testConfig.provideSessionsApi(apiClient);
+        ServersApi serversApi = testConfig.provideServersApi(apiClient);
+        GetSessionConnectionDataApi getSessionConnectionDataApi = testConfig.provideGetSessionConnectionDataApi(apiClient);
+        assertSame(apiClient, sessionsApi.getApiClient());
+        assertSame(apiClient, serversApi.getApiClient());
+        assertSame(apiClient, getSessionConnectionDataApi.getApiClient());
     }
 }
@@ -50,9 +50,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.beans.factory.ObjectProvider;
 
-import broker.ApiClient;
 import broker.ApiException;
 import broker.api.ServersApi;
 import broker.api.SessionsApi;
@@ -81,21 +79,12 @@ public class DCVBrokerClientTest {
     private final static Long maxHeight = 2160L;
 
     public DCVBrokerClientTest() {
-        ObjectProvider<SessionsApi> mockSessionsApiProvider = mock(ObjectProvider.class);
-        ObjectProvider<ServersApi> mockServersApiProvider = mock(ObjectProvider.class);
-        ObjectProvider<GetSessionConnectionDataApi> mockGetSessionConnectionDataApiProvider = mock(ObjectProvider.class);
         mockSessionsApi = mock(SessionsApi.class);
         mockServersApi = mock(ServersApi.class);
         mockGetSessionConnectionDataApi = mock(GetSessionConnectionDataApi.class);
         mockSessionTemplateRepository = mock(PagingAndSortingCrudRepository.class);
         mockObjectMapper = mock(ObjectMapper.class);
-        when(mockSessionsApiProvider.getIfAvailable()).thenReturn(mockSessionsApi);
-        when(mockSessionsApi.getApiClient()).thenReturn(new ApiClient());
-        when(mockServersApiProvider.getIfAvailable()).thenReturn(mockServersApi);
-        when(mockServersApi.getApiClient()).thenReturn(new ApiClient());
-        when(mockGetSessionConnectionDataApiProvider.getIfAvailable()).thenReturn(mockGetSessionConnectionDataApi);
-        when(mockGetSessionConnectionDataApi.getApiClient()).thenReturn(new ApiClient());
-        testBrokerClient = new DCVBrokerClient(mockSessionsApiProvider, mockServersApiProvider, mockGetSessionConnectionDataApiProvider, new DCVBrokerHandlerMapperImpl(), mock(DCVBrokerTokenClient.class), mockObjectMapper, mockSessionTemplateRepository);
+        testBrokerClient = new DCVBrokerClient(mockSessionsApi, mockServersApi, mockGetSessionConnectionDataApi, new DCVBrokerHandlerMapperImpl(), mockObjectMapper, mockSessionTemplateRepository, new BrokerServerInfoCache(5, 100, 2, 2));
     }
 
     @Test
@@ -498,6 +487,39 @@ public class DCVBrokerClientTest {
         assertNull(response.getSessions().get(0).getServer().getIp());
     }
 
+    @Test
+    public void testDescribeSessionsCachesServersAndDescribesThemInChunks() throws ApiException {
+        DescribeSessionsResponse brokerResponse = new DescribeSessionsResponse();
+        for (int i = 0; i < 3; i++) {
+            brokerResponse.addSessionsItem(new Session().id(idString + i).server(new Server().id(serverId + i)));
+        }
+        doReturn(brokerResponse).when(mockSessionsApi).describeSessions(any());
+
+        doAnswer(invocation -> {
+            DescribeServersRequestData requestData = invocation.getArgument(0);
+            assertTrue(requestData.getServerIds().size() <= 2);
+            DescribeServersResponse describeServersResponse = new DescribeServersResponse();
+            for (String id : requestData.getServerIds()) {
+                describeServersResponse.addServersItem(new Server().id(id).hostname(testString));
+            }
+            return describeServersResponse;
+        }).when(mockServersApi).describeServers(any());
+
+        DescribeSessionsUIResponse response = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        assertEquals(3, response.getSessions().size());
+        for (SessionWithPermissions session : response.getSessions()) {
+            assertEquals(testString, session.getServer().getHostname());
+        }
+        verify(mockServersApi, times(2)).describeServers(any());
+
+        for (Session session : brokerResponse.getSessions()) {
+            session.server(new Server().id(session.getServer().getId()));
+        }
+        response = testBrokerClient.describeSessions(new DescribeSessionsUIRequestData());
+        assertEquals(testString, response.getSessions().get(2).getServer().getHostname());
+        verify(mockServersApi, times(2)).describeServers(any());
+    }
+
     @Test
     public void testGetSessionScreenshotsSuccess() throws Exception {
         GetSessionScreenshotsUIRequestData handlerRequest = new GetSessionScreenshotsUIRequestData()
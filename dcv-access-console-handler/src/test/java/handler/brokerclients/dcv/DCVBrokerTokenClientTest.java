@@ -30,6 +30,13 @@ import static org.mockito.Mockito.times;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @ExtendWith(MockitoExtension.class)
 public class DCVBrokerTokenClientTest {
@@ -42,13 +49,14 @@ public class DCVBrokerTokenClientTest {
     private final static String testResponse = "{\"access_token\": \"test-token\", \"token_type\": \"bearer\", \"expires_in\": 3600}";
     private final static String testExpiredResponse = "{\"access_token\": \"expired-token\", \"token_type\": \"bearer\", \"expires_in\": 0}";
     private final static String testToken = "test-token";
+    private final static int THREADS = 16;
 
     @BeforeAll
     public static void setUpHttpClients() {
         mockStatic(HttpClients.class);
     }
 
-    private void mockRenewToken() throws Exception {
+    private CloseableHttpClient mockRenewToken() throws Exception {
         HttpClientBuilder mockHttpClientBuilder = mock(HttpClientBuilder.class);
         CloseableHttpClient mockHttpClient = mock(CloseableHttpClient.class);
         when(HttpClients.custom()).thenReturn(mockHttpClientBuilder);
@@ -57,6 +65,7 @@ public class DCVBrokerTokenClientTest {
         when(mockHttpClientBuilder.build()).thenReturn(mockHttpClient);
         when(mockHttpClient.execute(any())).thenReturn(mockHttpResponse);
         when(mockHttpResponse.getEntity()).thenReturn(mockHttpEntity);
+        return mockHttpClient;
     }
 
     @Test
@@ -133,4 +142,39 @@ public class DCVBrokerTokenClientTest {
         );
         assertEquals(testToken, testTokenClient.getToken());
     }
+
+    @Test
+    public void testConcurrentRenewalsAreSingleFlight() throws Exception {
+        CloseableHttpClient mockHttpClient = mockRenewToken();
+        when(mockHttpEntity.getContent()).thenReturn(
+                new ByteArrayInputStream(testExpiredResponse.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayInputStream(testResponse.getBytes(StandardCharsets.UTF_8)));
+        when(mockHttpResponse.getStatusLine()).thenReturn(new BasicStatusLine(mock(ProtocolVersion.class), 200, null));
+        // The first token is already expired, so every caller below needs a renewal
+        testTokenClient.getToken();
+        Thread.sleep(1);
+
+        when(mockHttpClient.execute(any())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return mockHttpResponse;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tokens.add(executor.submit(() -> {
+                    start.await();
+                    return testTokenClient.getToken();
+                }));
+            }
+            start.countDown();
+            for (Future<String> token : tokens) {
+                assertEquals(testToken, token.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mockHttpClient, times(2)).execute(any());
+    }
 }
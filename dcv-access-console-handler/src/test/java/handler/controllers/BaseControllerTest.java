@@ -4,6 +4,7 @@
 package handler.controllers;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 
 import handler.authorization.SessionManagerAuthorizationManager;
@@ -51,7 +52,7 @@ public class BaseControllerTest {
 
     public void throttlingSetup() {
         when(mockProbe.isConsumed()).thenReturn(true);
-        when(mockThrottler.tryConsumeAndReturnRemaining(1)).thenReturn(mockProbe);
+        when(mockThrottler.tryConsumeAndReturnRemaining(anyLong())).thenReturn(mockProbe);
         when(mockThrottlingService.getThrottler(any())).thenReturn(mockThrottler);
     }
 }
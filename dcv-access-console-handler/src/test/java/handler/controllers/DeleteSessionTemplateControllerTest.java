@@ -20,12 +20,15 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.servlet.support.WebContentGenerator;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -72,10 +75,10 @@ public class DeleteSessionTemplateControllerTest extends BaseControllerTest {
         SetShareListResponse setShareListResponse = SetShareListResponse.builder().unSuccessfulUsers(new ArrayList<>()).unSuccessfulGroups(new ArrayList<>()).build();
         SetShareListResponse unsuccessfulUsersResponse = SetShareListResponse.builder().unSuccessfulUsers(List.of(testString)).unSuccessfulGroups(new ArrayList<>()).build();
         SetShareListResponse unsuccessfulGroupsResponse = SetShareListResponse.builder().unSuccessfulUsers(new ArrayList<>()).unSuccessfulGroups(List.of(testString)).build();
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.deleteSessionTemplate, ResourceType.SessionTemplate, testString)).thenReturn(true);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.deleteSessionTemplate, ResourceType.SessionTemplate, "fail")).thenReturn(true);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.deleteSessionTemplate, ResourceType.SessionTemplate, "another")).thenReturn(true);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.deleteSessionTemplate, ResourceType.SessionTemplate, "anotherOne")).thenReturn(true);
+        // The request contains a null id, which an immutable map cannot be queried with
+        Map<String, Boolean> decisions = new HashMap<>(Map.of(testString, true, "fail", true, "another", true, "anotherOne", true));
+        when(mockAuthorizationEngine.isAuthorizedBatch(eq(PrincipalType.User), eq(testUser), eq(ResourceAction.deleteSessionTemplate), eq(ResourceType.SessionTemplate), any()))
+                .thenReturn(decisions);
         when(mockAuthorizationEngine.setShareList(emptyList, emptyList,ResourceType.SessionTemplate, testString, ShareLevel.publishedTo)).thenReturn(setShareListResponse);
         when(mockAuthorizationEngine.setShareList(emptyList, emptyList,ResourceType.SessionTemplate, "another", ShareLevel.publishedTo)).thenReturn(unsuccessfulUsersResponse);
         when(mockAuthorizationEngine.setShareList(emptyList, emptyList,ResourceType.SessionTemplate, "anotherOne", ShareLevel.publishedTo)).thenReturn(unsuccessfulGroupsResponse);
@@ -28,6 +28,7 @@ import org.springframework.web.servlet.support.WebContentGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
@@ -35,6 +36,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -90,8 +92,8 @@ public class DescribeSessionTemplatesControllerTest extends BaseControllerTest {
         when(mockSessionTemplateService.describeSessionTemplates(any())).thenReturn(new DescribeSessionTemplatesResponse().sessionTemplates(sessionTemplates).nextToken(null));
         when(mockSessionFilter.getFiltered(any(), any())).thenReturn(sessionTemplates);
         when(mockSessionSort.getSorted(any(), any())).thenAnswer(i -> i.getArguments()[1]);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionTemplateDetails, ResourceType.SessionTemplate, failString)).thenReturn(false);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionTemplateDetails, ResourceType.SessionTemplate, testString)).thenReturn(true);
+        when(mockAuthorizationEngine.isAuthorizedBatch(eq(PrincipalType.User), eq(testUser), eq(ResourceAction.viewSessionTemplateDetails), eq(ResourceType.SessionTemplate), any()))
+                .thenReturn(Map.of(failString, false, testString, true));
 
         mvc.perform(
                         post(urlTemplate)
@@ -112,7 +114,8 @@ public class DescribeSessionTemplatesControllerTest extends BaseControllerTest {
         when(mockSessionTemplateService.describeSessionTemplates(any())).thenReturn(new DescribeSessionTemplatesResponse().sessionTemplates(sessionTemplates).nextToken(null));
         when(mockSessionFilter.getFiltered(any(), any())).thenReturn(sessionTemplates);
         when(mockSessionSort.getSorted(any(), any())).thenAnswer(i -> i.getArguments()[1]);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, "user1", ResourceAction.viewSessionTemplateDetails, ResourceType.SessionTemplate, testString)).thenReturn(true);
+        when(mockAuthorizationEngine.isAuthorizedBatch(eq(PrincipalType.User), eq("user1"), eq(ResourceAction.viewSessionTemplateDetails), eq(ResourceType.SessionTemplate), any()))
+                .thenReturn(Map.of(testString, true));
         when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, SystemAction.describeSessionTemplatesForOthers)).thenReturn(true);
 
         mvc.perform(
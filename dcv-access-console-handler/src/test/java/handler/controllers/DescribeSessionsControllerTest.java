@@ -27,11 +27,13 @@ import org.springframework.web.servlet.support.WebContentGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -99,8 +101,8 @@ class DescribeSessionsControllerTest extends BaseControllerTest  {
         when(mockSessionFilter.getFiltered(any(), any())).thenReturn(sessions);
         when(mockSessionSort.getSorted(any(), any())).thenAnswer(i -> i.getArguments()[1]);
         when(mockAuthorizationEngine.getUserRole(testUser)).thenReturn("User");
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionDetails, ResourceType.Session, "fail")).thenReturn(false);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionDetails, ResourceType.Session, testId)).thenReturn(true);
+        when(mockAuthorizationEngine.isAuthorizedBatch(eq(PrincipalType.User), eq(testUser), eq(ResourceAction.viewSessionDetails), eq(ResourceType.Session), any()))
+                .thenReturn(Map.of("fail", false, testId, true));
         when(mockAuthorizationEngine.getUserLoginUsername(testUser)).thenReturn(testUser);
         mvc.perform(
                         post(urlTemplate)
@@ -115,7 +117,8 @@ class DescribeSessionsControllerTest extends BaseControllerTest  {
                 .andExpect(jsonPath("$.Error", nullValue()));
 
         when(mockAuthorizationEngine.getUserRole(testUser)).thenReturn("Admin");
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionDetails, ResourceType.Session, "fail")).thenReturn(true);
+        when(mockAuthorizationEngine.isAuthorizedBatch(eq(PrincipalType.User), eq(testUser), eq(ResourceAction.viewSessionDetails), eq(ResourceType.Session), any()))
+                .thenReturn(Map.of("fail", true, testId, true));
 
         mvc.perform(
                         post(urlTemplate)
@@ -7,6 +7,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -33,6 +34,8 @@ import handler.exceptions.BadRequestException;
 import handler.exceptions.BrokerAuthenticationException;
 import handler.exceptions.BrokerClientException;
 
+import java.util.Map;
+
 @WebMvcTest(GetSessionScreenshotsController.class)
 class GetSessionScreenshotsControllerTest extends BaseControllerTest  {
     @Autowired
@@ -100,8 +103,8 @@ class GetSessionScreenshotsControllerTest extends BaseControllerTest  {
     @Test
     public void testGetSessionScreenshotsSuccess() throws Exception {
         when(mockAuthorizationEngine.getUserRole(testUser)).thenReturn("User");
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionScreenshotDetails, ResourceType.Session, sessionId)).thenReturn(true);
-        when(mockAuthorizationEngine.isAuthorized(PrincipalType.User, testUser, ResourceAction.viewSessionScreenshotDetails, ResourceType.Session, badSessionId)).thenReturn(false);
+        when(mockAuthorizationEngine.isAuthorizedBatch(eq(PrincipalType.User), eq(testUser), eq(ResourceAction.viewSessionScreenshotDetails), eq(ResourceType.Session), any()))
+                .thenReturn(Map.of(sessionId, true, badSessionId, false));
         SessionScreenshot testSessionScreenshot = new SessionScreenshot().sessionId(sessionId);
         when(mockBrokerClient.getSessionScreenshots(any())).thenReturn(new GetSessionScreenshotsUIResponse().addSuccessfulListItem(new GetSessionScreenshotSuccessfulResponse().sessionScreenshot(testSessionScreenshot)));
         mvc.perform(
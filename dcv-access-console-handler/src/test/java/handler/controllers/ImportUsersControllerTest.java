@@ -3,6 +3,8 @@
 
 package handler.controllers;
 
+import handler.authorization.engines.entities.ImportUsersResult;
+import handler.authorization.engines.entities.UserChangeSet;
 import handler.exceptions.BadRequestException;
 import handler.model.ImportUsersResponse;
 import handler.services.UserService;
@@ -18,6 +20,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.WebContentGenerator;
 
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
@@ -25,6 +28,8 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -72,7 +77,13 @@ public class ImportUsersControllerTest extends BaseControllerTest {
         List<String> testList = List.of(testString);
         ImportUsersResponse response = new ImportUsersResponse().successfulUsersList(testList)
                 .unsuccessfulUsersList(testList);
-        when(mockUserService.importUsers(any(), any(), any(), any(), any())).thenReturn(response);
+        UserChangeSet changeSet = UserChangeSet.builder()
+                .users(Collections.emptyList())
+                .memberships(Collections.emptyMap())
+                .replacedMemberships(Collections.emptySet())
+                .build();
+        when(mockUserService.importUsers(any(), any(), any(), any(), any()))
+                .thenReturn(ImportUsersResult.builder().response(response).changeSet(changeSet).build());
         MockMultipartFile mockFile = new MockMultipartFile("File", "filename.csv", "text/plain", "content".getBytes());
         mvc.perform(
                         multipart(urlTemplate)
@@ -86,5 +97,7 @@ public class ImportUsersControllerTest extends BaseControllerTest {
                 .andExpect(jsonPath("$.UnsuccessfulUsersList", hasSize(1)))
                 .andExpect(jsonPath("$.UnsuccessfulUsersList[0]", is(testString)))
                 .andExpect(jsonPath("$.Error", nullValue()));
+        verify(mockAuthorizationEngine).applyUserChanges(changeSet);
+        verify(mockAuthorizationEngine, never()).loadEntities();
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.repositories.mysql;
+
+import handler.persistence.UserEntity;
+import handler.repositories.dto.RepositoryRequest;
+import handler.repositories.dto.RepositoryResponse;
+import handler.utils.NextToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class MySqlRepositoryTest {
+    @SuppressWarnings("unchecked")
+    private final MySqlRepository<UserEntity, String> testRepository = mock(MySqlRepository.class, CALLS_REAL_METHODS);
+
+    private static UserEntity user(String userId, String displayName) {
+        return (UserEntity) new UserEntity().userId(userId).displayName(displayName);
+    }
+
+    private static RepositoryRequest request(Sort sort, NextToken nextToken) {
+        return RepositoryRequest.builder()
+                .nextToken(nextToken)
+                .maxResults(2)
+                .sort(sort)
+                .clazz(UserEntity.class)
+                .build();
+    }
+
+    @Test
+    public void testDescendingSortOnNullableColumnKeepsNullKeys() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "displayName");
+        // The token of a page that ended on a non-null sort key, as issued before descending sorts fell back
+        NextToken nextToken = NextToken.fromKeyset(Map.of("displayName", "Bob", "userId", "user2"), 1);
+        List<UserEntity> lastPage = List.of(user("user3", "Alice"), user("user4", null));
+        doReturn(new PageImpl<>(lastPage, PageRequest.of(1, 2, sort), 4))
+                .when(testRepository).findAll(any(Specification.class), any(Pageable.class));
+
+        RepositoryResponse<UserEntity> response = testRepository.findAll(request(sort, nextToken));
+
+        assertEquals(lastPage, response.getItems());
+        assertNull(response.getNextToken());
+        verify(testRepository).findAll(any(Specification.class), any(Pageable.class));
+        verify(testRepository, never()).findBy(any(), any());
+    }
+
+    @Test
+    public void testDescendingSortOnNullableColumnPagesByOffset() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "displayName");
+        NextToken firstPage = NextToken.builder().dynamoDbStartKey(Optional.empty())
+                .pageNumber(OptionalInt.of(0)).pageOffset(OptionalInt.of(0)).build();
+        doReturn(new PageImpl<>(List.of(user("user1", "Carol"), user("user2", "Bob")), PageRequest.of(0, 2, sort), 4))
+                .when(testRepository).findAll(any(Specification.class), any(Pageable.class));
+
+        RepositoryResponse<UserEntity> response = testRepository.findAll(request(sort, firstPage));
+
+        assertEquals(1, response.getNextToken().getPageNumber().getAsInt());
+        assertEquals(Optional.empty(), response.getNextToken().getKeyset());
+        verify(testRepository, never()).findBy(any(), any());
+    }
+
+    @Test
+    public void testDescendingSortOnIdUsesKeyset() {
+        Sort sort = Sort.by(Sort.Direction.DESC, "userId");
+        NextToken firstPage = NextToken.builder().dynamoDbStartKey(Optional.empty())
+                .pageNumber(OptionalInt.of(0)).pageOffset(OptionalInt.of(0)).build();
+        doReturn(Window.from(List.of(user("user2", null)), index -> ScrollPosition.keyset()))
+                .when(testRepository).findBy(any(), any());
+
+        RepositoryResponse<UserEntity> response = testRepository.findAll(request(sort, firstPage));
+
+        assertEquals(1, response.getItems().size());
+        verify(testRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    public void testAscendingSortUsesKeyset() {
+        Sort sort = Sort.by(Sort.Direction.ASC, "displayName");
+        NextToken firstPage = NextToken.builder().dynamoDbStartKey(Optional.empty())
+                .pageNumber(OptionalInt.of(0)).pageOffset(OptionalInt.of(0)).build();
+        doReturn(Window.from(List.of(user("user4", null), user("user3", "Alice")), index -> ScrollPosition.keyset()))
+                .when(testRepository).findBy(any(), any());
+
+        RepositoryResponse<UserEntity> response = testRepository.findAll(request(sort, firstPage));
+
+        assertEquals(2, response.getItems().size());
+        verify(testRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+}
@@ -16,6 +16,7 @@ import handler.model.SessionTemplate;
 import handler.model.SortToken;
 import handler.model.Type;
 import handler.persistence.SessionTemplatePublishedToUser;
+import handler.persistence.SessionTemplatePublishedToUserGroup;
 import handler.persistence.SessionTemplateUserGroupId;
 import handler.persistence.SessionTemplateUserId;
 import handler.persistence.UserEntity;
@@ -24,6 +25,7 @@ import handler.repositories.SessionTemplatePublishedToUserGroupRepository;
 import handler.repositories.SessionTemplatePublishedToUserRepository;
 import handler.repositories.dto.RepositoryRequest;
 import handler.repositories.dto.RepositoryResponse;
+import handler.utils.Filter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -36,6 +38,7 @@ import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -92,7 +95,7 @@ public class SessionTemplateServiceTest {
         mockSessionTemplatePublishedToUserGroupRepository = mock(SessionTemplatePublishedToUserGroupRepository.class);
         mockBrokerClient = mock(BrokerClient.class);
 
-        testSessionTemplateService = new SessionTemplateService(mockSessionTemplateRepository, mockSessionTemplatePublishedToUserRepository, mockSessionTemplatePublishedToUserGroupRepository, mockBrokerClient);
+        testSessionTemplateService = new SessionTemplateService(mockSessionTemplateRepository, mockSessionTemplatePublishedToUserRepository, mockSessionTemplatePublishedToUserGroupRepository, mockBrokerClient, new Filter<>());
     }
 
 
@@ -119,6 +122,26 @@ public class SessionTemplateServiceTest {
         assertNull(response.getError());
     }
 
+    @Test
+    public void getUserIdsBySessionTemplatesGroupsRowsInOneRead() {
+        doAnswer(invocation -> {
+            Consumer<SessionTemplateUserId> consumer = invocation.getArgument(0);
+            for (String[] row : List.of(new String[] {sessionTemplateId1, userId1}, new String[] {sessionTemplateId1, userId2},
+                    new String[] {sessionTemplateId2, userId2})) {
+                SessionTemplateUserId id = new SessionTemplateUserId();
+                id.setSessionTemplateId(row[0]);
+                id.setUserId(row[1]);
+                consumer.accept(id);
+            }
+            return null;
+        }).when(mockSessionTemplatePublishedToUserRepository).findAllIds(any());
+
+        Map<String, List<String>> userIdsBySessionTemplate = testSessionTemplateService.getUserIdsBySessionTemplates();
+        assertEquals(Map.of(sessionTemplateId1, userIds, sessionTemplateId2, List.of(userId2)), userIdsBySessionTemplate);
+        verify(mockSessionTemplatePublishedToUserRepository, times(1)).findAllIds(any());
+        verify(mockSessionTemplatePublishedToUserRepository, times(0)).findBySessionTemplateId(any());
+    }
+
     @Test
     public void testCreateSessionTemplatesBadRequest() {
         assertThrowsExactly(BadRequestException.class,
@@ -267,14 +290,16 @@ public class SessionTemplateServiceTest {
                 .addGroupsSharedWithItem(includeFilterToken2);
 
         doAnswer(invocation -> {
-            SessionTemplateUserGroupId id = invocation.getArgument(0);
-
-            if (sessionTemplatesPublished.containsKey(id.getSessionTemplateId())) {
-                return sessionTemplatesPublished.get(id.getSessionTemplateId()).contains(id.getUserGroupId());
-            }
-
-            return false;
-        }).when(mockSessionTemplatePublishedToUserGroupRepository).existsById(any());
+            String groupId = invocation.getArgument(0);
+            return publishedTo(groupId).stream().map(sessionTemplateId -> {
+                SessionTemplateUserGroupId id = new SessionTemplateUserGroupId();
+                id.setSessionTemplateId(sessionTemplateId);
+                id.setUserGroupId(groupId);
+                SessionTemplatePublishedToUserGroup published = new SessionTemplatePublishedToUserGroup();
+                published.setId(id);
+                return published;
+            }).toList();
+        }).when(mockSessionTemplatePublishedToUserGroupRepository).findByUserGroupUserGroupId(any());
 
         List<SessionTemplate> response = testSessionTemplateService.filterByGroupId(request, sessionTemplates);
         assertNotNull(response);
@@ -292,14 +317,16 @@ public class SessionTemplateServiceTest {
                 .addUsersSharedWithItem(includeFilterToken2);
 
         doAnswer(invocation -> {
-            SessionTemplateUserId id = invocation.getArgument(0);
-
-            if (sessionTemplatesPublished.containsKey(id.getSessionTemplateId())) {
-                return sessionTemplatesPublished.get(id.getSessionTemplateId()).contains(id.getUserId());
-            }
-
-            return false;
-        }).when(mockSessionTemplatePublishedToUserRepository).existsById(any());
+            String userId = invocation.getArgument(0);
+            return publishedTo(userId).stream().map(sessionTemplateId -> {
+                SessionTemplateUserId id = new SessionTemplateUserId();
+                id.setSessionTemplateId(sessionTemplateId);
+                id.setUserId(userId);
+                SessionTemplatePublishedToUser published = new SessionTemplatePublishedToUser();
+                published.setId(id);
+                return published;
+            }).toList();
+        }).when(mockSessionTemplatePublishedToUserRepository).findByUserUserId(any());
 
         List<SessionTemplate> response = testSessionTemplateService.filterByUserId(request, sessionTemplates);
         assertNotNull(response);
@@ -309,6 +336,13 @@ public class SessionTemplateServiceTest {
         assertEquals(sessionTemplateId3, response.get(2).getId());
     }
 
+    private static List<String> publishedTo(String principalId) {
+        return sessionTemplatesPublished.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(principalId))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
     @Test
     public void testFilterNullTokens() {
         DescribeSessionTemplatesRequestData request = new DescribeSessionTemplatesRequestData();
@@ -32,6 +32,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.FileInputStream;
@@ -114,6 +115,16 @@ public class UserServiceTest {
         assertFalse(testUserService.createUser(GROUP1_ID, GROUP1_ID, GROUP1_ID));
     }
 
+    @Test
+    public void getAllUsersReadsTheWholeRepository() {
+        UserEntity user1 = (UserEntity) new UserEntity().userId(USER1_ID);
+        UserEntity user2 = (UserEntity) new UserEntity().userId(USER2_ID);
+        when(mockUserRepository.findAll()).thenReturn(List.of(user1, user2));
+
+        assertEquals(List.of(user1, user2), testUserService.getAllUsers());
+        verify(mockUserRepository, times(0)).findAll(any(RepositoryRequest.class));
+    }
+
     @Test
     public void describeUsersSuccess() {
         FilterToken filterToken = new FilterToken().operator(FilterToken.OperatorEnum.EQUAL).value(GROUP1_ID);
@@ -173,15 +184,8 @@ public class UserServiceTest {
             return invocation.getArgument(1);
         }).when(mockUserFilter).getFiltered(any(DescribeUsersRequestData.class), anyList());
 
-        doAnswer(invocation -> {
-            UserGroupUser id = invocation.getArgument(0);
-
-            if (groupMembers.containsKey(id.getUserGroupId())) {
-                return groupMembers.get(id.getUserGroupId()).contains(id.getUserId());
-            }
-
-            return false;
-        }).when(mockUserGroupUserMembershipRepository).existsById(any());
+        doAnswer(invocation -> membershipsOf(invocation.getArgument(0)))
+                .when(mockUserGroupUserMembershipRepository).findByUserGroupUserGroupId(any());
 
         DescribeUsersResponse response = testUserService.describeUsers(request);
         assertNotNull(response);
@@ -209,15 +213,8 @@ public class UserServiceTest {
             return invocation.getArgument(1);
         }).when(mockUserFilter).getFiltered(any(DescribeUsersRequestData.class), anyList());
 
-        doAnswer(invocation -> {
-            UserGroupUser id = invocation.getArgument(0);
-
-            if (groupMembers.containsKey(id.getUserGroupId())) {
-                return groupMembers.get(id.getUserGroupId()).contains(id.getUserId());
-            }
-
-            return false;
-        }).when(mockUserGroupUserMembershipRepository).existsById(any());
+        doAnswer(invocation -> membershipsOf(invocation.getArgument(0)))
+                .when(mockUserGroupUserMembershipRepository).findByUserGroupUserGroupId(any());
 
         DescribeUsersResponse response = testUserService.describeUsers(request);
         assertNotNull(response);
@@ -249,15 +246,8 @@ public class UserServiceTest {
             return invocation.getArgument(1);
         }).when(mockUserFilter).getFiltered(any(DescribeUsersRequestData.class), anyList());
 
-        doAnswer(invocation -> {
-            UserGroupUser id = invocation.getArgument(0);
-
-            if (groupMembers.containsKey(id.getUserGroupId())) {
-                return groupMembers.get(id.getUserGroupId()).contains(id.getUserId());
-            }
-
-            return false;
-        }).when(mockUserGroupUserMembershipRepository).existsById(any());
+        doAnswer(invocation -> membershipsOf(invocation.getArgument(0)))
+                .when(mockUserGroupUserMembershipRepository).findByUserGroupUserGroupId(any());
 
         DescribeUsersResponse response = testUserService.describeUsers(request);
         assertNotNull(response);
@@ -267,6 +257,48 @@ public class UserServiceTest {
         assertEquals(USER3_ID, response.getUsers().get(2).getUserId());
         assertEquals(USER5_ID, response.getUsers().get(3).getUserId());
         assertEquals(USER6_ID, response.getUsers().get(4).getUserId());
+        verify(mockUserGroupUserMembershipRepository, times(2)).findByUserGroupUserGroupId(any());
+    }
+
+    @Test
+    public void testDescribeUsersWithGroupFilterTokenCaseInsensitive() {
+        ReflectionTestUtils.setField(testUserService, "caseSensitive", false);
+        FilterTokenStrict includeFilterToken = new FilterTokenStrict().operator(FilterTokenStrict.OperatorEnum.EQUAL).value(GROUP1_ID);
+        DescribeUsersRequestData request = new DescribeUsersRequestData()
+                .addUserGroupIdsItem(includeFilterToken);
+        request.setSortToken(new SortToken().operator(SortToken.OperatorEnum.ASC).key(testSortKey));
+        request.setMaxResults(5);
+
+        // The users were stored with a different case than their memberships
+        RepositoryResponse<UserEntity> mockRepositoryResponse = mock(RepositoryResponse.class);
+        List<UserEntity> userEntities = normalUsersList.stream().map(id -> (UserEntity) (new UserEntity().userId(id.toUpperCase()))).toList();
+        doReturn(userEntities).when(mockRepositoryResponse).getItems();
+        when(mockUserRepository.findAll(any(RepositoryRequest.class))).thenReturn(mockRepositoryResponse);
+
+        doAnswer(invocation -> invocation.getArgument(1))
+                .when(mockUserFilter).getFiltered(any(DescribeUsersRequestData.class), anyList());
+
+        doAnswer(invocation -> membershipsOf(invocation.getArgument(0)))
+                .when(mockUserGroupUserMembershipRepository).findByUserGroupUserGroupId(any());
+
+        DescribeUsersResponse response = testUserService.describeUsers(request);
+        assertEquals(2, response.getUsers().size());
+        assertEquals(USER1_ID.toUpperCase(), response.getUsers().get(0).getUserId());
+        assertEquals(USER2_ID.toUpperCase(), response.getUsers().get(1).getUserId());
+
+        ReflectionTestUtils.setField(testUserService, "caseSensitive", true);
+        assertTrue(testUserService.describeUsers(request).getUsers().isEmpty());
+    }
+
+    private static List<UserGroupUserMembership> membershipsOf(String groupId) {
+        return groupMembers.getOrDefault(groupId, List.of()).stream().map(userId -> {
+            UserGroupUser id = new UserGroupUser();
+            id.setUserGroupId(groupId);
+            id.setUserId(userId);
+            UserGroupUserMembership membership = new UserGroupUserMembership();
+            membership.setId(id);
+            return membership;
+        }).toList();
     }
 
     @Test
@@ -289,7 +321,7 @@ public class UserServiceTest {
         // Capture each argument passed to saveUser to verify that it was called once for each element in the CSV
         final ArgumentCaptor<UserEntity> captor = ArgumentCaptor.forClass(UserEntity.class);
 
-        ImportUsersResponse response = testUserService.importUsers(file, false, false, testRoles, userString);
+        ImportUsersResponse response = testUserService.importUsers(file, false, false, testRoles, userString).getResponse();
 
         verify(mockBatchUserSaver, times(6)).saveUser(captor.capture(), Mockito.same(false));
         verify(mockBatchUserSaver, times(1)).sendBatchAndClear();
@@ -311,7 +343,7 @@ public class UserServiceTest {
         // Capture each argument passed to saveUser to verify that it was called once for each correct element in the CSV
         final ArgumentCaptor<UserEntity> captor = ArgumentCaptor.forClass(UserEntity.class);
 
-        ImportUsersResponse response = testUserService.importUsers(file, false, false, testRoles, userString);
+        ImportUsersResponse response = testUserService.importUsers(file, false, false, testRoles, userString).getResponse();
 
         verify(mockBatchUserSaver, times(3)).saveUser(captor.capture(), Mockito.same(false));
         verify(mockBatchUserSaver, times(1)).sendBatchAndClear();
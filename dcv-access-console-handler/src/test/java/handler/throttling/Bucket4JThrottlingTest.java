@@ -5,6 +5,8 @@ package handler.throttling;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -49,4 +51,17 @@ public class Bucket4JThrottlingTest {
         assertTrue(0L < resultProbe.getNanosToWaitForRefill());
 
     }
+
+    @Test
+    public void testThrottlerPerClient() {
+        Bucket4JThrottlingService throttling = new Bucket4JThrottlingService(2, 1, 60);
+        AbstractThrottler throttler = throttling.getThrottler("test");
+
+        assertSame(throttler, throttling.getThrottler("test"));
+        assertNotSame(throttler, throttling.getThrottler("other"));
+
+        throttler.tryConsume(2);
+        assertFalse(throttling.getThrottler("test").tryConsume(1));
+        assertTrue(throttling.getThrottler("other").tryConsume(1));
+    }
 }
@@ -0,0 +1,134 @@
+// Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+// SPDX-License-Identifier: Apache-2.0
+
+package handler.throttling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+
+import handler.throttling.bucket4j.Bucket4JThrottlingService;
+
+public class ThrottlingInterceptorTest {
+    private static final String PROXY_ADDRESS = "10.0.0.1";
+
+    private MeterRegistry meterRegistry;
+    private ThrottlingInterceptor interceptor;
+
+    public void importUsers() {
+    }
+
+    public void describeUserInfo() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        interceptor = new ThrottlingInterceptor(new Bucket4JThrottlingService(10, 1, 60), "importUsers:6",
+                "10.0.0.0/24", beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private HandlerMethod handler(String methodName) throws NoSuchMethodException {
+        return new HandlerMethod(this, methodName);
+    }
+
+    private MockHttpServletRequest request(String remoteAddress, String... forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor.length > 0) {
+            request.addHeader(ThrottlingInterceptor.FORWARDED_FOR_HEADER, String.join(", ", forwardedFor));
+        }
+        return request;
+    }
+
+    private boolean preHandle(MockHttpServletRequest request, String methodName) throws Exception {
+        return interceptor.preHandle(request, new MockHttpServletResponse(), handler(methodName));
+    }
+
+    @Test
+    public void testEndpointCosts() throws Exception {
+        assertTrue(preHandle(request("192.168.0.1"), "importUsers"));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(preHandle(request("192.168.0.1"), "describeUserInfo"));
+        }
+        assertFalse(preHandle(request("192.168.0.1"), "importUsers"));
+        assertFalse(preHandle(request("192.168.0.1"), "describeUserInfo"));
+
+        assertEquals(4, meterRegistry.counter(ThrottlingInterceptor.REQUESTS_COUNTER,
+                "endpoint", "describeUserInfo", "outcome", "allowed").count());
+        assertEquals(1, meterRegistry.counter(ThrottlingInterceptor.REQUESTS_COUNTER,
+                "endpoint", "importUsers", "outcome", "throttled").count());
+    }
+
+    @Test
+    public void testThrottledResponse() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            preHandle(request("192.168.0.1"), "describeUserInfo");
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("192.168.0.1"), response, handler("describeUserInfo")));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals(ThrottlingInterceptor.THROTTLE_MESSAGE, response.getErrorMessage());
+        long retryAfter = Long.parseLong(response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter > 0 && retryAfter <= 60);
+    }
+
+    @Test
+    public void testClientsAreThrottledSeparately() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            preHandle(request("192.168.0.1"), "describeUserInfo");
+        }
+
+        assertFalse(preHandle(request("192.168.0.1"), "describeUserInfo"));
+        assertTrue(preHandle(request("192.168.0.2"), "describeUserInfo"));
+    }
+
+    @Test
+    public void testAuthenticatedUsersAreThrottledByName() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "test-user", null, AuthorityUtils.NO_AUTHORITIES));
+        for (int i = 0; i < 10; i++) {
+            preHandle(request("192.168.0.1"), "describeUserInfo");
+        }
+
+        assertFalse(preHandle(request("192.168.0.2"), "describeUserInfo"));
+        SecurityContextHolder.clearContext();
+        assertTrue(preHandle(request("192.168.0.1"), "describeUserInfo"));
+    }
+
+    @Test
+    public void testForwardedForIsOnlyTrustedFromProxies() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            preHandle(request(PROXY_ADDRESS, "spoofed", "192.168.0.1", "10.0.0.2"), "describeUserInfo");
+        }
+
+        // The trusted proxies reported the same client, whatever it claimed itself
+        assertFalse(preHandle(request(PROXY_ADDRESS, "other", "192.168.0.1"), "describeUserInfo"));
+        assertTrue(preHandle(request(PROXY_ADDRESS, "192.168.0.2"), "describeUserInfo"));
+        // The header is ignored from clients that are not trusted proxies
+        assertTrue(preHandle(request("192.168.0.3", "192.168.0.1"), "describeUserInfo"));
+    }
+}
@@ -3,7 +3,10 @@
 
 package handler.utils;
 
+import handler.authorization.engines.entities.UserChangeSet;
 import handler.persistence.UserEntity;
+import handler.persistence.UserGroupEntity;
+import handler.persistence.UserGroupUserMembership;
 import handler.repositories.UserGroupUserMembershipRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -12,11 +15,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyCollection;
@@ -69,6 +74,7 @@ public class BatchUserSaverTest {
                             return Optional.empty();
                     }
                 });
+        when(mockUserRepository.saveAll(anyCollection())).thenAnswer(invocation -> invocation.getArgument(0));
 
         for (UserEntity user : userEntitiesSet) {
             batchUserSaver.saveUser(user, true);
@@ -91,6 +97,7 @@ public class BatchUserSaverTest {
                     case "userId7" -> Optional.of((UserEntity) (new UserEntity().userId("userId7")));
                     default -> Optional.empty();
                 });
+        when(mockUserRepository.saveAll(anyCollection())).thenAnswer(invocation -> invocation.getArgument(0));
 
         for (UserEntity user : userEntitiesSet) {
             batchUserSaver.saveUser(user, false);
@@ -100,4 +107,52 @@ public class BatchUserSaverTest {
         assertEquals(7, batchUserSaver.getSuccessfulUsersList().size());
         assertEquals(3, batchUserSaver.getUnsuccessfulUsersList().size());
     }
+
+    @Test
+    public void testChangeSetContainsSavedUsersAndMemberships() {
+        BatchUserSaver batchUserSaver = new BatchUserSaver(2, 10, mockUserRepository, mockUserGroupUserMembershipRepository);
+        UserEntity user0 = (UserEntity) new UserEntity().userId("userId0");
+        UserEntity user1 = (UserEntity) new UserEntity().userId("userId1");
+        UserGroupEntity group = (UserGroupEntity) new UserGroupEntity().userGroupId("groupId");
+
+        when(mockUserRepository.findById(anyString())).thenAnswer(invocation -> switch ((String) invocation.getArgument(0)) {
+            case "userId1" -> Optional.of(user1);
+            default -> Optional.empty();
+        });
+        when(mockUserGroupUserMembershipRepository.findByUserUserId("userId1")).thenReturn(List.of());
+        when(mockUserRepository.saveAll(anyCollection())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockUserGroupUserMembershipRepository.saveAll(anyCollection())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        batchUserSaver.addUserGroupUserMemberships("userId0", new ArrayList<>(List.of(new UserGroupUserMembership(group, user0))), false);
+        batchUserSaver.saveUser(user0, false);
+        batchUserSaver.addUserGroupUserMemberships("userId1", new ArrayList<>(List.of(new UserGroupUserMembership(group, user1))), true);
+        batchUserSaver.saveUser(user1, false);
+        batchUserSaver.sendBatchAndClear();
+
+        UserChangeSet changeSet = batchUserSaver.getChangeSet();
+        assertEquals(1, changeSet.getUsers().size());
+        assertEquals("userId0", changeSet.getUsers().get(0).getUserId());
+        assertEquals(Set.of("groupId"), changeSet.getMemberships().get("userId0"));
+        assertEquals(Set.of("groupId"), changeSet.getMemberships().get("userId1"));
+        assertThat(changeSet.getReplacedMemberships()).containsExactly("userId1");
+    }
+
+    @Test
+    public void testUsersTheRepositoryDidNotSaveAreUnsuccessful() {
+        BatchUserSaver batchUserSaver = new BatchUserSaver(10, 10, mockUserRepository, mockUserGroupUserMembershipRepository);
+        UserEntity user0 = (UserEntity) new UserEntity().userId("userId0");
+        UserEntity user1 = (UserEntity) new UserEntity().userId("userId1");
+
+        when(mockUserRepository.findById(anyString())).thenReturn(Optional.empty());
+        // The repository could not write user1, so it is left out of the saved users
+        when(mockUserRepository.saveAll(anyCollection())).thenReturn(List.of(user0));
+
+        batchUserSaver.saveUser(user0, false);
+        batchUserSaver.saveUser(user1, false);
+        batchUserSaver.sendBatchAndClear();
+
+        assertEquals(List.of("userId0"), batchUserSaver.getSuccessfulUsersList());
+        assertEquals(List.of("userId1"), batchUserSaver.getUnsuccessfulUsersList());
+        assertEquals(1, batchUserSaver.getChangeSet().getUsers().size());
+    }
 }
@@ -5,8 +5,10 @@ package handler.utils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import handler.model.FilterBooleanToken;
+import handler.repositories.dto.RepositoryFilter;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -19,6 +21,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import handler.exceptions.BadRequestException;
 import handler.model.Availability;
+import handler.model.CpuInfo;
 import handler.model.DescribeServersUIRequestData;
 import handler.model.DescribeSessionsUIRequestData;
 import handler.model.DescribeSessionTemplatesRequestData;
@@ -33,6 +36,7 @@ import handler.model.FilterToken;
 import handler.model.FilterTypeToken;
 import handler.model.FilterUnavailabilityReasonToken;
 import handler.model.GetSessionScreenshotsUIRequestData;
+import handler.model.Gpu;
 import handler.model.Host;
 import handler.model.KeyValuePair;
 import handler.model.Os;
@@ -399,4 +403,54 @@ public class FilterTest {
         filteredSessionTemplates = testSessionTemplateFilter.getFiltered(sessionTemplateRequest.addDcvGlEnabledItem(filterBooleanToken), unfilteredSessionTemplates);
         assertEquals(filteredSessionTemplate, filteredSessionTemplates);
     }
+
+    @Test
+    public void testNestedAndListProperties() {
+        Server withoutHost = new Server().hostname("no-host");
+        Server withoutCpuInfo = new Server().hostname("no-cpu-info").host(new Host());
+        Server fourCpus = new Server().hostname("four-cpus")
+                .host(new Host().cpuInfo(new CpuInfo().numberOfCpus(4)).addGpusItem(new Gpu().vendor("NVIDIA")))
+                .addEndpointsItem(new Endpoint().port(8443));
+        Server eightCpus = new Server().hostname("eight-cpus")
+                .host(new Host().cpuInfo(new CpuInfo().numberOfCpus(8)).addGpusItem(new Gpu()).addGpusItem(new Gpu().vendor("AMD")))
+                .addEndpointsItem(null)
+                .addEndpointsItem(new Endpoint().port(443));
+        List<Server> servers = List.of(withoutHost, withoutCpuInfo, fourCpus, eightCpus);
+
+        DescribeServersUIRequestData numberOfCpusRequest = new DescribeServersUIRequestData()
+                .addNumberOfCpusItem(new FilterNumberToken().operator(FilterNumberToken.OperatorEnum.GREATER_THAN_OR_EQUAL_TO).value(4L));
+        assertEquals(List.of(fourCpus, eightCpus), testServerFilter.getFiltered(numberOfCpusRequest, servers));
+
+        DescribeServersUIRequestData gpuVendorsRequest = new DescribeServersUIRequestData()
+                .addGpuVendorsItem(new FilterToken().operator(FilterToken.OperatorEnum.EQUAL).value("AMD"))
+                .addGpuVendorsItem(new FilterToken().operator(FilterToken.OperatorEnum.EQUAL).value("INTEL"));
+        assertEquals(List.of(eightCpus), testServerFilter.getFiltered(gpuVendorsRequest, servers));
+
+        DescribeServersUIRequestData combinedRequest = new DescribeServersUIRequestData()
+                .addPortsItem(new FilterNumberToken().operator(FilterNumberToken.OperatorEnum.EQUAL).value(8443L))
+                .addNumberOfCpusItem(new FilterNumberToken().operator(FilterNumberToken.OperatorEnum.LESS_THAN).value(8L));
+        assertEquals(List.of(fourCpus), testServerFilter.getFiltered(combinedRequest, servers));
+    }
+
+    @Test
+    public void testGetRepositoryFilter() {
+        DescribeSessionTemplatesRequestData templateRequest = new DescribeSessionTemplatesRequestData()
+                .addNamesItem(new FilterToken().operator(FilterToken.OperatorEnum.EQUAL).value("first"))
+                .addNamesItem(new FilterToken().operator(FilterToken.OperatorEnum.CONTAINS).value("second"))
+                .addCreationTimesItem(new FilterDateToken().operator(FilterDateToken.OperatorEnum.GREATER_THAN).value("2023-07-10T00:00:00.000Z"))
+                .addDcvGlEnabledItem(new FilterBooleanToken().operator(FilterBooleanToken.OperatorEnum.EQUAL).value(true))
+                .addDescriptionsItem(new FilterToken().operator(null).value("autocomplete"))
+                .addOsFamiliesItem(new FilterOsFamilyToken().operator(FilterOsFamilyToken.OperatorEnum.EQUAL).value(OsFamily.LINUX));
+
+        RepositoryFilter repositoryFilter = testSessionTemplateFilter.getRepositoryFilter(templateRequest);
+
+        assertEquals(3, repositoryFilter.getProperties().size());
+        assertTrue(repositoryFilter.getProperties().contains(new RepositoryFilter.PropertyConditions("name", List.of(
+                new RepositoryFilter.Condition(RepositoryFilter.Operator.EQUAL, "first"),
+                new RepositoryFilter.Condition(RepositoryFilter.Operator.CONTAINS, "second")))));
+        assertTrue(repositoryFilter.getProperties().contains(new RepositoryFilter.PropertyConditions("creationTime", List.of(
+                new RepositoryFilter.Condition(RepositoryFilter.Operator.GREATER_THAN, OffsetDateTime.parse("2023-07-10T00:00:00.000Z"))))));
+        assertTrue(repositoryFilter.getProperties().contains(new RepositoryFilter.PropertyConditions("dcvGlEnabled", List.of(
+                new RepositoryFilter.Condition(RepositoryFilter.Operator.EQUAL, true)))));
+    }
 }
@@ -7,6 +7,8 @@ import handler.exceptions.BadRequestException;
 import handler.model.SessionTemplate;
 import handler.utils.NextToken;
 import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -126,6 +128,44 @@ public class NextTokenTest {
         assertTrue(serializedNextToken.contains("\"page_offset\":\"0\""));
     }
 
+    @Test
+    public void testFromKeyset() {
+        Map<String, Object> keyset = Map.of("name", "fakeName", "id", "fakeId");
+
+        NextToken actualNextToken = NextToken.fromKeyset(keyset, 2);
+        assertEquals(actualNextToken.getKeyset(), Optional.of(keyset));
+        assertEquals(actualNextToken.getPageNumber(), OptionalInt.of(2));
+        assertEquals(actualNextToken.getPageOffset(), OptionalInt.of(0));
+
+        Map<String, Object> keysetWithNull = new HashMap<>();
+        keysetWithNull.put("name", null);
+        keysetWithNull.put("id", "fakeId");
+
+        NextToken pageNumberNextToken = NextToken.fromKeyset(keysetWithNull, 2);
+        assertEquals(pageNumberNextToken.getKeyset(), Optional.empty());
+        assertEquals(pageNumberNextToken.getPageNumber(), OptionalInt.of(2));
+    }
+
+    @Test
+    public void testSerializeKeysetRoundTrip() {
+        OffsetDateTime creationTime = OffsetDateTime.parse("2024-01-02T03:04:05Z");
+        NextToken nextToken = NextToken.fromKeyset(Map.of("creationTime", creationTime, "id", "fakeId"), 1);
+
+        String serializedNextToken = NextToken.serialize(nextToken, SessionTemplate.class);
+        assertTrue(serializedNextToken.contains("\"keyset.id\":\"fakeId\""));
+
+        NextToken actualNextToken = NextToken.deserialize(serializedNextToken, SessionTemplate.class);
+        assertEquals(actualNextToken.getKeyset(), Optional.of(Map.of("creationTime", creationTime, "id", "fakeId")));
+        assertEquals(actualNextToken.getPageNumber(), OptionalInt.of(1));
+    }
+
+    @Test
+    public void testDeserializeUnknownKeysetProperty() {
+        String serializedToken = "{\"page_number\":\"1\",\"page_offset\":\"0\",\"keyset.notAProperty\":\"value\"}";
+
+        assertThrows(BadRequestException.class, () -> NextToken.deserialize(serializedToken, SessionTemplate.class));
+    }
+
     @Test
     public void testSerializeNull() {
         assertNull(NextToken.serialize(null, SessionTemplate.class));
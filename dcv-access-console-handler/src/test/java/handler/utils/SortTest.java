@@ -3,8 +3,11 @@
 
 package handler.utils;
 
+import handler.model.CpuLoadAverage;
+import handler.model.Host;
 import handler.model.Session;
 import handler.model.Server;
+import handler.model.DescribeServersUIRequestData;
 import handler.model.DescribeSessionsUIRequestData;
 import handler.model.GetSessionScreenshotsUIRequestData;
 import handler.model.SortToken;
@@ -28,6 +31,8 @@ public class SortTest {
     private Sort<DescribeSessionsUIRequestData, Session> testSort;
     @InjectMocks
     private Sort<GetSessionScreenshotsUIRequestData, Session> testBadRequestTypeSort;
+    @InjectMocks
+    private Sort<DescribeServersUIRequestData, Server> testServerSort;
     private static List<Session> unsortedSessions;
     private static List<Session> sortedAscSessions;
     private static SortToken token;
@@ -114,4 +119,19 @@ public class SortTest {
         sorted = testSort.getSorted(request, unsortedSessions);
         assertEquals(unsortedSessions, sorted);
     }
+
+    @Test
+    public void testGetSortedIntegerAndFloatKeys() {
+        Server idle = new Server().id("idle").consoleSessionCount(0).host(new Host().cpuLoadAverage(new CpuLoadAverage().oneMinute(0.25f)));
+        Server busy = new Server().id("busy").consoleSessionCount(2).host(new Host().cpuLoadAverage(new CpuLoadAverage().oneMinute(3.5f)));
+        Server unknown = new Server().id("unknown");
+        List<Server> servers = new ArrayList<>(List.of(busy, unknown, idle));
+
+        DescribeServersUIRequestData serverRequest = new DescribeServersUIRequestData()
+                .sortToken(new SortToken().operator(SortToken.OperatorEnum.ASC).key("ConsoleSessionCount"));
+        assertEquals(List.of(unknown, idle, busy), testServerSort.getSorted(serverRequest, servers));
+
+        serverRequest.setSortToken(new SortToken().operator(SortToken.OperatorEnum.DESC).key("Host.CpuLoadAverage.OneMinute"));
+        assertEquals(List.of(busy, idle, unknown), testServerSort.getSorted(serverRequest, servers));
+    }
 }